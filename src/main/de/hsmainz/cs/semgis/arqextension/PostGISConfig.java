@@ -1,5 +1,21 @@
 package de.hsmainz.cs.semgis.arqextension;
 
+import de.hsmainz.cs.semgis.arqextension.aggregate.AvgX;
+import de.hsmainz.cs.semgis.arqextension.aggregate.AvgY;
+import de.hsmainz.cs.semgis.arqextension.aggregate.AvgZ;
+import de.hsmainz.cs.semgis.arqextension.aggregate.BoundingBox;
+import de.hsmainz.cs.semgis.arqextension.aggregate.ClusterDBSCAN;
+import de.hsmainz.cs.semgis.arqextension.aggregate.ClusterIntersecting;
+import de.hsmainz.cs.semgis.arqextension.aggregate.ClusterKMeans;
+import de.hsmainz.cs.semgis.arqextension.aggregate.ClusterWithin;
+import de.hsmainz.cs.semgis.arqextension.aggregate.Collect;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MaxX;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MaxY;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MaxZ;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MinX;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MinY;
+import de.hsmainz.cs.semgis.arqextension.aggregate.MinZ;
+import de.hsmainz.cs.semgis.arqextension.aggregate.UnionAgg;
 import de.hsmainz.cs.semgis.arqextension.envelope.constructor.MakeEnvelope;
 import de.hsmainz.cs.semgis.arqextension.envelope.constructor.OctogonalEnvelope;
 import de.hsmainz.cs.semgis.arqextension.envelope.relation.BBOXAbove;
@@ -176,6 +192,11 @@ import de.hsmainz.cs.semgis.arqextension.geometry.transform.Transform;
 import de.hsmainz.cs.semgis.arqextension.geometry.transform.Translate;
 import de.hsmainz.cs.semgis.arqextension.geometry.transform.VoronoiLines;
 import de.hsmainz.cs.semgis.arqextension.geometry.transform.VoronoiPolygons;
+import de.hsmainz.cs.semgis.arqextension.index.ClusterKMeansPF;
+import de.hsmainz.cs.semgis.arqextension.index.InBoxDuringPF;
+import de.hsmainz.cs.semgis.arqextension.index.IntersectsBoxPF;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialJoinTransform;
+import de.hsmainz.cs.semgis.arqextension.index.WithinDistancePF;
 import de.hsmainz.cs.semgis.arqextension.linestring.InterpolatePoint;
 import de.hsmainz.cs.semgis.arqextension.linestring.LineLocatePoint;
 import de.hsmainz.cs.semgis.arqextension.linestring.attribute.EndPoint;
@@ -234,6 +255,7 @@ import de.hsmainz.cs.semgis.arqextension.point.constructor.GeneratePoints;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.MPointFromText;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.MakePoint;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.MakePointM;
+import de.hsmainz.cs.semgis.arqextension.point.constructor.MakePointT;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.PointFromGeoHash;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.PointFromText;
 import de.hsmainz.cs.semgis.arqextension.point.constructor.PointFromWKB;
@@ -271,12 +293,17 @@ import de.hsmainz.cs.semgis.arqextension.raster.PixelAsPoint;
 import de.hsmainz.cs.semgis.arqextension.raster.PixelAsPoints;
 import de.hsmainz.cs.semgis.arqextension.raster.PixelAsPolygon;
 import de.hsmainz.cs.semgis.arqextension.raster.PixelAsPolygons;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Aspect;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.Band;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.BandMetaData;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.BandNoDataValue;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.BandPixelType;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Count;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Curvature;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.HasNoBand;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.Height;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.HillShade;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Histogram;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.IsEmpty;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.IsGrayscale;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.IsIndexed;
@@ -290,15 +317,20 @@ import de.hsmainz.cs.semgis.arqextension.raster.attribute.NumXTiles;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.NumYTiles;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.PixelHeight;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.PixelWidth;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Quantile;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.RasterToWorldCoord;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.RasterToWorldCoordX;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.RasterToWorldCoordY;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Roughness;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.ScaleX;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.ScaleY;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.SkewX;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.SkewY;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Slope;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.Summary;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.SummaryStats;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.TPI;
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.TRI;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.TileGridXOffset;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.TileGridYOffset;
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.TileHeight;
@@ -325,6 +357,20 @@ import de.hsmainz.cs.semgis.arqextension.raster.relation.SymDifference;
 import de.hsmainz.cs.semgis.arqextension.raster.transform.Resize;
 import de.hsmainz.cs.semgis.arqextension.raster.transform.Reskew;
 import de.hsmainz.cs.semgis.arqextension.raster.transform.Retile;
+import de.hsmainz.cs.semgis.arqextension.temporal.After;
+import de.hsmainz.cs.semgis.arqextension.temporal.Before;
+import de.hsmainz.cs.semgis.arqextension.temporal.During;
+import de.hsmainz.cs.semgis.arqextension.temporal.EqualsPeriod;
+import de.hsmainz.cs.semgis.arqextension.temporal.Finishes;
+import de.hsmainz.cs.semgis.arqextension.temporal.IsMetBy;
+import de.hsmainz.cs.semgis.arqextension.temporal.Meets;
+import de.hsmainz.cs.semgis.arqextension.temporal.PeriodContains;
+import de.hsmainz.cs.semgis.arqextension.temporal.PeriodEnd;
+import de.hsmainz.cs.semgis.arqextension.temporal.PeriodOverlaps;
+import de.hsmainz.cs.semgis.arqextension.temporal.PeriodStart;
+import de.hsmainz.cs.semgis.arqextension.temporal.Starts;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalIndexPropertyFunction;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalRelation;
 import de.hsmainz.cs.semgis.arqextension.unit.CentimeterToMeter;
 import de.hsmainz.cs.semgis.arqextension.unit.ChainToMeter;
 import de.hsmainz.cs.semgis.arqextension.unit.DecimeterToMeter;
@@ -358,11 +404,18 @@ import de.hsmainz.cs.semgis.arqextension.unit.USYardToMeter;
 import de.hsmainz.cs.semgis.arqextension.unit.YardToMeter;
 import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
 import io.github.galbiston.geosparql_jena.configuration.GeoSPARQLConfig;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeDatatype;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 import io.github.galbiston.geosparql_jena.geof.nontopological.filter_functions.GetSRIDFF;
 import io.github.galbiston.geosparql_jena.geof.topological.filter_functions.geometry_property.IsSimpleFF;
 import io.github.galbiston.geosparql_jena.geof.topological.filter_functions.geometry_property.IsValidFF;
 
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.aggregate.AggregateRegistry;
 import org.apache.jena.sparql.function.FunctionRegistry;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
 
 
 public class PostGISConfig {
@@ -373,6 +426,9 @@ public class PostGISConfig {
 
         //Only register functions once.
         if (!IS_FUNCTIONS_REGISTERED) {
+            //Register the geometry and raster datatypes once, before any literal is extracted.
+            SpatialDatatypeRegistry.registerDatatypes();
+            TypeMapper.getInstance().registerDatatype(TemporalRangeDatatype.INSTANCE);
             FunctionRegistry functionRegistry = FunctionRegistry.get();
 
             //POSTGIS functionRegistry
@@ -403,7 +459,7 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_astopojson.getURI(), AsTopoJSON.class);
             functionRegistry.put(PostGISGeo.st_asjpg.getURI(), AsJPG.class);
             functionRegistry.put(PostGISGeo.st_aslatlontext.getURI(), AsLatLonText.class);            
-            //functionRegistry.put(PostGISGeo.st_aspect.getURI(), Aspect.class);
+            functionRegistry.put(PostGISGeo.st_aspect.getURI(), Aspect.class);
             functionRegistry.put(PostGISGeo.st_aspng.getURI(), AsPNG.class);
             functionRegistry.put(PostGISGeo.st_asmvtgeom.getURI(), AsMVTGeom.class);
             functionRegistry.put(PostGISGeo.st_assvg.getURI(), AsSVG.class);
@@ -445,9 +501,6 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_closestPoint.getURI(), ClosestPoint.class);
             functionRegistry.put(PostGISGeo.st_closestPoint3d.getURI(), ClosestPoint3D.class);
             functionRegistry.put(PostGISGeo.st_closestPointOfApproach.getURI(), ClosestPointOfApproach.class);
-            functionRegistry.put(PostGISGeo.st_clusterIntersecting.getURI(), ClusterIntersecting.class);
-            functionRegistry.put(PostGISGeo.st_clusterKMeans.getURI(), ClusterKMeans.class);
-            functionRegistry.put(PostGISGeo.st_clusterWithin.getURI(), ClusterWithin.class);
             functionRegistry.put(PostGISGeo.st_collectionExtract.getURI(), CollectionExtract.class);
             functionRegistry.put(PostGISGeo.st_collectionHomogenize.getURI(), CollectionHomogenize.class);
             functionRegistry.put(PostGISGeo.st_compactnessRatio.getURI(), CompactnessRatio.class);
@@ -455,6 +508,8 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_contains.getURI(), Contains.class);
             functionRegistry.put(PostGISGeo.st_containsProperly.getURI(), ContainsProperly.class);
             functionRegistry.put(PostGISGeo.st_convexHull.getURI(), ConvexHull.class);
+            functionRegistry.put(PostGISGeo.st_count.getURI(), Count.class);
+            functionRegistry.put(PostGISGeo.st_curvature.getURI(), Curvature.class);
             functionRegistry.put(PostGISGeo.st_curveToLine.getURI(), CurveToLine.class);
             functionRegistry.put(PostGISGeo.st_densify.getURI(), Densify.class);
             functionRegistry.put(PostGISGeo.st_delaunayTriangles.getURI(), DelaunayTriangles.class);
@@ -506,6 +561,8 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_hasRepeatedPoints.getURI(), HasRepeatedPoints.class);
             functionRegistry.put(PostGISGeo.st_height.getURI(), Height.class);
             functionRegistry.put(PostGISGeo.st_hausdorffDistance.getURI(), HausdorffDistance.class);
+            functionRegistry.put(PostGISGeo.st_hillShade.getURI(), HillShade.class);
+            functionRegistry.put(PostGISGeo.st_histogram.getURI(), Histogram.class);
             functionRegistry.put(PostGISGeo.st_interiorRingN.getURI(), InteriorRingN.class);
             functionRegistry.put(PostGISGeo.st_interpolatePoint.getURI(), InterpolatePoint.class);
             functionRegistry.put(PostGISGeo.st_intersectionMatrix.getURI(), IntersectionMatrix.class);
@@ -573,6 +630,7 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_makeLine.getURI(), MakeLine.class);
             functionRegistry.put(PostGISGeo.st_makePoint.getURI(), MakePoint.class);
             functionRegistry.put(PostGISGeo.st_makePointM.getURI(), MakePointM.class);
+            functionRegistry.put(PostGISGeo.st_makePointT.getURI(), MakePointT.class);
             functionRegistry.put(PostGISGeo.st_makePolygon.getURI(), MakePolygon.class);
             functionRegistry.put(PostGISGeo.st_makeValid.getURI(), MakeValid.class);
             functionRegistry.put(PostGISGeo.st_memsize.getURI(), MemSize.class);
@@ -637,6 +695,7 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_polygonFromText.getURI(), PolygonFromText.class);
             functionRegistry.put(PostGISGeo.st_polygonFromWKB.getURI(), PolygonFromWKB.class);
             functionRegistry.put(PostGISGeo.st_precisionReducer.getURI(), PrecisionReducer.class);
+            functionRegistry.put(PostGISGeo.st_quantile.getURI(), Quantile.class);
             functionRegistry.put(PostGISGeo.st_rastFromWKB.getURI(), RastFromWKB.class);
             functionRegistry.put(PostGISGeo.st_rastFromHexWKB.getURI(), RastFromHexWKB.class);
             functionRegistry.put(PostGISGeo.st_rast_algebra_add.getURI(), de.hsmainz.cs.semgis.arqextension.raster.algebra.Add.class);
@@ -702,6 +761,7 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_rotateX.getURI(), RotateX.class);
             functionRegistry.put(PostGISGeo.st_rotateY.getURI(), RotateY.class);
             functionRegistry.put(PostGISGeo.st_rotateZ.getURI(), RotateZ.class);
+            functionRegistry.put(PostGISGeo.st_roughness.getURI(), Roughness.class);
             functionRegistry.put(PostGISGeo.st_scale.getURI(), Scale.class);
             functionRegistry.put(PostGISGeo.st_scaleX.getURI(), ScaleX.class);
             functionRegistry.put(PostGISGeo.st_scaleY.getURI(), ScaleY.class);
@@ -723,7 +783,7 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_simplifyVW.getURI(), SimplifyVW.class);
             functionRegistry.put(PostGISGeo.st_skewX.getURI(), SkewX.class);
             functionRegistry.put(PostGISGeo.st_skewY.getURI(), SkewY.class);
-            //functionRegistry.put(PostGISGeo.st_slope.getURI(), Slope.class);            
+            functionRegistry.put(PostGISGeo.st_slope.getURI(), Slope.class);
             functionRegistry.put(PostGISGeo.st_snap.getURI(), Snap.class);
             functionRegistry.put(PostGISGeo.st_split.getURI(), Split.class);
             functionRegistry.put(PostGISGeo.st_srid.getURI(), GetSRIDFF.class);
@@ -746,6 +806,8 @@ public class PostGISConfig {
             functionRegistry.put(PostGISGeo.st_tileheight.getURI(), TileHeight.class);
             functionRegistry.put(PostGISGeo.st_toDegrees.getURI(), ToDegrees.class);
             functionRegistry.put(PostGISGeo.st_toRadians.getURI(), ToRadians.class);
+            functionRegistry.put(PostGISGeo.st_tpi.getURI(), TPI.class);
+            functionRegistry.put(PostGISGeo.st_tri.getURI(), TRI.class);
             functionRegistry.put(PostGISGeo.st_transscale.getURI(), TransScale.class);
             functionRegistry.put(PostGISGeo.st_translate.getURI(), Translate.class);
             functionRegistry.put(PostGISGeo.st_transform.getURI(), Transform.class);
@@ -808,11 +870,68 @@ public class PostGISConfig {
             functionRegistry.put(Constants.SPATIAL_FUNCTION_NS + "transform", Transform.class);
             //functionRegistry.put(Constants.SPATIAL_FUNCTION_NS + "makeWKTPoint", CreateWKTPoint.class);
             //functionRegistry.put(Constants.SPATIAL_FUNCTION_NS + "WKTToGeometryPoint", LiteralToGeometryType.class);
+            //Temporal range functions
+            functionRegistry.put(PostGISGeo.st_after.getURI(), After.class);
+            functionRegistry.put(PostGISGeo.st_before.getURI(), Before.class);
+            functionRegistry.put(PostGISGeo.st_during.getURI(), During.class);
+            functionRegistry.put(PostGISGeo.st_equalsPeriod.getURI(), EqualsPeriod.class);
+            functionRegistry.put(PostGISGeo.st_finishes.getURI(), Finishes.class);
+            functionRegistry.put(PostGISGeo.st_isMetBy.getURI(), IsMetBy.class);
+            functionRegistry.put(PostGISGeo.st_meets.getURI(), Meets.class);
+            functionRegistry.put(PostGISGeo.st_periodContains.getURI(), PeriodContains.class);
+            functionRegistry.put(PostGISGeo.st_periodEnd.getURI(), PeriodEnd.class);
+            functionRegistry.put(PostGISGeo.st_periodOverlaps.getURI(), PeriodOverlaps.class);
+            functionRegistry.put(PostGISGeo.st_periodStart.getURI(), PeriodStart.class);
+            functionRegistry.put(PostGISGeo.st_starts.getURI(), Starts.class);
+            //Aggregates
+            AggregateRegistry.register(PostGISGeo.st_avgX.getURI(), AvgX.FACTORY, NodeValue.nvZERO.asNode());
+            AggregateRegistry.register(PostGISGeo.st_avgY.getURI(), AvgY.FACTORY, NodeValue.nvZERO.asNode());
+            AggregateRegistry.register(PostGISGeo.st_avgZ.getURI(), AvgZ.FACTORY, NodeValue.nvZERO.asNode());
+            AggregateRegistry.register(PostGISGeo.st_boundingBox.getURI(), BoundingBox.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_clusterDBSCAN.getURI(), ClusterDBSCAN.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_clusterIntersecting.getURI(), ClusterIntersecting.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_clusterKMeans.getURI(), ClusterKMeans.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_clusterWithin.getURI(), ClusterWithin.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_collect.getURI(), Collect.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_extent.getURI(), BoundingBox.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_maxX.getURI(), MaxX.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_maxY.getURI(), MaxY.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_maxZ.getURI(), MaxZ.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_minX.getURI(), MinX.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_minY.getURI(), MinY.FACTORY, null);
+            AggregateRegistry.register(PostGISGeo.st_minZ.getURI(), MinZ.FACTORY, null);
+            //ST_Union stays the binary function, the aggregate has its own name
+            AggregateRegistry.register(PostGISGeo.st_unionAgg.getURI(), UnionAgg.FACTORY, null);
+            //Spatial index property functions
+            PropertyFunctionRegistry propertyFunctionRegistry = PropertyFunctionRegistry.get();
+            propertyFunctionRegistry.put(PostGISGeo.intersectsBox.getURI(), IntersectsBoxPF.class);
+            propertyFunctionRegistry.put(PostGISGeo.withinDistance.getURI(), WithinDistancePF.class);
+            propertyFunctionRegistry.put(PostGISGeo.near.getURI(), Near.class);
+            propertyFunctionRegistry.put(PostGISGeo.inBoxDuring.getURI(), InBoxDuringPF.class);
+            //Per solution cluster ids of ST_ClusterKMeans, the aggregate form is registered above
+            propertyFunctionRegistry.put(PostGISGeo.st_clusterKMeans.getURI(), ClusterKMeansPF.class);
+            //Temporal index property functions
+            for (TemporalRelation relation : TemporalRelation.values()) {
+                propertyFunctionRegistry.put(relation.getPropertyFunction().getURI(), TemporalIndexPropertyFunction.factory(relation));
+            }
             System.out.println(functionRegistry);
             GeoSPARQLConfig.setupMemoryIndex();
+            //Index-backed evaluation of spatial FILTER joins
+            SpatialJoinTransform.register();
             IS_FUNCTIONS_REGISTERED = true;
         }
     }
+
+    /**
+     * Registers the functions and resolves the coordinate reference systems of
+     * the given EPSG codes ahead of the first literal using them.
+     *
+     * @param warmUpSRIDs EPSG codes, e.g. 4326.
+     */
+    public static final void setup(int... warmUpSRIDs) {
+        setup();
+        CRSCache.warmUp(warmUpSRIDs);
+    }
     public static void main(String[] args) {
     	setup();
     }
@@ -1,113 +1,57 @@
 package de.hsmainz.cs.semgis.arqextension.aggregate;
 
 import org.apache.jena.graph.Node;
-import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.expr.Expr;
-import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.ExprList;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.expr.aggregate.Accumulator;
-import org.apache.jena.sparql.expr.aggregate.AccumulatorExpr;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
 import org.apache.jena.sparql.expr.aggregate.Aggregator;
 import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
-import org.apache.jena.sparql.expr.nodevalue.XSDFuncOp;
-import org.apache.jena.sparql.function.FunctionEnv;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Geometry;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import org.locationtech.jts.geom.CoordinateSequence;
 
+/**
+ * Mean Y coordinate of the geometries of a group, zero for a group without coordinates.
+ */
 public class AvgY extends AggregatorBase {
 
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new OrdinateAccumulator.Avg(agg.getExpr(), distinct, CoordinateSequence.Y);
+
 	protected AvgY(boolean isDistinct, Expr expr) {
-		super("AVGY", false, expr);
-		// TODO Auto-generated constructor stub
+		super("AVGY", isDistinct, expr);
 	}
-	
-	 public AvgY(Expr expr) { super("AVGY", false, expr) ; } 
-	    
-	    private static Logger log = LoggerFactory.getLogger("AVGY") ;
-
-	    @Override
-	    public Aggregator copy(ExprList expr) { return new AvgY(expr.get(0)) ; }
-
-	    // XQuery/XPath Functions&Operators suggests zero
-	    // SQL suggests null.
-	    private static final NodeValue noValuesToAvg = NodeValue.nvZERO ; // null 
-
-	    @Override
-	    public Accumulator createAccumulator()
-	    { 
-	        return new AccAvgY(getExpr()) ;
-	    }
-
-	    @Override
-	    public Node getValueEmpty()     { return NodeValue.toNode(noValuesToAvg) ; } 
-	    
-	    @Override
-	    public int hashCode()   { return HC_AggAvg ^ getExprList().hashCode() ; }
 
-	    @Override
-	    public boolean equals(Aggregator other, boolean bySyntax) {
-	        if ( other == null ) return false ;
-	        if ( this == other ) return true ;
-	        if ( ! ( other instanceof AvgY ) ) return false ;
-	        AvgY a = (AvgY)other ;
-	        return exprList.equals(a.exprList, bySyntax) ;
-	    }
-	
-	
-	private static class AccAvgY extends AccumulatorExpr
- {
-     // Non-empty case but still can be nothing because the expression may be undefined.
-     private NodeValue total = noValuesToAvg ;
-     private int count = 0 ;
+	public AvgY(Expr expr) {
+		this(false, expr);
+	}
 
-     public AccAvgY(Expr expr) { super(expr, false) ; }
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new AvgY(exprs.get(0));
+	}
 
-     @Override
-     protected void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv)
-     { 
-			log.debug("avg {}", nv);
-			GeometryWrapper geometry = GeometryWrapper.extract(nv);
-         Geometry geo=geometry.getParsingGeometry();
-         if ( nv.isNumber() ) {
-         for(Coordinate coord:geo.getCoordinates()) {
-         	NodeValue nvy=NodeValue.makeDouble(coord.getY());            	
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof AvgY)) return false;
+		AvgY agg = (AvgY) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
 
-             if ( total == noValuesToAvg )
-                 total = nvy ;
-             else
-                 total = XSDFuncOp.numAdd(nvy, total) ;
-             count++ ;
-         }
-         }
-         else
-         {
-             //ARQ.getExecLogger().warn("Evaluation error: avg() on "+nv) ;
-             throw new ExprEvalException("avg: not a number: "+nv) ;
-         }
+	@Override
+	public Accumulator createAccumulator() {
+		return new OrdinateAccumulator.Avg(getExpr(), isDistinct, CoordinateSequence.Y);
+	}
 
-         log.debug("avg count {}", count);
+	@Override
+	public Node getValueEmpty() {
+		return NodeValue.toNode(NodeValue.nvZERO);
+	}
 
-     }
-     
-     @Override
-     protected void accumulateError(Binding binding, FunctionEnv functionEnv)
-     {}
+	@Override
+	public int hashCode() {
+		return (isDistinct ? HC_AggAvgDistinct : HC_AggAvg) ^ getExprList().hashCode();
+	}
 
-     @Override
-     public NodeValue getAccValue()
-     {
-         if ( count == 0 ) return noValuesToAvg ;
-         if ( super.errorCount != 0 )
-             //throw new ExprEvalException("avg: error in group") ; 
-             return null ;
-         NodeValue nvCount = NodeValue.makeInteger(count) ;
-         return XSDFuncOp.numDivide(total, nvCount) ;
-     }
- }
-	
 }
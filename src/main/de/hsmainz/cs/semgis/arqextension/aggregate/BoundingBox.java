@@ -1,47 +1,47 @@
 package de.hsmainz.cs.semgis.arqextension.aggregate;
 
 import org.apache.jena.graph.Node;
-import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.sparql.expr.ExprList;
-import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.expr.aggregate.Accumulator;
-import org.apache.jena.sparql.expr.aggregate.AccumulatorExpr;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
 import org.apache.jena.sparql.expr.aggregate.Aggregator;
 import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
-import org.apache.jena.sparql.function.FunctionEnv;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Envelope;
-import org.locationtech.jts.geom.Geometry;
-
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
 
+/**
+ * Envelope polygon of the geometries of a group in the SRS of the first
+ * geometry, unbound for a group without coordinates. Also registered as
+ * ST_Extent.
+ */
 public class BoundingBox extends AggregatorBase {
 
-	protected BoundingBox(Expr expr) {
-		super("BBOX", true, expr);
-		// TODO Auto-generated constructor stub
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new PartialAccumulator<>(agg.getExpr(), distinct, new ExtentPartial());
+
+	protected BoundingBox(boolean isDistinct, Expr expr) {
+		super("BBOX", isDistinct, expr);
+	}
+
+	public BoundingBox(Expr expr) {
+		this(false, expr);
 	}
 
 	@Override
 	public Aggregator copy(ExprList exprs) {
-		return new BoundingBox(exprs.get(0)) ;
+		return new BoundingBox(exprs.get(0));
 	}
 
 	@Override
 	public boolean equals(Aggregator other, boolean bySyntax) {
-		if ( other == null ) return false ;
-        if ( this == other ) return true ; 
-        if ( ! ( other instanceof BoundingBox ) )
-            return false ;
-        BoundingBox agg = (BoundingBox)other ;
-        return exprList.equals(agg.exprList, bySyntax) ;
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof BoundingBox)) return false;
+		BoundingBox agg = (BoundingBox) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
 	}
 
 	@Override
 	public Accumulator createAccumulator() {
-		return new AccBBOX(getExpr());
+		return new PartialAccumulator<>(getExpr(), isDistinct, new ExtentPartial());
 	}
 
 	@Override
@@ -51,55 +51,7 @@ public class BoundingBox extends AggregatorBase {
 
 	@Override
 	public int hashCode() {
-		return getExpr().hashCode() ;
+		return getExprList().hashCode() ^ (isDistinct ? 1 : 0);
 	}
-	
-	private static class AccBBOX extends AccumulatorExpr
-    {
-        // Non-empty case but still can be nothing because the expression may be undefined.
-        private NodeValue maxXSoFar = null ;     
-        private NodeValue maxYSoFar = null ;
-        private NodeValue minXSoFar = null ;
-        private NodeValue minYSoFar = null ;
-
-        public AccBBOX(Expr expr) { super(expr, false) ; }
-
-        @Override
-        public void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv)
-        { 
-        	GeometryWrapper geometry = GeometryWrapper.extract(nv);
-            Geometry geo=geometry.getParsingGeometry();
-        	NodeValue localMaxX=NodeValue.makeDouble(geo.getEnvelopeInternal().getMaxX());
-        	NodeValue localMaxY=NodeValue.makeDouble(geo.getEnvelopeInternal().getMaxY());
-        	NodeValue localMinX=NodeValue.makeDouble(geo.getEnvelopeInternal().getMinX());
-        	NodeValue localMinY=NodeValue.makeDouble(geo.getEnvelopeInternal().getMinY());
-        	if(minXSoFar==null) {
-        		minXSoFar=localMinX;
-        	}
-            int x = NodeValue.compareAlways(maxXSoFar, localMaxX) ;
-            if ( x < 0 )
-                maxXSoFar = localMaxX ;
-            x = NodeValue.compareAlways(maxYSoFar, localMaxY) ;
-            if ( x < 0 )
-                maxYSoFar = localMaxY ;
-            x = NodeValue.compareAlways(maxYSoFar, localMinX) ;
-            if ( x > 0 )
-                minXSoFar = localMinX ;
-            x = NodeValue.compareAlways(maxYSoFar, localMinY) ;
-            if ( x > 0 )
-                minYSoFar = localMinY ;
-        }
-
-        @Override
-        protected void accumulateError(Binding binding, FunctionEnv functionEnv)
-        {}
-
-        @Override
-        public NodeValue getAccValue()
-        { 
-        	Envelope env=new Envelope(new Coordinate(minXSoFar.getDouble(), minYSoFar.getDouble()), new Coordinate(maxXSoFar.getDouble(),maxYSoFar.getDouble()));
-        	return GeometryWrapperFactory.createPolygon(env, "http://www.opengis.net/ont/geosparql#wktLiteral").asNodeValue();
-        }
-    }
 
 }
@@ -0,0 +1,132 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionEnv;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+
+/**
+ * Accumulator of a clustering aggregate. The geometries of the group are kept
+ * in the SRS of the first one and clustered once the group is complete. The
+ * result is a geometry collection holding a geometry collection per cluster, in
+ * the order of the first geometry of each cluster. Geometries in no cluster are
+ * left out.
+ * <p>
+ * The arguments after the geometry, such as the distance, are evaluated with
+ * the first solution of the group.
+ */
+public abstract class ClusterAccumulator extends GeometryAccumulator {
+
+	private final ExprList args;
+
+	private double[] parameters = null;
+
+	private final List<Geometry> geometries = new ArrayList<>();
+
+	private GeometryWrapper first = null;
+
+	/**
+	 *
+	 * @param args The geometry expression followed by the numeric parameters of the clustering.
+	 * @param makeDistinct Whether the geometries of the group are made distinct.
+	 * @param parameterCount The number of numeric parameters.
+	 */
+	protected ClusterAccumulator(ExprList args, boolean makeDistinct, int parameterCount) {
+		super(args.get(0), makeDistinct);
+		if (args.size() != parameterCount + 1) {
+			throw new QueryBuildException("Expected a geometry and " + parameterCount + " parameters: " + args);
+		}
+		this.args = args;
+	}
+
+	@Override
+	protected void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv) {
+		if (parameters == null) {
+			double[] values = new double[args.size() - 1];
+			for (int i = 0; i < values.length; i++) {
+				NodeValue value = args.get(i + 1).eval(binding, functionEnv);
+				if (!value.isNumber()) {
+					throw new ExprEvalException("Not a number: " + value);
+				}
+				values[i] = value.getDouble();
+			}
+			parameters = values;
+		}
+		super.accumulate(nv, binding, functionEnv);
+	}
+
+	@Override
+	protected void accumulate(GeometryWrapper geometry) {
+		if (first == null) {
+			first = geometry;
+		} else if (!first.getSrsURI().equals(geometry.getSrsURI())) {
+			try {
+				geometry = first.checkTransformSRS(geometry);
+			} catch (FactoryException | MismatchedDimensionException | TransformException ex) {
+				throw new ExprEvalException(ex.getMessage(), ex);
+			}
+		}
+		geometries.add(geometry.getParsingGeometry());
+	}
+
+	/**
+	 *
+	 * @param geometries The geometries of the group.
+	 * @param parameters The values of the arguments after the geometry.
+	 * @return The cluster id of each geometry, {@link DensityClustering#NOISE} if it is in no cluster.
+	 */
+	protected abstract int[] cluster(List<Geometry> geometries, double[] parameters);
+
+	@Override
+	protected NodeValue getAccValue() {
+		if (first == null) {
+			return null;
+		}
+		int[] ids;
+		try {
+			ids = cluster(geometries, parameters);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+		int clusterCount = 0;
+		int[] sizes = new int[geometries.size()];
+		for (int id : ids) {
+			if (id != DensityClustering.NOISE) {
+				sizes[id]++;
+				clusterCount = Math.max(clusterCount, id + 1);
+			}
+		}
+		Geometry[][] members = new Geometry[clusterCount][];
+		for (int c = 0; c < clusterCount; c++) {
+			members[c] = new Geometry[sizes[c]];
+			sizes[c] = 0;
+		}
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] != DensityClustering.NOISE) {
+				members[ids[i]][sizes[ids[i]]++] = geometries.get(i);
+			}
+		}
+		GeometryFactory factory = first.getParsingGeometry().getFactory();
+		GeometryCollection[] clusters = new GeometryCollection[clusterCount];
+		for (int c = 0; c < clusterCount; c++) {
+			clusters[c] = factory.createGeometryCollection(members[c]);
+		}
+		return GeometryWrapperFactory.createGeometry(factory.createGeometryCollection(clusters), first.getSrsURI(), first.getGeometryDatatypeURI()).asNodeValue();
+	}
+
+}
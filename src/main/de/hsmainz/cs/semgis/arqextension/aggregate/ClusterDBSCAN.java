@@ -0,0 +1,75 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+import org.locationtech.jts.geom.Geometry;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+
+/**
+ * Aggregate ST_ClusterDBSCAN(geometry, eps, minPoints). Returns a
+ * GeometryCollection holding a GeometryCollection per DBSCAN cluster, noise
+ * geometries are left out. SPARQL has no window functions, so the cluster ids
+ * of the rows are not returned, see {@link DensityClustering#dbscan(List, double, int)}.
+ */
+public class ClusterDBSCAN extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new AccClusterDBSCAN(agg.getExprList(), distinct);
+
+	protected ClusterDBSCAN(boolean isDistinct, ExprList exprs) {
+		super("CLUSTERDBSCAN", isDistinct, exprs);
+	}
+
+	public ClusterDBSCAN(ExprList exprs) {
+		this(false, exprs);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new ClusterDBSCAN(isDistinct, exprs);
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof ClusterDBSCAN)) return false;
+		ClusterDBSCAN agg = (ClusterDBSCAN) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new AccClusterDBSCAN(getExprList(), isDistinct);
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "CLUSTERDBSCAN".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+	private static class AccClusterDBSCAN extends ClusterAccumulator {
+
+		AccClusterDBSCAN(ExprList args, boolean makeDistinct) {
+			super(args, makeDistinct, 2);
+		}
+
+		@Override
+		protected int[] cluster(List<Geometry> geometries, double[] parameters) {
+			return DensityClustering.dbscan(geometries, parameters[0], (int) parameters[1]);
+		}
+
+	}
+
+}
@@ -0,0 +1,74 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+import org.locationtech.jts.geom.Geometry;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+
+/**
+ * Aggregate ST_ClusterIntersecting(geometry). Returns a GeometryCollection
+ * holding a GeometryCollection per set of geometries connected by chains of
+ * intersecting geometries.
+ */
+public class ClusterIntersecting extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new AccClusterIntersecting(agg.getExprList(), distinct);
+
+	protected ClusterIntersecting(boolean isDistinct, ExprList exprs) {
+		super("CLUSTERINTERSECTING", isDistinct, exprs);
+	}
+
+	public ClusterIntersecting(ExprList exprs) {
+		this(false, exprs);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new ClusterIntersecting(isDistinct, exprs);
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof ClusterIntersecting)) return false;
+		ClusterIntersecting agg = (ClusterIntersecting) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new AccClusterIntersecting(getExprList(), isDistinct);
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "CLUSTERINTERSECTING".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+	private static class AccClusterIntersecting extends ClusterAccumulator {
+
+		AccClusterIntersecting(ExprList args, boolean makeDistinct) {
+			super(args, makeDistinct, 0);
+		}
+
+		@Override
+		protected int[] cluster(List<Geometry> geometries, double[] parameters) {
+			return DensityClustering.clusterIntersecting(geometries);
+		}
+
+	}
+
+}
@@ -0,0 +1,96 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+import org.locationtech.jts.geom.Geometry;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+import de.hsmainz.cs.semgis.arqextension.index.KMeansClustering;
+
+/**
+ * Aggregate ST_ClusterKMeans(geometry, k). Returns a GeometryCollection holding
+ * a GeometryCollection per k-means cluster of the centroids of the geometries,
+ * see {@link KMeansClustering}. Empty geometries are left out. The cluster id
+ * of each solution is bound by the property function of the same name, see
+ * {@link de.hsmainz.cs.semgis.arqextension.index.ClusterKMeansPF}.
+ */
+public class ClusterKMeans extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new AccClusterKMeans(agg.getExprList(), distinct);
+
+	protected ClusterKMeans(boolean isDistinct, ExprList exprs) {
+		super("CLUSTERKMEANS", isDistinct, exprs);
+	}
+
+	public ClusterKMeans(ExprList exprs) {
+		this(false, exprs);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new ClusterKMeans(isDistinct, exprs);
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof ClusterKMeans)) return false;
+		ClusterKMeans agg = (ClusterKMeans) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new AccClusterKMeans(getExprList(), isDistinct);
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "CLUSTERKMEANS".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+	private static class AccClusterKMeans extends ClusterAccumulator {
+
+		AccClusterKMeans(ExprList args, boolean makeDistinct) {
+			super(args, makeDistinct, 1);
+		}
+
+		@Override
+		protected int[] cluster(List<Geometry> geometries, double[] parameters) {
+			double[] x = new double[geometries.size()];
+			double[] y = new double[geometries.size()];
+			double[] xy = new double[2];
+			int[] points = new int[geometries.size()];
+			int count = 0;
+			for (int i = 0; i < points.length; i++) {
+				if (KMeansClustering.centroid(geometries.get(i), xy)) {
+					x[count] = xy[0];
+					y[count] = xy[1];
+					points[i] = count++;
+				} else {
+					points[i] = DensityClustering.NOISE;
+				}
+			}
+			int[] clusters = new KMeansClustering((int) parameters[0]).cluster(x, y, count);
+			int[] ids = new int[points.length];
+			for (int i = 0; i < points.length; i++) {
+				ids[i] = points[i] == DensityClustering.NOISE ? DensityClustering.NOISE : clusters[points[i]];
+			}
+			return ids;
+		}
+
+	}
+
+}
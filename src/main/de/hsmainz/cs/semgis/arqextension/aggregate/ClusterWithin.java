@@ -0,0 +1,74 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+import org.locationtech.jts.geom.Geometry;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+
+/**
+ * Aggregate ST_ClusterWithin(geometry, distance). Returns a GeometryCollection
+ * holding a GeometryCollection per set of geometries connected by chains of
+ * geometries separated by no more than the distance.
+ */
+public class ClusterWithin extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new AccClusterWithin(agg.getExprList(), distinct);
+
+	protected ClusterWithin(boolean isDistinct, ExprList exprs) {
+		super("CLUSTERWITHIN", isDistinct, exprs);
+	}
+
+	public ClusterWithin(ExprList exprs) {
+		this(false, exprs);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new ClusterWithin(isDistinct, exprs);
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof ClusterWithin)) return false;
+		ClusterWithin agg = (ClusterWithin) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new AccClusterWithin(getExprList(), isDistinct);
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "CLUSTERWITHIN".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+	private static class AccClusterWithin extends ClusterAccumulator {
+
+		AccClusterWithin(ExprList args, boolean makeDistinct) {
+			super(args, makeDistinct, 1);
+		}
+
+		@Override
+		protected int[] cluster(List<Geometry> geometries, double[] parameters) {
+			return DensityClustering.clusterWithin(geometries, parameters[0]);
+		}
+
+	}
+
+}
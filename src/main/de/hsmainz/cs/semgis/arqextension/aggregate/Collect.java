@@ -0,0 +1,56 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+
+/**
+ * Collection of the geometries of a group, following ST_Collect. Unbound for
+ * a group without geometries.
+ */
+public class Collect extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new PartialAccumulator<>(agg.getExpr(), distinct, new CollectPartial());
+
+	protected Collect(boolean isDistinct, Expr expr) {
+		super("COLLECT", isDistinct, expr);
+	}
+
+	public Collect(Expr expr) {
+		this(false, expr);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new Collect(exprs.get(0));
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof Collect)) return false;
+		Collect agg = (Collect) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new PartialAccumulator<>(getExpr(), isDistinct, new CollectPartial());
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "COLLECT".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+}
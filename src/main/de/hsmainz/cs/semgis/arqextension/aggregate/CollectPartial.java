@@ -0,0 +1,56 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.Arrays;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Geometries of a group in an array that grows by doubling.
+ */
+public class CollectPartial implements GeometryPartial {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Geometry[] geometries = new Geometry[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	@Override
+	public void add(Geometry geometry) {
+		if (size == geometries.length) {
+			geometries = Arrays.copyOf(geometries, size * 2);
+		}
+		geometries[size++] = geometry;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Multi geometry if all geometries are of the same type, a geometry
+	 * collection otherwise, following ST_Collect.
+	 */
+	@Override
+	public Geometry getResult(GeometryFactory factory) {
+		if (size == 0) {
+			return null;
+		}
+		if (size == 1) {
+			Geometry geometry = geometries[0];
+			if (geometry instanceof Point) {
+				return factory.createMultiPoint(new Point[] { (Point) geometry });
+			} else if (geometry instanceof LineString) {
+				return factory.createMultiLineString(new LineString[] { (LineString) geometry });
+			} else if (geometry instanceof Polygon) {
+				return factory.createMultiPolygon(new Polygon[] { (Polygon) geometry });
+			}
+		}
+		return factory.buildGeometry(Arrays.asList(geometries).subList(0, size));
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+/**
+ * Envelope of the geometries of a group, expanded by the cached envelope of
+ * each geometry.
+ */
+public class ExtentPartial implements GeometryPartial {
+
+	private final Envelope envelope = new Envelope();
+
+	@Override
+	public void add(Geometry geometry) {
+		envelope.expandToInclude(geometry.getEnvelopeInternal());
+	}
+
+	public Envelope getEnvelope() {
+		return envelope;
+	}
+
+	@Override
+	public Geometry getResult(GeometryFactory factory) {
+		return envelope.isNull() ? null : factory.toGeometry(envelope);
+	}
+
+}
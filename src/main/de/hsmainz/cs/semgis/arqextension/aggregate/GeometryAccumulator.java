@@ -0,0 +1,44 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorExpr;
+import org.apache.jena.sparql.function.FunctionEnv;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+
+/**
+ * Accumulator over the geometry literals of a group. Values that are not
+ * geometry literals count as evaluation errors of the group.
+ */
+public abstract class GeometryAccumulator extends AccumulatorExpr {
+
+	protected GeometryAccumulator(Expr expr, boolean makeDistinct) {
+		super(expr, makeDistinct);
+	}
+
+	@Override
+	protected void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv) {
+		GeometryWrapper geometry;
+		try {
+			geometry = GeometryWrapper.extract(nv);
+		} catch (DatatypeFormatException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+		accumulate(geometry);
+	}
+
+	/**
+	 * Adds a geometry of the group.
+	 * @param geometry The geometry.
+	 */
+	protected abstract void accumulate(GeometryWrapper geometry);
+
+	@Override
+	protected void accumulateError(Binding binding, FunctionEnv functionEnv) {
+	}
+
+}
@@ -0,0 +1,25 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+/**
+ * State of a geometry aggregate over a group, from which the result of the
+ * group is computed once all geometries are added.
+ */
+public interface GeometryPartial {
+
+	/**
+	 * Adds a geometry of the group.
+	 * @param geometry The geometry in the SRS of the group.
+	 */
+	void add(Geometry geometry);
+
+	/**
+	 *
+	 * @param factory The factory of the result.
+	 * @return The result of the aggregate or null if no geometry was added.
+	 */
+	Geometry getResult(GeometryFactory factory);
+
+}
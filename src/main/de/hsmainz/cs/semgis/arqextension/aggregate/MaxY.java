@@ -1,49 +1,46 @@
 package de.hsmainz.cs.semgis.arqextension.aggregate;
 
 import org.apache.jena.graph.Node;
-import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.sparql.expr.ExprList;
-import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.expr.aggregate.Accumulator;
-import org.apache.jena.sparql.expr.aggregate.AccumulatorExpr;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
 import org.apache.jena.sparql.expr.aggregate.Aggregator;
 import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
-import org.apache.jena.sparql.function.FunctionEnv;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Geometry;
-
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import org.locationtech.jts.geom.CoordinateSequence;
 
+/**
+ * Maximum Y coordinate of the geometries of a group, unbound for a group without coordinates.
+ */
 public class MaxY extends AggregatorBase {
 
-	protected MaxY(String name, boolean isDistinct, Expr expr) {
-		super("MAXY", true, expr);
-		// TODO Auto-generated constructor stub
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new OrdinateAccumulator.Max(agg.getExpr(), distinct, CoordinateSequence.Y);
+
+	protected MaxY(boolean isDistinct, Expr expr) {
+		super("MAXY", isDistinct, expr);
 	}
-	
-	protected MaxY(Expr expr) {
-		super("MAXY", false, expr);
+
+	public MaxY(Expr expr) {
+		this(false, expr);
 	}
 
 	@Override
 	public Aggregator copy(ExprList exprs) {
-		return new MaxY(exprs.get(0)) ;
+		return new MaxY(exprs.get(0));
 	}
 
 	@Override
 	public boolean equals(Aggregator other, boolean bySyntax) {
-		if ( other == null ) return false ;
-        if ( this == other ) return true ; 
-        if ( ! ( other instanceof MaxY ) )
-            return false ;
-        MaxY agg = (MaxY)other ;
-        return exprList.equals(agg.exprList, bySyntax) ;
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof MaxY)) return false;
+		MaxY agg = (MaxY) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
 	}
 
 	@Override
 	public Accumulator createAccumulator() {
-		return new AccMaxY(getExpr());
+		return new OrdinateAccumulator.Max(getExpr(), isDistinct, CoordinateSequence.Y);
 	}
 
 	@Override
@@ -53,52 +50,7 @@ public class MaxY extends AggregatorBase {
 
 	@Override
 	public int hashCode() {
-		return getExpr().hashCode() ;
+		return (isDistinct ? HC_AggMaxDistinct : HC_AggMax) ^ getExprList().hashCode();
 	}
-	
-	 private static class AccMaxY extends AccumulatorExpr
-	    {
-	        // Non-empty case but still can be nothing because the expression may be undefined.
-	        private NodeValue maxSoFar = null ;
-
-	        public AccMaxY(Expr expr) { super(expr, false) ; }
-
-	        static final boolean DEBUG = false ;
-
-	        @Override
-	        public void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv)
-	        { 
-	        	GeometryWrapper geometry = GeometryWrapper.extract(nv);
-	            Geometry geo=geometry.getParsingGeometry();
-	            Double localmaxY=0.;
-	        	for(Coordinate coord:geo.getCoordinates()) {
-	            	if(localmaxY<coord.getY()) {
-	            		localmaxY=coord.getY();
-	            	}
-	            }
-	        	NodeValue localMax=NodeValue.makeDouble(localmaxY);
-	        	
-	            if ( maxSoFar == null )
-	            {
-	                maxSoFar = localMax ;
-	                if ( DEBUG ) System.out.println("max: init : "+localMax) ;
-	                return ;
-	            }
-
-	            int x = NodeValue.compareAlways(maxSoFar, localMax) ;
-	            if ( x < 0 )
-	                maxSoFar = localMax ;
-
-	            if ( DEBUG ) System.out.println("max: "+localMax+" ==> "+maxSoFar) ;
-	        }
-
-	        @Override
-	        protected void accumulateError(Binding binding, FunctionEnv functionEnv)
-	        {}
-
-	        @Override
-	        public NodeValue getAccValue()
-	        { return maxSoFar ; }
-	    }
 
 }
@@ -6,24 +6,22 @@ import org.apache.jena.sparql.expr.aggregate.Aggregator;
 
 public class MaxYDistinct extends MaxY {
 
-	protected MaxYDistinct(Expr expr) {
-		super("MAXY", true, expr);
-		// TODO Auto-generated constructor stub
+	public MaxYDistinct(Expr expr) {
+		super(true, expr);
 	}
-	
+
 	@Override
 	public Aggregator copy(ExprList exprs) {
-		return new MaxYDistinct(exprs.get(0)) ;
+		return new MaxYDistinct(exprs.get(0));
 	}
-	
+
 	@Override
 	public boolean equals(Aggregator other, boolean bySyntax) {
-		if ( other == null ) return false ;
-        if ( this == other ) return true ; 
-        if ( ! ( other instanceof MaxYDistinct ) )
-            return false ;
-        MaxYDistinct agg = (MaxYDistinct)other ;
-        return exprList.equals(agg.exprList, bySyntax) ;
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof MaxYDistinct)) return false;
+		MaxYDistinct agg = (MaxYDistinct) other;
+		return exprList.equals(agg.exprList, bySyntax);
 	}
-	
+
 }
@@ -1,49 +1,46 @@
 package de.hsmainz.cs.semgis.arqextension.aggregate;
 
 import org.apache.jena.graph.Node;
-import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.sparql.expr.ExprList;
-import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.expr.aggregate.Accumulator;
-import org.apache.jena.sparql.expr.aggregate.AccumulatorExpr;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
 import org.apache.jena.sparql.expr.aggregate.Aggregator;
 import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
-import org.apache.jena.sparql.function.FunctionEnv;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Geometry;
-
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import org.locationtech.jts.geom.CoordinateSequence;
 
+/**
+ * Maximum Z coordinate of the geometries of a group, unbound for a group without coordinates. Geometries without Z coordinates are left out.
+ */
 public class MaxZ extends AggregatorBase {
 
-	protected MaxZ(String name, boolean isDistinct, Expr expr) {
-		super("MAXZ", true, expr);
-		// TODO Auto-generated constructor stub
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new OrdinateAccumulator.Max(agg.getExpr(), distinct, CoordinateSequence.Z);
+
+	protected MaxZ(boolean isDistinct, Expr expr) {
+		super("MAXZ", isDistinct, expr);
 	}
 
-	protected MaxZ(Expr expr) {
-		super("MAXZ", false, expr);
+	public MaxZ(Expr expr) {
+		this(false, expr);
 	}
 
 	@Override
 	public Aggregator copy(ExprList exprs) {
-		return new MaxZ(exprs.get(0)) ;
+		return new MaxZ(exprs.get(0));
 	}
 
 	@Override
 	public boolean equals(Aggregator other, boolean bySyntax) {
-		if ( other == null ) return false ;
-        if ( this == other ) return true ; 
-        if ( ! ( other instanceof MaxZ ) )
-            return false ;
-        MaxZ agg = (MaxZ)other ;
-        return exprList.equals(agg.exprList, bySyntax) ;
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof MaxZ)) return false;
+		MaxZ agg = (MaxZ) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
 	}
 
 	@Override
 	public Accumulator createAccumulator() {
-		return new AccMaxZ(getExpr());
+		return new OrdinateAccumulator.Max(getExpr(), isDistinct, CoordinateSequence.Z);
 	}
 
 	@Override
@@ -53,52 +50,7 @@ public class MaxZ extends AggregatorBase {
 
 	@Override
 	public int hashCode() {
-		return getExpr().hashCode() ;
+		return (isDistinct ? HC_AggMaxDistinct : HC_AggMax) ^ getExprList().hashCode();
 	}
-	
-	 private static class AccMaxZ extends AccumulatorExpr
-	    {
-	        // Non-empty case but still can be nothing because the expression may be undefined.
-	        private NodeValue maxSoFar = null ;
-
-	        public AccMaxZ(Expr expr) { super(expr, false) ; }
-
-	        static final boolean DEBUG = false ;
-
-	        @Override
-	        public void accumulate(NodeValue nv, Binding binding, FunctionEnv functionEnv)
-	        { 
-	        	GeometryWrapper geometry = GeometryWrapper.extract(nv);
-	            Geometry geo=geometry.getParsingGeometry();
-	            Double localmaxZ=0.;
-	        	for(Coordinate coord:geo.getCoordinates()) {
-	            	if(localmaxZ<coord.getZ()) {
-	            		localmaxZ=coord.getZ();
-	            	}
-	            }
-	        	NodeValue localMax=NodeValue.makeDouble(localmaxZ);
-	        	
-	            if ( maxSoFar == null )
-	            {
-	                maxSoFar = localMax ;
-	                if ( DEBUG ) System.out.println("max: init : "+localMax) ;
-	                return ;
-	            }
-
-	            int x = NodeValue.compareAlways(maxSoFar, localMax) ;
-	            if ( x < 0 )
-	                maxSoFar = localMax ;
-
-	            if ( DEBUG ) System.out.println("max: "+localMax+" ==> "+maxSoFar) ;
-	        }
-
-	        @Override
-	        protected void accumulateError(Binding binding, FunctionEnv functionEnv)
-	        {}
-
-	        @Override
-	        public NodeValue getAccValue()
-	        { return maxSoFar ; }
-	    }
 
 }
@@ -6,24 +6,22 @@ import org.apache.jena.sparql.expr.aggregate.Aggregator;
 
 public class MinXDistinct extends MinX {
 
-	protected MinXDistinct(Expr expr) {
-		super("MINX", true, expr);
-		// TODO Auto-generated constructor stub
+	public MinXDistinct(Expr expr) {
+		super(true, expr);
 	}
-	
+
 	@Override
 	public Aggregator copy(ExprList exprs) {
-		return new MinXDistinct(exprs.get(0)) ;
+		return new MinXDistinct(exprs.get(0));
 	}
-	
+
 	@Override
 	public boolean equals(Aggregator other, boolean bySyntax) {
-		if ( other == null ) return false ;
-        if ( this == other ) return true ; 
-        if ( ! ( other instanceof MinXDistinct ) )
-            return false ;
-        MinXDistinct agg = (MinXDistinct)other ;
-        return exprList.equals(agg.exprList, bySyntax) ;
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof MinXDistinct)) return false;
+		MinXDistinct agg = (MinXDistinct) other;
+		return exprList.equals(agg.exprList, bySyntax);
 	}
-	
+
 }
@@ -0,0 +1,148 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+
+/**
+ * Accumulator over one ordinate of all coordinates of the geometries of a
+ * group. The coordinate sequences are read in place, so no coordinate is
+ * copied, and the state is kept in primitives. Missing ordinates, such as the
+ * Z of a 2D geometry, are skipped.
+ */
+public abstract class OrdinateAccumulator extends GeometryAccumulator implements CoordinateSequenceFilter {
+
+	private final int ordinate;
+
+	/**
+	 *
+	 * @param expr The geometry expression.
+	 * @param makeDistinct Whether the geometries of the group are made distinct.
+	 * @param ordinate {@link CoordinateSequence#X}, {@link CoordinateSequence#Y} or {@link CoordinateSequence#Z}.
+	 */
+	protected OrdinateAccumulator(Expr expr, boolean makeDistinct, int ordinate) {
+		super(expr, makeDistinct);
+		this.ordinate = ordinate;
+	}
+
+	@Override
+	protected void accumulate(GeometryWrapper geometry) {
+		geometry.getParsingGeometry().apply(this);
+	}
+
+	@Override
+	public void filter(CoordinateSequence seq, int i) {
+		double value = ordinate == CoordinateSequence.Z ? seq.getZ(i) : seq.getOrdinate(i, ordinate);
+		if (!Double.isNaN(value)) {
+			accumulate(value);
+		}
+	}
+
+	/**
+	 * Adds an ordinate value of the group.
+	 * @param value The value, never NaN.
+	 */
+	protected abstract void accumulate(double value);
+
+	@Override
+	public boolean isDone() {
+		return false;
+	}
+
+	@Override
+	public boolean isGeometryChanged() {
+		return false;
+	}
+
+	/**
+	 * Mean of the ordinate, zero for a group without values.
+	 */
+	public static class Avg extends OrdinateAccumulator {
+
+		private double sum = 0;
+
+		private long count = 0;
+
+		public Avg(Expr expr, boolean makeDistinct, int ordinate) {
+			super(expr, makeDistinct, ordinate);
+		}
+
+		@Override
+		protected void accumulate(double value) {
+			sum += value;
+			count++;
+		}
+
+		@Override
+		protected NodeValue getAccValue() {
+			if (count == 0) {
+				return NodeValue.nvZERO;
+			}
+			if (errorCount != 0) {
+				return null;
+			}
+			return NodeValue.makeDouble(sum / count);
+		}
+
+	}
+
+	/**
+	 * Minimum of the ordinate, unbound for a group without values.
+	 */
+	public static class Min extends OrdinateAccumulator {
+
+		private double min = Double.POSITIVE_INFINITY;
+
+		private boolean isEmpty = true;
+
+		public Min(Expr expr, boolean makeDistinct, int ordinate) {
+			super(expr, makeDistinct, ordinate);
+		}
+
+		@Override
+		protected void accumulate(double value) {
+			if (value < min) {
+				min = value;
+			}
+			isEmpty = false;
+		}
+
+		@Override
+		protected NodeValue getAccValue() {
+			return isEmpty ? null : NodeValue.makeDouble(min);
+		}
+
+	}
+
+	/**
+	 * Maximum of the ordinate, unbound for a group without values.
+	 */
+	public static class Max extends OrdinateAccumulator {
+
+		private double max = Double.NEGATIVE_INFINITY;
+
+		private boolean isEmpty = true;
+
+		public Max(Expr expr, boolean makeDistinct, int ordinate) {
+			super(expr, makeDistinct, ordinate);
+		}
+
+		@Override
+		protected void accumulate(double value) {
+			if (value > max) {
+				max = value;
+			}
+			isEmpty = false;
+		}
+
+		@Override
+		protected NodeValue getAccValue() {
+			return isEmpty ? null : NodeValue.makeDouble(max);
+		}
+
+	}
+
+}
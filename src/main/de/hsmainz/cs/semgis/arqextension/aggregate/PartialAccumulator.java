@@ -0,0 +1,79 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.TopologyException;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+
+/**
+ * Accumulator of a geometry aggregate whose state is a {@link GeometryPartial}.
+ * The geometries are added in the SRS and datatype of the first geometry of
+ * the group, the others are transformed into it. The partial may compute
+ * parts of the result on the shared pool while the group is accumulated.
+ *
+ * @param <P> The partial result type.
+ */
+public class PartialAccumulator<P extends GeometryPartial> extends GeometryAccumulator {
+
+	private final P partial;
+
+	private GeometryWrapper first = null;
+
+	public PartialAccumulator(Expr expr, boolean makeDistinct, P partial) {
+		super(expr, makeDistinct);
+		this.partial = partial;
+	}
+
+	@Override
+	protected void accumulate(GeometryWrapper geometry) {
+		try {
+			partial.add(toGroupSRS(geometry).getParsingGeometry());
+		} catch (TopologyException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+	}
+
+	private GeometryWrapper toGroupSRS(GeometryWrapper geometry) {
+		if (first == null) {
+			first = geometry;
+			return geometry;
+		}
+		if (first.getSrsURI().equals(geometry.getSrsURI())) {
+			return geometry;
+		}
+		try {
+			return first.checkTransformSRS(geometry);
+		} catch (FactoryException | MismatchedDimensionException | TransformException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+	}
+
+	public P getPartial() {
+		return partial;
+	}
+
+	@Override
+	protected NodeValue getAccValue() {
+		if (first == null) {
+			return null;
+		}
+		Geometry result;
+		try {
+			result = partial.getResult(first.getParsingGeometry().getFactory());
+		} catch (TopologyException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+		if (result == null) {
+			return null;
+		}
+		return GeometryWrapperFactory.createGeometry(result, first.getSrsURI(), first.getGeometryDatatypeURI()).asNodeValue();
+	}
+
+}
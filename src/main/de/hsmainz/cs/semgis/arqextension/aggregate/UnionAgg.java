@@ -0,0 +1,56 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.aggregate.Accumulator;
+import org.apache.jena.sparql.expr.aggregate.AccumulatorFactory;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.expr.aggregate.AggregatorBase;
+
+/**
+ * Union of the geometries of a group, dissolved block by block in parallel, see
+ * {@link UnionPartial}. Unbound for a group without geometries.
+ */
+public class UnionAgg extends AggregatorBase {
+
+	public static final AccumulatorFactory FACTORY = (agg, distinct) -> new PartialAccumulator<>(agg.getExpr(), distinct, new UnionPartial());
+
+	protected UnionAgg(boolean isDistinct, Expr expr) {
+		super("UNION", isDistinct, expr);
+	}
+
+	public UnionAgg(Expr expr) {
+		this(false, expr);
+	}
+
+	@Override
+	public Aggregator copy(ExprList exprs) {
+		return new UnionAgg(exprs.get(0));
+	}
+
+	@Override
+	public boolean equals(Aggregator other, boolean bySyntax) {
+		if (other == null) return false;
+		if (this == other) return true;
+		if (!(other instanceof UnionAgg)) return false;
+		UnionAgg agg = (UnionAgg) other;
+		return isDistinct == agg.isDistinct && exprList.equals(agg.exprList, bySyntax);
+	}
+
+	@Override
+	public Accumulator createAccumulator() {
+		return new PartialAccumulator<>(getExpr(), isDistinct, new UnionPartial());
+	}
+
+	@Override
+	public Node getValueEmpty() {
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return getExprList().hashCode() ^ "UNION".hashCode() ^ (isDistinct ? 1 : 0);
+	}
+
+}
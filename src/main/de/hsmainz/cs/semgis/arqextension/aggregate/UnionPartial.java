@@ -0,0 +1,104 @@
+package de.hsmainz.cs.semgis.arqextension.aggregate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+import de.hsmainz.cs.semgis.arqextension.index.PartitionedSpatialJoin;
+
+/**
+ * Union of the geometries of a group, computed block by block.
+ * <p>
+ * Geometries are buffered in blocks of a fixed size. A full block is unioned
+ * by cascaded union on the pool shared with the spatial joins while the
+ * accumulation goes on, and the unions of the blocks are unioned again once
+ * they fill a block themselves. Adding waits for the oldest block as soon as
+ * more blocks are pending than the pool has threads, so no more than a few
+ * blocks of input geometries are held at once.
+ */
+public class UnionPartial implements GeometryPartial {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	private final int blockSize;
+
+	private final int maxPending;
+
+	private Geometry[] block;
+
+	private int size = 0;
+
+	private boolean isEmpty = true;
+
+	private final Deque<ForkJoinTask<Geometry>> pending = new ArrayDeque<>();
+
+	private final List<Geometry> unions = new ArrayList<>();
+
+	public UnionPartial() {
+		this(DEFAULT_BLOCK_SIZE, PartitionedSpatialJoin.getDefaultParallelism());
+	}
+
+	/**
+	 *
+	 * @param blockSize The number of geometries unioned at once.
+	 * @param parallelism The number of blocks unioned at the same time, 1 to union them in the calling thread.
+	 */
+	public UnionPartial(int blockSize, int parallelism) {
+		this.blockSize = Math.max(2, blockSize);
+		this.maxPending = parallelism > 1 ? parallelism : 0;
+		this.block = new Geometry[this.blockSize];
+	}
+
+	@Override
+	public void add(Geometry geometry) {
+		block[size++] = geometry;
+		isEmpty = false;
+		if (size == blockSize) {
+			submit(Arrays.asList(block));
+			block = new Geometry[blockSize];
+			size = 0;
+		}
+	}
+
+	private void submit(List<Geometry> geometries) {
+		if (maxPending == 0) {
+			addUnion(UnaryUnionOp.union(geometries));
+			return;
+		}
+		pending.add(PartitionedSpatialJoin.submit(() -> UnaryUnionOp.union(geometries)));
+		while (pending.size() > maxPending) {
+			addUnion(pending.poll().join());
+		}
+	}
+
+	private void addUnion(Geometry union) {
+		unions.add(union);
+		if (unions.size() == blockSize) {
+			List<Geometry> geometries = new ArrayList<>(unions);
+			unions.clear();
+			submit(geometries);
+		}
+	}
+
+	@Override
+	public Geometry getResult(GeometryFactory factory) {
+		if (isEmpty) {
+			return null;
+		}
+		while (!pending.isEmpty()) {
+			unions.add(pending.poll().join());
+		}
+		List<Geometry> geometries = new ArrayList<>(unions.size() + size);
+		geometries.addAll(unions);
+		geometries.addAll(Arrays.asList(block).subList(0, size));
+		return UnaryUnionOp.union(geometries, factory);
+	}
+
+}
@@ -2,13 +2,14 @@ package de.hsmainz.cs.semgis.arqextension.envelope.relation;
 
 import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
 import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper; 
@@ -16,41 +17,37 @@ import io.github.galbiston.geosparql_jena.implementation.datatype.raster.Coverag
  * Returns the 2D distance between A and B bounding boxes. 
  *
  */
-public class BBOXDistance extends FunctionBase2 {
+public class BBOXDistance extends SpatialArgumentFunctionBase2 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
+		SpatialArgument arg1=SpatialArguments.resolve(v1);
+		Wrapper wrapper1=arg1.getWrapper();
+		SpatialArgument arg2=SpatialArguments.resolve(v2);
+		Wrapper wrapper2=arg2.getWrapper();
 		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
         try {
-            GeometryWrapper geom = GeometryWrapper.extract(v1);
-            GeometryWrapper geom2 = GeometryWrapper.extract(v2);
-			GeometryWrapper transGeom2 = geom2.transform(geom.getSRID());
+            GeometryWrapper geom = arg1.getGeometryWrapper();
+            GeometryWrapper geom2 = arg2.getGeometryWrapper();
+			GeometryWrapper transGeom2 = arg2.transform(geom.getSRID());
 			return NodeValue.makeDouble(geom.getEnvelope().distance(transGeom2.getEnvelope()));
 		} catch (MismatchedDimensionException | TransformException | FactoryException e) {
-			// TODO Auto-generated catch block
 			throw new ExprEvalException(e.getMessage(), e);
 		}
 	}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-		GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-		GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
         try {
-			return NodeValue.makeDouble(LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope()).distance(LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope())));
+			return NodeValue.makeDouble(arg1.getFootprint().distance(arg2.getFootprint()));
 		} catch (MismatchedDimensionException e) {
-			// TODO Auto-generated catch block
 			throw new ExprEvalException(e.getMessage(), e);
 		}
 	}else {
 		if(wrapper1 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GeometryWrapper geom2 = GeometryWrapper.extract(v2);
-			return NodeValue.makeDouble(LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope()).
+			GeometryWrapper geom2 = arg2.getGeometryWrapper();
+			return NodeValue.makeDouble(arg1.getFootprint().
 					distance(LiteralUtils.toGeometry(geom2.getEnvelope())));
 		}else {
-			GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-			GeometryWrapper geom2 = GeometryWrapper.extract(v1);		
-			return NodeValue.makeDouble(LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope()).distance(LiteralUtils.toGeometry(geom2.getEnvelope()))); 
+			GeometryWrapper geom2 = arg1.getGeometryWrapper();		
+			return NodeValue.makeDouble(arg2.getFootprint().distance(LiteralUtils.toGeometry(geom2.getEnvelope()))); 
 		}
 	}
 	}
@@ -2,70 +2,38 @@ package de.hsmainz.cs.semgis.arqextension.envelope.relation;
 
 import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
+import org.locationtech.jts.geom.Envelope;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
 /**
  * Returns TRUE if A's bounding box is strictly to the left of B's.
  *
  */
-public class BBOXLeftOf extends FunctionBase2 {
+public class BBOXLeftOf extends SpatialArgumentFunctionBase2 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
-		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
-        try {
-            GeometryWrapper geom = GeometryWrapper.extract(v1);
-            GeometryWrapper geom2 = GeometryWrapper.extract(v2);
-			GeometryWrapper transGeom2 = geom2.transform(geom.getSRID());
-			if(geom.getEnvelope().getMaxX()<transGeom2.getEnvelope().getMinX()) {
-				return NodeValue.TRUE;
+		SpatialArgument arg1=SpatialArguments.resolve(v1);
+		SpatialArgument arg2=SpatialArguments.resolve(v2);
+		//raster envelopes are taken from their footprint, the pixels are not decoded
+		Envelope envelope1=arg1.getEnvelope();
+		Envelope envelope2;
+		if(arg1.isVector() && arg2.isVector()) {
+			try {
+				envelope2=arg2.transform(arg1.getGeometryWrapper().getSRID()).getEnvelope();
+			} catch (MismatchedDimensionException | TransformException | FactoryException e) {
+				throw new ExprEvalException(e.getMessage(), e);
 			}
-			return NodeValue.FALSE;
-		} catch (MismatchedDimensionException | TransformException | FactoryException e) {
-			// TODO Auto-generated catch block
-			throw new ExprEvalException(e.getMessage(), e);
+		}else {
+			envelope2=arg2.getEnvelope();
 		}
-		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-    		GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-    		GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
-            try {
-            	if(raster.getGridGeometry().getEnvelope().getUpperCorner().getCoordinate()[0]<
-				raster2.getGridGeometry().getEnvelope().getLowerCorner().getCoordinate()[0]) {
-					return NodeValue.TRUE;
-				}
-				return NodeValue.FALSE;
-    		} catch (MismatchedDimensionException e) {
-    			// TODO Auto-generated catch block
-    			throw new ExprEvalException(e.getMessage(), e);
-    		}
-    	}else {
-    		if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-				GeometryWrapper geom2 = GeometryWrapper.extract(v2);
-				if(raster.getGridGeometry().getEnvelope().getUpperCorner().getCoordinate()[0]<geom2.getEnvelope().getMinX()) {
-					return NodeValue.TRUE;
-				}
-				return NodeValue.FALSE;
-    		}else {
-    			GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-				GeometryWrapper geom2 = GeometryWrapper.extract(v2);
-				if(raster.getGridGeometry().getEnvelope().getUpperCorner().getCoordinate()[0]<geom2.getEnvelope().getMinX()) {
-					return NodeValue.TRUE;
-				}
-				return NodeValue.FALSE;
-    		}
-    	}
+		return NodeValue.makeBoolean(envelope1.getMaxX()<envelope2.getMinX());
 	}
 
 }
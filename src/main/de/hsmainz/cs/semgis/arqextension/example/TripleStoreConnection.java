@@ -23,6 +23,8 @@ import org.json.JSONObject;
 
 import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
 import de.hsmainz.cs.semgis.arqextension.geometry.exporter.AsGeoJSON;
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprintRegistry;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexRegistry;
 import io.github.galbiston.geosparql_jena.configuration.GeoSPARQLConfig;
 
 public class TripleStoreConnection {
@@ -60,6 +62,10 @@ public class TripleStoreConnection {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
+			// index the spatial literals ahead of the first query, mapped from the index file if it is current
+			SpatialIndexRegistry.load(modelmap.get(mod).getGraph(), new File(mod));
+			// read the footprints of the raster tiles from their headers, the raster relations then compare them without parsing the tiles
+			RasterFootprintRegistry.build(modelmap.get(mod).getGraph());
 		}
 	}
 
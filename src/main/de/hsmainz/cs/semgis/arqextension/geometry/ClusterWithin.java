@@ -1,22 +0,0 @@
-package de.hsmainz.cs.semgis.arqextension.geometry;
-
-import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
-
-/**
- * Aggregate. Returns an array of GeometryCollections, where each GeometryCollection represents a set of geometries separated by no more than the specified distance.
- *
- */
-public class ClusterWithin extends FunctionBase2 {
-
-	@Override
-	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		GeometryWrapper geom1 = GeometryWrapper.extract(v1);
-        Double distance=v2.getDouble();
-        throw new UnsupportedOperationException("Not supported yet.");
-	}
-
-}
@@ -1,16 +1,11 @@
 package de.hsmainz.cs.semgis.arqextension.geometry;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase4;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Geometry;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.MeasureFilter;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 
 /**
@@ -24,21 +19,10 @@ public class FilterByM extends FunctionBase4 {
 
         try {
             GeometryWrapper geometry = GeometryWrapper.extract(arg0);
-            Geometry geom = geometry.getParsingGeometry();
-            Double precisionMin=arg1.getDouble();
-            Double precisionMax=arg2.getDouble();
-            Boolean returnM=arg3.getBoolean();
-            List<Coordinate> result=new ArrayList<Coordinate>();
-            for(Coordinate coord:geom.getCoordinates()) {
-            	if(!Double.isNaN(coord.getM()) && coord.getM()>precisionMin && coord.getM()<precisionMax) {
-            		if(returnM)
-            			result.add(coord);
-            	}else {
-            		if(!returnM)
-            			result.add(coord);
-            	}
-            }
-            return LiteralUtils.createGeometry(result, geom.getGeometryType(), geometry).asNodeValue();
+            double precisionMin=arg1.getDouble();
+            double precisionMax=arg2.getDouble();
+            boolean returnM=arg3.getBoolean();
+            return MeasureFilter.filter(geometry, precisionMin, precisionMax, returnM).asNodeValue();
         } catch (DatatypeFormatException ex) {
             throw new ExprEvalException(ex.getMessage(), ex);
         }
@@ -1,14 +1,59 @@
-package de.hsmainz.cs.semgis.arqextension.geometry;
-
-import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-
-public class Near extends FunctionBase2 {
-
-	@Override
-	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-}
+package de.hsmainz.cs.semgis.arqextension.geometry;
+
+import java.util.List;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndex;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexItem;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexPropertyFunction;
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Unit_URI;
+
+/**
+ * Resources described by the k geometry or raster literals nearest to a geometry or raster:
+ * <code>?feature geo2:near (?g 5 [maxDistance [unitsURI]])</code>.<br>
+ * Resources are bound closest first. The maximum distance is in metres unless a units
+ * URI is given. Distances are great circle distances in a geographic index, the
+ * default, and Euclidean in a projected one.
+ */
+public class Near extends SpatialIndexPropertyFunction {
+
+	@Override
+	protected void checkBuild(int argCount) {
+		if (argCount < 2 || argCount > 4) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes two to four arguments");
+		}
+	}
+
+	@Override
+	protected List<SpatialIndexItem> search(SpatialIndex index, List<NodeValue> args) throws FactoryException, MismatchedDimensionException, TransformException {
+		Wrapper wrapper = LiteralUtils.rasterOrVector(args.get(0));
+		GeometryWrapper geometry;
+		if (wrapper instanceof CoverageWrapper) {
+			geometry = SpatialIndex.getFootprint((CoverageWrapper) wrapper);
+		} else {
+			geometry = (GeometryWrapper) wrapper;
+		}
+		int k = args.get(1).getInteger().intValue();
+		double maxDistance = Double.POSITIVE_INFINITY;
+		if (args.size() > 2) {
+			maxDistance = args.get(2).getDouble();
+		}
+		String unitsURI = Unit_URI.METRE_URL;
+		if (args.size() == 4) {
+			NodeValue units = args.get(3);
+			unitsURI = units.isIRI() ? units.asNode().getURI() : units.getString();
+		}
+		return index.nearest(geometry, k, maxDistance, unitsURI);
+	}
+
+}
@@ -4,7 +4,6 @@ import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
 import org.apache.sis.coverage.grid.GridCoverage;
-import org.apache.sis.referencing.CRS;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -15,6 +14,7 @@ import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 
 public class IsInCRSAreaOfValidity extends FunctionBase1 {
 
@@ -25,7 +25,7 @@ public class IsInCRSAreaOfValidity extends FunctionBase1 {
 		Geometry geom=null;
 		try {
 			if(wrapper1 instanceof GeometryWrapper) {
-				crs = CRS.forCode("EPSG:"+((GeometryWrapper)wrapper1).getXYGeometry().getSRID());
+				crs = CRSCache.getCRS(((GeometryWrapper)wrapper1).getXYGeometry().getSRID());
 				geom=((GeometryWrapper)wrapper1).getXYGeometry();
 			}else if(wrapper1 instanceof CoverageWrapper) {
 				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
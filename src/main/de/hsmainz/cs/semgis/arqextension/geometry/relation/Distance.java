@@ -3,30 +3,32 @@ package de.hsmainz.cs.semgis.arqextension.geometry.relation;
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.operation.distance.DistanceOp;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
-public class Distance extends FunctionBase2{
+public class Distance extends SpatialArgumentFunctionBase2{
 
 	@Override
 	public NodeValue exec(NodeValue arg0, NodeValue arg1) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(arg0);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(arg1);
+		SpatialArgument spatialArg1=SpatialArguments.resolve(arg0);
+		Wrapper wrapper1=spatialArg1.getWrapper();
+		SpatialArgument spatialArg2=SpatialArguments.resolve(arg1);
+		Wrapper wrapper2=spatialArg2.getWrapper();
     	if(wrapper1 instanceof GeometryWrapper) {
         try {
-            GeometryWrapper geom1 = GeometryWrapper.extract(arg0);
-            GeometryWrapper geom2 = GeometryWrapper.extract(arg1);
-            GeometryWrapper transGeom2 = geom2.transform(geom1.getSrsInfo());
+            GeometryWrapper geom1 = spatialArg1.getGeometryWrapper();
+            GeometryWrapper geom2 = spatialArg2.getGeometryWrapper();
+            GeometryWrapper transGeom2 = spatialArg2.transform(geom1.getSrsInfo());
             DistanceOp op=new DistanceOp(geom1.getXYGeometry(), transGeom2.getXYGeometry());
             double distance=op.distance();
             return NodeValue.makeDouble(distance);
@@ -34,20 +36,16 @@ public class Distance extends FunctionBase2{
             throw new ExprEvalException(ex.getMessage(), ex);
         }
     	}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
+			Geometry bbox1 = spatialArg1.getFootprint();
+		    Geometry bbox2 = spatialArg2.getFootprint();
 		    return NodeValue.makeDouble(bbox1.distance(bbox2));	
 		}else {
 			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
+				Geometry bbox1 = spatialArg1.getFootprint();
 				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
 			    return NodeValue.makeDouble(bbox1.distance(geom));	
 			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
+				Geometry bbox1 = spatialArg2.getFootprint();
 				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
 			    return NodeValue.makeDouble(bbox1.distance(geom));			
 			}
@@ -2,8 +2,8 @@ package de.hsmainz.cs.semgis.arqextension.geometry.srid;
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.referencing.CRS;
 import org.opengis.util.FactoryException;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 
 public class EPSGToWKT extends FunctionBase1 {
 
@@ -11,7 +11,7 @@ public class EPSGToWKT extends FunctionBase1 {
 	public NodeValue exec(NodeValue v) {		
 		String epsg=v.getString();
 		try {
-			return NodeValue.makeString(CRS.forCode(epsg).toWKT());
+			return NodeValue.makeString(CRSCache.getCRS(epsg).toWKT());
 		} catch (UnsupportedOperationException | FactoryException e) {
 			return NodeValue.nvNothing;
 		}
@@ -3,7 +3,6 @@ package de.hsmainz.cs.semgis.arqextension.geometry.srid;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
 import org.apache.sis.coverage.grid.GridCoverage;
-import org.apache.sis.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.util.FactoryException;
 
@@ -11,6 +10,7 @@ import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 
 public class SRIDGetAxis2Name extends FunctionBase1 {
 
@@ -20,7 +20,7 @@ public class SRIDGetAxis2Name extends FunctionBase1 {
 		CoordinateReferenceSystem crs;
 		try {
 			if(wrapper1 instanceof GeometryWrapper) {
-				crs = CRS.forCode("EPSG:"+((GeometryWrapper)wrapper1).getXYGeometry().getSRID());
+				crs = CRSCache.getCRS(((GeometryWrapper)wrapper1).getXYGeometry().getSRID());
 				return NodeValue.makeString(crs.getCoordinateSystem().getAxis(1).getName().toString());
 			}else if(wrapper1 instanceof CoverageWrapper) {
 				GridCoverage raster=((CoverageWrapper)wrapper1).getXYGeometry();
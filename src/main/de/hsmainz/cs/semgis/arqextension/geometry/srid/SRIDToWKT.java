@@ -4,8 +4,8 @@ import java.math.BigInteger;
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.referencing.CRS;
 import org.opengis.util.FactoryException;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 
 public class SRIDToWKT extends FunctionBase1 {
 
@@ -13,7 +13,7 @@ public class SRIDToWKT extends FunctionBase1 {
 	public NodeValue exec(NodeValue v) {
 		BigInteger srid=v.getInteger();
 		try {
-			return NodeValue.makeString(CRS.forCode("EPSG:"+srid.intValue()).toWKT());
+			return NodeValue.makeString(CRSCache.getCRS(srid.intValue()).toWKT());
 		} catch (UnsupportedOperationException | FactoryException e) {
 			return NodeValue.nvNothing;
 		}
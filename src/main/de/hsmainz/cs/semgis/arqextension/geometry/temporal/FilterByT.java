@@ -1,25 +1,29 @@
 package de.hsmainz.cs.semgis.arqextension.geometry.temporal;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase3;
-import org.joda.time.Days;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Geometry;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.MeasureFilter;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 
+/**
+ * Returns the part of a trajectory built with ST_MakePointT whose vertices are timestamped within the given interval. The interval bounds are xsd:dateTime values or seconds since the epoch, the timestamps are kept in the result.
+ *
+ */
 public class FilterByT extends FunctionBase3 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2, NodeValue v3) {
-		throw new ExprEvalException("To be implemented");
+		try {
+			GeometryWrapper geometry = GeometryWrapper.extract(v1);
+			double from = MeasureFilter.toMeasure(v2);
+			double to = MeasureFilter.toMeasure(v3);
+			return MeasureFilter.filter(geometry, from, to, true).asNodeValue();
+		} catch (DatatypeFormatException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
 	}
 
 }
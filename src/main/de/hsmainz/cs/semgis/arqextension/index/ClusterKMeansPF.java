@@ -0,0 +1,155 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.iterator.QueryIterSingleton;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.pfunction.PFuncSimpleAndList;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+
+/**
+ * Window form of ST_ClusterKMeans: <code>?id geo2:ST_ClusterKMeans (?geometry k)</code>
+ * binds the k-means cluster id of the geometry of each solution.<br>
+ * All solutions reaching the property function form one window: they are read
+ * first, the centroids of their geometries are clustered by
+ * {@link KMeansClustering} and the solutions are returned in their order with
+ * the cluster id. Solutions without a geometry literal keep the id unbound, a
+ * bound subject keeps the solutions of that cluster. Geometries in another SRS
+ * than the first one are transformed into it.
+ */
+public class ClusterKMeansPF extends PFuncSimpleAndList {
+
+	@Override
+	public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		super.build(argSubject, predicate, argObject, execCxt);
+		if (!argObject.isList() || argObject.getArgListSize() != 2) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes a list of a geometry and the number of clusters");
+		}
+	}
+
+	@Override
+	public QueryIterator exec(QueryIterator input, PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		Node subject = argSubject.getArg();
+		Node geometryArg = argObject.getArg(0);
+		Node clustersArg = argObject.getArg(1);
+		List<Binding> bindings = new ArrayList<>();
+		int[] points = new int[1024];
+		double[] x = new double[1024];
+		double[] y = new double[1024];
+		double[] xy = new double[2];
+		int count = 0;
+		int clusters = -1;
+		GeometryWrapper first = null;
+		try {
+			while (input.hasNext()) {
+				Binding binding = input.next();
+				if (clusters == -1) {
+					clusters = getClusters(substitute(clustersArg, binding));
+				}
+				int row = bindings.size();
+				bindings.add(binding);
+				if (row == points.length) {
+					points = Arrays.copyOf(points, row * 2);
+				}
+				points[row] = -1;
+				GeometryWrapper geometry = extract(substitute(geometryArg, binding));
+				if (geometry == null) {
+					continue;
+				}
+				if (first == null) {
+					first = geometry;
+				} else if (!first.getSrsURI().equals(geometry.getSrsURI())) {
+					try {
+						geometry = first.checkTransformSRS(geometry);
+					} catch (FactoryException | MismatchedDimensionException | TransformException ex) {
+						throw new ExprEvalException(ex.getMessage(), ex);
+					}
+				}
+				if (!KMeansClustering.centroid(geometry.getParsingGeometry(), xy)) {
+					continue;
+				}
+				if (count == x.length) {
+					x = Arrays.copyOf(x, count * 2);
+					y = Arrays.copyOf(y, count * 2);
+				}
+				x[count] = xy[0];
+				y[count] = xy[1];
+				points[row] = count++;
+			}
+		} finally {
+			input.close();
+		}
+		int[] ids = count == 0 ? new int[0] : new KMeansClustering(clusters).cluster(x, y, count);
+		List<Binding> results = new ArrayList<>(bindings.size());
+		for (int row = 0; row < bindings.size(); row++) {
+			Binding binding = bindings.get(row);
+			if (points[row] == -1) {
+				if (subject.isVariable()) {
+					results.add(binding);
+				}
+				continue;
+			}
+			Node id = NodeValue.makeInteger(ids[points[row]]).asNode();
+			Node bound = subject.isVariable() ? binding.get(Var.alloc(subject)) : subject;
+			if (bound == null) {
+				results.add(BindingFactory.binding(binding, Var.alloc(subject), id));
+			} else if (NodeValue.sameAs(NodeValue.makeNode(bound), NodeValue.makeNode(id))) {
+				results.add(binding);
+			}
+		}
+		return new QueryIterPlainWrapper(results.iterator(), execCxt);
+	}
+
+	@Override
+	public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object, ExecutionContext execCxt) {
+		return exec(QueryIterSingleton.create(binding, execCxt), new PropFuncArg(subject), predicate, object, execCxt);
+	}
+
+	private static Node substitute(Node node, Binding binding) {
+		if (node.isVariable()) {
+			return binding.get(Var.alloc(node));
+		}
+		return node;
+	}
+
+	private int getClusters(Node node) {
+		if (node == null || !node.isLiteral()) {
+			throw new ExprEvalException("Property function '" + Lib.className(this) + "' number of clusters not bound: " + node);
+		}
+		NodeValue value = NodeValue.makeNode(node);
+		if (!value.isInteger() || value.getInteger().signum() <= 0) {
+			throw new ExprEvalException("Property function '" + Lib.className(this) + "' number of clusters must be a positive integer: " + node);
+		}
+		return value.getInteger().intValue();
+	}
+
+	private static GeometryWrapper extract(Node node) {
+		if (node == null || !node.isLiteral()) {
+			return null;
+		}
+		try {
+			return GeometryWrapper.extract(node);
+		} catch (DatatypeFormatException ex) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,247 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * Clustering of geometries by distance, following ST_ClusterWithin,
+ * ST_ClusterIntersecting and ST_ClusterDBSCAN.
+ * <p>
+ * The envelopes of the geometries are put into an STR-tree, which is queried
+ * with the envelope of each geometry expanded by the distance. Only candidate
+ * pairs from the tree are tested with the exact predicate, and pairs already
+ * in the same cluster are not tested at all, so well separated inputs are
+ * clustered in close to linear time. Clusters are tracked by union-find.
+ * <p>
+ * Cluster ids are numbered from 0 in the order of the first geometry of each
+ * cluster, geometries in no cluster get {@link #NOISE}.
+ */
+public class DensityClustering {
+
+	/**
+	 * Cluster id of a geometry that is not in a cluster.
+	 */
+	public static final int NOISE = -1;
+
+	private final List<Geometry> geometries;
+
+	private final double distance;
+
+	private final boolean isIntersecting;
+
+	private final STRtree tree = new STRtree();
+
+	/**
+	 *
+	 * @param geometries The geometries, in the same SRS.
+	 * @param distance The maximum distance of neighbours, 0 and isIntersecting for intersecting neighbours.
+	 * @param isIntersecting Whether neighbours intersect instead of being within the distance.
+	 */
+	private DensityClustering(List<Geometry> geometries, double distance, boolean isIntersecting) {
+		this.geometries = geometries;
+		this.distance = distance;
+		this.isIntersecting = isIntersecting;
+		for (int i = 0; i < geometries.size(); i++) {
+			tree.insert(geometries.get(i).getEnvelopeInternal(), i);
+		}
+		tree.build();
+	}
+
+	/**
+	 * Clusters of geometries connected by chains of neighbours within the
+	 * distance of each other.
+	 * @param geometries The geometries, in the same SRS.
+	 * @param distance The maximum distance.
+	 * @return The cluster id of each geometry.
+	 */
+	public static int[] clusterWithin(List<Geometry> geometries, double distance) {
+		if (distance < 0) {
+			throw new IllegalArgumentException("Distance must not be negative: " + distance);
+		}
+		return new DensityClustering(geometries, distance, false).connect();
+	}
+
+	/**
+	 * Clusters of geometries connected by chains of intersecting geometries.
+	 * @param geometries The geometries, in the same SRS.
+	 * @return The cluster id of each geometry.
+	 */
+	public static int[] clusterIntersecting(List<Geometry> geometries) {
+		return new DensityClustering(geometries, 0, true).connect();
+	}
+
+	/**
+	 * DBSCAN clusters. A geometry with at least minPoints geometries within the
+	 * distance, itself included, is a core geometry. Core geometries within the
+	 * distance of each other share a cluster, other geometries within the
+	 * distance of a core geometry join the cluster of the first such core
+	 * geometry, the remaining geometries are noise.
+	 * @param geometries The geometries, in the same SRS.
+	 * @param eps The maximum distance of neighbours.
+	 * @param minPoints The minimum number of neighbours of a core geometry.
+	 * @return The cluster id of each geometry.
+	 */
+	public static int[] dbscan(List<Geometry> geometries, double eps, int minPoints) {
+		if (eps < 0) {
+			throw new IllegalArgumentException("Distance must not be negative: " + eps);
+		}
+		return new DensityClustering(geometries, eps, false).scan(Math.max(1, minPoints));
+	}
+
+	private int[] connect() {
+		UnionFind clusters = new UnionFind(geometries.size());
+		for (int i = 0; i < geometries.size(); i++) {
+			final int index = i;
+			tree.query(window(i), item -> {
+				int j = (Integer) item;
+				if (j > index && clusters.find(index) != clusters.find(j) && isNeighbour(index, j)) {
+					clusters.union(index, j);
+				}
+			});
+		}
+		int[] ids = new int[geometries.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = clusters.find(i);
+		}
+		return renumber(ids);
+	}
+
+	private int[] scan(int minPoints) {
+		int size = geometries.size();
+		boolean[] isCore = new boolean[size];
+		int[] count = new int[1];
+		for (int i = 0; i < size; i++) {
+			final int index = i;
+			count[0] = 0;
+			tree.query(window(i), item -> {
+				if (count[0] < minPoints && isNeighbour(index, (Integer) item)) {
+					count[0]++;
+				}
+			});
+			isCore[i] = count[0] >= minPoints;
+		}
+		UnionFind clusters = new UnionFind(size);
+		int[] borderOf = new int[size];
+		Arrays.fill(borderOf, NOISE);
+		for (int i = 0; i < size; i++) {
+			if (!isCore[i]) {
+				continue;
+			}
+			final int index = i;
+			tree.query(window(i), item -> {
+				int j = (Integer) item;
+				if (j == index) {
+					return;
+				}
+				if (isCore[j]) {
+					if (j > index && clusters.find(index) != clusters.find(j) && isNeighbour(index, j)) {
+						clusters.union(index, j);
+					}
+				} else if (borderOf[j] == NOISE && isNeighbour(index, j)) {
+					borderOf[j] = index;
+				}
+			});
+		}
+		int[] ids = new int[size];
+		for (int i = 0; i < size; i++) {
+			if (isCore[i]) {
+				ids[i] = clusters.find(i);
+			} else if (borderOf[i] != NOISE) {
+				ids[i] = clusters.find(borderOf[i]);
+			} else {
+				ids[i] = NOISE;
+			}
+		}
+		return renumber(ids);
+	}
+
+	private Envelope window(int i) {
+		Envelope window = new Envelope(geometries.get(i).getEnvelopeInternal());
+		window.expandBy(distance);
+		return window;
+	}
+
+	private boolean isNeighbour(int i, int j) {
+		if (i == j) {
+			return true;
+		}
+		Geometry a = geometries.get(i);
+		Geometry b = geometries.get(j);
+		if (isIntersecting) {
+			return a.intersects(b);
+		}
+		if (a instanceof Point && b instanceof Point && !a.isEmpty() && !b.isEmpty()) {
+			return a.getCoordinate().distance(b.getCoordinate()) <= distance;
+		}
+		return a.isWithinDistance(b, distance);
+	}
+
+	/**
+	 * Replaces the root of each cluster by the number of the cluster in order of
+	 * its first geometry.
+	 */
+	private static int[] renumber(int[] roots) {
+		int[] numbers = new int[roots.length];
+		Arrays.fill(numbers, NOISE);
+		int next = 0;
+		for (int i = 0; i < roots.length; i++) {
+			if (roots[i] == NOISE) {
+				continue;
+			}
+			if (numbers[roots[i]] == NOISE) {
+				numbers[roots[i]] = next++;
+			}
+			roots[i] = numbers[roots[i]];
+		}
+		return roots;
+	}
+
+	/**
+	 * Disjoint sets of indexes with path halving and union by size.
+	 */
+	private static class UnionFind {
+
+		private final int[] parent;
+
+		private final int[] size;
+
+		UnionFind(int count) {
+			parent = new int[count];
+			size = new int[count];
+			for (int i = 0; i < count; i++) {
+				parent[i] = i;
+				size[i] = 1;
+			}
+		}
+
+		int find(int i) {
+			while (parent[i] != i) {
+				parent[i] = parent[parent[i]];
+				i = parent[i];
+			}
+			return i;
+		}
+
+		void union(int i, int j) {
+			int a = find(i);
+			int b = find(j);
+			if (a == b) {
+				return;
+			}
+			if (size[a] < size[b]) {
+				int swap = a;
+				a = b;
+				b = swap;
+			}
+			parent[b] = a;
+			size[a] += size[b];
+		}
+
+	}
+
+}
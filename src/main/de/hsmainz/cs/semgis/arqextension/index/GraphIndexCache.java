@@ -0,0 +1,172 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.util.graph.GraphListenerBase;
+
+/**
+ * Indexes of graphs, each dropped as soon as a triple of its graph is added or
+ * removed. Graphs that are no longer referenced release their index.<br>
+ * Builds of the index of a graph are serialised, so concurrent first queries of
+ * a graph build its index once.
+ *
+ * @param <T> The index type.
+ */
+public class GraphIndexCache<T> {
+
+	private final Map<Graph, T> indexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final Map<Graph, InvalidationListener> listeners = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Index of the graph, built if the graph has none.
+	 * @param graph The graph.
+	 * @param builder Builds the index of the graph.
+	 * @return The index of the graph.
+	 */
+	public T get(Graph graph, Function<Graph, T> builder) {
+		T index = indexes.get(graph);
+		if (index != null) {
+			return index;
+		}
+		InvalidationListener listener = listeners.computeIfAbsent(graph, InvalidationListener::new);
+		synchronized (listener.buildLock) {
+			//Another thread may have built the index while this one waited.
+			index = indexes.get(graph);
+			if (index == null) {
+				index = build(graph, listener, builder);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return The current index of the graph or null if it has none.
+	 */
+	public T getIfPresent(Graph graph) {
+		return indexes.get(graph);
+	}
+
+	/**
+	 * Builds the index of the graph, replacing an existing index.
+	 * @param graph The graph.
+	 * @param builder Builds the index of the graph.
+	 * @return The new index.
+	 */
+	public T build(Graph graph, Function<Graph, T> builder) {
+		InvalidationListener listener = listeners.computeIfAbsent(graph, InvalidationListener::new);
+		synchronized (listener.buildLock) {
+			return build(graph, listener, builder);
+		}
+	}
+
+	private T build(Graph graph, InvalidationListener listener, Function<Graph, T> builder) {
+		listener.register();
+		T index = builder.apply(graph);
+		//A concurrent change during the build leaves no index behind.
+		if (listener.isRegistered()) {
+			indexes.put(graph, index);
+		}
+		return index;
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return True if the graph has a current index.
+	 */
+	public boolean contains(Graph graph) {
+		return indexes.containsKey(graph);
+	}
+
+	/**
+	 * Drops the index of the graph.
+	 * @param graph The graph.
+	 */
+	public void remove(Graph graph) {
+		indexes.remove(graph);
+		InvalidationListener listener = listeners.get(graph);
+		if (listener != null) {
+			listener.unregister();
+		}
+	}
+
+	public void clear() {
+		synchronized (listeners) {
+			for (InvalidationListener listener : listeners.values()) {
+				listener.unregister();
+			}
+		}
+		indexes.clear();
+	}
+
+	/**
+	 * Drops the index of its graph on the first change and then stops listening
+	 * until the index is built again. The graph is weakly referenced so that the
+	 * cache does not keep it alive.
+	 */
+	private class InvalidationListener extends GraphListenerBase {
+
+		private final WeakReference<Graph> graph;
+
+		/**
+		 * Held while the index of the graph is built. It is not the monitor of
+		 * the listener, so changes of the graph are not held up by a build.
+		 */
+		private final Object buildLock = new Object();
+
+		private boolean isRegistered = false;
+
+		InvalidationListener(Graph graph) {
+			this.graph = new WeakReference<>(graph);
+		}
+
+		synchronized void register() {
+			Graph target = graph.get();
+			if (!isRegistered && target != null) {
+				target.getEventManager().register(this);
+				isRegistered = true;
+			}
+		}
+
+		synchronized void unregister() {
+			Graph target = graph.get();
+			if (isRegistered && target != null) {
+				target.getEventManager().unregister(this);
+			}
+			isRegistered = false;
+		}
+
+		synchronized boolean isRegistered() {
+			return isRegistered;
+		}
+
+		private void invalidate() {
+			unregister();
+			Graph target = graph.get();
+			if (target != null) {
+				indexes.remove(target);
+			}
+		}
+
+		@Override
+		protected void addEvent(Triple triple) {
+			invalidate();
+		}
+
+		@Override
+		protected void deleteEvent(Triple triple) {
+			invalidate();
+		}
+
+	}
+
+}
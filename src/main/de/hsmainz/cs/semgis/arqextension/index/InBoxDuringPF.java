@@ -0,0 +1,81 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.pfunction.PFuncSimpleAndList;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.MeasureFilter;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+
+/**
+ * Resources with a measured geometry that has a vertex inside a box during an
+ * interval, found in the {@link SpatioTemporalIndex} of the active graph:
+ * <code>?feature geo2:inBoxDuring (minx miny maxx maxy from to [srsURI])</code>.<br>
+ * The interval bounds are xsd:dateTime values or m values, as stored by
+ * ST_MakePointT. The box is given in the SRS of the index unless an SRS URI is
+ * given.
+ */
+public class InBoxDuringPF extends PFuncSimpleAndList {
+
+	@Override
+	public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		super.build(argSubject, predicate, argObject, execCxt);
+		if (!argObject.isList() || argObject.getArgListSize() < 6 || argObject.getArgListSize() > 7) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes six or seven arguments");
+		}
+	}
+
+	@Override
+	public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object, ExecutionContext execCxt) {
+		for (Node arg : object.getArgList()) {
+			if (arg.isVariable()) {
+				throw new ExprEvalException("Property function '" + Lib.className(this) + "' argument not bound: " + arg);
+			}
+		}
+		SpatioTemporalIndex index = SpatioTemporalIndexRegistry.get(execCxt.getActiveGraph());
+		List<SpatioTemporalIndexItem> items;
+		try {
+			Envelope box = new Envelope(arg(object, 0).getDouble(), arg(object, 2).getDouble(), arg(object, 1).getDouble(), arg(object, 3).getDouble());
+			double from = MeasureFilter.toMeasure(arg(object, 4));
+			double to = MeasureFilter.toMeasure(arg(object, 5));
+			String srsURI = index.getSrsURI();
+			if (object.getArgListSize() == 7) {
+				NodeValue srs = arg(object, 6);
+				srsURI = srs.isIRI() ? srs.asNode().getURI() : srs.getString();
+			}
+			GeometryWrapper area = GeometryWrapperFactory.createGeometry(LiteralUtils.toGeometry(box), srsURI, WKTDatatype.URI);
+			items = index.queryWithin(area, from, to);
+		} catch (DatatypeFormatException | FactoryException | MismatchedDimensionException | TransformException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+		Set<Node> subjects = new LinkedHashSet<>();
+		for (SpatioTemporalIndexItem item : items) {
+			subjects.add(item.getSubject());
+		}
+		return SpatialIndexPropertyFunction.bindSubjects(binding, subject, subjects, execCxt);
+	}
+
+	private static NodeValue arg(PropFuncArg object, int index) {
+		return NodeValue.makeNode(object.getArg(index));
+	}
+
+}
@@ -0,0 +1,44 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.List;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+
+/**
+ * Resources whose geometry or raster intersects a box:
+ * <code>?feature geo2:intersectsBox (minx miny maxx maxy [srsURI])</code>.<br>
+ * The box is given in the SRS of the index unless an SRS URI is given.
+ */
+public class IntersectsBoxPF extends SpatialIndexPropertyFunction {
+
+	@Override
+	protected void checkBuild(int argCount) {
+		if (argCount < 4 || argCount > 5) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes four or five arguments");
+		}
+	}
+
+	@Override
+	protected List<SpatialIndexItem> search(SpatialIndex index, List<NodeValue> args) throws FactoryException, MismatchedDimensionException, TransformException {
+		Envelope box = new Envelope(args.get(0).getDouble(), args.get(2).getDouble(), args.get(1).getDouble(), args.get(3).getDouble());
+		String srsURI = index.getSrsURI();
+		if (args.size() == 5) {
+			NodeValue srs = args.get(4);
+			srsURI = srs.isIRI() ? srs.asNode().getURI() : srs.getString();
+		}
+		GeometryWrapper geometry = GeometryWrapperFactory.createGeometry(LiteralUtils.toGeometry(box), srsURI, WKTDatatype.URI);
+		return index.queryIntersects(geometry);
+	}
+
+}
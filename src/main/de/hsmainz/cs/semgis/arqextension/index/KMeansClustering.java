@@ -0,0 +1,396 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+
+/**
+ * k-means clustering of points held in primitive arrays, following
+ * ST_ClusterKMeans.
+ * <p>
+ * The centres are seeded by k-means++ and refined by Lloyd iterations until no
+ * point changes its cluster. The assignment step is split into chunks of a
+ * fixed size that are assigned in parallel on the pool shared with the spatial
+ * joins. Inputs larger than the mini-batch threshold are seeded from a sample
+ * and refined by mini-batch k-means, each iteration moving the centres towards
+ * a random batch of points, followed by one assignment of all points.
+ * <p>
+ * The seeds are drawn from a random generator of a fixed seed and the chunks
+ * do not depend on the parallelism, so the same input always gets the same
+ * clusters. Cluster ids are numbered from 0 in the order of the first point of
+ * each cluster.
+ */
+public class KMeansClustering {
+
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	/**
+	 * Number of points above which mini-batch k-means is used.
+	 */
+	public static final int DEFAULT_MINI_BATCH_THRESHOLD = 1000000;
+
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	public static final long DEFAULT_SEED = 42;
+
+	/**
+	 * Points assigned by one task.
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Minimum number of points of the sample seeding mini-batch k-means, per cluster.
+	 */
+	private static final int SEED_SAMPLE_PER_CLUSTER = 100;
+
+	private final int k;
+
+	private final int maxIterations;
+
+	private final int miniBatchThreshold;
+
+	private final int batchSize;
+
+	private final int parallelism;
+
+	private final long seed;
+
+	private double[] centreX;
+
+	private double[] centreY;
+
+	private int iterations;
+
+	/**
+	 *
+	 * @param k The number of clusters.
+	 */
+	public KMeansClustering(int k) {
+		this(k, DEFAULT_MAX_ITERATIONS, DEFAULT_MINI_BATCH_THRESHOLD, DEFAULT_BATCH_SIZE, PartitionedSpatialJoin.getDefaultParallelism(), DEFAULT_SEED);
+	}
+
+	/**
+	 *
+	 * @param k The number of clusters.
+	 * @param maxIterations The maximum number of Lloyd or mini-batch iterations.
+	 * @param miniBatchThreshold The number of points above which mini-batch k-means is used.
+	 * @param batchSize The number of points of a mini-batch.
+	 * @param parallelism The number of chunks assigned at the same time, 1 to assign them in the calling thread.
+	 * @param seed The seed of the random generator.
+	 */
+	public KMeansClustering(int k, int maxIterations, int miniBatchThreshold, int batchSize, int parallelism, long seed) {
+		if (k < 1) {
+			throw new IllegalArgumentException("Number of clusters must be positive: " + k);
+		}
+		this.k = k;
+		this.maxIterations = Math.max(1, maxIterations);
+		this.miniBatchThreshold = miniBatchThreshold;
+		this.batchSize = Math.max(1, batchSize);
+		this.parallelism = Math.max(1, parallelism);
+		this.seed = seed;
+	}
+
+	/**
+	 * Centroid of a geometry, read from the coordinate for a point.
+	 * @param geometry The geometry.
+	 * @param xy The array receiving x and y.
+	 * @return False if the geometry is empty.
+	 */
+	public static boolean centroid(Geometry geometry, double[] xy) {
+		if (geometry.isEmpty()) {
+			return false;
+		}
+		if (geometry instanceof Point) {
+			xy[0] = ((Point) geometry).getX();
+			xy[1] = ((Point) geometry).getY();
+		} else {
+			Point centroid = geometry.getCentroid();
+			xy[0] = centroid.getX();
+			xy[1] = centroid.getY();
+		}
+		return true;
+	}
+
+	/**
+	 * Clusters the points. Fewer clusters than k are formed if there are fewer
+	 * points than k.
+	 * @param x The x coordinates of the points.
+	 * @param y The y coordinates of the points.
+	 * @param count The number of points.
+	 * @return The cluster id of each point.
+	 */
+	public int[] cluster(double[] x, double[] y, int count) {
+		int clusters = Math.min(k, count);
+		int[] assignment = new int[count];
+		iterations = 0;
+		if (clusters == 0) {
+			centreX = new double[0];
+			centreY = new double[0];
+			return assignment;
+		}
+		Random random = new Random(seed);
+		if (count > miniBatchThreshold) {
+			int[] sample = sample(count, Math.max(batchSize, SEED_SAMPLE_PER_CLUSTER * clusters), random);
+			seed(x, y, count, sample, clusters, random);
+			miniBatch(x, y, count, random);
+			assign(x, y, count, assignment, false);
+		} else {
+			seed(x, y, count, null, clusters, random);
+			Arrays.fill(assignment, -1);
+			while (iterations < maxIterations) {
+				iterations++;
+				if (!assign(x, y, count, assignment, true)) {
+					break;
+				}
+			}
+		}
+		return renumber(assignment);
+	}
+
+	/**
+	 * k-means++ seeding: each further centre is drawn with a probability
+	 * proportional to the squared distance of a point to its nearest centre.
+	 * @param indexes The points to draw from, null for all.
+	 */
+	private void seed(double[] x, double[] y, int count, int[] indexes, int clusters, Random random) {
+		int size = indexes == null ? count : indexes.length;
+		centreX = new double[clusters];
+		centreY = new double[clusters];
+		double[] distances = new double[size];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		int chosen = random.nextInt(size);
+		for (int c = 0; c < clusters; c++) {
+			int point = indexes == null ? chosen : indexes[chosen];
+			centreX[c] = x[point];
+			centreY[c] = y[point];
+			double sum = 0;
+			for (int i = 0; i < size; i++) {
+				int p = indexes == null ? i : indexes[i];
+				double dx = x[p] - centreX[c];
+				double dy = y[p] - centreY[c];
+				distances[i] = Math.min(distances[i], dx * dx + dy * dy);
+				sum += distances[i];
+			}
+			if (sum == 0) {
+				//all points coincide with a centre, draw uniformly
+				chosen = random.nextInt(size);
+				continue;
+			}
+			double target = random.nextDouble() * sum;
+			chosen = size - 1;
+			for (int i = 0; i < size; i++) {
+				target -= distances[i];
+				if (target < 0) {
+					chosen = i;
+					break;
+				}
+			}
+		}
+	}
+
+	private static int[] sample(int count, int size, Random random) {
+		int[] sample = new int[Math.min(count, size)];
+		for (int i = 0; i < sample.length; i++) {
+			sample[i] = random.nextInt(count);
+		}
+		return sample;
+	}
+
+	/**
+	 * Mini-batch k-means: each point of a batch moves its nearest centre by a
+	 * step that shrinks with the number of points the centre has seen.
+	 */
+	private void miniBatch(double[] x, double[] y, int count, Random random) {
+		long[] seen = new long[centreX.length];
+		int[] batch = new int[Math.min(batchSize, count)];
+		int[] nearest = new int[batch.length];
+		for (iterations = 1; iterations <= maxIterations; iterations++) {
+			for (int i = 0; i < batch.length; i++) {
+				batch[i] = random.nextInt(count);
+				nearest[i] = nearest(x[batch[i]], y[batch[i]]);
+			}
+			for (int i = 0; i < batch.length; i++) {
+				int c = nearest[i];
+				double rate = 1.0 / ++seen[c];
+				centreX[c] += rate * (x[batch[i]] - centreX[c]);
+				centreY[c] += rate * (y[batch[i]] - centreY[c]);
+			}
+		}
+		iterations--;
+	}
+
+	/**
+	 * Assigns every point to its nearest centre and optionally moves the centres
+	 * to the mean of their points.
+	 * @return True if a point changed its cluster.
+	 */
+	private boolean assign(double[] x, double[] y, int count, int[] assignment, boolean update) {
+		List<Callable<ChunkResult>> tasks = new ArrayList<>();
+		for (int start = 0; start < count; start += CHUNK_SIZE) {
+			int from = start;
+			int to = Math.min(count, start + CHUNK_SIZE);
+			tasks.add(() -> assignChunk(x, y, from, to, assignment));
+		}
+		List<ChunkResult> results = invoke(tasks);
+		if (!update) {
+			return false;
+		}
+		int clusters = centreX.length;
+		double[] sumX = new double[clusters];
+		double[] sumY = new double[clusters];
+		long[] sizes = new long[clusters];
+		boolean isChanged = false;
+		for (ChunkResult result : results) {
+			for (int c = 0; c < clusters; c++) {
+				sumX[c] += result.sumX[c];
+				sumY[c] += result.sumY[c];
+				sizes[c] += result.sizes[c];
+			}
+			isChanged |= result.isChanged;
+		}
+		for (int c = 0; c < clusters; c++) {
+			//an empty cluster keeps its centre
+			if (sizes[c] > 0) {
+				centreX[c] = sumX[c] / sizes[c];
+				centreY[c] = sumY[c] / sizes[c];
+			}
+		}
+		return isChanged;
+	}
+
+	private ChunkResult assignChunk(double[] x, double[] y, int from, int to, int[] assignment) {
+		ChunkResult result = new ChunkResult(centreX.length);
+		for (int i = from; i < to; i++) {
+			int c = nearest(x[i], y[i]);
+			if (assignment[i] != c) {
+				assignment[i] = c;
+				result.isChanged = true;
+			}
+			result.sumX[c] += x[i];
+			result.sumY[c] += y[i];
+			result.sizes[c]++;
+		}
+		return result;
+	}
+
+	private int nearest(double px, double py) {
+		int nearest = 0;
+		double min = Double.POSITIVE_INFINITY;
+		for (int c = 0; c < centreX.length; c++) {
+			double dx = px - centreX[c];
+			double dy = py - centreY[c];
+			double distance = dx * dx + dy * dy;
+			if (distance < min) {
+				min = distance;
+				nearest = c;
+			}
+		}
+		return nearest;
+	}
+
+	private List<ChunkResult> invoke(List<Callable<ChunkResult>> tasks) {
+		List<ChunkResult> results = new ArrayList<>(tasks.size());
+		try {
+			if (parallelism == 1 || tasks.size() == 1) {
+				for (Callable<ChunkResult> task : tasks) {
+					results.add(task.call());
+				}
+				return results;
+			}
+			for (Future<ChunkResult> future : PartitionedSpatialJoin.getPool().invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("k-means interrupted", ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		} catch (RuntimeException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Numbers the clusters in the order of their first point, centres without
+	 * points last, and orders the centres accordingly.
+	 */
+	private int[] renumber(int[] assignment) {
+		int[] numbers = new int[centreX.length];
+		Arrays.fill(numbers, -1);
+		int next = 0;
+		for (int i = 0; i < assignment.length; i++) {
+			if (numbers[assignment[i]] == -1) {
+				numbers[assignment[i]] = next++;
+			}
+			assignment[i] = numbers[assignment[i]];
+		}
+		double[] x = new double[centreX.length];
+		double[] y = new double[centreY.length];
+		for (int c = 0; c < numbers.length; c++) {
+			if (numbers[c] == -1) {
+				numbers[c] = next++;
+			}
+			x[numbers[c]] = centreX[c];
+			y[numbers[c]] = centreY[c];
+		}
+		centreX = x;
+		centreY = y;
+		return assignment;
+	}
+
+	/**
+	 *
+	 * @return The x coordinates of the centres of the last clustering by cluster id.
+	 */
+	public double[] getCentreX() {
+		return centreX;
+	}
+
+	/**
+	 *
+	 * @return The y coordinates of the centres of the last clustering by cluster id.
+	 */
+	public double[] getCentreY() {
+		return centreY;
+	}
+
+	/**
+	 *
+	 * @return The number of iterations of the last clustering.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	private static class ChunkResult {
+
+		private final double[] sumX;
+
+		private final double[] sumY;
+
+		private final long[] sizes;
+
+		private boolean isChanged = false;
+
+		ChunkResult(int clusters) {
+			sumX = new double[clusters];
+			sumY = new double[clusters];
+			sizes = new long[clusters];
+		}
+
+	}
+
+}
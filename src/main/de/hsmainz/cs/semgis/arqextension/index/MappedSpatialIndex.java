@@ -0,0 +1,583 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.AbstractNode;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+
+/**
+ * {@link SpatialIndex} read from a memory-mapped file, so that a restart does not
+ * parse the spatial literals again.
+ * <p>
+ * The file holds a packed Hilbert R-tree: the spatial literals sorted by the
+ * Hilbert value of their envelope centre, grouped into nodes of
+ * {@link #NODE_CAPACITY} entries level by level up to a single root. As the tree
+ * is packed, the children of a node are found by position and only the envelopes
+ * are stored. Each literal record refers to the lexical form of the literal and to
+ * the IRIs of the resources it describes. Entries are created from the file when
+ * a query reaches them and kept afterwards.<br>
+ * Blank nodes get new labels on every parse, so the blank resources of a literal
+ * are looked up in the graph when the file is opened.
+ * <p>
+ * The file records the CRC32 checksum of the source it was built from and is
+ * only opened for a source with the same checksum.
+ * <pre>
+ * header   magic, version, checksum, node capacity, literals, levels, SRS URI, nodes per level
+ * literals minX, minY, maxX, maxY, literal term, first subject, subjects, flags
+ * nodes    minX, minY, maxX, maxY per node, leaf level first
+ * subjects subject term per literal subject
+ * terms    length and UTF-8 bytes of lexical forms, datatypes and IRIs
+ * </pre>
+ */
+public class MappedSpatialIndex extends SpatialIndex {
+
+	public static final int NODE_CAPACITY = 16;
+
+	private static final int MAGIC = 0x53504958;
+
+	private static final int VERSION = 1;
+
+	private static final int LITERAL_BYTES = 4 * Double.BYTES + 4 * Integer.BYTES;
+
+	private static final int NODE_BYTES = 4 * Double.BYTES;
+
+	private static final int RASTER = 1;
+
+	private static final int BLANK_SUBJECTS = 2;
+
+	/**
+	 * Hilbert curve order, the envelope centres are placed on a 2^16 x 2^16 grid.
+	 */
+	private static final int HILBERT_ORDER = 16;
+
+	private final MappedByteBuffer buffer;
+
+	private final int literalCount;
+
+	private final int literalsOffset;
+
+	private final int[] levelOffsets;
+
+	private final int[] levelSizes;
+
+	private final int subjectsOffset;
+
+	private final int termsOffset;
+
+	private final Map<Integer, List<Node>> blankSubjects;
+
+	private final AtomicReferenceArray<List<SpatialIndexItem>> items;
+
+	private MappedSpatialIndex(String srsURI, int size, MappedByteBuffer buffer, int literalCount, int literalsOffset, int[] levelOffsets, int[] levelSizes,
+			int subjectsOffset, int termsOffset, Map<Integer, List<Node>> blankSubjects) {
+		super(srsURI, size);
+		this.buffer = buffer;
+		this.literalCount = literalCount;
+		this.literalsOffset = literalsOffset;
+		this.levelOffsets = levelOffsets;
+		this.levelSizes = levelSizes;
+		this.subjectsOffset = subjectsOffset;
+		this.termsOffset = termsOffset;
+		this.blankSubjects = blankSubjects;
+		this.items = new AtomicReferenceArray<>(literalCount);
+	}
+
+	/**
+	 * CRC32 checksum of a file.
+	 * @param file The file.
+	 * @return The checksum.
+	 */
+	public static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] bytes = new byte[1 << 16];
+		try (InputStream in = new FileInputStream(file)) {
+			int read;
+			while ((read = in.read(bytes)) > 0) {
+				crc.update(bytes, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Maps an index file.
+	 * @param file The index file.
+	 * @param checksum The checksum of the source of the graph.
+	 * @param srsURI The SRS the index has to be in.
+	 * @param graph The graph, to look up the blank resources of the literals.
+	 * @return The index or null if the file is missing, of another version or SRS,
+	 * or built from another source.
+	 */
+	public static MappedSpatialIndex open(File file, long checksum, String srsURI, Graph graph) throws IOException {
+		if (!file.isFile()) {
+			return null;
+		}
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Spatial index file too large to map: " + file);
+			}
+			//The mapping stays valid after the channel is closed.
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < 32 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != checksum) {
+			return null;
+		}
+		int literalCount = buffer.getInt(20);
+		int levelCount = buffer.getInt(24);
+		int subjectCount = buffer.getInt(28);
+		int position = 32;
+		String fileSrsURI = readString(buffer, position);
+		if (!fileSrsURI.equals(srsURI)) {
+			return null;
+		}
+		position += Integer.BYTES + buffer.getInt(position);
+		int[] levelSizes = new int[levelCount];
+		for (int level = 0; level < levelCount; level++) {
+			levelSizes[level] = buffer.getInt(position);
+			position += Integer.BYTES;
+		}
+		int literalsOffset = position;
+		position += literalCount * LITERAL_BYTES;
+		int[] levelOffsets = new int[levelCount];
+		for (int level = 0; level < levelCount; level++) {
+			levelOffsets[level] = position;
+			position += levelSizes[level] * NODE_BYTES;
+		}
+		int subjectsOffset = position;
+		int termsOffset = subjectsOffset + subjectCount * Integer.BYTES;
+		MappedSpatialIndex index = new MappedSpatialIndex(srsURI, 0, buffer, literalCount, literalsOffset, levelOffsets, levelSizes, subjectsOffset, termsOffset,
+				new HashMap<>());
+		return index.withBlankSubjects(graph, subjectCount);
+	}
+
+	/**
+	 * Looks up the blank resources of the flagged literals and counts the entries.
+	 */
+	private MappedSpatialIndex withBlankSubjects(Graph graph, int subjectCount) {
+		int size = subjectCount;
+		Map<Integer, List<Node>> blank = new HashMap<>();
+		for (int i = 0; i < literalCount; i++) {
+			if ((buffer.getInt(literalOffset(i) + LITERAL_BYTES - Integer.BYTES) & BLANK_SUBJECTS) == 0) {
+				continue;
+			}
+			Node literal = readLiteral(i);
+			Set<Node> subjects = new LinkedHashSet<>();
+			ExtendedIterator<Triple> triples = graph.find(Node.ANY, Node.ANY, literal);
+			try {
+				while (triples.hasNext()) {
+					subjects.add(triples.next().getSubject());
+				}
+			} finally {
+				triples.close();
+			}
+			List<Node> nodes = new ArrayList<>();
+			for (Node subject : subjects) {
+				if (subject.isBlank()) {
+					nodes.add(subject);
+				}
+				for (Node feature : SpatialIndex.findFeatures(graph, subject)) {
+					if (feature.isBlank()) {
+						nodes.add(feature);
+					}
+				}
+			}
+			blank.put(i, nodes);
+			size += nodes.size();
+		}
+		return new MappedSpatialIndex(getSrsURI(), size, buffer, literalCount, literalsOffset, levelOffsets, levelSizes, subjectsOffset, termsOffset, blank);
+	}
+
+	/**
+	 * Writes the entries of an index into a file, replacing it.
+	 * @param items The entries, see {@link SpatialIndex#createItems(Graph, String)}.
+	 * @param srsURI The SRS of the entry envelopes.
+	 * @param checksum The checksum of the source of the graph.
+	 * @param file The index file.
+	 */
+	public static void write(Collection<SpatialIndexItem> items, String srsURI, long checksum, File file) throws IOException {
+		Map<Node, List<SpatialIndexItem>> byLiteral = new LinkedHashMap<>();
+		for (SpatialIndexItem item : items) {
+			byLiteral.computeIfAbsent(item.getLiteral(), literal -> new ArrayList<>()).add(item);
+		}
+		List<List<SpatialIndexItem>> literals = hilbertSort(new ArrayList<>(byLiteral.values()));
+		List<double[]> levels = new ArrayList<>();
+		double[] bounds = new double[literals.size() * 4];
+		for (int i = 0; i < literals.size(); i++) {
+			Envelope envelope = literals.get(i).get(0).getEnvelope();
+			bounds[i * 4] = envelope.getMinX();
+			bounds[i * 4 + 1] = envelope.getMinY();
+			bounds[i * 4 + 2] = envelope.getMaxX();
+			bounds[i * 4 + 3] = envelope.getMaxY();
+		}
+		while (bounds.length > 0 && (levels.isEmpty() || bounds.length > 4)) {
+			bounds = parentBounds(bounds);
+			levels.add(bounds);
+		}
+		List<String> subjectTerms = new ArrayList<>();
+		Map<String, Integer> subjectIds = new HashMap<>();
+		List<Integer> subjects = new ArrayList<>();
+		long termBytes = 0;
+		for (List<SpatialIndexItem> literal : literals) {
+			Node node = literal.get(0).getLiteral();
+			termBytes += termLength(node.getLiteralLexicalForm()) + termLength(node.getLiteralDatatypeURI());
+			for (SpatialIndexItem item : literal) {
+				if (item.getSubject().isURI()) {
+					String uri = item.getSubject().getURI();
+					Integer id = subjectIds.get(uri);
+					if (id == null) {
+						id = subjectTerms.size();
+						subjectIds.put(uri, id);
+						subjectTerms.add(uri);
+					}
+					subjects.add(id);
+				}
+			}
+		}
+		//Offsets of the subject terms behind the literal terms
+		int[] subjectOffsets = new int[subjectTerms.size()];
+		for (int i = 0; i < subjectTerms.size(); i++) {
+			subjectOffsets[i] = (int) termBytes;
+			termBytes += termLength(subjectTerms.get(i));
+		}
+		if (termBytes > Integer.MAX_VALUE / 2) {
+			throw new IOException("Spatial index too large for a mapped file: " + termBytes + " bytes of terms");
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(checksum);
+			out.writeInt(NODE_CAPACITY);
+			out.writeInt(literals.size());
+			out.writeInt(levels.size());
+			out.writeInt(subjects.size());
+			writeString(out, srsURI);
+			for (double[] level : levels) {
+				out.writeInt(level.length / 4);
+			}
+			int literalTerm = 0;
+			int firstSubject = 0;
+			for (List<SpatialIndexItem> literal : literals) {
+				SpatialIndexItem first = literal.get(0);
+				Envelope envelope = first.getEnvelope();
+				out.writeDouble(envelope.getMinX());
+				out.writeDouble(envelope.getMinY());
+				out.writeDouble(envelope.getMaxX());
+				out.writeDouble(envelope.getMaxY());
+				int subjectCount = 0;
+				int flags = first.isRaster() ? RASTER : 0;
+				for (SpatialIndexItem item : literal) {
+					if (item.getSubject().isURI()) {
+						subjectCount++;
+					} else {
+						flags |= BLANK_SUBJECTS;
+					}
+				}
+				out.writeInt(literalTerm);
+				out.writeInt(firstSubject);
+				out.writeInt(subjectCount);
+				out.writeInt(flags);
+				literalTerm += termLength(first.getLiteral().getLiteralLexicalForm()) + termLength(first.getLiteral().getLiteralDatatypeURI());
+				firstSubject += subjectCount;
+			}
+			for (double[] level : levels) {
+				for (double value : level) {
+					out.writeDouble(value);
+				}
+			}
+			for (Integer subject : subjects) {
+				out.writeInt(subjectOffsets[subject]);
+			}
+			for (List<SpatialIndexItem> literal : literals) {
+				writeString(out, literal.get(0).getLiteral().getLiteralLexicalForm());
+				writeString(out, literal.get(0).getLiteral().getLiteralDatatypeURI());
+			}
+			for (String subjectTerm : subjectTerms) {
+				writeString(out, subjectTerm);
+			}
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Sorts the literals by the Hilbert value of their envelope centre.
+	 */
+	private static List<List<SpatialIndexItem>> hilbertSort(List<List<SpatialIndexItem>> literals) {
+		Envelope extent = new Envelope();
+		for (List<SpatialIndexItem> literal : literals) {
+			extent.expandToInclude(literal.get(0).getEnvelope());
+		}
+		int side = (1 << HILBERT_ORDER) - 1;
+		long[] values = new long[literals.size()];
+		Integer[] order = new Integer[literals.size()];
+		for (int i = 0; i < values.length; i++) {
+			Envelope envelope = literals.get(i).get(0).getEnvelope();
+			int x = extent.getWidth() > 0 ? (int) ((envelope.centre().x - extent.getMinX()) / extent.getWidth() * side) : 0;
+			int y = extent.getHeight() > 0 ? (int) ((envelope.centre().y - extent.getMinY()) / extent.getHeight() * side) : 0;
+			values[i] = hilbertValue(x, y);
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingLong(i -> values[i]));
+		List<List<SpatialIndexItem>> sorted = new ArrayList<>(literals.size());
+		for (Integer i : order) {
+			sorted.add(literals.get(i));
+		}
+		return sorted;
+	}
+
+	/**
+	 * Position of a grid cell along the Hilbert curve of {@link #HILBERT_ORDER}.
+	 */
+	static long hilbertValue(int x, int y) {
+		long value = 0;
+		for (int s = 1 << (HILBERT_ORDER - 1); s > 0; s >>= 1) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			value += (long) s * s * ((3 * rx) ^ ry);
+			//rotate the quadrant
+			if (ry == 0) {
+				if (rx == 1) {
+					x = s - 1 - x;
+					y = s - 1 - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Envelopes of the nodes grouping {@link #NODE_CAPACITY} consecutive envelopes.
+	 */
+	private static double[] parentBounds(double[] bounds) {
+		int count = bounds.length / 4;
+		int parents = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		double[] parentBounds = new double[parents * 4];
+		for (int parent = 0; parent < parents; parent++) {
+			double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			for (int child = parent * NODE_CAPACITY; child < Math.min(count, (parent + 1) * NODE_CAPACITY); child++) {
+				minX = Math.min(minX, bounds[child * 4]);
+				minY = Math.min(minY, bounds[child * 4 + 1]);
+				maxX = Math.max(maxX, bounds[child * 4 + 2]);
+				maxY = Math.max(maxY, bounds[child * 4 + 3]);
+			}
+			parentBounds[parent * 4] = minX;
+			parentBounds[parent * 4 + 1] = minY;
+			parentBounds[parent * 4 + 2] = maxX;
+			parentBounds[parent * 4 + 3] = maxY;
+		}
+		return parentBounds;
+	}
+
+	private static int termLength(String term) {
+		return Integer.BYTES + term.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer, int position) {
+		byte[] bytes = new byte[buffer.getInt(position)];
+		//A duplicate, as the position of the shared buffer must not move
+		ByteBuffer view = buffer.duplicate();
+		view.position(position + Integer.BYTES);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int literalOffset(int literal) {
+		return literalsOffset + literal * LITERAL_BYTES;
+	}
+
+	private Envelope readEnvelope(int offset) {
+		return new Envelope(buffer.getDouble(offset), buffer.getDouble(offset + 2 * Double.BYTES), buffer.getDouble(offset + Double.BYTES),
+				buffer.getDouble(offset + 3 * Double.BYTES));
+	}
+
+	private boolean intersects(int offset, Envelope envelope) {
+		return buffer.getDouble(offset) <= envelope.getMaxX() && buffer.getDouble(offset + 2 * Double.BYTES) >= envelope.getMinX()
+				&& buffer.getDouble(offset + Double.BYTES) <= envelope.getMaxY() && buffer.getDouble(offset + 3 * Double.BYTES) >= envelope.getMinY();
+	}
+
+	private Node readLiteral(int literal) {
+		int offset = termsOffset + buffer.getInt(literalOffset(literal) + 4 * Double.BYTES);
+		String lexicalForm = readString(buffer, offset);
+		String datatypeURI = readString(buffer, offset + Integer.BYTES + buffer.getInt(offset));
+		return NodeFactory.createLiteral(lexicalForm, TypeMapper.getInstance().getSafeTypeByName(datatypeURI));
+	}
+
+	/**
+	 * The entries of a literal, created on first use.
+	 */
+	private List<SpatialIndexItem> getItems(int literal) {
+		List<SpatialIndexItem> literalItems = items.get(literal);
+		if (literalItems != null) {
+			return literalItems;
+		}
+		int offset = literalOffset(literal);
+		Envelope envelope = readEnvelope(offset);
+		int firstSubject = buffer.getInt(offset + 4 * Double.BYTES + Integer.BYTES);
+		int subjectCount = buffer.getInt(offset + 4 * Double.BYTES + 2 * Integer.BYTES);
+		int flags = buffer.getInt(offset + 4 * Double.BYTES + 3 * Integer.BYTES);
+		Node node = readLiteral(literal);
+		GeometryWrapper footprint = (flags & RASTER) != 0 ? getFootprint(CoverageWrapper.extract(node)) : null;
+		literalItems = new ArrayList<>();
+		for (int i = 0; i < subjectCount; i++) {
+			String uri = readString(buffer, termsOffset + buffer.getInt(subjectsOffset + (firstSubject + i) * Integer.BYTES));
+			literalItems.add(new SpatialIndexItem(NodeFactory.createURI(uri), node, envelope, footprint));
+		}
+		for (Node subject : blankSubjects.getOrDefault(literal, Collections.emptyList())) {
+			literalItems.add(new SpatialIndexItem(subject, node, envelope, footprint));
+		}
+		literalItems = Collections.unmodifiableList(literalItems);
+		items.compareAndSet(literal, null, literalItems);
+		return items.get(literal);
+	}
+
+	@Override
+	public List<SpatialIndexItem> query(Envelope envelope) {
+		List<SpatialIndexItem> results = new ArrayList<>();
+		if (literalCount == 0) {
+			return results;
+		}
+		//Pairs of level and node index
+		int[] stack = new int[2 * NODE_CAPACITY * levelSizes.length + 2];
+		int top = 0;
+		stack[top++] = levelSizes.length - 1;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			int level = stack[--top];
+			if (!intersects(levelOffsets[level] + node * NODE_BYTES, envelope)) {
+				continue;
+			}
+			int firstChild = node * NODE_CAPACITY;
+			if (level == 0) {
+				for (int literal = firstChild; literal < Math.min(literalCount, firstChild + NODE_CAPACITY); literal++) {
+					if (intersects(literalOffset(literal), envelope)) {
+						results.addAll(getItems(literal));
+					}
+				}
+			} else {
+				for (int child = firstChild; child < Math.min(levelSizes[level - 1], firstChild + NODE_CAPACITY); child++) {
+					stack[top++] = level - 1;
+					stack[top++] = child;
+				}
+			}
+		}
+		return results;
+	}
+
+	@Override
+	AbstractNode getRoot() {
+		if (literalCount == 0) {
+			return null;
+		}
+		return new MappedNode(levelSizes.length - 1, 0);
+	}
+
+	@Override
+	public String toString() {
+		return "MappedSpatialIndex{srsURI=" + getSrsURI() + ", size=" + size() + ", literals=" + literalCount + ", levels=" + Arrays.toString(levelSizes) + "}";
+	}
+
+	/**
+	 * Node of the mapped tree for searches walking the tree, e.g. {@link NearestNeighbourSearch}.
+	 * The children are read from the file on each call.
+	 */
+	private class MappedNode extends AbstractNode {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		private MappedNode(int level, int index) {
+			super(level);
+			this.index = index;
+		}
+
+		@Override
+		protected Object computeBounds() {
+			return readEnvelope(levelOffsets[getLevel()] + index * NODE_BYTES);
+		}
+
+		@Override
+		@SuppressWarnings("rawtypes")
+		public List getChildBoundables() {
+			List<Object> children = new ArrayList<>();
+			int firstChild = index * NODE_CAPACITY;
+			if (getLevel() == 0) {
+				for (int literal = firstChild; literal < Math.min(literalCount, firstChild + NODE_CAPACITY); literal++) {
+					for (SpatialIndexItem item : getItems(literal)) {
+						children.add(new ItemBoundable(item.getEnvelope(), item));
+					}
+				}
+			} else {
+				for (int child = firstChild; child < Math.min(levelSizes[getLevel() - 1], firstChild + NODE_CAPACITY); child++) {
+					children.add(new MappedNode(getLevel() - 1, child));
+				}
+			}
+			return children;
+		}
+
+		@Override
+		public int size() {
+			return getChildBoundables().size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return false;
+		}
+
+	}
+
+}
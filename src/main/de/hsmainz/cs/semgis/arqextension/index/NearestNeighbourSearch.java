@@ -0,0 +1,194 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.AbstractNode;
+import org.locationtech.jts.index.strtree.Boundable;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.operation.distance.IndexedFacetDistance;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.UnitsOfMeasure;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Unit_URI;
+
+/**
+ * Best-first k-nearest-neighbour search over the STR-tree of a {@link SpatialIndex}.
+ * <p>
+ * Tree nodes and entries are visited in the order of a lower bound of their distance
+ * to the search geometry. An entry is refined to its exact distance when it is
+ * reached, and returned when it is reached again with that distance, so the
+ * search stops as soon as no closer entry can remain in the queue.<br>
+ * In a projected index the distance is Euclidean in the units of the SRS, measured
+ * by an {@link IndexedFacetDistance} of the search geometry. In a geographic index
+ * it is the great circle distance in metres of
+ * {@link GeometryWrapper#distanceGreatCircle(GeometryWrapper, String)}, bounded by
+ * the latitude and longitude gaps between envelopes.
+ * <p>
+ * k counts spatial literals: all resources described by the k nearest literals are
+ * returned, e.g. a geometry and its feature.
+ */
+class NearestNeighbourSearch {
+
+	private final SpatialIndex index;
+
+	private final GeometryWrapper geometry;
+
+	private final Envelope envelope;
+
+	private final boolean isGreatCircle;
+
+	private final IndexedFacetDistance facetDistance;
+
+	private final Map<Node, Double> literalDistances = new HashMap<>();
+
+	NearestNeighbourSearch(SpatialIndex index, GeometryWrapper geometry) throws FactoryException, MismatchedDimensionException, TransformException {
+		this.index = index;
+		this.geometry = geometry;
+		GeometryWrapper search = geometry.transform(index.getSrsURI());
+		this.envelope = search.getEnvelope();
+		this.isGreatCircle = index.getSrsInfo().isGeographic();
+		this.facetDistance = isGreatCircle ? null : new IndexedFacetDistance(search.getXYGeometry());
+	}
+
+	/**
+	 * Converts a distance into the distance unit of the search.
+	 * @param distance The distance.
+	 * @param unitsURI The units of the distance.
+	 * @return Metres in a geographic index, the units of the SRS otherwise.
+	 */
+	double toSearchUnits(double distance, String unitsURI) {
+		double metres = UnitsOfMeasure.convertToMetres(distance, unitsURI, envelope.centre().y);
+		if (isGreatCircle) {
+			return metres;
+		}
+		return UnitsOfMeasure.conversion(metres, UnitsOfMeasure.METRE_UNITS, index.getSrsInfo().getUnitsOfMeasure());
+	}
+
+	/**
+	 *
+	 * @param k The number of literals to find.
+	 * @param maxDistance The maximum distance in search units.
+	 * @return The entries of the nearest literals, closest first.
+	 */
+	List<SpatialIndexItem> search(int k, double maxDistance, AbstractNode root) throws FactoryException, MismatchedDimensionException, TransformException {
+		List<SpatialIndexItem> results = new ArrayList<>();
+		if (k <= 0 || root == null || root.isEmpty()) {
+			return results;
+		}
+		Set<Node> literals = new HashSet<>();
+		double kthDistance = Double.POSITIVE_INFINITY;
+		PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		queue.add(new Candidate(root, null, 0, false));
+		while (!queue.isEmpty()) {
+			Candidate candidate = queue.poll();
+			if (candidate.distance > maxDistance || candidate.distance > kthDistance) {
+				break;
+			}
+			if (candidate.node != null) {
+				for (Object child : candidate.node.getChildBoundables()) {
+					Boundable boundable = (Boundable) child;
+					double bound = lowerBound((Envelope) boundable.getBounds());
+					if (bound <= maxDistance) {
+						if (boundable instanceof ItemBoundable) {
+							queue.add(new Candidate(null, (SpatialIndexItem) ((ItemBoundable) boundable).getItem(), bound, false));
+						} else {
+							queue.add(new Candidate((AbstractNode) boundable, null, bound, false));
+						}
+					}
+				}
+			} else if (!candidate.isExact) {
+				double distance = distance(candidate.item);
+				if (distance <= maxDistance) {
+					queue.add(new Candidate(null, candidate.item, distance, true));
+				}
+			} else if (literals.contains(candidate.item.getLiteral()) || literals.size() < k) {
+				//Further entries of an accepted literal share its distance.
+				literals.add(candidate.item.getLiteral());
+				results.add(candidate.item);
+				if (literals.size() == k) {
+					kthDistance = candidate.distance;
+				}
+			}
+		}
+		return results;
+	}
+
+	private double distance(SpatialIndexItem item) throws FactoryException, MismatchedDimensionException, TransformException {
+		Double distance = literalDistances.get(item.getLiteral());
+		if (distance == null) {
+			if (isGreatCircle) {
+				distance = geometry.distanceGreatCircle(item.getGeometryWrapper(), Unit_URI.METRE_URL);
+			} else {
+				distance = facetDistance.distance(item.getGeometryWrapper().transform(index.getSrsURI()).getXYGeometry());
+			}
+			literalDistances.put(item.getLiteral(), distance);
+		}
+		return distance;
+	}
+
+	/**
+	 * Lower bound of the distance between the search geometry and anything inside the envelope.
+	 */
+	private double lowerBound(Envelope bounds) {
+		if (!isGreatCircle) {
+			return envelope.distance(bounds);
+		}
+		double latitudeGap = Math.max(0, Math.max(bounds.getMinY() - envelope.getMaxY(), envelope.getMinY() - bounds.getMaxY()));
+		double longitudeGap = Math.min(longitudeGap(bounds, 0), Math.min(longitudeGap(bounds, 360), longitudeGap(bounds, -360)));
+		double latitudeBound = UnitsOfMeasure.EARTH_MEAN_RADIUS * Math.toRadians(latitudeGap);
+		if (longitudeGap == 0) {
+			return latitudeBound;
+		}
+		//haversine: hav(d) >= cos(lat1) * cos(lat2) * hav(dLon), with both cosines at least cos(maxLatitude)
+		double maxLatitude = Math.min(90, Math.max(Math.max(Math.abs(bounds.getMinY()), Math.abs(bounds.getMaxY())),
+				Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY()))));
+		double sinHalf = Math.cos(Math.toRadians(maxLatitude)) * Math.sin(Math.toRadians(Math.min(longitudeGap, 180)) / 2);
+		double longitudeBound = 2 * UnitsOfMeasure.EARTH_MEAN_RADIUS * Math.asin(Math.min(1, sinHalf));
+		return Math.max(latitudeBound, longitudeBound);
+	}
+
+	private double longitudeGap(Envelope bounds, double shift) {
+		return Math.max(0, Math.max(bounds.getMinX() + shift - envelope.getMaxX(), envelope.getMinX() - bounds.getMaxX() - shift));
+	}
+
+	private static class Candidate implements Comparable<Candidate> {
+
+		private final AbstractNode node;
+
+		private final SpatialIndexItem item;
+
+		private final double distance;
+
+		private final boolean isExact;
+
+		private Candidate(AbstractNode node, SpatialIndexItem item, double distance, boolean isExact) {
+			this.node = node;
+			this.item = item;
+			this.distance = distance;
+			this.isExact = isExact;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			int compare = Double.compare(distance, other.distance);
+			if (compare == 0) {
+				//Exact distances first, so that ties are decided without further refinement.
+				compare = Boolean.compare(other.isExact, isExact);
+			}
+			return compare;
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.op.OpExt;
+import org.apache.jena.sparql.algebra.op.OpFilter;
+import org.apache.jena.sparql.algebra.op.OpJoin;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.serializer.SerializationContext;
+import org.apache.jena.sparql.sse.writers.WriterExpr;
+import org.apache.jena.sparql.util.NodeIsomorphismMap;
+
+/**
+ * Join of two independent patterns filtered by a spatial relation between a
+ * variable of each side.
+ * <p>
+ * The left side binds the first argument of the relation function, the right side
+ * the second one. The operator stands for the filter over the join of both sides,
+ * which is also its {@link #effectiveOp()}, but evaluates it through
+ * {@link QueryIterSpatialJoin} instead of testing every pair of solutions.
+ */
+public class OpSpatialJoin extends OpExt {
+
+	public static final String TAG = "spatialjoin";
+
+	private final SpatialJoinPredicate predicate;
+
+	private final Expr spatialExpr;
+
+	private final Var first;
+
+	private final Var second;
+
+	private final double distance;
+
+	private final Op left;
+
+	private final Op right;
+
+	private final ExprList exprs;
+
+	/**
+	 *
+	 * @param predicate The relation.
+	 * @param spatialExpr The relation function call.
+	 * @param first The variable of the first argument, bound by the left side.
+	 * @param second The variable of the second argument, bound by the right side.
+	 * @param distance The distance of ST_DWithin, 0 otherwise.
+	 * @param left The left side.
+	 * @param right The right side.
+	 * @param exprs All filter expressions, including the relation function call.
+	 */
+	public OpSpatialJoin(SpatialJoinPredicate predicate, Expr spatialExpr, Var first, Var second, double distance, Op left, Op right, ExprList exprs) {
+		super(TAG);
+		this.predicate = predicate;
+		this.spatialExpr = spatialExpr;
+		this.first = first;
+		this.second = second;
+		this.distance = distance;
+		this.left = left;
+		this.right = right;
+		this.exprs = exprs;
+	}
+
+	public SpatialJoinPredicate getPredicate() {
+		return predicate;
+	}
+
+	public Expr getSpatialExpr() {
+		return spatialExpr;
+	}
+
+	/**
+	 *
+	 * @return The filter expressions other than the relation function call.
+	 */
+	public List<Expr> getOtherExprs() {
+		List<Expr> others = new ArrayList<>(exprs.size());
+		for (Expr expr : exprs) {
+			if (expr != spatialExpr) {
+				others.add(expr);
+			}
+		}
+		return others;
+	}
+
+	public Var getFirst() {
+		return first;
+	}
+
+	public Var getSecond() {
+		return second;
+	}
+
+	public double getDistance() {
+		return distance;
+	}
+
+	public Op getLeft() {
+		return left;
+	}
+
+	public Op getRight() {
+		return right;
+	}
+
+	public ExprList getExprs() {
+		return exprs;
+	}
+
+	@Override
+	public Op effectiveOp() {
+		return OpFilter.filterBy(exprs, OpJoin.create(left, right));
+	}
+
+	@Override
+	public QueryIterator eval(QueryIterator input, ExecutionContext execCxt) {
+		return new QueryIterSpatialJoin(input, this, execCxt);
+	}
+
+	@Override
+	public void outputArgs(IndentedWriter out, SerializationContext sCxt) {
+		out.print(predicate.name());
+		out.print(" ");
+		out.print(first.toString());
+		out.print(" ");
+		out.print(second.toString());
+		out.println();
+		WriterExpr.output(out, exprs, sCxt);
+		out.println();
+		left.output(out, sCxt);
+		right.output(out, sCxt);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(TAG, predicate, first, second, distance, left, right, exprs);
+	}
+
+	@Override
+	public boolean equalTo(Op other, NodeIsomorphismMap labelMap) {
+		if (!(other instanceof OpSpatialJoin)) {
+			return false;
+		}
+		OpSpatialJoin join = (OpSpatialJoin) other;
+		return predicate == join.predicate && first.equals(join.first) && second.equals(join.second)
+				&& Double.compare(distance, join.distance) == 0 && exprs.equals(join.exprs)
+				&& left.equalTo(join.left, labelMap) && right.equalTo(join.right, labelMap);
+	}
+
+}
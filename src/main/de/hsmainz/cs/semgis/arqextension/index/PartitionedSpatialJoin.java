@@ -0,0 +1,375 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * Parallel spatial join of two lists by their envelopes.
+ * <p>
+ * The extent of the build side is cut into an adaptive grid whose column and row
+ * boundaries are quantiles of the build envelope centres, so that dense regions get
+ * smaller cells. Every build item is assigned to the cells its envelope overlaps,
+ * every probe item to the cells its search window overlaps. The cells are joined
+ * in parallel, each with an STR-tree over its build items. A pair found in several
+ * cells is only kept in the cell holding its reference point, the lower left
+ * corner of the intersection of envelope and window, so each pair is reported once
+ * without a shared set of seen pairs.<br>
+ * The cells are joined on a pool of the configured parallelism, shared by all
+ * joins. {@link #getStatistics()} describes the partitions of the last join.
+ *
+ * @param <B> The build items.
+ * @param <P> The probe items.
+ * @param <R> The results.
+ */
+public class PartitionedSpatialJoin<B, P, R> {
+
+	/**
+	 * Items per cell aimed at when sizing the grid.
+	 */
+	public static final int DEFAULT_PARTITION_SIZE = 4096;
+
+	/**
+	 * Minimum number of cells per thread, so that a skewed cell does not leave
+	 * the other threads idle.
+	 */
+	private static final int CELLS_PER_THREAD = 4;
+
+	private static int defaultParallelism = Runtime.getRuntime().availableProcessors();
+
+	private static ForkJoinPool pool;
+
+	private final int parallelism;
+
+	private final int partitionSize;
+
+	private SpatialJoinStatistics statistics;
+
+	public PartitionedSpatialJoin() {
+		this(defaultParallelism, DEFAULT_PARTITION_SIZE);
+	}
+
+	/**
+	 *
+	 * @param parallelism The number of cells joined at the same time.
+	 * @param partitionSize The number of items per cell aimed at.
+	 */
+	public PartitionedSpatialJoin(int parallelism, int partitionSize) {
+		this.parallelism = Math.max(1, parallelism);
+		this.partitionSize = Math.max(1, partitionSize);
+	}
+
+	public static synchronized int getDefaultParallelism() {
+		return defaultParallelism;
+	}
+
+	/**
+	 * Sets the parallelism of joins created without one and of the shared pool.
+	 * The shared pool is replaced, tasks already submitted to the previous one
+	 * still complete on it.
+	 * @param parallelism The number of threads.
+	 */
+	public static synchronized void setDefaultParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		if (parallelism != defaultParallelism && pool != null) {
+			ForkJoinPool previous = pool;
+			pool = new ForkJoinPool(parallelism);
+			previous.shutdown();
+		}
+		defaultParallelism = parallelism;
+	}
+
+	/**
+	 * Pool of the default parallelism shared by the joins, the k-means
+	 * assignment, the union aggregate and the raster tiles.
+	 * @return The shared pool.
+	 */
+	static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(defaultParallelism);
+		}
+		return pool;
+	}
+
+	/**
+	 * Submits a task to the shared pool.
+	 * @param task The task.
+	 * @return The submitted task, to be joined by the caller.
+	 */
+	public static <T> ForkJoinTask<T> submit(Callable<T> task) {
+		return getPool().submit(task);
+	}
+
+	/**
+	 * Runs a task on the shared pool and waits for its result.
+	 * @param task The task, which may fork subtasks.
+	 * @return The result of the task.
+	 */
+	public static <T> T invoke(ForkJoinTask<T> task) {
+		return getPool().invoke(task);
+	}
+
+	/**
+	 * Applies a function to each item of a list on the shared pool.
+	 * @param items The items.
+	 * @param function The function, called from several threads.
+	 * @param parallelism The number of threads, 1 to apply it in the calling thread.
+	 * @return The results in the order of the items.
+	 */
+	public static <T, U> List<U> map(List<T> items, Function<T, U> function, int parallelism) {
+		if (parallelism <= 1 || items.size() < 2) {
+			List<U> results = new ArrayList<>(items.size());
+			for (T item : items) {
+				results.add(function.apply(item));
+			}
+			return results;
+		}
+		boolean isShared = parallelism == getDefaultParallelism();
+		ForkJoinPool executor = isShared ? getPool() : new ForkJoinPool(parallelism);
+		try {
+			//A parallel stream started inside a pool runs on that pool.
+			return executor.submit(() -> items.parallelStream().map(function).collect(Collectors.toList())).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", ex);
+		} catch (ExecutionException ex) {
+			throw unwrap(ex);
+		} finally {
+			if (!isShared) {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private static RuntimeException unwrap(ExecutionException ex) {
+		if (ex.getCause() instanceof RuntimeException) {
+			return (RuntimeException) ex.getCause();
+		}
+		return new IllegalStateException(ex.getCause());
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 *
+	 * @return The statistics of the last join or null.
+	 */
+	public SpatialJoinStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Joins the lists.
+	 * @param build The build items, usually the smaller list.
+	 * @param buildEnvelope The envelope of a build item.
+	 * @param probe The probe items.
+	 * @param probeWindow The envelope a matching build item has to intersect.
+	 * @param refine The result of a candidate pair or null if the pair does not match.
+	 * @return The results, in no particular order.
+	 */
+	public List<R> join(List<B> build, Function<B, Envelope> buildEnvelope, List<P> probe, Function<P, Envelope> probeWindow, BiFunction<B, P, R> refine) {
+		long start = System.nanoTime();
+		Envelope[] buildEnvelopes = new Envelope[build.size()];
+		Envelope extent = new Envelope();
+		for (int i = 0; i < buildEnvelopes.length; i++) {
+			buildEnvelopes[i] = buildEnvelope.apply(build.get(i));
+			extent.expandToInclude(buildEnvelopes[i]);
+		}
+		if (extent.isNull() || probe.isEmpty()) {
+			statistics = new SpatialJoinStatistics(0, build.size(), probe.size(), new int[0], new int[0], 0, 0, System.nanoTime() - start);
+			return new ArrayList<>();
+		}
+		int cellCount = Math.max(parallelism * CELLS_PER_THREAD, (build.size() + probe.size()) / partitionSize);
+		double aspect = extent.getHeight() > 0 ? extent.getWidth() / extent.getHeight() : 1;
+		int columns = (int) Math.max(1, Math.min(cellCount, Math.round(Math.sqrt(cellCount * aspect))));
+		int rows = Math.max(1, cellCount / columns);
+		double[] columnBounds = quantiles(buildEnvelopes, true, columns);
+		double[] rowBounds = quantiles(buildEnvelopes, false, rows);
+		int columnCount = columnBounds.length + 1;
+		int rowCount = rowBounds.length + 1;
+		List<List<Integer>> buildCells = cells(columnCount * rowCount);
+		List<List<Integer>> probeCells = cells(columnCount * rowCount);
+		Envelope[] windows = new Envelope[probe.size()];
+		long assignedBuild = assign(buildEnvelopes, columnBounds, rowBounds, buildCells);
+		for (int i = 0; i < windows.length; i++) {
+			Envelope window = probeWindow.apply(probe.get(i));
+			windows[i] = window == null || !window.intersects(extent) ? null : window.intersection(extent);
+		}
+		long assignedProbe = assign(windows, columnBounds, rowBounds, probeCells);
+		List<Callable<CellResult>> tasks = new ArrayList<>();
+		for (int cell = 0; cell < buildCells.size(); cell++) {
+			List<Integer> buildItems = buildCells.get(cell);
+			List<Integer> probeItems = probeCells.get(cell);
+			if (!buildItems.isEmpty() && !probeItems.isEmpty()) {
+				int column = cell % columnCount;
+				int row = cell / columnCount;
+				tasks.add(() -> joinCell(column, row, columnBounds, rowBounds, build, buildEnvelopes, buildItems, probe, windows, probeItems, refine));
+			}
+		}
+		List<R> results = new ArrayList<>();
+		int[] cellItems = new int[tasks.size()];
+		int[] cellResults = new int[tasks.size()];
+		long candidates = 0;
+		int index = 0;
+		for (CellResult cellResult : invoke(tasks)) {
+			results.addAll(cellResult.results);
+			cellItems[index] = cellResult.items;
+			cellResults[index] = cellResult.results.size();
+			candidates += cellResult.candidates;
+			index++;
+		}
+		double replication = (double) (assignedBuild + assignedProbe) / (build.size() + probe.size());
+		statistics = new SpatialJoinStatistics(columnCount * rowCount, build.size(), probe.size(), cellItems, cellResults, replication, candidates, System.nanoTime() - start);
+		return results;
+	}
+
+	private List<CellResult> invoke(List<Callable<CellResult>> tasks) {
+		List<CellResult> results = new ArrayList<>(tasks.size());
+		if (parallelism == 1 || tasks.size() == 1) {
+			for (Callable<CellResult> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (RuntimeException ex) {
+					throw ex;
+				} catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			return results;
+		}
+		boolean isShared = parallelism == getDefaultParallelism();
+		ForkJoinPool executor = isShared ? getPool() : new ForkJoinPool(parallelism);
+		try {
+			for (Future<CellResult> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Spatial join interrupted", ex);
+		} catch (ExecutionException ex) {
+			throw unwrap(ex);
+		} finally {
+			if (!isShared) {
+				executor.shutdown();
+			}
+		}
+		return results;
+	}
+
+	@SuppressWarnings("unchecked")
+	private CellResult joinCell(int column, int row, double[] columnBounds, double[] rowBounds, List<B> build, Envelope[] buildEnvelopes, List<Integer> buildItems,
+			List<P> probe, Envelope[] windows, List<Integer> probeItems, BiFunction<B, P, R> refine) {
+		STRtree tree = new STRtree();
+		for (Integer item : buildItems) {
+			tree.insert(buildEnvelopes[item], item);
+		}
+		CellResult cellResult = new CellResult(buildItems.size() + probeItems.size());
+		for (Integer probeItem : probeItems) {
+			Envelope window = windows[probeItem];
+			for (Integer buildItem : (List<Integer>) tree.query(window)) {
+				Envelope envelope = buildEnvelopes[buildItem];
+				//Reference point: lower left corner of the overlap of envelope and window
+				double x = Math.max(envelope.getMinX(), window.getMinX());
+				double y = Math.max(envelope.getMinY(), window.getMinY());
+				if (cellIndex(columnBounds, x) != column || cellIndex(rowBounds, y) != row) {
+					continue;
+				}
+				cellResult.candidates++;
+				R result = refine.apply(build.get(buildItem), probe.get(probeItem));
+				if (result != null) {
+					cellResult.results.add(result);
+				}
+			}
+		}
+		return cellResult;
+	}
+
+	/**
+	 * Distinct inner cell boundaries at the quantiles of the envelope centres.
+	 */
+	private static double[] quantiles(Envelope[] envelopes, boolean isX, int parts) {
+		double[] centres = new double[envelopes.length];
+		int count = 0;
+		for (Envelope envelope : envelopes) {
+			if (envelope != null) {
+				centres[count++] = isX ? (envelope.getMinX() + envelope.getMaxX()) / 2 : (envelope.getMinY() + envelope.getMaxY()) / 2;
+			}
+		}
+		Arrays.sort(centres, 0, count);
+		double[] bounds = new double[Math.max(0, parts - 1)];
+		int boundCount = 0;
+		for (int i = 1; i < parts; i++) {
+			double bound = centres[(int) ((long) count * i / parts)];
+			if (boundCount == 0 || bound > bounds[boundCount - 1]) {
+				bounds[boundCount++] = bound;
+			}
+		}
+		return Arrays.copyOf(bounds, boundCount);
+	}
+
+	/**
+	 * Index of the cell holding the coordinate: the number of boundaries not above it.
+	 */
+	private static int cellIndex(double[] bounds, double value) {
+		int index = Arrays.binarySearch(bounds, value);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	private static List<List<Integer>> cells(int count) {
+		List<List<Integer>> cells = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			cells.add(new ArrayList<>());
+		}
+		return cells;
+	}
+
+	private static long assign(Envelope[] envelopes, double[] columnBounds, double[] rowBounds, List<List<Integer>> cells) {
+		int columnCount = columnBounds.length + 1;
+		long assigned = 0;
+		for (int i = 0; i < envelopes.length; i++) {
+			Envelope envelope = envelopes[i];
+			if (envelope == null) {
+				continue;
+			}
+			int maxColumn = cellIndex(columnBounds, envelope.getMaxX());
+			int maxRow = cellIndex(rowBounds, envelope.getMaxY());
+			for (int row = cellIndex(rowBounds, envelope.getMinY()); row <= maxRow; row++) {
+				for (int column = cellIndex(columnBounds, envelope.getMinX()); column <= maxColumn; column++) {
+					cells.get(row * columnCount + column).add(i);
+					assigned++;
+				}
+			}
+		}
+		return assigned;
+	}
+
+	private class CellResult {
+
+		private final int items;
+
+		private final List<R> results = new ArrayList<>();
+
+		private long candidates = 0;
+
+		private CellResult(int items) {
+			this.items = items;
+		}
+
+	}
+
+}
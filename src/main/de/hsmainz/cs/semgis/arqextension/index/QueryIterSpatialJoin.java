@@ -0,0 +1,317 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.walker.Walker;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.iterator.QueryIterRepeatApply;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprBuild;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.IterLib;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+
+/**
+ * Evaluates an {@link OpSpatialJoin} for each incoming solution.
+ * <p>
+ * Both sides are evaluated and the smaller one is put into an STR-tree per SRS,
+ * keyed by the envelopes of its spatial values. Each solution of the other side
+ * then only meets the solutions whose envelope intersects the window of the
+ * relation. Values that are not spatial literals, empty geometries and values
+ * in another SRS are not pruned, so the result is the one of the filter over the
+ * plain join, only with fewer relation tests.<br>
+ * Pairs of geometries in the same SRS are related through the prepared geometry
+ * of the tree side where the relation allows it, the remaining pairs evaluate the
+ * relation function itself. The other filter expressions are evaluated on every
+ * pair that passes the relation.
+ * <p>
+ * If the larger side has at least {@link SpatialJoinTransform#SPATIAL_JOIN_PARTITION_THRESHOLD}
+ * solutions, the spatial values are read in parallel and the indexed pairs of each
+ * SRS are joined by a {@link PartitionedSpatialJoin} with
+ * {@link SpatialJoinTransform#SPATIAL_JOIN_PARALLELISM} threads. The half planes of
+ * the directional box relations cannot be partitioned and are always joined
+ * sequentially.
+ */
+public class QueryIterSpatialJoin extends QueryIterRepeatApply {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryIterSpatialJoin.class);
+
+	/**
+	 * Default minimum number of solutions on the larger side of a partitioned join.
+	 */
+	public static final int PARTITION_THRESHOLD = 10000;
+
+	private final OpSpatialJoin opJoin;
+
+	private final List<Expr> otherExprs;
+
+	public QueryIterSpatialJoin(QueryIterator input, OpSpatialJoin opJoin, ExecutionContext execCxt) {
+		super(input, execCxt);
+		this.opJoin = opJoin;
+		this.otherExprs = opJoin.getOtherExprs();
+	}
+
+	@Override
+	protected QueryIterator nextStage(Binding binding) {
+		ExecutionContext execCxt = getExecContext();
+		List<Binding> leftRows = collect(QC.execute(opJoin.getLeft(), binding, execCxt));
+		if (leftRows.isEmpty()) {
+			return IterLib.noResults(execCxt);
+		}
+		List<Binding> rightRows = collect(QC.execute(opJoin.getRight(), binding, execCxt));
+		if (rightRows.isEmpty()) {
+			return IterLib.noResults(execCxt);
+		}
+		boolean buildLeft = leftRows.size() <= rightRows.size();
+		Var buildVar = buildLeft ? opJoin.getFirst() : opJoin.getSecond();
+		Var probeVar = buildLeft ? opJoin.getSecond() : opJoin.getFirst();
+		List<Binding> probeBindings = buildLeft ? rightRows : leftRows;
+		Context context = execCxt.getContext();
+		int parallelism = context.getInt(SpatialJoinTransform.SPATIAL_JOIN_PARALLELISM, PartitionedSpatialJoin.getDefaultParallelism());
+		int threshold = context.getInt(SpatialJoinTransform.SPATIAL_JOIN_PARTITION_THRESHOLD, PARTITION_THRESHOLD);
+		boolean isPartitioned = parallelism > 1 && probeBindings.size() >= threshold && opJoin.getPredicate().isBoundedWindow() && bindFunctions();
+		if (!isPartitioned) {
+			parallelism = 1;
+		}
+		BuildTable table = new BuildTable(createRows(buildLeft ? leftRows : rightRows, buildVar, parallelism));
+		List<Row> probes = createRows(probeBindings, probeVar, parallelism);
+		List<Binding> results = new ArrayList<>();
+		if (isPartitioned) {
+			results.addAll(partitionedJoin(table, probes, !buildLeft, parallelism));
+		}
+		for (Row probe : probes) {
+			for (Row candidate : table.candidates(probe, !buildLeft, !isPartitioned)) {
+				Binding merged = merge(candidate, probe, !buildLeft);
+				if (merged != null) {
+					results.add(merged);
+				}
+			}
+		}
+		return new QueryIterPlainWrapper(results.iterator(), execCxt);
+	}
+
+	/**
+	 * Joins the probes with the indexed rows of their SRS on a partitioned grid.
+	 * The other pairs are left to {@link BuildTable#candidates(Row, boolean, boolean)}.
+	 */
+	private List<Binding> partitionedJoin(BuildTable table, List<Row> probes, boolean probeIsFirst, int parallelism) {
+		Map<String, List<Row>> probesBySrs = new HashMap<>();
+		for (Row probe : probes) {
+			if (probe.envelope != null && table.rowsBySrs.containsKey(probe.srsURI)) {
+				probesBySrs.computeIfAbsent(probe.srsURI, srsURI -> new ArrayList<>()).add(probe);
+			}
+		}
+		SpatialJoinPredicate predicate = opJoin.getPredicate();
+		List<Binding> results = new ArrayList<>();
+		for (Map.Entry<String, List<Row>> entry : probesBySrs.entrySet()) {
+			PartitionedSpatialJoin<Row, Row, Binding> join = new PartitionedSpatialJoin<>(parallelism, PartitionedSpatialJoin.DEFAULT_PARTITION_SIZE);
+			results.addAll(join.join(table.rowsBySrs.get(entry.getKey()), row -> row.envelope, entry.getValue(),
+					probe -> predicate.window(probe.envelope, probeIsFirst, opJoin.getDistance()), (build, probe) -> merge(build, probe, probeIsFirst)));
+			LOGGER.debug("Spatial join {} in {}: {}", predicate, entry.getKey(), join.getStatistics());
+		}
+		return results;
+	}
+
+	/**
+	 * Binds the functions of the filter before it is evaluated from several threads,
+	 * as ARQ binds them lazily on the first evaluation.
+	 * @return False if a function cannot be bound, the join then runs sequentially
+	 * so that the error is reported as the filter does.
+	 */
+	private boolean bindFunctions() {
+		List<Expr> exprs = new ArrayList<>(otherExprs);
+		exprs.add(opJoin.getSpatialExpr());
+		Context context = getExecContext().getContext();
+		try {
+			for (Expr expr : exprs) {
+				Walker.walk(expr, new ExprBuild(context));
+			}
+		} catch (RuntimeException ex) {
+			return false;
+		}
+		return true;
+	}
+
+	private List<Row> createRows(List<Binding> bindings, Var var, int parallelism) {
+		return PartitionedSpatialJoin.map(bindings, binding -> createRow(binding, var), parallelism);
+	}
+
+	/**
+	 * The merged solution of a pair satisfying the filter.
+	 * @return The solution or null.
+	 */
+	private Binding merge(Row build, Row probe, boolean probeIsFirst) {
+		Binding leftBinding = probeIsFirst ? probe.binding : build.binding;
+		Binding rightBinding = probeIsFirst ? build.binding : probe.binding;
+		if (!Algebra.compatible(leftBinding, rightBinding)) {
+			return null;
+		}
+		Binding merged = Algebra.merge(leftBinding, rightBinding);
+		return isSatisfied(build, probe, probeIsFirst, merged) ? merged : null;
+	}
+
+	private static List<Binding> collect(QueryIterator iterator) {
+		List<Binding> rows = new ArrayList<>();
+		try {
+			while (iterator.hasNext()) {
+				rows.add(iterator.nextBinding());
+			}
+		} finally {
+			iterator.close();
+		}
+		return rows;
+	}
+
+	private boolean isSatisfied(Row build, Row probe, boolean probeIsFirst, Binding merged) {
+		ExecutionContext execCxt = getExecContext();
+		Boolean isRelated = null;
+		if (build.isVector() && probe.isVector() && build.srsURI.equals(probe.srsURI)) {
+			try {
+				isRelated = opJoin.getPredicate().refine(build.argument.getGeometryWrapper(), probe.argument.getGeometryWrapper(), probeIsFirst);
+			} catch (FactoryException | MismatchedDimensionException | TransformException ex) {
+				//Left to the function, which reports the error as the filter does.
+				isRelated = null;
+			}
+		}
+		if (isRelated == null) {
+			isRelated = opJoin.getSpatialExpr().isSatisfied(merged, execCxt);
+		}
+		if (!isRelated) {
+			return false;
+		}
+		for (Expr expr : otherExprs) {
+			if (!expr.isSatisfied(merged, execCxt)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the spatial value of a solution. Values that cannot be read are kept
+	 * without envelope, the relation function then reports them as the filter does.
+	 */
+	private Row createRow(Binding binding, Var var) {
+		Node node = binding.get(var);
+		if (node == null || !node.isLiteral() || SpatialDatatypeRegistry.getKind(node.getLiteralDatatypeURI()) == null) {
+			return new Row(binding, null, null, null);
+		}
+		SpatialArgument argument;
+		try {
+			argument = SpatialArguments.resolve(NodeValue.makeNode(node));
+		} catch (RuntimeException ex) {
+			return new Row(binding, null, null, null);
+		}
+		if (argument.isRaster()) {
+			if (!opJoin.getPredicate().isRasterWindow()) {
+				return new Row(binding, argument, null, null);
+			}
+			return new Row(binding, argument, SpatialIndex.getSrsURI(argument.getCoverageWrapper()), argument.getEnvelope());
+		}
+		Envelope envelope = argument.getEnvelope();
+		return new Row(binding, argument, argument.getGeometryWrapper().getSrsURI(), envelope.isNull() ? null : envelope);
+	}
+
+	private static class Row {
+
+		private final Binding binding;
+
+		private final SpatialArgument argument;
+
+		private final String srsURI;
+
+		private final Envelope envelope;
+
+		private Row(Binding binding, SpatialArgument argument, String srsURI, Envelope envelope) {
+			this.binding = binding;
+			this.argument = argument;
+			this.srsURI = srsURI;
+			this.envelope = envelope;
+		}
+
+		private boolean isVector() {
+			return argument != null && argument.isVector();
+		}
+
+	}
+
+	/**
+	 * The solutions of the smaller side, indexed per SRS.
+	 */
+	private class BuildTable {
+
+		private final List<Row> rows = new ArrayList<>();
+
+		private final List<Row> unindexed = new ArrayList<>();
+
+		private final Map<String, List<Row>> rowsBySrs = new HashMap<>();
+
+		private final Map<String, STRtree> trees = new HashMap<>();
+
+		private BuildTable(List<Row> rows) {
+			for (Row row : rows) {
+				this.rows.add(row);
+				if (row.envelope == null) {
+					unindexed.add(row);
+				} else {
+					rowsBySrs.computeIfAbsent(row.srsURI, srsURI -> new ArrayList<>()).add(row);
+				}
+			}
+		}
+
+		/**
+		 * Rows of the tree side which may satisfy the relation with the probe.
+		 * @param isSameSrs False to leave out the indexed rows in the SRS of the probe.
+		 */
+		@SuppressWarnings("unchecked")
+		private List<Row> candidates(Row probe, boolean probeIsFirst, boolean isSameSrs) {
+			if (probe.envelope == null) {
+				return rows;
+			}
+			SpatialJoinPredicate predicate = opJoin.getPredicate();
+			List<Row> candidates = new ArrayList<>(unindexed);
+			for (Map.Entry<String, List<Row>> entry : rowsBySrs.entrySet()) {
+				if (!entry.getKey().equals(probe.srsURI)) {
+					candidates.addAll(entry.getValue());
+				} else if (isSameSrs) {
+					Envelope window = predicate.window(probe.envelope, probeIsFirst, opJoin.getDistance());
+					candidates.addAll(getTree(entry.getKey()).query(window));
+				}
+			}
+			return candidates;
+		}
+
+		private STRtree getTree(String srsURI) {
+			return trees.computeIfAbsent(srsURI, key -> {
+				STRtree tree = new STRtree();
+				for (Row row : rowsBySrs.get(key)) {
+					tree.insert(row.envelope, row);
+				}
+				return tree;
+			});
+		}
+
+	}
+
+}
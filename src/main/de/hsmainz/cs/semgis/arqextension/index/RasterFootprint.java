@@ -0,0 +1,193 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+
+/**
+ * Georeferencing of a raster without its pixel data: the envelope of the cells,
+ * the SRS, the grid to CRS transform of the pixel centers, the size in pixels
+ * and the number of bands.
+ * <p>
+ * Footprints of rasters read lazily are taken from the WKB header, so relations
+ * between raster extents and grids are answered without decoding a band.
+ */
+public class RasterFootprint {
+
+	/**
+	 * Tolerance in pixels for grid offsets and in CRS units for scales and skews.
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	private final String srsURI;
+
+	private final AffineTransform gridToCRS;
+
+	private final int width;
+
+	private final int height;
+
+	private final int numBands;
+
+	private final Envelope envelope;
+
+	private Geometry geometry;
+
+	public RasterFootprint(String srsURI, AffineTransform gridToCRS, int width, int height, int numBands, Envelope envelope) {
+		this.srsURI = srsURI;
+		this.gridToCRS = new AffineTransform(gridToCRS);
+		this.width = width;
+		this.height = height;
+		this.numBands = numBands;
+		this.envelope = envelope;
+	}
+
+	/**
+	 * Footprint of a raster, from the WKB header if the raster is read lazily.
+	 * @param raster The raster.
+	 * @return The footprint.
+	 */
+	public static RasterFootprint of(CoverageWrapper raster) {
+		return new RasterFootprint(SpatialIndex.getSrsURI(raster), raster.getGridToCRS(), raster.getWidth(), raster.getHeight(), raster.getNumBands(), raster.getEnvelope());
+	}
+
+	public String getSrsURI() {
+		return srsURI;
+	}
+
+	/**
+	 *
+	 * @return Envelope of the raster cells in the SRS of the raster.
+	 */
+	public Envelope getEnvelope() {
+		return envelope;
+	}
+
+	/**
+	 *
+	 * @return Envelope polygon of the raster cells.
+	 */
+	public Geometry getGeometry() {
+		if (geometry == null) {
+			geometry = LiteralUtils.toGeometry(envelope);
+		}
+		return geometry;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+
+	public double getScaleX() {
+		return gridToCRS.getScaleX();
+	}
+
+	public double getScaleY() {
+		return gridToCRS.getScaleY();
+	}
+
+	public double getSkewX() {
+		return gridToCRS.getShearX();
+	}
+
+	public double getSkewY() {
+		return gridToCRS.getShearY();
+	}
+
+	/**
+	 *
+	 * @return Width of a pixel in CRS units.
+	 */
+	public double getPixelWidth() {
+		return Math.hypot(getScaleX(), getSkewY());
+	}
+
+	/**
+	 *
+	 * @return Height of a pixel in CRS units.
+	 */
+	public double getPixelHeight() {
+		return Math.hypot(getScaleY(), getSkewX());
+	}
+
+	/**
+	 * Checks whether the cells of both rasters lie on the same grid, following
+	 * ST_NotSameAlignmentReason.
+	 * @param other The other raster.
+	 * @return The first difference found or null if the rasters are aligned.
+	 */
+	public String getMisalignment(RasterFootprint other) {
+		if (!srsURI.equals(other.srsURI)) {
+			return "The rasters have different SRIDs";
+		}
+		if (!equal(getScaleX(), other.getScaleX())) {
+			return "The rasters have different scales on the X axis";
+		}
+		if (!equal(getScaleY(), other.getScaleY())) {
+			return "The rasters have different scales on the Y axis";
+		}
+		if (!equal(getSkewX(), other.getSkewX())) {
+			return "The rasters have different skews on the X axis";
+		}
+		if (!equal(getSkewY(), other.getSkewY())) {
+			return "The rasters have different skews on the Y axis";
+		}
+		Point2D offset;
+		try {
+			offset = gridToCRS.inverseTransform(new Point2D.Double(other.gridToCRS.getTranslateX(), other.gridToCRS.getTranslateY()), null);
+		} catch (NoninvertibleTransformException ex) {
+			return "The rasters have a degenerate grid";
+		}
+		if (!isInteger(offset.getX()) || !isInteger(offset.getY())) {
+			return "The rasters are not aligned";
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @param other The other raster.
+	 * @return True if the cells of both rasters lie on the same grid.
+	 */
+	public boolean isAligned(RasterFootprint other) {
+		return getMisalignment(other) == null;
+	}
+
+	/**
+	 *
+	 * @param other The other raster.
+	 * @return True if both rasters have the same cells and number of bands, so only their pixel values may differ.
+	 */
+	public boolean hasSameGrid(RasterFootprint other) {
+		return width == other.width && height == other.height && numBands == other.numBands
+				&& envelope.equals(other.envelope) && isAligned(other);
+	}
+
+	private static boolean equal(double a, double b) {
+		return Math.abs(a - b) <= TOLERANCE * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+	}
+
+	private static boolean isInteger(double value) {
+		return Math.abs(value - Math.rint(value)) <= TOLERANCE;
+	}
+
+	@Override
+	public String toString() {
+		return "RasterFootprint{" + srsURI + ", " + width + "x" + height + ", " + numBands + " bands, " + envelope + '}';
+	}
+
+}
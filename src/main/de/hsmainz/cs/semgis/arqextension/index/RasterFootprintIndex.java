@@ -0,0 +1,133 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.SpatialKind;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+
+/**
+ * Footprints of the raster literals of a graph, read from their WKB headers
+ * when the index is built.
+ * <p>
+ * The raster relation functions take the footprint of a literal from the index
+ * of the queried graph instead of reading the literal, see
+ * {@link RasterFootprintRegistry#find(Graph, Node)}, and only decode the
+ * pixels of rasters whose footprints intersect. An STR-tree over the footprint
+ * envelopes in the SRS of the index returns the tiles overlapping a region to
+ * callers selecting tiles by region; the index property functions select
+ * raster resources through the {@link SpatialIndex}, which holds their
+ * footprints as well.
+ * The index is read only after building, so queries may run concurrently.
+ */
+public class RasterFootprintIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RasterFootprintIndex.class);
+
+	private final Map<Node, RasterFootprint> footprints;
+
+	private final STRtree tree;
+
+	private final String srsURI;
+
+	private RasterFootprintIndex(Map<Node, RasterFootprint> footprints, STRtree tree, String srsURI) {
+		this.footprints = footprints;
+		this.tree = tree;
+		this.srsURI = srsURI;
+		tree.build();
+	}
+
+	/**
+	 * Indexes the raster literals of the graph in CRS84.
+	 * @param graph The graph to index.
+	 * @return The index.
+	 */
+	public static RasterFootprintIndex build(Graph graph) {
+		return build(graph, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Indexes the raster literals of the graph. Literals whose header cannot be
+	 * read or whose envelope cannot be transformed into the SRS of the index are
+	 * logged and left out.
+	 * @param graph The graph to index.
+	 * @param srsURI The SRS of the index.
+	 * @return The index.
+	 */
+	public static RasterFootprintIndex build(Graph graph, String srsURI) {
+		Map<Node, RasterFootprint> footprints = new HashMap<>();
+		STRtree tree = new STRtree();
+		ExtendedIterator<Triple> triples = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				Node object = triples.next().getObject();
+				if (!object.isLiteral() || footprints.containsKey(object)
+						|| SpatialDatatypeRegistry.getKind(object.getLiteralDatatypeURI()) != SpatialKind.RASTER) {
+					continue;
+				}
+				try {
+					RasterFootprint footprint = RasterFootprint.of(CoverageWrapper.extract(object));
+					Envelope envelope = GeometryWrapperFactory.createGeometry(footprint.getGeometry(), footprint.getSrsURI(), WKTDatatype.URI).transform(srsURI).getEnvelope();
+					footprints.put(object, footprint);
+					tree.insert(envelope, object);
+				} catch (DatatypeFormatException | FactoryException | MismatchedDimensionException | TransformException ex) {
+					LOGGER.warn("Raster footprint not indexed: {}", ex.getMessage());
+				}
+			}
+		} finally {
+			triples.close();
+		}
+		LOGGER.info("Raster footprint index built: {} rasters", footprints.size());
+		return new RasterFootprintIndex(footprints, tree, srsURI);
+	}
+
+	/**
+	 *
+	 * @param literal A raster literal of the graph.
+	 * @return The footprint of the literal or null if it is not indexed.
+	 */
+	public RasterFootprint get(Node literal) {
+		return footprints.get(literal);
+	}
+
+	/**
+	 * Raster literals whose footprint envelope intersects the envelope.
+	 * @param envelope The envelope in the SRS of the index.
+	 * @return The literals.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Node> query(Envelope envelope) {
+		return tree.query(envelope);
+	}
+
+	public String getSrsURI() {
+		return srsURI;
+	}
+
+	public int size() {
+		return footprints.size();
+	}
+
+	@Override
+	public String toString() {
+		return "RasterFootprintIndex{" + srsURI + ", " + footprints.size() + " rasters}";
+	}
+
+}
@@ -0,0 +1,81 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+
+/**
+ * Raster footprint indexes of the graphs holding raster tiles.
+ * <p>
+ * An index is built when a graph is loaded through {@link #build(Graph)} and
+ * dropped as soon as a triple of the graph is added or removed. Functions do
+ * not build an index while a query is evaluated, they read the footprint of a
+ * literal from the index through {@link #find(Graph, Node)} if there is one.
+ */
+public class RasterFootprintRegistry {
+
+	private static final GraphIndexCache<RasterFootprintIndex> INDEXES = new GraphIndexCache<>();
+
+	/**
+	 * Index of the graph, built in CRS84 if the graph has none.
+	 * @param graph The graph.
+	 * @return The index of the graph.
+	 */
+	public static RasterFootprintIndex get(Graph graph) {
+		return INDEXES.get(graph, RasterFootprintIndex::build);
+	}
+
+	/**
+	 * Builds the index of the graph in CRS84, replacing an existing index.
+	 * @param graph The graph.
+	 * @return The new index.
+	 */
+	public static RasterFootprintIndex build(Graph graph) {
+		return build(graph, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Builds the index of the graph, replacing an existing index.
+	 * @param graph The graph.
+	 * @param srsURI The SRS of the index.
+	 * @return The new index.
+	 */
+	public static RasterFootprintIndex build(Graph graph, String srsURI) {
+		return INDEXES.build(graph, target -> RasterFootprintIndex.build(target, srsURI));
+	}
+
+	/**
+	 * Footprint of a raster literal from the index of the graph.
+	 * @param graph The graph, may be null.
+	 * @param literal The raster literal.
+	 * @return The footprint or null if the graph has no current index or the literal is not indexed.
+	 */
+	public static RasterFootprint find(Graph graph, Node literal) {
+		if (graph == null) {
+			return null;
+		}
+		RasterFootprintIndex index = INDEXES.getIfPresent(graph);
+		return index == null ? null : index.get(literal);
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return True if the graph has a current index.
+	 */
+	public static boolean contains(Graph graph) {
+		return INDEXES.contains(graph);
+	}
+
+	/**
+	 * Drops the index of the graph.
+	 * @param graph The graph.
+	 */
+	public static void remove(Graph graph) {
+		INDEXES.remove(graph);
+	}
+
+	public static void clear() {
+		INDEXES.clear();
+	}
+
+}
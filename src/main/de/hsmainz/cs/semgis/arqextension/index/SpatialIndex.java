@@ -0,0 +1,338 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.AbstractNode;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+import io.github.galbiston.geosparql_jena.implementation.SRSInfo;
+import io.github.galbiston.geosparql_jena.implementation.UnitsOfMeasure;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.SpatialKind;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.registry.SRSRegistry;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Geo;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.SRS_URI;
+
+/**
+ * STR-tree over the envelopes of the geometry and raster literals of a graph.
+ * <p>
+ * All envelopes are held in the SRS of the index, by default CRS84. Geometry
+ * literals in another SRS are transformed once while building, rasters are
+ * indexed by the envelope of their cells, read from the WKB header without
+ * decoding the pixels.<br>
+ * Each literal is indexed for the resource it describes and for the features
+ * linking to that resource through geo:hasGeometry or geo:hasDefaultGeometry.
+ * The tree is built once and is read only afterwards, so queries may run
+ * concurrently.
+ */
+public class SpatialIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpatialIndex.class);
+
+	public static final String DEFAULT_SRS_URI = SRS_URI.DEFAULT_WKT_CRS84;
+
+	/**
+	 * Widening of the degree search radius. Degrees are converted with the equatorial
+	 * length of a degree, which is up to 0.7% longer than a meridian degree.
+	 */
+	private static final double DEGREE_SEARCH_MARGIN = 1.01;
+
+	private final STRtree tree;
+
+	private final SRSInfo srsInfo;
+
+	private final int size;
+
+	public SpatialIndex(Collection<SpatialIndexItem> items, String srsURI) {
+		this.srsInfo = SRSRegistry.getSRSInfo(srsURI);
+		this.tree = new STRtree();
+		for (SpatialIndexItem item : items) {
+			tree.insert(item.getEnvelope(), item);
+		}
+		this.size = items.size();
+		tree.build();
+	}
+
+	/**
+	 * Index whose tree is provided by a subclass through {@link #query(Envelope)}
+	 * and {@link #getRoot()}.
+	 */
+	SpatialIndex(String srsURI, int size) {
+		this.srsInfo = SRSRegistry.getSRSInfo(srsURI);
+		this.tree = null;
+		this.size = size;
+	}
+
+	/**
+	 * Indexes the spatial literals of the graph in CRS84.
+	 * @param graph The graph to index.
+	 * @return The index.
+	 */
+	public static SpatialIndex build(Graph graph) {
+		return build(graph, DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Indexes the spatial literals of the graph. Literals that cannot be read or
+	 * transformed into the SRS of the index are logged and left out.
+	 * @param graph The graph to index.
+	 * @param srsURI The SRS of the index.
+	 * @return The index.
+	 */
+	public static SpatialIndex build(Graph graph, String srsURI) {
+		return new SpatialIndex(createItems(graph, srsURI), srsURI);
+	}
+
+	/**
+	 * Entries of the spatial literals of the graph, see {@link #build(Graph, String)}.
+	 * @param graph The graph to index.
+	 * @param srsURI The SRS of the index.
+	 * @return The entries.
+	 */
+	static List<SpatialIndexItem> createItems(Graph graph, String srsURI) {
+		List<SpatialIndexItem> items = new ArrayList<>();
+		ExtendedIterator<Triple> triples = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				Triple triple = triples.next();
+				Node object = triple.getObject();
+				if (!object.isLiteral()) {
+					continue;
+				}
+				SpatialKind kind = SpatialDatatypeRegistry.getKind(object.getLiteralDatatypeURI());
+				if (kind == null) {
+					continue;
+				}
+				try {
+					SpatialIndexItem item = createItem(triple.getSubject(), object, kind, srsURI);
+					if (item != null) {
+						items.add(item);
+					}
+				} catch (DatatypeFormatException | FactoryException | MismatchedDimensionException | TransformException ex) {
+					LOGGER.warn("Spatial literal of {} not indexed: {}", triple.getSubject(), ex.getMessage());
+				}
+			}
+		} finally {
+			triples.close();
+		}
+		int literalCount = items.size();
+		for (int i = 0; i < literalCount; i++) {
+			SpatialIndexItem item = items.get(i);
+			for (Node feature : findFeatures(graph, item.getSubject())) {
+				items.add(item.withSubject(feature));
+			}
+		}
+		LOGGER.info("Spatial index built: {} literals, {} entries", literalCount, items.size());
+		return items;
+	}
+
+	static Set<Node> findFeatures(Graph graph, Node geometry) {
+		Set<Node> features = new LinkedHashSet<>();
+		for (Node predicate : new Node[] { Geo.HAS_GEOMETRY_NODE, Geo.HAS_DEFAULT_GEOMETRY_NODE }) {
+			ExtendedIterator<Triple> links = graph.find(Node.ANY, predicate, geometry);
+			try {
+				while (links.hasNext()) {
+					features.add(links.next().getSubject());
+				}
+			} finally {
+				links.close();
+			}
+		}
+		return features;
+	}
+
+	/**
+	 * Creates the entry of a spatial literal.
+	 * @param subject The resource described by the literal.
+	 * @param literal The geometry or raster literal.
+	 * @param kind The kind of the literal datatype.
+	 * @param srsURI The SRS of the index.
+	 * @return The entry or null for an empty geometry.
+	 */
+	static SpatialIndexItem createItem(Node subject, Node literal, SpatialKind kind, String srsURI) throws FactoryException, MismatchedDimensionException, TransformException {
+		GeometryWrapper geometry;
+		GeometryWrapper footprint = null;
+		if (kind == SpatialKind.RASTER) {
+			footprint = getFootprint(CoverageWrapper.extract(literal));
+			geometry = footprint;
+		} else {
+			geometry = GeometryWrapper.extract(literal);
+		}
+		if (geometry.isEmpty()) {
+			return null;
+		}
+		Envelope envelope = geometry.transform(srsURI).getEnvelope();
+		return new SpatialIndexItem(subject, literal, envelope, footprint);
+	}
+
+	/**
+	 * Envelope polygon of the raster cells, the vector representation used to index and
+	 * refine rasters.
+	 * @param raster The raster.
+	 * @return The footprint in the SRS of the raster.
+	 */
+	public static GeometryWrapper getFootprint(CoverageWrapper raster) {
+		return GeometryWrapperFactory.createGeometry(LiteralUtils.toGeometry(raster.getEnvelope()), getSrsURI(raster), WKTDatatype.URI);
+	}
+
+	/**
+	 * SRS of a raster, from the SRID of the WKB header when the raster is read lazily.
+	 * @param raster The raster.
+	 * @return The SRS URI.
+	 */
+	static String getSrsURI(CoverageWrapper raster) {
+		WKBRasterHeader header = raster.getRasterHeader();
+		if (header != null && header.getSRID() > 0) {
+			return SRS_URI.EPSG_BASE_SRS_URI + header.getSRID();
+		}
+		return raster.getSrsURI();
+	}
+
+	public String getSrsURI() {
+		return srsInfo.getSrsURI();
+	}
+
+	public SRSInfo getSrsInfo() {
+		return srsInfo;
+	}
+
+	/**
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Entries whose envelope intersects the search envelope.
+	 * @param envelope The search envelope in the SRS of the index.
+	 * @return The candidate entries.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<SpatialIndexItem> query(Envelope envelope) {
+		return tree.query(envelope);
+	}
+
+	/**
+	 * Entries whose geometry or raster envelope intersects the geometry.
+	 * @param geometry The search geometry in any SRS.
+	 * @return The matching entries.
+	 */
+	public List<SpatialIndexItem> queryIntersects(GeometryWrapper geometry) throws FactoryException, MismatchedDimensionException, TransformException {
+		GeometryWrapper search = geometry.transform(srsInfo.getSrsURI());
+		List<SpatialIndexItem> results = new ArrayList<>();
+		for (SpatialIndexItem item : query(search.getEnvelope())) {
+			if (item.getGeometryWrapper().intersects(geometry)) {
+				results.add(item);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Entries within the distance of the geometry. The distance is measured as by
+	 * {@link GeometryWrapper#distance(GeometryWrapper, String)}.
+	 * @param geometry The search geometry in any SRS.
+	 * @param distance The maximum distance.
+	 * @param unitsURI The units of the distance.
+	 * @return The matching entries.
+	 */
+	public List<SpatialIndexItem> queryWithinDistance(GeometryWrapper geometry, double distance, String unitsURI) throws FactoryException, MismatchedDimensionException, TransformException {
+		GeometryWrapper search = geometry.transform(srsInfo.getSrsURI());
+		List<SpatialIndexItem> results = new ArrayList<>();
+		for (SpatialIndexItem item : query(expandEnvelope(search.getEnvelope(), distance, unitsURI))) {
+			if (geometry.distance(item.getGeometryWrapper(), unitsURI) <= distance) {
+				results.add(item);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Entries of the k spatial literals nearest to the geometry, see {@link NearestNeighbourSearch}.
+	 * The distance is great circle in a geographic index and Euclidean otherwise.
+	 * @param geometry The search geometry in any SRS.
+	 * @param k The number of literals to find.
+	 * @param maxDistance The maximum distance or positive infinity.
+	 * @param unitsURI The units of the maximum distance.
+	 * @return The matching entries, closest first.
+	 */
+	public List<SpatialIndexItem> nearest(GeometryWrapper geometry, int k, double maxDistance, String unitsURI) throws FactoryException, MismatchedDimensionException, TransformException {
+		NearestNeighbourSearch search = new NearestNeighbourSearch(this, geometry);
+		double searchDistance = Double.isInfinite(maxDistance) ? maxDistance : search.toSearchUnits(maxDistance, unitsURI);
+		return search.search(k, searchDistance, getRoot());
+	}
+
+	/**
+	 *
+	 * @return The root of the tree, whose leaves hold the entries.
+	 */
+	AbstractNode getRoot() {
+		return tree.getRoot();
+	}
+
+	/**
+	 * Widens an envelope of the index SRS by a distance, so that it contains everything
+	 * within the distance of the envelope. In a geographic SRS the longitude range covers
+	 * the antimeridian or the poles entirely when the distance reaches them.
+	 * @param envelope The envelope in the SRS of the index.
+	 * @param distance The distance.
+	 * @param unitsURI The units of the distance.
+	 * @return The widened envelope.
+	 */
+	public Envelope expandEnvelope(Envelope envelope, double distance, String unitsURI) {
+		Envelope expanded = new Envelope(envelope);
+		if (srsInfo.isGeographic()) {
+			double latitudeRadius = UnitsOfMeasure.convertToDegrees(distance, unitsURI, 0) * DEGREE_SEARCH_MARGIN;
+			double maxLatitude = Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY())) + latitudeRadius;
+			expanded.expandBy(0, latitudeRadius);
+			if (maxLatitude >= 90) {
+				expanded.expandToInclude(-180, expanded.getMinY());
+				expanded.expandToInclude(180, expanded.getMaxY());
+			} else {
+				double longitudeRadius = UnitsOfMeasure.convertToDegrees(distance, unitsURI, maxLatitude) * DEGREE_SEARCH_MARGIN;
+				expanded.expandBy(longitudeRadius, 0);
+				if (expanded.getMinX() < -180 || expanded.getMaxX() > 180) {
+					expanded.expandToInclude(-180, expanded.getMinY());
+					expanded.expandToInclude(180, expanded.getMaxY());
+				}
+			}
+		} else {
+			double metres = UnitsOfMeasure.convertToMetres(distance, unitsURI, 0);
+			expanded.expandBy(UnitsOfMeasure.conversion(metres, UnitsOfMeasure.METRE_UNITS, srsInfo.getUnitsOfMeasure()));
+		}
+		return expanded;
+	}
+
+	@Override
+	public String toString() {
+		return "SpatialIndex{srsURI=" + srsInfo.getSrsURI() + ", size=" + size + "}";
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import org.apache.jena.graph.Node;
+import org.locationtech.jts.geom.Envelope;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+
+/**
+ * Entry of the {@link SpatialIndex}: a resource, the spatial literal describing it
+ * and the envelope of the literal in the SRS of the index.
+ * Geometry literals are read again through the literal cache when refining,
+ * rasters keep their footprint so that the pixels are never decoded.
+ */
+public class SpatialIndexItem {
+
+	private final Node subject;
+
+	private final Node literal;
+
+	private final Envelope envelope;
+
+	private final GeometryWrapper footprint;
+
+	SpatialIndexItem(Node subject, Node literal, Envelope envelope, GeometryWrapper footprint) {
+		this.subject = subject;
+		this.literal = literal;
+		this.envelope = envelope;
+		this.footprint = footprint;
+	}
+
+	/**
+	 * Item of another resource described by the same literal, e.g. the feature of a geometry.
+	 * @param subject The resource.
+	 * @return The item of the resource.
+	 */
+	SpatialIndexItem withSubject(Node subject) {
+		return new SpatialIndexItem(subject, literal, envelope, footprint);
+	}
+
+	public Node getSubject() {
+		return subject;
+	}
+
+	public Node getLiteral() {
+		return literal;
+	}
+
+	/**
+	 *
+	 * @return The envelope in the SRS of the index.
+	 */
+	public Envelope getEnvelope() {
+		return envelope;
+	}
+
+	public boolean isRaster() {
+		return footprint != null;
+	}
+
+	/**
+	 *
+	 * @return The geometry of a geometry literal or the envelope polygon of a raster literal, in its own SRS.
+	 */
+	public GeometryWrapper getGeometryWrapper() {
+		if (footprint != null) {
+			return footprint;
+		}
+		return GeometryWrapper.extract(literal);
+	}
+
+	@Override
+	public String toString() {
+		return "SpatialIndexItem{subject=" + subject + ", envelope=" + envelope + ", raster=" + isRaster() + "}";
+	}
+
+}
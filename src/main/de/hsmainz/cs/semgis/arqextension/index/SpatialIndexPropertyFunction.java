@@ -0,0 +1,102 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.pfunction.PFuncSimpleAndList;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.apache.jena.sparql.util.IterLib;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * Property function binding the resources found in the {@link SpatialIndex} of the
+ * active graph: <code>?feature geo2:function (arg1 arg2 ...)</code>.<br>
+ * A variable subject is bound to each resource found, a bound subject is kept if it
+ * is among them.
+ */
+public abstract class SpatialIndexPropertyFunction extends PFuncSimpleAndList {
+
+	@Override
+	public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		super.build(argSubject, predicate, argObject, execCxt);
+		if (!argObject.isList()) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes a list of arguments");
+		}
+		checkBuild(argObject.getArgListSize());
+	}
+
+	/**
+	 * Checks the number of arguments of the object list.
+	 * @param argCount The number of arguments.
+	 * @throws QueryBuildException if the number is not supported.
+	 */
+	protected abstract void checkBuild(int argCount);
+
+	/**
+	 * Searches the index with the evaluated arguments.
+	 * @param index The index of the active graph.
+	 * @param args The object list arguments.
+	 * @return The entries found.
+	 */
+	protected abstract List<SpatialIndexItem> search(SpatialIndex index, List<NodeValue> args) throws FactoryException, MismatchedDimensionException, TransformException;
+
+	@Override
+	public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object, ExecutionContext execCxt) {
+		List<NodeValue> args = new ArrayList<>(object.getArgListSize());
+		for (Node arg : object.getArgList()) {
+			if (arg.isVariable()) {
+				throw new ExprEvalException("Property function '" + Lib.className(this) + "' argument not bound: " + arg);
+			}
+			args.add(NodeValue.makeNode(arg));
+		}
+		List<SpatialIndexItem> items;
+		try {
+			items = search(SpatialIndexRegistry.get(execCxt.getActiveGraph()), args);
+		} catch (DatatypeFormatException | FactoryException | MismatchedDimensionException | TransformException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+		Set<Node> subjects = new LinkedHashSet<>();
+		for (SpatialIndexItem item : items) {
+			subjects.add(item.getSubject());
+		}
+		return bindSubjects(binding, subject, subjects, execCxt);
+	}
+
+	/**
+	 * Binds a variable subject to each resource found, or keeps the binding of a
+	 * bound subject that is among them.
+	 * @param binding The input binding.
+	 * @param subject The subject of the property function.
+	 * @param subjects The resources found.
+	 * @param execCxt The execution context.
+	 * @return The output bindings.
+	 */
+	public static QueryIterator bindSubjects(Binding binding, Node subject, Set<Node> subjects, ExecutionContext execCxt) {
+		if (!subject.isVariable()) {
+			return subjects.contains(subject) ? IterLib.result(binding, execCxt) : IterLib.noResults(execCxt);
+		}
+		Var var = Var.alloc(subject);
+		List<Binding> bindings = new ArrayList<>(subjects.size());
+		for (Node node : subjects) {
+			bindings.add(BindingFactory.binding(binding, var, node));
+		}
+		return new QueryIterPlainWrapper(bindings.iterator(), execCxt);
+	}
+
+}
@@ -0,0 +1,134 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.jena.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spatial indexes of the graphs queried with the index property functions.
+ * <p>
+ * An index is built on first use for a graph, or ahead of the first query through
+ * {@link #build(Graph)}, and dropped as soon as a triple of the graph is added or
+ * removed. The next query then builds it again. Graphs that are no longer
+ * referenced release their index.<br>
+ * Graphs read from a file can keep their index in a file next to it through
+ * {@link #load(Graph, File)}, which is mapped on the next start instead of
+ * being built again.
+ */
+public class SpatialIndexRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpatialIndexRegistry.class);
+
+	public static final String INDEX_FILE_SUFFIX = ".spatialindex";
+
+	private static final GraphIndexCache<SpatialIndex> INDEXES = new GraphIndexCache<>();
+
+	/**
+	 * Index of the graph, built in CRS84 if the graph has none.
+	 * @param graph The graph.
+	 * @return The index of the graph.
+	 */
+	public static SpatialIndex get(Graph graph) {
+		return INDEXES.get(graph, SpatialIndex::build);
+	}
+
+	/**
+	 * Builds the index of the graph in CRS84, replacing an existing index.
+	 * @param graph The graph.
+	 * @return The new index.
+	 */
+	public static SpatialIndex build(Graph graph) {
+		return build(graph, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Builds the index of the graph, replacing an existing index.
+	 * @param graph The graph.
+	 * @param srsURI The SRS of the index.
+	 * @return The new index.
+	 */
+	public static SpatialIndex build(Graph graph, String srsURI) {
+		return INDEXES.build(graph, target -> SpatialIndex.build(target, srsURI));
+	}
+
+	/**
+	 * Opens the index file of the source of a graph in CRS84, see {@link #load(Graph, File, String)}.
+	 * @param graph The graph read from the source.
+	 * @param source The file the graph was read from.
+	 * @return The index of the graph.
+	 */
+	public static SpatialIndex load(Graph graph, File source) {
+		return load(graph, source, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Opens the index file of the source of a graph, replacing an existing index.
+	 * The file is kept next to the source with the suffix {@link #INDEX_FILE_SUFFIX}.
+	 * If it is missing or was written for another version of the source, the
+	 * index is built from the graph and the file written again. Changes to the
+	 * graph drop the index as for {@link #build(Graph, String)}, the file is only
+	 * replaced on the next load.
+	 * @param graph The graph read from the source.
+	 * @param source The file the graph was read from.
+	 * @param srsURI The SRS of the index.
+	 * @return The index of the graph.
+	 */
+	public static SpatialIndex load(Graph graph, File source, String srsURI) {
+		return INDEXES.build(graph, target -> read(target, source, srsURI));
+	}
+
+	private static SpatialIndex read(Graph graph, File source, String srsURI) {
+		File file = new File(source.getPath() + INDEX_FILE_SUFFIX);
+		SpatialIndex index = null;
+		long checksum;
+		try {
+			checksum = MappedSpatialIndex.checksum(source);
+		} catch (IOException ex) {
+			LOGGER.warn("Spatial index of {} not persisted, source not readable: {}", source, ex.getMessage());
+			return SpatialIndex.build(graph, srsURI);
+		}
+		try {
+			index = MappedSpatialIndex.open(file, checksum, srsURI, graph);
+		} catch (IOException ex) {
+			LOGGER.warn("Spatial index file {} not readable: {}", file, ex.getMessage());
+		}
+		if (index != null) {
+			LOGGER.info("Spatial index mapped from {}: {}", file, index);
+		} else {
+			List<SpatialIndexItem> items = SpatialIndex.createItems(graph, srsURI);
+			index = new SpatialIndex(items, srsURI);
+			try {
+				MappedSpatialIndex.write(items, srsURI, checksum, file);
+			} catch (IOException ex) {
+				LOGGER.warn("Spatial index file {} not written: {}", file, ex.getMessage());
+			}
+		}
+		return index;
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return True if the graph has a current index.
+	 */
+	public static boolean contains(Graph graph) {
+		return INDEXES.contains(graph);
+	}
+
+	/**
+	 * Drops the index of the graph.
+	 * @param graph The graph.
+	 */
+	public static void remove(Graph graph) {
+		INDEXES.remove(graph);
+	}
+
+	public static void clear() {
+		INDEXES.clear();
+	}
+
+}
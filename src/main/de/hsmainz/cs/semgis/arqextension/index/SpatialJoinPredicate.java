@@ -0,0 +1,181 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.jena.rdf.model.Property;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+
+/**
+ * The relation functions a {@link SpatialJoinTransform} turns into an
+ * {@link OpSpatialJoin}, with the search window each of them implies.
+ * <p>
+ * A window is the region the envelope of one argument has to intersect for the
+ * function to possibly return true, given the envelope of the other argument. It
+ * only prunes the candidate pairs, every pair within the window is still evaluated.
+ */
+public enum SpatialJoinPredicate {
+
+	INTERSECTS(PostGISGeo.st_rast_Intersects, true),
+	CONTAINS(PostGISGeo.st_rast_Contains, true),
+	WITHIN(PostGISGeo.st_rast_Within, true),
+	DWITHIN(PostGISGeo.st_dWithin, true),
+	BBOX_CONTAINS(PostGISGeo.st_bboxcontains, false),
+	BBOX_EQUALS(PostGISGeo.st_bboxequals, false),
+	BBOX_FP_INTERSECTS(PostGISGeo.st_bboxfpintersects, false),
+	BBOX_INTERSECTS(PostGISGeo.st_bboxintersect, false),
+	BBOX_IS_CONTAINED_BY(PostGISGeo.st_bboxiscontainedby, false),
+	BBOX_ABOVE(PostGISGeo.st_bboxabove, false),
+	BBOX_BELOW(PostGISGeo.st_bboxbelow, false),
+	BBOX_LEFT_OF(PostGISGeo.st_bboxleftof, false),
+	BBOX_RIGHT_OF(PostGISGeo.st_bboxrightof, false),
+	BBOX_OVERLAPS_ABOVE(PostGISGeo.st_bboxoverlapsabove, false),
+	BBOX_OVERLAPS_BELOW(PostGISGeo.st_bboxoverlapsbelow, false),
+	BBOX_OVERLAPS_LEFT(PostGISGeo.st_bboxoverlapsleft, false),
+	BBOX_OVERLAPS_RIGHT(PostGISGeo.st_bboxoverlapsright, false);
+
+	private static final Map<String, SpatialJoinPredicate> BY_URI = new HashMap<>();
+
+	static {
+		for (SpatialJoinPredicate predicate : values()) {
+			BY_URI.put(predicate.uri, predicate);
+		}
+	}
+
+	private final String uri;
+
+	private final boolean isRasterWindow;
+
+	private SpatialJoinPredicate(Property function, boolean isRasterWindow) {
+		this.uri = function.getURI();
+		this.isRasterWindow = isRasterWindow;
+	}
+
+	/**
+	 *
+	 * @param uri The function URI.
+	 * @return The predicate or null if the function is not supported.
+	 */
+	public static SpatialJoinPredicate get(String uri) {
+		return BY_URI.get(uri);
+	}
+
+	public String getURI() {
+		return uri;
+	}
+
+	/**
+	 *
+	 * @return The number of function arguments, the third argument of ST_DWithin is the distance.
+	 */
+	public int getArgCount() {
+		return this == DWITHIN ? 3 : 2;
+	}
+
+	/**
+	 * The window also holds for raster arguments, which are compared by their footprint.
+	 * The raster branches of the BBOX functions do not all follow the envelope
+	 * semantics of their vector branch, so rasters are never pruned for them.
+	 * @return True if raster envelopes can be pruned by the window.
+	 */
+	public boolean isRasterWindow() {
+		return isRasterWindow;
+	}
+
+	/**
+	 * True if {@link #window(Envelope, boolean, double)} is bounded by the probe
+	 * envelope, false for the half planes of the directional box relations.
+	 * @return True if a partitioned join may be used.
+	 */
+	public boolean isBoundedWindow() {
+		switch (this) {
+		case BBOX_ABOVE:
+		case BBOX_BELOW:
+		case BBOX_LEFT_OF:
+		case BBOX_RIGHT_OF:
+		case BBOX_OVERLAPS_ABOVE:
+		case BBOX_OVERLAPS_BELOW:
+		case BBOX_OVERLAPS_LEFT:
+		case BBOX_OVERLAPS_RIGHT:
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Window of the other argument.
+	 * @param probe The envelope of one argument.
+	 * @param probeIsFirst True if the envelope belongs to the first function argument.
+	 * @param distance The distance of ST_DWithin, ignored otherwise.
+	 * @return The envelope the other argument has to intersect.
+	 */
+	public Envelope window(Envelope probe, boolean probeIsFirst, double distance) {
+		switch (this) {
+		case DWITHIN:
+			Envelope expanded = new Envelope(probe);
+			expanded.expandBy(distance);
+			return expanded;
+		//A.maxY > B.minY, overlapping also if the boxes intersect
+		case BBOX_ABOVE:
+		case BBOX_OVERLAPS_ABOVE:
+			return probeIsFirst ? rangeY(-Double.MAX_VALUE, probe.getMaxY()) : rangeY(probe.getMinY(), Double.MAX_VALUE);
+		//A.maxY < B.minY
+		case BBOX_BELOW:
+			return probeIsFirst ? rangeY(probe.getMaxY(), Double.MAX_VALUE) : rangeY(-Double.MAX_VALUE, probe.getMinY());
+		//A.minY <= B.maxY
+		case BBOX_OVERLAPS_BELOW:
+			return probeIsFirst ? rangeY(probe.getMinY(), Double.MAX_VALUE) : rangeY(-Double.MAX_VALUE, probe.getMaxY());
+		//A.maxX < B.minX
+		case BBOX_LEFT_OF:
+			return probeIsFirst ? rangeX(probe.getMaxX(), Double.MAX_VALUE) : rangeX(-Double.MAX_VALUE, probe.getMinX());
+		//A.minX > B.maxX
+		case BBOX_RIGHT_OF:
+			return probeIsFirst ? rangeX(-Double.MAX_VALUE, probe.getMinX()) : rangeX(probe.getMaxX(), Double.MAX_VALUE);
+		//A.minX <= B.maxX
+		case BBOX_OVERLAPS_LEFT:
+			return probeIsFirst ? rangeX(probe.getMinX(), Double.MAX_VALUE) : rangeX(-Double.MAX_VALUE, probe.getMaxX());
+		//A.maxX >= B.minX
+		case BBOX_OVERLAPS_RIGHT:
+			return probeIsFirst ? rangeX(-Double.MAX_VALUE, probe.getMaxX()) : rangeX(probe.getMinX(), Double.MAX_VALUE);
+		default:
+			return probe;
+		}
+	}
+
+	private static Envelope rangeX(double minX, double maxX) {
+		return new Envelope(minX, maxX, -Double.MAX_VALUE, Double.MAX_VALUE);
+	}
+
+	private static Envelope rangeY(double minY, double maxY) {
+		return new Envelope(-Double.MAX_VALUE, Double.MAX_VALUE, minY, maxY);
+	}
+
+	/**
+	 * Evaluates the relation of two geometries in the same SRS through the prepared
+	 * geometry of the build side, which is kept by its GeometryWrapper across probes.
+	 * @param build The geometry of the build side.
+	 * @param probe The geometry of the probe side.
+	 * @param probeIsFirst True if the probe is the first function argument.
+	 * @return The result or null if the function has to be evaluated instead.
+	 */
+	public Boolean refine(GeometryWrapper build, GeometryWrapper probe, boolean probeIsFirst) throws FactoryException, MismatchedDimensionException, TransformException {
+		switch (this) {
+		case INTERSECTS:
+			return build.intersects(probe);
+		case CONTAINS:
+			return probeIsFirst ? build.within(probe) : build.contains(probe);
+		case WITHIN:
+			return probeIsFirst ? build.contains(probe) : build.within(probe);
+		default:
+			return null;
+		}
+	}
+
+}
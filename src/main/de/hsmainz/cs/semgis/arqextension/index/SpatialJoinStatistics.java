@@ -0,0 +1,137 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.Arrays;
+
+/**
+ * Partition metrics of a {@link PartitionedSpatialJoin}.
+ * <p>
+ * The skew is the ratio of the largest to the mean number of items of the joined
+ * partitions, 1 for an even split. The replication factor is the mean number of
+ * partitions an item was assigned to.
+ */
+public class SpatialJoinStatistics {
+
+	private final int partitions;
+
+	private final int buildItems;
+
+	private final int probeItems;
+
+	private final int[] partitionItems;
+
+	private final int[] partitionResults;
+
+	private final double replication;
+
+	private final long candidates;
+
+	private final long nanos;
+
+	SpatialJoinStatistics(int partitions, int buildItems, int probeItems, int[] partitionItems, int[] partitionResults, double replication, long candidates, long nanos) {
+		this.partitions = partitions;
+		this.buildItems = buildItems;
+		this.probeItems = probeItems;
+		this.partitionItems = partitionItems;
+		this.partitionResults = partitionResults;
+		this.replication = replication;
+		this.candidates = candidates;
+		this.nanos = nanos;
+	}
+
+	/**
+	 *
+	 * @return The number of grid cells, including empty ones.
+	 */
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/**
+	 *
+	 * @return The number of cells with items on both sides.
+	 */
+	public int getJoinedPartitions() {
+		return partitionItems.length;
+	}
+
+	public int getBuildItems() {
+		return buildItems;
+	}
+
+	public int getProbeItems() {
+		return probeItems;
+	}
+
+	/**
+	 *
+	 * @return The build and probe items of each joined cell.
+	 */
+	public int[] getPartitionItems() {
+		return Arrays.copyOf(partitionItems, partitionItems.length);
+	}
+
+	/**
+	 *
+	 * @return The results of each joined cell.
+	 */
+	public int[] getPartitionResults() {
+		return Arrays.copyOf(partitionResults, partitionResults.length);
+	}
+
+	public int getMaxPartitionItems() {
+		int max = 0;
+		for (int items : partitionItems) {
+			max = Math.max(max, items);
+		}
+		return max;
+	}
+
+	public double getMeanPartitionItems() {
+		if (partitionItems.length == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int items : partitionItems) {
+			sum += items;
+		}
+		return (double) sum / partitionItems.length;
+	}
+
+	public double getSkew() {
+		double mean = getMeanPartitionItems();
+		return mean == 0 ? 1 : getMaxPartitionItems() / mean;
+	}
+
+	public double getReplication() {
+		return replication;
+	}
+
+	/**
+	 *
+	 * @return The pairs passed to the refinement.
+	 */
+	public long getCandidates() {
+		return candidates;
+	}
+
+	public long getResults() {
+		long sum = 0;
+		for (int results : partitionResults) {
+			sum += results;
+		}
+		return sum;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	@Override
+	public String toString() {
+		return "SpatialJoinStatistics{" + "partitions=" + partitions + ", joinedPartitions=" + getJoinedPartitions() + ", buildItems=" + buildItems
+				+ ", probeItems=" + probeItems + ", maxPartitionItems=" + getMaxPartitionItems() + ", meanPartitionItems=" + getMeanPartitionItems()
+				+ ", skew=" + getSkew() + ", replication=" + replication + ", candidates=" + candidates + ", results=" + getResults()
+				+ ", millis=" + nanos / 1000000 + '}';
+	}
+
+}
@@ -0,0 +1,201 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVars;
+import org.apache.jena.sparql.algebra.TransformCopy;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.algebra.op.OpFilter;
+import org.apache.jena.sparql.algebra.op.OpJoin;
+import org.apache.jena.sparql.algebra.op.OpSequence;
+import org.apache.jena.sparql.algebra.optimize.Optimize;
+import org.apache.jena.sparql.algebra.optimize.Rewrite;
+import org.apache.jena.sparql.algebra.optimize.RewriteFactory;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_Function;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.sparql.util.VarUtils;
+
+import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+
+/**
+ * Rewrites a filter relating a variable of one pattern to a variable of another,
+ * independent pattern into an {@link OpSpatialJoin}:
+ * <pre>
+ * SELECT ?f1 ?f2 WHERE { ?f1 geo:hasGeometry/geo:asWKT ?a . ?f2 geo:hasGeometry/geo:asWKT ?b .
+ *     FILTER(geo2:ST_Intersects(?a, ?b)) }
+ * </pre>
+ * The relations of {@link SpatialJoinPredicate} are supported, ST_DWithin with a
+ * constant distance. The patterns may be a join of two patterns or a basic graph
+ * pattern whose triples fall into unconnected groups. The transform runs after the
+ * standard ARQ optimization once {@link #register()} has been called and can be
+ * switched off per query by setting {@link #SPATIAL_JOIN} to false in the context.
+ * Large joins are partitioned and run in parallel, see {@link #SPATIAL_JOIN_PARALLELISM}
+ * and {@link #SPATIAL_JOIN_PARTITION_THRESHOLD}.
+ */
+public class SpatialJoinTransform extends TransformCopy {
+
+	public static final Symbol SPATIAL_JOIN = Symbol.create(PostGISGeo.uri2 + "spatialJoin");
+
+	/**
+	 * Number of threads of a partitioned spatial join, 1 to join sequentially.
+	 */
+	public static final Symbol SPATIAL_JOIN_PARALLELISM = Symbol.create(PostGISGeo.uri2 + "spatialJoinParallelism");
+
+	/**
+	 * Minimum number of solutions on the larger side of a partitioned spatial join.
+	 */
+	public static final Symbol SPATIAL_JOIN_PARTITION_THRESHOLD = Symbol.create(PostGISGeo.uri2 + "spatialJoinPartitionThreshold");
+
+	private static boolean isRegistered = false;
+
+	/**
+	 * Appends the transform to the optimizer of ARQ.
+	 */
+	public static synchronized void register() {
+		if (isRegistered) {
+			return;
+		}
+		RewriteFactory factory = Optimize.getFactory();
+		Optimize.setFactory(context -> {
+			Rewrite rewrite = factory.create(context);
+			if (context.isFalse(SPATIAL_JOIN)) {
+				return rewrite;
+			}
+			return op -> Transformer.transform(new SpatialJoinTransform(), rewrite.rewrite(op));
+		});
+		isRegistered = true;
+	}
+
+	@Override
+	public Op transform(OpFilter opFilter, Op subOp) {
+		ExprList exprs = opFilter.getExprs();
+		for (Expr expr : exprs) {
+			Op op = rewrite(expr, exprs, subOp);
+			if (op != null) {
+				return op;
+			}
+		}
+		return super.transform(opFilter, subOp);
+	}
+
+	private static Op rewrite(Expr expr, ExprList exprs, Op subOp) {
+		if (!(expr instanceof E_Function)) {
+			return null;
+		}
+		E_Function function = (E_Function) expr;
+		SpatialJoinPredicate predicate = SpatialJoinPredicate.get(function.getFunctionIRI());
+		if (predicate == null || function.numArgs() != predicate.getArgCount()) {
+			return null;
+		}
+		if (!function.getArg(1).isVariable() || !function.getArg(2).isVariable()) {
+			return null;
+		}
+		Var first = function.getArg(1).asVar();
+		Var second = function.getArg(2).asVar();
+		if (first.equals(second)) {
+			return null;
+		}
+		double distance = 0;
+		if (predicate == SpatialJoinPredicate.DWITHIN) {
+			Expr distanceExpr = function.getArg(3);
+			if (!distanceExpr.isConstant() || !distanceExpr.getConstant().isNumber()) {
+				return null;
+			}
+			distance = distanceExpr.getConstant().getDouble();
+		}
+		Op[] sides = split(subOp, first, second);
+		if (sides == null) {
+			return null;
+		}
+		return new OpSpatialJoin(predicate, expr, first, second, distance, sides[0], sides[1], exprs);
+	}
+
+	/**
+	 * Splits the pattern into a side binding only the first variable and a side binding
+	 * only the second one.
+	 * @return The left and right side or null if the pattern cannot be split.
+	 */
+	private static Op[] split(Op op, Var first, Var second) {
+		if (op instanceof OpBGP) {
+			return split(((OpBGP) op).getPattern(), first, second);
+		}
+		Op left;
+		Op right;
+		if (op instanceof OpJoin) {
+			left = ((OpJoin) op).getLeft();
+			right = ((OpJoin) op).getRight();
+		} else if (op instanceof OpSequence && ((OpSequence) op).size() == 2) {
+			//The optimizer only creates a sequence where it is equal to the join.
+			left = ((OpSequence) op).get(0);
+			right = ((OpSequence) op).get(1);
+		} else {
+			return null;
+		}
+		Set<Var> leftVars = OpVars.visibleVars(left);
+		Set<Var> rightVars = OpVars.visibleVars(right);
+		if (leftVars.contains(first) && !leftVars.contains(second) && rightVars.contains(second) && !rightVars.contains(first)) {
+			return new Op[] { left, right };
+		}
+		if (rightVars.contains(first) && !rightVars.contains(second) && leftVars.contains(second) && !leftVars.contains(first)) {
+			return new Op[] { right, left };
+		}
+		return null;
+	}
+
+	/**
+	 * Splits a basic graph pattern into the triples connected to the first variable
+	 * through shared variables and all other triples.
+	 */
+	private static Op[] split(BasicPattern pattern, Var first, Var second) {
+		List<Triple> triples = pattern.getList();
+		boolean[] isConnected = new boolean[triples.size()];
+		Set<Var> connectedVars = new HashSet<>();
+		connectedVars.add(first);
+		boolean isGrowing = true;
+		while (isGrowing) {
+			isGrowing = false;
+			for (int i = 0; i < triples.size(); i++) {
+				if (isConnected[i]) {
+					continue;
+				}
+				Set<Var> vars = VarUtils.getVars(triples.get(i));
+				for (Var var : vars) {
+					if (connectedVars.contains(var)) {
+						isConnected[i] = true;
+						connectedVars.addAll(vars);
+						isGrowing = true;
+						break;
+					}
+				}
+			}
+		}
+		if (connectedVars.contains(second)) {
+			return null;
+		}
+		BasicPattern left = new BasicPattern();
+		BasicPattern right = new BasicPattern();
+		Set<Var> rightVars = new HashSet<>();
+		for (int i = 0; i < triples.size(); i++) {
+			if (isConnected[i]) {
+				left.add(triples.get(i));
+			} else {
+				right.add(triples.get(i));
+				VarUtils.addVarsFromTriple(rightVars, triples.get(i));
+			}
+		}
+		if (left.isEmpty() || !rightVars.contains(second)) {
+			return null;
+		}
+		return new Op[] { new OpBGP(left), new OpBGP(right) };
+	}
+
+}
@@ -0,0 +1,278 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.SpatialKind;
+
+/**
+ * Static (x, y, m) index over the measured vertices of the geometry literals of a
+ * graph, such as trajectories built with ST_MakePointT whose m values are
+ * timestamps.
+ * <p>
+ * Every literal is cut into entries of {@link #VERTICES_PER_ITEM} consecutive
+ * vertices, each bounded by its envelope and its m range. The entries are sorted by
+ * their smallest m value and grouped into time buckets of {@link #ITEMS_PER_BUCKET}
+ * entries, each with a 2D STR-tree over the envelopes. A query only searches the
+ * trees of the buckets whose m range overlaps the queried one, and then checks the
+ * vertices of the entries found.<br>
+ * Vertices without an m value are not indexed.
+ */
+public class SpatioTemporalIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpatioTemporalIndex.class);
+
+	public static final int VERTICES_PER_ITEM = 32;
+
+	public static final int ITEMS_PER_BUCKET = 1024;
+
+	private final String srsURI;
+
+	private final double[] bucketMinM;
+
+	private final double[] bucketMaxM;
+
+	private final STRtree[] trees;
+
+	private final int size;
+
+	public SpatioTemporalIndex(List<SpatioTemporalIndexItem> items, String srsURI) {
+		this.srsURI = srsURI;
+		this.size = items.size();
+		List<SpatioTemporalIndexItem> sorted = new ArrayList<>(items);
+		sorted.sort(Comparator.comparingDouble(SpatioTemporalIndexItem::getMinM));
+		int buckets = (sorted.size() + ITEMS_PER_BUCKET - 1) / ITEMS_PER_BUCKET;
+		this.bucketMinM = new double[buckets];
+		this.bucketMaxM = new double[buckets];
+		this.trees = new STRtree[buckets];
+		for (int b = 0; b < buckets; b++) {
+			STRtree tree = new STRtree();
+			double maxM = Double.NEGATIVE_INFINITY;
+			int end = Math.min(sorted.size(), (b + 1) * ITEMS_PER_BUCKET);
+			for (int i = b * ITEMS_PER_BUCKET; i < end; i++) {
+				SpatioTemporalIndexItem item = sorted.get(i);
+				tree.insert(item.getEnvelope(), item);
+				maxM = Math.max(maxM, item.getMaxM());
+			}
+			tree.build();
+			bucketMinM[b] = sorted.get(b * ITEMS_PER_BUCKET).getMinM();
+			bucketMaxM[b] = maxM;
+			trees[b] = tree;
+		}
+	}
+
+	/**
+	 * Indexes the measured geometry literals of the graph in CRS84.
+	 * @param graph The graph to index.
+	 * @return The index.
+	 */
+	public static SpatioTemporalIndex build(Graph graph) {
+		return build(graph, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Indexes the measured geometry literals of the graph. Literals that cannot be
+	 * read or transformed into the SRS of the index are logged and left out.
+	 * @param graph The graph to index.
+	 * @param srsURI The SRS of the index.
+	 * @return The index.
+	 */
+	public static SpatioTemporalIndex build(Graph graph, String srsURI) {
+		List<SpatioTemporalIndexItem> items = new ArrayList<>();
+		int literalCount = 0;
+		ExtendedIterator<Triple> triples = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				Triple triple = triples.next();
+				Node object = triple.getObject();
+				if (!object.isLiteral() || SpatialDatatypeRegistry.getKind(object.getLiteralDatatypeURI()) != SpatialKind.VECTOR) {
+					continue;
+				}
+				try {
+					int count = items.size();
+					createItems(triple.getSubject(), object, srsURI, items);
+					if (items.size() > count) {
+						literalCount++;
+					}
+				} catch (DatatypeFormatException | FactoryException | MismatchedDimensionException | TransformException ex) {
+					LOGGER.warn("Measured geometry literal of {} not indexed: {}", triple.getSubject(), ex.getMessage());
+				}
+			}
+		} finally {
+			triples.close();
+		}
+		int itemCount = items.size();
+		for (int i = 0; i < itemCount; i++) {
+			SpatioTemporalIndexItem item = items.get(i);
+			for (Node feature : SpatialIndex.findFeatures(graph, item.getSubject())) {
+				items.add(item.withSubject(feature));
+			}
+		}
+		LOGGER.info("Spatio-temporal index built: {} literals, {} entries", literalCount, items.size());
+		return new SpatioTemporalIndex(items, srsURI);
+	}
+
+	/**
+	 * Adds the entries of the measured vertices of a geometry literal.
+	 * @param subject The resource described by the literal.
+	 * @param literal The geometry literal.
+	 * @param srsURI The SRS of the index.
+	 * @param items The entries.
+	 */
+	static void createItems(Node subject, Node literal, String srsURI, List<SpatioTemporalIndexItem> items) throws FactoryException, MismatchedDimensionException, TransformException {
+		GeometryWrapper geometry = GeometryWrapper.extract(literal);
+		List<CoordinateSequence> sequences = new ArrayList<>();
+		addSequences(geometry.getParsingGeometry(), sequences);
+		int count = 0;
+		for (CoordinateSequence sequence : sequences) {
+			if (!sequence.hasM()) {
+				return;
+			}
+			count += sequence.size();
+		}
+		if (count == 0) {
+			return;
+		}
+		//The transformation keeps the vertices in order, the m values are read from the literal.
+		List<CoordinateSequence> positions = new ArrayList<>();
+		addSequences(geometry.transform(srsURI).getXYGeometry(), positions);
+		if (positions.size() != sequences.size()) {
+			throw new TransformException("Transformation changed the structure of " + literal);
+		}
+		double[] x = new double[count];
+		double[] y = new double[count];
+		double[] m = new double[count];
+		int n = 0;
+		for (int s = 0; s < sequences.size(); s++) {
+			CoordinateSequence sequence = sequences.get(s);
+			CoordinateSequence position = positions.get(s);
+			for (int i = 0; i < sequence.size(); i++) {
+				double value = sequence.getM(i);
+				if (!Double.isNaN(value)) {
+					x[n] = position.getX(i);
+					y[n] = position.getY(i);
+					m[n] = value;
+					n++;
+				}
+			}
+		}
+		for (int from = 0; from < n; from += VERTICES_PER_ITEM) {
+			items.add(new SpatioTemporalIndexItem(subject, literal, x, y, m, from, Math.min(n, from + VERTICES_PER_ITEM)));
+		}
+	}
+
+	private static void addSequences(Geometry geometry, List<CoordinateSequence> sequences) {
+		if (geometry instanceof Point) {
+			sequences.add(((Point) geometry).getCoordinateSequence());
+		} else if (geometry instanceof LineString) {
+			sequences.add(((LineString) geometry).getCoordinateSequence());
+		} else if (geometry instanceof Polygon) {
+			Polygon polygon = (Polygon) geometry;
+			sequences.add(polygon.getExteriorRing().getCoordinateSequence());
+			for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+				sequences.add(polygon.getInteriorRingN(i).getCoordinateSequence());
+			}
+		} else {
+			for (int i = 0; i < geometry.getNumGeometries(); i++) {
+				addSequences(geometry.getGeometryN(i), sequences);
+			}
+		}
+	}
+
+	public String getSrsURI() {
+		return srsURI;
+	}
+
+	/**
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Entries whose envelope intersects the search envelope and whose m range
+	 * overlaps the search range.
+	 * @param envelope The search envelope in the SRS of the index.
+	 * @param minM The smallest m value.
+	 * @param maxM The largest m value.
+	 * @return The candidate entries.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<SpatioTemporalIndexItem> query(Envelope envelope, double minM, double maxM) {
+		List<SpatioTemporalIndexItem> results = new ArrayList<>();
+		for (int b = 0; b < trees.length && bucketMinM[b] <= maxM; b++) {
+			if (bucketMaxM[b] < minM) {
+				continue;
+			}
+			for (SpatioTemporalIndexItem item : (List<SpatioTemporalIndexItem>) trees[b].query(envelope)) {
+				if (item.getMinM() <= maxM && item.getMaxM() >= minM) {
+					results.add(item);
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Entries with a vertex inside the area whose m value lies within the range.
+	 * @param area The search area in any SRS.
+	 * @param minM The smallest m value.
+	 * @param maxM The largest m value.
+	 * @return The matching entries.
+	 */
+	public List<SpatioTemporalIndexItem> queryWithin(GeometryWrapper area, double minM, double maxM) throws FactoryException, MismatchedDimensionException, TransformException {
+		Geometry search = area.transform(srsURI).getXYGeometry();
+		Envelope envelope = search.getEnvelopeInternal();
+		List<SpatioTemporalIndexItem> results = new ArrayList<>();
+		if (search.isRectangle()) {
+			for (SpatioTemporalIndexItem item : query(envelope, minM, maxM)) {
+				if (item.hasVertex(envelope, minM, maxM)) {
+					results.add(item);
+				}
+			}
+			return results;
+		}
+		PreparedGeometry prepared = PreparedGeometryFactory.prepare(search);
+		for (SpatioTemporalIndexItem item : query(envelope, minM, maxM)) {
+			if (item.hasVertex(prepared, minM, maxM)) {
+				results.add(item);
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public String toString() {
+		return "SpatioTemporalIndex{srsURI=" + srsURI + ", size=" + size + ", buckets=" + trees.length + "}";
+	}
+
+}
@@ -0,0 +1,150 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import org.apache.jena.graph.Node;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomGeometryFactory;
+
+/**
+ * Entry of the {@link SpatioTemporalIndex}: a run of consecutive measured vertices
+ * of a geometry literal, with their positions in the SRS of the index, their m
+ * values and the bounds of both.
+ */
+public class SpatioTemporalIndexItem {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = CustomGeometryFactory.theInstance();
+
+	private final Node subject;
+
+	private final Node literal;
+
+	private final double[] x;
+
+	private final double[] y;
+
+	private final double[] m;
+
+	private final int from;
+
+	private final int to;
+
+	private final Envelope envelope;
+
+	private final double minM;
+
+	private final double maxM;
+
+	/**
+	 * Entry of the vertices [from, to) of the arrays.
+	 */
+	SpatioTemporalIndexItem(Node subject, Node literal, double[] x, double[] y, double[] m, int from, int to) {
+		this.subject = subject;
+		this.literal = literal;
+		this.x = x;
+		this.y = y;
+		this.m = m;
+		this.from = from;
+		this.to = to;
+		this.envelope = new Envelope();
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			envelope.expandToInclude(x[i], y[i]);
+			min = Math.min(min, m[i]);
+			max = Math.max(max, m[i]);
+		}
+		this.minM = min;
+		this.maxM = max;
+	}
+
+	private SpatioTemporalIndexItem(SpatioTemporalIndexItem item, Node subject) {
+		this.subject = subject;
+		this.literal = item.literal;
+		this.x = item.x;
+		this.y = item.y;
+		this.m = item.m;
+		this.from = item.from;
+		this.to = item.to;
+		this.envelope = item.envelope;
+		this.minM = item.minM;
+		this.maxM = item.maxM;
+	}
+
+	/**
+	 * Item of another resource described by the same literal, e.g. the feature of a geometry.
+	 * @param subject The resource.
+	 * @return The item of the resource.
+	 */
+	SpatioTemporalIndexItem withSubject(Node subject) {
+		return new SpatioTemporalIndexItem(this, subject);
+	}
+
+	public Node getSubject() {
+		return subject;
+	}
+
+	public Node getLiteral() {
+		return literal;
+	}
+
+	/**
+	 *
+	 * @return The envelope of the vertices in the SRS of the index.
+	 */
+	public Envelope getEnvelope() {
+		return envelope;
+	}
+
+	public double getMinM() {
+		return minM;
+	}
+
+	public double getMaxM() {
+		return maxM;
+	}
+
+	public int getVertexCount() {
+		return to - from;
+	}
+
+	/**
+	 *
+	 * @param box The box in the SRS of the index.
+	 * @param minM The smallest m value.
+	 * @param maxM The largest m value.
+	 * @return True if a vertex with an m value in the range lies in the box.
+	 */
+	public boolean hasVertex(Envelope box, double minM, double maxM) {
+		for (int i = from; i < to; i++) {
+			if (m[i] >= minM && m[i] <= maxM && box.covers(x[i], y[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * @param area The area in the SRS of the index.
+	 * @param minM The smallest m value.
+	 * @param maxM The largest m value.
+	 * @return True if a vertex with an m value in the range lies in the area.
+	 */
+	public boolean hasVertex(PreparedGeometry area, double minM, double maxM) {
+		for (int i = from; i < to; i++) {
+			if (m[i] >= minM && m[i] <= maxM && area.covers(GEOMETRY_FACTORY.createPoint(new Coordinate(x[i], y[i])))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "SpatioTemporalIndexItem{subject=" + subject + ", envelope=" + envelope + ", m=[" + minM + ", " + maxM + "], vertices=" + getVertexCount() + "}";
+	}
+
+}
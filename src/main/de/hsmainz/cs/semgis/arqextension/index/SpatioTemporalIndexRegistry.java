@@ -0,0 +1,65 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import org.apache.jena.graph.Graph;
+
+/**
+ * Spatio-temporal indexes of the graphs queried with {@link InBoxDuringPF}.
+ * <p>
+ * An index is built on first use for a graph, or ahead of the first query through
+ * {@link #build(Graph)}, and dropped as soon as a triple of the graph is added or
+ * removed.
+ */
+public class SpatioTemporalIndexRegistry {
+
+	private static final GraphIndexCache<SpatioTemporalIndex> INDEXES = new GraphIndexCache<>();
+
+	/**
+	 * Index of the graph, built in CRS84 if the graph has none.
+	 * @param graph The graph.
+	 * @return The index of the graph.
+	 */
+	public static SpatioTemporalIndex get(Graph graph) {
+		return INDEXES.get(graph, SpatioTemporalIndex::build);
+	}
+
+	/**
+	 * Builds the index of the graph in CRS84, replacing an existing index.
+	 * @param graph The graph.
+	 * @return The new index.
+	 */
+	public static SpatioTemporalIndex build(Graph graph) {
+		return build(graph, SpatialIndex.DEFAULT_SRS_URI);
+	}
+
+	/**
+	 * Builds the index of the graph, replacing an existing index.
+	 * @param graph The graph.
+	 * @param srsURI The SRS of the index.
+	 * @return The new index.
+	 */
+	public static SpatioTemporalIndex build(Graph graph, String srsURI) {
+		return INDEXES.build(graph, target -> SpatioTemporalIndex.build(target, srsURI));
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return True if the graph has a current index.
+	 */
+	public static boolean contains(Graph graph) {
+		return INDEXES.contains(graph);
+	}
+
+	/**
+	 * Drops the index of the graph.
+	 * @param graph The graph.
+	 */
+	public static void remove(Graph graph) {
+		INDEXES.remove(graph);
+	}
+
+	public static void clear() {
+		INDEXES.clear();
+	}
+
+}
@@ -0,0 +1,50 @@
+package de.hsmainz.cs.semgis.arqextension.index;
+
+import java.util.List;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Unit_URI;
+
+/**
+ * Resources whose geometry or raster is within a distance of a geometry or raster:
+ * <code>?feature geo2:withinDistance (?g 500 [unitsURI])</code>.<br>
+ * The distance is in metres unless a units URI is given.
+ */
+public class WithinDistancePF extends SpatialIndexPropertyFunction {
+
+	@Override
+	protected void checkBuild(int argCount) {
+		if (argCount < 2 || argCount > 3) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes two or three arguments");
+		}
+	}
+
+	@Override
+	protected List<SpatialIndexItem> search(SpatialIndex index, List<NodeValue> args) throws FactoryException, MismatchedDimensionException, TransformException {
+		Wrapper wrapper = LiteralUtils.rasterOrVector(args.get(0));
+		GeometryWrapper geometry;
+		if (wrapper instanceof CoverageWrapper) {
+			geometry = SpatialIndex.getFootprint((CoverageWrapper) wrapper);
+		} else {
+			geometry = (GeometryWrapper) wrapper;
+		}
+		double distance = args.get(1).getDouble();
+		String unitsURI = Unit_URI.METRE_URL;
+		if (args.size() == 3) {
+			NodeValue units = args.get(2);
+			unitsURI = units.isIRI() ? units.asNode().getURI() : units.getString();
+		}
+		return index.queryWithinDistance(geometry, distance, unitsURI);
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Spatial index over the geometry and raster literals of a graph, held in memory
+ * or mapped from a file, the property functions answering spatial selections from
+ * it and the index-backed evaluation of spatial joins between two patterns,
+ * partitioned and parallel for large inputs. A second index over the measured
+ * vertices of geometry literals answers selections by box and m or time range,
+ * a third holds the footprints of raster literals read from their WKB headers.
+ * The clustering aggregates group geometries by distance over an STR-tree.
+ */
+package de.hsmainz.cs.semgis.arqextension.index;
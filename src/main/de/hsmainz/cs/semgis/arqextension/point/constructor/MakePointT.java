@@ -1,22 +1,34 @@
 package de.hsmainz.cs.semgis.arqextension.point.constructor;
 
+import java.util.Collections;
+
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase3;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.Point;
 
+import de.hsmainz.cs.semgis.arqextension.util.MeasureFilter;
+import io.github.galbiston.geosparql_jena.implementation.DimensionInfo;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
 import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.jts.CoordinateSequenceDimensions;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomCoordinateSequence;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomGeometryFactory;
 import io.github.galbiston.geosparql_jena.implementation.vocabulary.SRS_URI;
 
+/**
+ * Creates a point whose m value is a timestamp, given as xsd:dateTime or seconds since the epoch.
+ *
+ */
 public class MakePointT extends FunctionBase3 {
 
     @Override
     public NodeValue exec(NodeValue arg0, NodeValue arg1, NodeValue arg2) {
-    	//arg2.getD
-        Coordinate coord = new CoordinateXYM(arg0.getDouble(), arg1.getDouble(), arg2.getDouble());
-        GeometryWrapper pointWrapper = GeometryWrapperFactory.createPoint(coord, SRS_URI.DEFAULT_WKT_CRS84, WKTDatatype.URI);
+        Coordinate coord = new CoordinateXYM(arg0.getDouble(), arg1.getDouble(), MeasureFilter.toMeasure(arg2));
+        //a sequence built from a coordinate array would drop the m value
+        Point point = CustomGeometryFactory.theInstance().createPoint(new CustomCoordinateSequence(CoordinateSequenceDimensions.XYM, Collections.singletonList(coord)));
+        GeometryWrapper pointWrapper = new GeometryWrapper(point, SRS_URI.DEFAULT_WKT_CRS84, WKTDatatype.URI, DimensionInfo.XYM_POINT);
         return pointWrapper.asNodeValue();
     }
 
@@ -0,0 +1,32 @@
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.awt.image.DataBuffer;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase2;
+import org.apache.sis.coverage.grid.GridCoverage;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+
+/**
+ * Returns the aspect of an elevation band in degrees clockwise from north as a float raster, -1 for flat
+ * cells.
+ */
+public class Aspect extends FunctionBase2 {
+
+	@Override
+	public NodeValue exec(NodeValue v1, NodeValue v2) {
+		CoverageWrapper wrapper = CoverageWrapper.extract(v1);
+		int bandnum = v2.getInteger().intValue();
+		if (bandnum < 0 || bandnum >= wrapper.getNumBands()) {
+			throw new ExprEvalException("Band index out of range: " + bandnum);
+		}
+		double[] cellSize = NeighbourhoodOperation.getCellSize(wrapper.getXYGeometry().getGridGeometry());
+		GridCoverage coverage = NeighbourhoodOperation.apply(wrapper, new int[] {bandnum}, NeighbourhoodKernels.aspect(cellSize[0], cellSize[1]), DataBuffer.TYPE_FLOAT, "ASPECT");
+		return CoverageWrapper.createCoverage(coverage, wrapper.getSrsURI(), wrapper.getRasterDatatypeURI()).asNodeValue();
+	}
+
+}
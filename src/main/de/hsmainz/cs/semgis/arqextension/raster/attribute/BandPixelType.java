@@ -15,7 +15,6 @@ package de.hsmainz.cs.semgis.arqextension.raster.attribute;
 import java.math.BigInteger;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
 
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
@@ -24,9 +23,8 @@ public class BandPixelType extends FunctionBase2 {
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2) {
 		CoverageWrapper wrapper=CoverageWrapper.extract(v1);
-		GridCoverage raster=wrapper.getXYGeometry();
 		BigInteger bandNum=v2.getInteger();
-        return NodeValue.makeString(raster.getSampleDimensions().get(bandNum.intValue()).getSampleRange() + "");
+		return NodeValue.makeString(wrapper.getBandPixelType(bandNum.intValue()));
 	}
 
 }
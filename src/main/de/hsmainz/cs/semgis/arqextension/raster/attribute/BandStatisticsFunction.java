@@ -0,0 +1,72 @@
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.util.List;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterStatistics;
+
+/**
+ * Base of the band statistics functions taking a raster, an optional band
+ * number and an optional flag whether no-data values are excluded, followed by
+ * the function specific arguments.
+ * Following PostGIS the band defaults to the first band and no-data values are
+ * excluded by default. The band number may be omitted when the flag is given.
+ * A band the raster does not have is an evaluation error.
+ */
+public abstract class BandStatisticsFunction extends FunctionBase {
+
+	private final int minArgs;
+
+	private final int maxArgs;
+
+	protected BandStatisticsFunction(int minArgs, int maxArgs) {
+		this.minArgs=minArgs;
+		this.maxArgs=maxArgs;
+	}
+
+	@Override
+	public NodeValue exec(List<NodeValue> args) {
+		CoverageWrapper wrapper=CoverageWrapper.extract(args.get(0));
+		int trailing=trailingArgs(args.size());
+		List<NodeValue> options=args.subList(1, args.size()-trailing);
+		int band=0;
+		boolean excludeNoData=true;
+		for(NodeValue option:options) {
+			if(option.isBoolean()) {
+				excludeNoData=option.getBoolean();
+			}else {
+				band=option.getInteger().intValue();
+			}
+		}
+		if(band<0 || band>=wrapper.getNumBands()) {
+			throw new ExprEvalException("Band index out of range: "+band);
+		}
+		return exec(wrapper.getRasterStatistics(), band, excludeNoData, args.subList(args.size()-trailing, args.size()));
+	}
+
+	/**
+	 *
+	 * @param argCount The number of arguments of the call.
+	 * @return The number of function specific arguments at the end of the call.
+	 */
+	protected int trailingArgs(int argCount) {
+		return 0;
+	}
+
+	protected abstract NodeValue exec(RasterStatistics statistics, int band, boolean excludeNoData, List<NodeValue> trailing);
+
+	@Override
+	public void checkBuild(String uri, ExprList args) {
+		if (args.size() < minArgs || args.size() > maxArgs) {
+			throw new QueryBuildException("Function '" + Lib.className(this) + "' takes " + minArgs + " to " + maxArgs + " arguments");
+		}
+	}
+
+}
@@ -12,21 +12,25 @@
  ****************************************************************************** */
 package de.hsmainz.cs.semgis.arqextension.raster.attribute;
 
-import java.math.BigInteger;
+import java.util.List;
+
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
 
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterStatistics;
+
+/**
+ * Returns the number of pixels in a given band of a raster. If no band is specified the first band is used. If exclude_nodata_value is true, only pixels that are not equal to the nodata value are counted.
+ *
+ */
+public class Count extends BandStatisticsFunction {
 
-public class Count extends FunctionBase2 {
+	public Count() {
+		super(1, 3);
+	}
 
 	@Override
-	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		CoverageWrapper wrapper=CoverageWrapper.extract(v1);
-		GridCoverage raster=wrapper.getXYGeometry();
-		BigInteger bandnum=v2.getInteger();
-        throw new UnsupportedOperationException("Not supported yet.");
+	protected NodeValue exec(RasterStatistics statistics, int band, boolean excludeNoData, List<NodeValue> trailing) {
+		return NodeValue.makeInteger(statistics.getStatistics(band, excludeNoData).getCount());
 	}
 
 }
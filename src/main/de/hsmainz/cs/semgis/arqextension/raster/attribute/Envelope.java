@@ -19,7 +19,6 @@ import io.github.galbiston.geosparql_jena.implementation.datatype.raster.Coverag
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.coverage.grid.GridCoverage;
 import org.locationtech.jts.geom.Geometry;
 
 import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
@@ -29,10 +28,9 @@ public class Envelope extends FunctionBase1 {
 	@Override
 	public NodeValue exec(NodeValue v) {
 		CoverageWrapper wrapper=CoverageWrapper.extract(v);
-		GridCoverage raster=wrapper.getParsingGeometry();
-	       Geometry envelope = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-	        GeometryWrapper envelopeWrapper = GeometryWrapperFactory.createGeometry(envelope, wrapper.getSrsURI(), WKTDatatype.URI);
-	        return envelopeWrapper.asNodeValue();
+		Geometry envelope = LiteralUtils.toGeometry(wrapper.getEnvelope());
+		GeometryWrapper envelopeWrapper = GeometryWrapperFactory.createGeometry(envelope, wrapper.getSrsURI(), WKTDatatype.URI);
+		return envelopeWrapper.asNodeValue();
 	}
 
 }
@@ -0,0 +1,35 @@
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.awt.image.DataBuffer;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase5;
+import org.apache.sis.coverage.grid.GridCoverage;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+
+/**
+ * Returns the hillshade of an elevation band from 0 to 255 as a float raster, lit from the azimuth and
+ * altitude in degrees. The fifth argument scales the elevations to the unit of the cell size.
+ */
+public class HillShade extends FunctionBase5 {
+
+	@Override
+	public NodeValue exec(NodeValue v1, NodeValue v2, NodeValue v3, NodeValue v4, NodeValue v5) {
+		CoverageWrapper wrapper = CoverageWrapper.extract(v1);
+		int bandnum = v2.getInteger().intValue();
+		if (bandnum < 0 || bandnum >= wrapper.getNumBands()) {
+			throw new ExprEvalException("Band index out of range: " + bandnum);
+		}
+		double azimuth = v3.getDouble();
+		double altitude = v4.getDouble();
+		double zFactor = v5.getDouble();
+		double[] cellSize = NeighbourhoodOperation.getCellSize(wrapper.getXYGeometry().getGridGeometry());
+		GridCoverage coverage = NeighbourhoodOperation.apply(wrapper, new int[] {bandnum}, NeighbourhoodKernels.hillShade(cellSize[0], cellSize[1], azimuth, altitude, zFactor), DataBuffer.TYPE_FLOAT, "HILLSHADE");
+		return CoverageWrapper.createCoverage(coverage, wrapper.getSrsURI(), wrapper.getRasterDatatypeURI()).asNodeValue();
+	}
+
+}
@@ -0,0 +1,44 @@
+/** *****************************************************************************
+ * Copyright (c) 2017 Timo Homburg, i3Mainz.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD License
+ * which accompanies this distribution, and is available at
+ * https://directory.fsf.org/wiki/License:BSD_4Clause
+ *
+ * This project extends work by Ian Simmons who developed the Parliament Triple Store.
+ * http://parliament.semwebcentral.org and published his work und BSD License as well.
+ *
+ *
+ ****************************************************************************** */
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.util.List;
+
+import org.apache.jena.sparql.expr.NodeValue;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterStatistics;
+
+/**
+ * Returns the histogram of a raster band as one (min,max,count,percent) record per bin, using equal width bins between the minimum and maximum of the band. If no band is specified the first band is used, the default number of bins is 10.
+ *
+ */
+public class Histogram extends BandStatisticsFunction {
+
+	public static final int DEFAULT_BINS=10;
+
+	public Histogram() {
+		super(1, 4);
+	}
+
+	@Override
+	protected int trailingArgs(int argCount) {
+		return argCount>=3?1:0;
+	}
+
+	@Override
+	protected NodeValue exec(RasterStatistics statistics, int band, boolean excludeNoData, List<NodeValue> trailing) {
+		int bins=trailing.isEmpty()?DEFAULT_BINS:trailing.get(0).getInteger().intValue();
+		return NodeValue.makeString(statistics.getHistogram(band, excludeNoData, bins).toString());
+	}
+
+}
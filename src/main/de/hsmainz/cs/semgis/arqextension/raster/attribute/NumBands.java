@@ -14,7 +14,6 @@ package de.hsmainz.cs.semgis.arqextension.raster.attribute;
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.coverage.grid.GridCoverage;
 
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
@@ -23,8 +22,7 @@ public class NumBands extends FunctionBase1 {
 	@Override
 	public NodeValue exec(NodeValue v) {
 		CoverageWrapper wrapper=CoverageWrapper.extract(v);
-		GridCoverage raster=wrapper.getXYGeometry();
-		return NodeValue.makeInteger(raster.getSampleDimensions().size());
+		return NodeValue.makeInteger(wrapper.getNumBands());
 	}
 
 }
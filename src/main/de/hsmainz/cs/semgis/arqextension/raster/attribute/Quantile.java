@@ -0,0 +1,41 @@
+/** *****************************************************************************
+ * Copyright (c) 2017 Timo Homburg, i3Mainz.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the BSD License
+ * which accompanies this distribution, and is available at
+ * https://directory.fsf.org/wiki/License:BSD_4Clause
+ *
+ * This project extends work by Ian Simmons who developed the Parliament Triple Store.
+ * http://parliament.semwebcentral.org and published his work und BSD License as well.
+ *
+ *
+ ****************************************************************************** */
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.util.List;
+
+import org.apache.jena.sparql.expr.NodeValue;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterStatistics;
+
+/**
+ * Returns the approximate value of a quantile between 0 and 1 of a raster band. If no band is specified the first band is used.
+ *
+ */
+public class Quantile extends BandStatisticsFunction {
+
+	public Quantile() {
+		super(2, 4);
+	}
+
+	@Override
+	protected int trailingArgs(int argCount) {
+		return 1;
+	}
+
+	@Override
+	protected NodeValue exec(RasterStatistics statistics, int band, boolean excludeNoData, List<NodeValue> trailing) {
+		return NodeValue.makeDouble(statistics.getQuantile(band, excludeNoData, trailing.get(0).getDouble()));
+	}
+
+}
@@ -4,9 +4,6 @@ import java.awt.geom.AffineTransform;
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.coverage.grid.GridCoverage;
-import org.apache.sis.coverage.grid.GridGeometry;
-import org.opengis.referencing.datum.PixelInCell;
 
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 /**
@@ -17,11 +14,9 @@ public class ScaleX extends FunctionBase1 {
 
 	@Override
 	public NodeValue exec(NodeValue v) {
-        CoverageWrapper wrapper=CoverageWrapper.extract(v);
-		GridCoverage raster=wrapper.getXYGeometry();
-		GridGeometry gridGeometry2D = raster.getGridGeometry();
-        AffineTransform gridToWorld = (AffineTransform) gridGeometry2D.getGridToCRS(PixelInCell.CELL_CENTER);
-        return NodeValue.makeDouble(gridToWorld.getScaleX());
+		CoverageWrapper wrapper=CoverageWrapper.extract(v);
+		AffineTransform gridToWorld = wrapper.getGridToCRS();
+		return NodeValue.makeDouble(gridToWorld.getScaleX());
 	}
 
 }
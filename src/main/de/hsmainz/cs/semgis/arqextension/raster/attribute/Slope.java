@@ -0,0 +1,33 @@
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.awt.image.DataBuffer;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase3;
+import org.apache.sis.coverage.grid.GridCoverage;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+
+/**
+ * Returns the slope of an elevation band in degrees as a float raster. The third argument scales the
+ * elevations to the unit of the cell size.
+ */
+public class Slope extends FunctionBase3 {
+
+	@Override
+	public NodeValue exec(NodeValue v1, NodeValue v2, NodeValue v3) {
+		CoverageWrapper wrapper = CoverageWrapper.extract(v1);
+		int bandnum = v2.getInteger().intValue();
+		if (bandnum < 0 || bandnum >= wrapper.getNumBands()) {
+			throw new ExprEvalException("Band index out of range: " + bandnum);
+		}
+		double zFactor = v3.getDouble();
+		double[] cellSize = NeighbourhoodOperation.getCellSize(wrapper.getXYGeometry().getGridGeometry());
+		GridCoverage coverage = NeighbourhoodOperation.apply(wrapper, new int[] {bandnum}, NeighbourhoodKernels.slope(cellSize[0], cellSize[1], zFactor), DataBuffer.TYPE_FLOAT, "SLOPE");
+		return CoverageWrapper.createCoverage(coverage, wrapper.getSrsURI(), wrapper.getRasterDatatypeURI()).asNodeValue();
+	}
+
+}
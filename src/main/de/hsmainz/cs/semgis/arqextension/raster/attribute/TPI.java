@@ -0,0 +1,32 @@
+package de.hsmainz.cs.semgis.arqextension.raster.attribute;
+
+import java.awt.image.DataBuffer;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase2;
+import org.apache.sis.coverage.grid.GridCoverage;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+
+/**
+ * Returns the topographic position index of an elevation band as a float raster, the difference of
+ * each cell and the mean of its 8 neighbours.
+ */
+public class TPI extends FunctionBase2 {
+
+	@Override
+	public NodeValue exec(NodeValue v1, NodeValue v2) {
+		CoverageWrapper wrapper = CoverageWrapper.extract(v1);
+		int bandnum = v2.getInteger().intValue();
+		if (bandnum < 0 || bandnum >= wrapper.getNumBands()) {
+			throw new ExprEvalException("Band index out of range: " + bandnum);
+		}
+
+		GridCoverage coverage = NeighbourhoodOperation.apply(wrapper, new int[] {bandnum}, NeighbourhoodKernels.topographicPositionIndex(), DataBuffer.TYPE_FLOAT, "TPI");
+		return CoverageWrapper.createCoverage(coverage, wrapper.getSrsURI(), wrapper.getRasterDatatypeURI()).asNodeValue();
+	}
+
+}
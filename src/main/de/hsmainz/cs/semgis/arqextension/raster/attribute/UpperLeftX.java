@@ -14,11 +14,6 @@ package de.hsmainz.cs.semgis.arqextension.raster.attribute;
 
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
-import org.apache.sis.coverage.grid.GridCoverage;
-import org.apache.sis.geometry.GeneralDirectPosition;
-import org.opengis.geometry.DirectPosition;
-import org.opengis.referencing.datum.PixelInCell;
-import org.opengis.referencing.operation.TransformException;
 
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
@@ -31,17 +26,8 @@ public class UpperLeftX extends FunctionBase1 {
 
 	@Override
 	public NodeValue exec(NodeValue v) {
-		CoverageWrapper wrapper=CoverageWrapper.extract(v);		
-		GridCoverage raster=wrapper.getXYGeometry();	
-		double[] coords=new double[] {0,0};
-		GeneralDirectPosition pos = new GeneralDirectPosition(coords);
-		DirectPosition position;
-		try {
-			position = raster.getGridGeometry().getGridToCRS(PixelInCell.CELL_CENTER).transform(pos,null);
-			return NodeValue.makeDouble(position.getCoordinate()[0]);
-		} catch (TransformException e) {
-			throw new AssertionError("InvalidGeometryException");
-		}        
+		CoverageWrapper wrapper=CoverageWrapper.extract(v);
+		return NodeValue.makeDouble(wrapper.getGridToCRS().getTranslateX());
 	}
 
 }
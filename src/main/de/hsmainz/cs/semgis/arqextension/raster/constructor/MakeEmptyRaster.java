@@ -36,7 +36,6 @@ import org.apache.sis.coverage.grid.GridExtent;
 import org.apache.sis.coverage.grid.GridGeometry;
 import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.internal.coverage.BufferedGridCoverage;
-import org.apache.sis.referencing.CRS;
 import org.apache.sis.referencing.CommonCRS;
 import org.apache.sis.util.iso.DefaultNameFactory;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -44,6 +43,7 @@ import org.opengis.referencing.datum.PixelInCell;
 import org.opengis.util.FactoryException;
 
 import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 
 public class MakeEmptyRaster extends FunctionBase0 {
 
@@ -64,7 +64,7 @@ public class MakeEmptyRaster extends FunctionBase0 {
 		CoordinateReferenceSystem crss=null;
 		Envelope2D envelope=null;
 		try {
-			crss = CRS.forCode("EPSG:4326");
+			crss = CRSCache.getCRS(4326);
 			envelope = new Envelope2D(crss, 0, 0, 30, 30);
 		} catch (FactoryException e) {
 			// TODO Auto-generated catch block
@@ -11,7 +11,6 @@ import org.geotoolkit.coverage.wkb.WKBRasterReader;
 import org.opengis.referencing.NoSuchAuthorityCodeException;
 import org.opengis.util.FactoryException;
 
-import com.vividsolutions.jts.io.WKBReader;
 
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
@@ -24,7 +23,7 @@ public class RastFromHexWKB extends FunctionBase1 {
         try {
             String wkbstring=arg0.getString();
     		WKBRasterReader reader=new WKBRasterReader();
-    		GridCoverage coverage=reader.readCoverage(WKBReader.hexToBytes(wkbstring),null);
+    		GridCoverage coverage=reader.readCoverage(WKBRasterReader.hexToByteBuffer(wkbstring),null);
     		CoverageWrapper wrapper=CoverageWrapper.createCoverage(coverage,null , HexWKBRastDatatype.URI);
     		return wrapper.asNodeValue();
             
@@ -13,52 +13,35 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
-import org.locationtech.jts.geom.Geometry;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
-public class Contains extends FunctionBase2 {
+public class Contains extends SpatialArgumentFunctionBase2 {
 
 	
 	@Override
 	public NodeValue exec(NodeValue v,NodeValue v1) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v1);
-		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
+		SpatialArgument arg1=SpatialArguments.resolve(v);
+		SpatialArgument arg2=SpatialArguments.resolve(v1);
+		if(arg1.isVector() && arg2.isVector()) {
 			GeometryWrapper transGeom2;
 			try {
-				transGeom2 = ((GeometryWrapper)wrapper2).transform(((GeometryWrapper)wrapper1).getSrsInfo());
-				return NodeValue.makeBoolean(((GeometryWrapper)wrapper1).getXYGeometry().contains(transGeom2.getXYGeometry()));
+				transGeom2 = arg2.getGeometryWrapper().transform(arg1.getGeometryWrapper().getSrsInfo());
+				return NodeValue.makeBoolean(arg1.getGeometryWrapper().getXYGeometry().contains(transGeom2.getXYGeometry()));
 			} catch (MismatchedDimensionException | TransformException | FactoryException e) {
 				throw new RuntimeException("CRS transformation failed");
 			}
-		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getParsingGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getParsingGeometry();		
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
-		    return NodeValue.makeBoolean(bbox1.covers(bbox2));	
-		    }else {
-			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getParsingGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
-				return NodeValue.makeBoolean(bbox1.contains(geom));
-			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getParsingGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
-				return NodeValue.makeBoolean(geom.contains(bbox1));				
-			}
+		}else if(arg1.isRaster() && arg2.isRaster()) {
+		    return NodeValue.makeBoolean(arg1.getEnvelope().covers(arg2.getEnvelope()));
+		}else {
+			return NodeValue.makeBoolean(arg1.getFootprint().contains(arg2.getFootprint()));
 		}
 	}
 	
@@ -16,22 +16,24 @@ import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 
-public class CoveredBy extends FunctionBase2 {
+public class CoveredBy extends SpatialArgumentFunctionBase2 {
 
 	@Override
 	public NodeValue exec(NodeValue v,NodeValue v1) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v1);
+		SpatialArgument arg1=SpatialArguments.resolve(v);
+		Wrapper wrapper1=arg1.getWrapper();
+		SpatialArgument arg2=SpatialArguments.resolve(v1);
+		Wrapper wrapper2=arg2.getWrapper();
 		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
 			GeometryWrapper transGeom2;
 			try {
@@ -41,20 +43,16 @@ public class CoveredBy extends FunctionBase2 {
 				throw new RuntimeException("CRS transformation failed");
 			}
 		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
+			Geometry bbox1 = arg1.getFootprint();
+		    Geometry bbox2 = arg2.getFootprint();
 		    return NodeValue.makeBoolean(bbox1.coveredBy(bbox2));
 		}else {
 			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
+				Geometry bbox1 = arg1.getFootprint();
 				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
 				return NodeValue.makeBoolean(bbox1.coveredBy(geom));
 			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
+				Geometry bbox1 = arg2.getFootprint();
 				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
 				return NodeValue.makeBoolean(geom.coveredBy(bbox1));				
 			}
@@ -1,61 +1,53 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
-import java.awt.geom.Rectangle2D;
-
+import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase3;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.operation.distance.DistanceOp;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase3;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
-public class DFullyWithin extends FunctionBase3 {
+/**
+ * True if all of both arguments are within the distance of each other, as
+ * PostGIS compares the maximum distance of the convex hulls. Rasters are
+ * represented by their footprint, so their pixels are not decoded.
+ */
+public class DFullyWithin extends SpatialArgumentFunctionBase3 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2,NodeValue v3) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
-        Double withinDistance = v3.getDouble();
-		throw new UnsupportedOperationException("Not yet implemented");
-       /* GeodeticCalculator calc = new GeodeticCalculator();
-		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
-			Double actualDistance=((GeometryWrapper)wrapper1).getXYGeometry().distance(((GeometryWrapper)wrapper2).getXYGeometry());
-			return NodeValue.makeBoolean(actualDistance<=withinDistance);
-		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getXYGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getXYGeometry();	
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
-			Coordinate[] points = DistanceOp.nearestPoints(bbox1,bbox2);
-	        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-	        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-	        Double actualdistance = calc.getOrthodromicDistance();
-			return NodeValue.makeBoolean(actualdistance<=withinDistance);		
+		SpatialArgument arg1=SpatialArguments.resolve(v1);
+		SpatialArgument arg2=SpatialArguments.resolve(v2);
+		double withinDistance = v3.getDouble();
+		Geometry geom2;
+		if(arg1.isVector() && arg2.isVector()) {
+			try {
+				geom2=arg2.transform(arg1.getGeometryWrapper().getSrsInfo()).getXYGeometry();
+			} catch (MismatchedDimensionException | TransformException | FactoryException e) {
+				throw new ExprEvalException("CRS transformation failed", e);
+			}
 		}else {
-			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getXYGeometry();
-				Rectangle2D bbox1 = raster.getEnvelope2D().getBounds2D();
-				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
-				Coordinate[] points = DistanceOp.nearestPoints(LiteralUtils.toGeometry(bbox1.getBounds()), geom);
-		        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-		        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-		        Double actualdistance = calc.getOrthodromicDistance();
-				return NodeValue.makeBoolean(actualdistance<=withinDistance);
-			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getXYGeometry();
-				Rectangle2D bbox1 = raster.getEnvelope2D().getBounds2D();
-				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
-				Coordinate[] points = DistanceOp.nearestPoints(LiteralUtils.toGeometry(bbox1.getBounds()), geom);
-		        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-		        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-		        Double actualdistance = calc.getOrthodromicDistance();
-				return NodeValue.makeBoolean(actualdistance<=withinDistance);				
+			geom2=arg2.getFootprint();
+		}
+		Geometry geom1=arg1.getFootprint();
+		if(geom1.isEmpty() || geom2.isEmpty()) {
+			return NodeValue.FALSE;
+		}
+		//the farthest points of two geometries are vertices of their convex hulls
+		Coordinate[] hull2=geom2.convexHull().getCoordinates();
+		for(Coordinate coord1:geom1.convexHull().getCoordinates()) {
+			for(Coordinate coord2:hull2) {
+				if(coord1.distance(coord2)>withinDistance) {
+					return NodeValue.FALSE;
+				}
 			}
-		}*/
+		}
+		return NodeValue.TRUE;
 	}
 
 }
@@ -13,62 +13,40 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
-
-import java.awt.geom.Rectangle2D;
 
+import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase3;
-import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.operation.distance.DistanceOp;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase3;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 
-public class DWithin extends FunctionBase3 {
+public class DWithin extends SpatialArgumentFunctionBase3 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2,NodeValue v3) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
-        Double withinDistance = v3.getDouble();
-        /*GeodeticCalculator calc = new GeodeticCalculator();
+		SpatialArgument arg1=SpatialArguments.resolve(v1);
+		Wrapper wrapper1=arg1.getWrapper();
+		SpatialArgument arg2=SpatialArguments.resolve(v2);
+		Wrapper wrapper2=arg2.getWrapper();
+		double withinDistance = v3.getDouble();
+		Geometry geom2;
 		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
-			Double actualDistance=((GeometryWrapper)wrapper1).getXYGeometry().distance(((GeometryWrapper)wrapper2).getXYGeometry());
-			return NodeValue.makeBoolean(actualDistance<=withinDistance);
-		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();	
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
-			Coordinate[] points = DistanceOp.nearestPoints(bbox1,bbox2);
-	        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-	        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-	        Double actualdistance = calc.getOrthodromicDistance();
-			return NodeValue.makeBoolean(actualdistance<=withinDistance);		
-		}else {
-			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-				Rectangle2D bbox1 = raster.getGridGeometry().getEnvelope().getBounds();
-				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
-				Coordinate[] points = DistanceOp.nearestPoints(LiteralUtils.toGeometry(bbox1.getBounds()), geom);
-		        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-		        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-		        Double actualdistance = calc.getOrthodromicDistance();
-				return NodeValue.makeBoolean(actualdistance<=withinDistance);
-			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-				Rectangle2D bbox1 = raster.getEnvelope2D().getBounds2D();
-				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
-				Coordinate[] points = DistanceOp.nearestPoints(LiteralUtils.toGeometry(bbox1.getBounds()), geom);
-		        calc.setStartingGeographicPoint(points[0].x, points[0].y);
-		        calc.setDestinationGeographicPoint(points[1].x, points[1].y);
-		        Double actualdistance = calc.getOrthodromicDistance();
-				return NodeValue.makeBoolean(actualdistance<=withinDistance);				
+			try {
+				geom2=arg2.transform(((GeometryWrapper)wrapper1).getSrsInfo()).getXYGeometry();
+			} catch (MismatchedDimensionException | TransformException | FactoryException e) {
+				throw new ExprEvalException("CRS transformation failed", e);
 			}
-		}*/
-		throw new UnsupportedOperationException("Not yet implemented");
+		}else {
+			geom2=arg2.getFootprint();
+		}
+		return NodeValue.makeBoolean(DistanceOp.isWithinDistance(arg1.getFootprint(), geom2, withinDistance));
 	}
 
 }
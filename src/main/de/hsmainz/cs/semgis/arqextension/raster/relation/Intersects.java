@@ -13,42 +13,28 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
-import org.locationtech.jts.geom.Geometry;
 
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
-public class Intersects extends FunctionBase2 {
+public class Intersects extends SpatialArgumentFunctionBase2 {
 
 	@Override
 	public NodeValue exec(NodeValue v,NodeValue v1) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v1);
-		if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
-			return NodeValue.makeBoolean(((GeometryWrapper)wrapper1).getXYGeometry().intersects(((GeometryWrapper)wrapper2).getXYGeometry()));
-		}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-		    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
-		    return NodeValue.makeBoolean(bbox1.intersects(bbox2));		
+		SpatialArgument arg1=SpatialArguments.resolve(v);
+		SpatialArgument arg2=SpatialArguments.resolve(v1);
+		if(arg1.isVector() && arg2.isVector()) {
+			GeometryWrapper geom1=arg1.getGeometryWrapper();
+			GeometryWrapper geom2=arg2.getGeometryWrapper();
+			return NodeValue.makeBoolean(geom1.getXYGeometry().intersects(geom2.getXYGeometry()));
+		}else if(arg1.isRaster() && arg2.isRaster()) {
+			//the footprints are rectangles, their envelopes intersect exactly if they do
+			return NodeValue.makeBoolean(arg1.getEnvelope().intersects(arg2.getEnvelope()));
 		}else {
-			if(wrapper1 instanceof CoverageWrapper) {
-				GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-				Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
-				return NodeValue.makeBoolean(bbox1.intersects(geom));
-			}else {
-				GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-				Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-				Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
-				return NodeValue.makeBoolean(geom.intersects(bbox1));				
-			}
+			return NodeValue.makeBoolean(arg1.getFootprint().intersects(arg2.getFootprint()));
 		}
 	}
 	
@@ -1,42 +1,38 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
-import java.awt.image.RenderedImage;
-
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
-
-import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandView;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
 
-public class RasterEquals extends FunctionBase2 {
+public class RasterEquals extends SpatialArgumentFunctionBase2 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-		Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
-		if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();	
-			RenderedImage rendered = raster.render(null);
-			RenderedImage rendered2 = raster2.render(null);
-			if(!raster.getGridGeometry().getEnvelope().equals(raster2.getGridGeometry().getEnvelope())) {
+		SpatialArgument arg1=SpatialArguments.resolve(v1);
+		SpatialArgument arg2=SpatialArguments.resolve(v2);
+		if(arg1.isRaster() && arg2.isRaster()) {
+			//rasters on different grids differ without decoding a pixel
+			if(!arg1.getRasterFootprint().hasSameGrid(arg2.getRasterFootprint())) {
 				return NodeValue.FALSE;
-			}else {
-				if(rendered.getWidth()!=rendered2.getWidth() || rendered.getHeight()!=rendered2.getHeight()) {
-					return NodeValue.FALSE;
-				}
-		        for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-		        	for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-		        		if(rendered.getData().getSample(i, j, 0)!=rendered2.getData().getSample(i, j, 0)) {
+			}
+			PixelAccess access=arg1.getCoverageWrapper().getPixelAccess();
+			PixelAccess access2=arg2.getCoverageWrapper().getPixelAccess();
+			int offsetX=access2.getMinX()-access.getMinX(), offsetY=access2.getMinY()-access.getMinY();
+			for(int b=0;b<access.getNumBands();b++) {
+				BandView band=access.getBand(b);
+				BandView band2=access2.getBand(b);
+		        for(int j=access.getMinY(),maxY=j+access.getHeight();j<maxY;j++) {
+		        	for(int i=access.getMinX(),maxX=i+access.getWidth();i<maxX;i++) {
+		        		if(band.getDouble(i, j)!=band2.getDouble(i+offsetX, j+offsetY)) {
 		        			return NodeValue.FALSE;
 		        		}
 		        	}
 		        }
-		        return NodeValue.TRUE;
 			}
-		
+	        return NodeValue.TRUE;
 		}
 		return NodeValue.FALSE;
 	}
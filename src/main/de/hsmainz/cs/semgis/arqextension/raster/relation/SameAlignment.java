@@ -12,49 +12,21 @@
  ****************************************************************************** */
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
-import java.awt.image.RenderedImage;
-
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
-import org.apache.sis.coverage.grid.GridCoverage;
-import org.opengis.coverage.CannotEvaluateException;
 
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
 /**
  * Returns true if rasters have same skew, scale, spatial ref, and offset (pixels can be put on same grid without cutting into pixels) and false if they don't with notice detailing issue.
- *
+ * The grids are compared from the raster headers, the pixels are not decoded.
  */
-public class SameAlignment extends FunctionBase2 {
+public class SameAlignment extends SpatialArgumentFunctionBase2 {
 
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2) {
-        CoverageWrapper wrapper=CoverageWrapper.extract(v1);
-		GridCoverage raster=wrapper.getGridGeometry();
-        CoverageWrapper wrapper2=CoverageWrapper.extract(v2);
-		GridCoverage raster2=wrapper2.getGridGeometry();
-		try {
-		RenderedImage image1 = raster.render(null);
-		RenderedImage image2 = raster2.render(null);
-        Integer raster1_offset = image1.getData().getDataBuffer().getOffset();
-        Integer raster2_offset = image2.getData().getDataBuffer().getOffset();
-        if(raster1_offset==raster2_offset && 
-          raster.getGridGeometry().getCoordinateReferenceSystem().
-          equals(raster.getGridGeometry().getCoordinateReferenceSystem())
-          && (
-             raster.getGridGeometry().getEnvelope().getUpperCorner().
-             equals(raster.getGridGeometry().getEnvelope().getUpperCorner())
-           || raster.getGridGeometry().getEnvelope().getLowerCorner().
-           equals(raster.getGridGeometry().getEnvelope().getLowerCorner())
-        		  )) {
-        	return NodeValue.TRUE;
-        }
-		} catch (CannotEvaluateException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-        return NodeValue.FALSE;
+		return NodeValue.makeBoolean(SpatialArguments.resolve(v1).getRasterFootprint().isAligned(SpatialArguments.resolve(v2).getRasterFootprint()));
 	}
 
 }
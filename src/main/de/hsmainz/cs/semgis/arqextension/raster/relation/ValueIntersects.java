@@ -1,94 +1,42 @@
 package de.hsmainz.cs.semgis.arqextension.raster.relation;
 
 import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase4;
 import org.apache.sis.coverage.grid.GridCoverage;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.TransformException;
 
 import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
-import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
-import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase4;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
 
-public class ValueIntersects extends FunctionBase4 {
+public class ValueIntersects extends SpatialArgumentFunctionBase4 {
 
 	@Override
 	public NodeValue exec(NodeValue v1, NodeValue v2, NodeValue v3, NodeValue v4) {
-	Wrapper wrapper1=LiteralUtils.rasterOrVector(v1);
-	Wrapper wrapper2=LiteralUtils.rasterOrVector(v2);
+	SpatialArgument arg1=SpatialArguments.resolve(v1);
+	SpatialArgument arg2=SpatialArguments.resolve(v2);
 	Double value=v4.getDouble();
 	Integer bandnum=v3.getInteger().intValue();
-	if(wrapper1 instanceof GeometryWrapper && wrapper2 instanceof GeometryWrapper) {
+	if(arg1.isVector() && arg2.isVector()) {
 		throw new RuntimeException("Function only applicable to Vector/Raster Raster/Raster input");
-	}else if(wrapper1 instanceof CoverageWrapper && wrapper2 instanceof CoverageWrapper) {
-		GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-		GridCoverage raster2=((CoverageWrapper)wrapper2).getGridGeometry();		
-		Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-	    Geometry bbox2 = LiteralUtils.toGeometry(raster2.getGridGeometry().getEnvelope());
-	    if(bbox1.equals(bbox2)) {
-	    	try {
-				GridCoverage cov = LiteralUtils.cropRaster2(((CoverageWrapper)wrapper1).getXYGeometry(), bbox1.getEnvelopeInternal().getWidth(), bbox1.getEnvelopeInternal().getHeight(), bbox1.getEnvelopeInternal().getMaxX(), bbox1.getEnvelopeInternal().getMaxY());
-				if(LiteralUtils.containsRasterValue(cov, bandnum,value)) {
-					return NodeValue.TRUE;
-				}
-				return NodeValue.FALSE;
-	    	} catch (MismatchedDimensionException | TransformException e) {
-				throw new RuntimeException("Cropping failed");
-			}
-	    }
-	    if(!bbox1.intersects(bbox2)) {
-	    	return NodeValue.FALSE;
-	    }else {
-	    	Geometry intersection=bbox1.intersection(bbox2);
-		    	try {
-					GridCoverage cov = LiteralUtils.cropRaster2(((CoverageWrapper)wrapper1).getXYGeometry(), intersection.getEnvelopeInternal().getWidth(), intersection.getEnvelopeInternal().getHeight(), intersection.getEnvelopeInternal().getMaxX(), intersection.getEnvelopeInternal().getMaxY());
-					if(LiteralUtils.containsRasterValue(cov, bandnum,value)) {
-						return NodeValue.TRUE;
-					}
-					return NodeValue.FALSE;
-		    	} catch (MismatchedDimensionException | TransformException e) {
-					throw new RuntimeException("Cropping failed");
-				}
-	    }	
-	}else {
-		if(wrapper1 instanceof CoverageWrapper) {
-			GridCoverage raster=((CoverageWrapper)wrapper1).getGridGeometry();
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-			Geometry geom=((GeometryWrapper)wrapper2).getXYGeometry();
-		    if(!bbox1.intersects(geom)) {
-		    	return NodeValue.FALSE;
-		    }else {
-		    	Geometry intersection=bbox1.intersection(geom);
-			    	try {
-						GridCoverage cov=LiteralUtils.cropRaster2(((CoverageWrapper)wrapper1).getXYGeometry(), intersection.getEnvelopeInternal().getWidth(), intersection.getEnvelopeInternal().getHeight(), intersection.getEnvelopeInternal().getMaxX(), intersection.getEnvelopeInternal().getMaxY());
-						if(LiteralUtils.containsRasterValue(cov, bandnum,value)) {
-							return NodeValue.TRUE;
-						}
-						return NodeValue.FALSE;
-			    	} catch (MismatchedDimensionException | TransformException e) {
-						throw new RuntimeException("Cropping failed");
-					}
-		    }	
-		}else {
-			GridCoverage raster=((CoverageWrapper)wrapper2).getGridGeometry();
-			Geometry bbox1 = LiteralUtils.toGeometry(raster.getGridGeometry().getEnvelope());
-			Geometry geom=((GeometryWrapper)wrapper1).getXYGeometry();
-		    if(!bbox1.intersects(geom)) {
-		    	return NodeValue.FALSE;
-		    }else {
-		    	Geometry intersection=bbox1.intersection(geom);
-			    	try {
-						GridCoverage cov=LiteralUtils.cropRaster2(((CoverageWrapper)wrapper2).getXYGeometry(), intersection.getEnvelopeInternal().getWidth(), intersection.getEnvelopeInternal().getHeight(), intersection.getEnvelopeInternal().getMaxX(), intersection.getEnvelopeInternal().getMaxY());
-						if(LiteralUtils.containsRasterValue(cov, bandnum,value)) {
-							return NodeValue.TRUE;
-						}
-						return NodeValue.FALSE;
-			    	} catch (MismatchedDimensionException | TransformException e) {
-						throw new RuntimeException("Cropping failed");
-			    	}				
-		    }
-	}}}
+	}
+	//the footprints are compared first, the pixels of the first raster are only decoded where they intersect
+	SpatialArgument raster=arg1.isRaster()?arg1:arg2;
+	Geometry bbox1 = raster.getFootprint();
+	Geometry bbox2 = (raster==arg1?arg2:arg1).getFootprint();
+	if(!bbox1.intersects(bbox2)) {
+		return NodeValue.FALSE;
+	}
+	Envelope intersection=bbox1.intersection(bbox2).getEnvelopeInternal();
+	try {
+		GridCoverage cov = LiteralUtils.cropRaster2(raster.getCoverage(), intersection.getWidth(), intersection.getHeight(), intersection.getMaxX(), intersection.getMaxY());
+		return NodeValue.makeBoolean(LiteralUtils.containsRasterValue(cov, bandnum,value));
+	} catch (MismatchedDimensionException | TransformException e) {
+		throw new RuntimeException("Cropping failed");
+	}
+	}
 
 }
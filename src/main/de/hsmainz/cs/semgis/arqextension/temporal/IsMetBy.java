@@ -1,14 +1,9 @@
 package de.hsmainz.cs.semgis.arqextension.temporal;
 
-import org.apache.jena.sparql.expr.NodeValue;
-import org.apache.jena.sparql.function.FunctionBase2;
+public class IsMetBy extends TemporalRelationFunction {
 
-public class IsMetBy extends FunctionBase2 {
-
-	@Override
-	public NodeValue exec(NodeValue v1, NodeValue v2) {
-		// TODO Auto-generated method stub
-		return null;
+	public IsMetBy() {
+		super(TemporalRelation.MET_BY);
 	}
 
 }
@@ -1,7 +1,11 @@
 package de.hsmainz.cs.semgis.arqextension.temporal;
 
 import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
 
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.jena.sparql.function.FunctionBase1;
 
@@ -10,12 +14,16 @@ import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.Tempo
 
 public class PeriodStart extends FunctionBase1 {
 
-	@SuppressWarnings("deprecation")
 	@Override
 	public NodeValue exec(NodeValue v1) {
-		TemporalRange range1=TemporalRangeWrapper.extract(v1.getString(), v1.getDatatypeURI());
-		Calendar cal=Calendar.getInstance();
-		return NodeValue.makeDateTime(range1.from.toGMTString());
+		try {
+			TemporalRange range1=TemporalRangeWrapper.extract(v1);
+			Calendar cal=new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+			cal.setTimeInMillis(range1.from);
+			return NodeValue.makeDateTime(cal);
+		} catch (DatatypeFormatException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
 	}
 
 }
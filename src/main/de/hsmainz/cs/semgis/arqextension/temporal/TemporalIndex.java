@@ -0,0 +1,225 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeWrapper;
+
+/**
+ * Static interval index over the temporal range literals of a graph.
+ * <p>
+ * The entries are kept twice, sorted by start and sorted by end. Relations fixing
+ * one end of the entries, such as before, after, starts or meets, are answered by
+ * a binary search on one of the two orders. Overlaps and contains are answered by
+ * an implicit interval tree over the start order: the subtree of the range
+ * [lo, hi) is rooted at its middle entry and stores the latest end of its
+ * entries, so that subtrees ending before the queried range are skipped.
+ */
+public class TemporalIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TemporalIndex.class);
+
+	private final TemporalIndexItem[] byStart;
+
+	private final long[] starts;
+
+	private final long[] maxEnds;
+
+	private final TemporalIndexItem[] byEnd;
+
+	private final long[] ends;
+
+	public TemporalIndex(Collection<TemporalIndexItem> items) {
+		int size = items.size();
+		this.byStart = items.toArray(new TemporalIndexItem[size]);
+		Arrays.sort(byStart, Comparator.comparingLong((TemporalIndexItem item) -> item.getRange().from));
+		this.byEnd = Arrays.copyOf(byStart, size);
+		Arrays.sort(byEnd, Comparator.comparingLong((TemporalIndexItem item) -> item.getRange().to));
+		this.starts = new long[size];
+		this.ends = new long[size];
+		for (int i = 0; i < size; i++) {
+			starts[i] = byStart[i].getRange().from;
+			ends[i] = byEnd[i].getRange().to;
+		}
+		this.maxEnds = new long[size];
+		buildMaxEnds(0, size);
+	}
+
+	private long buildMaxEnds(int lo, int hi) {
+		if (lo >= hi) {
+			return Long.MIN_VALUE;
+		}
+		int mid = (lo + hi) >>> 1;
+		long maxEnd = Math.max(byStart[mid].getRange().to, Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+		maxEnds[mid] = maxEnd;
+		return maxEnd;
+	}
+
+	/**
+	 * Indexes the temporal range literals of the graph. Literals that cannot be
+	 * read are logged and left out.
+	 * @param graph The graph to index.
+	 * @return The index.
+	 */
+	public static TemporalIndex build(Graph graph) {
+		List<TemporalIndexItem> items = new ArrayList<>();
+		ExtendedIterator<Triple> triples = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				Triple triple = triples.next();
+				Node object = triple.getObject();
+				if (!object.isLiteral() || !TemporalRangeDatatype.URI.equals(object.getLiteralDatatypeURI())) {
+					continue;
+				}
+				try {
+					items.add(new TemporalIndexItem(triple.getSubject(), object, TemporalRangeWrapper.extract(object)));
+				} catch (DatatypeFormatException ex) {
+					LOGGER.warn("Temporal range of {} not indexed: {}", triple.getSubject(), ex.getMessage());
+				}
+			}
+		} finally {
+			triples.close();
+		}
+		LOGGER.info("Temporal index built: {} entries", items.size());
+		return new TemporalIndex(items);
+	}
+
+	/**
+	 * Searches the entries whose range is in the relation to the given range.
+	 * @param relation The relation of the entry range to the given range.
+	 * @param range The range.
+	 * @return The entries found.
+	 */
+	public List<TemporalIndexItem> query(TemporalRelation relation, TemporalRange range) {
+		List<TemporalIndexItem> candidates = new ArrayList<>();
+		switch (relation) {
+		case BEFORE:
+			addAll(byEnd, 0, lowerBound(ends, range.from), candidates);
+			break;
+		case AFTER:
+			addAll(byStart, upperBound(starts, range.to), starts.length, candidates);
+			break;
+		case OVERLAPS:
+			search(0, starts.length, range.to, range.from, candidates);
+			break;
+		case CONTAINS:
+			search(0, starts.length, range.from, range.to, candidates);
+			break;
+		case DURING:
+			addAll(byStart, upperBound(starts, range.from), lowerBound(starts, range.to), candidates);
+			break;
+		case EQUALS:
+		case STARTS:
+			addAll(byStart, lowerBound(starts, range.from), upperBound(starts, range.from), candidates);
+			break;
+		case MET_BY:
+			addAll(byStart, lowerBound(starts, range.to), upperBound(starts, range.to), candidates);
+			break;
+		case FINISHES:
+			addAll(byEnd, lowerBound(ends, range.to), upperBound(ends, range.to), candidates);
+			break;
+		case MEETS:
+			addAll(byEnd, lowerBound(ends, range.from), upperBound(ends, range.from), candidates);
+			break;
+		default:
+			addAll(byStart, 0, starts.length, candidates);
+		}
+		List<TemporalIndexItem> items = new ArrayList<>(candidates.size());
+		for (TemporalIndexItem item : candidates) {
+			if (relation.test(item.getRange(), range)) {
+				items.add(item);
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Adds the entries of the subtree [lo, hi) starting at or before maxStart and
+	 * ending at or after minEnd.
+	 */
+	private void search(int lo, int hi, long maxStart, long minEnd, List<TemporalIndexItem> items) {
+		if (lo >= hi) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (maxEnds[mid] < minEnd) {
+			return;
+		}
+		search(lo, mid, maxStart, minEnd, items);
+		if (starts[mid] <= maxStart) {
+			if (byStart[mid].getRange().to >= minEnd) {
+				items.add(byStart[mid]);
+			}
+			search(mid + 1, hi, maxStart, minEnd, items);
+		}
+	}
+
+	private static void addAll(TemporalIndexItem[] sorted, int from, int to, List<TemporalIndexItem> items) {
+		for (int i = from; i < to; i++) {
+			items.add(sorted[i]);
+		}
+	}
+
+	/**
+	 *
+	 * @return The first index whose value is not less than the key.
+	 */
+	private static int lowerBound(long[] values, long key) {
+		int lo = 0;
+		int hi = values.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (values[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 *
+	 * @return The first index whose value is greater than the key.
+	 */
+	private static int upperBound(long[] values, long key) {
+		int lo = 0;
+		int hi = values.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (values[mid] <= key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	public int size() {
+		return starts.length;
+	}
+
+	public boolean isEmpty() {
+		return starts.length == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "TemporalIndex{size=" + size() + "}";
+	}
+
+}
@@ -0,0 +1,42 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import org.apache.jena.graph.Node;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+
+/**
+ * Entry of the {@link TemporalIndex}: a resource, the temporal range literal
+ * describing it and the parsed range.
+ */
+public class TemporalIndexItem {
+
+	private final Node subject;
+
+	private final Node literal;
+
+	private final TemporalRange range;
+
+	TemporalIndexItem(Node subject, Node literal, TemporalRange range) {
+		this.subject = subject;
+		this.literal = literal;
+		this.range = range;
+	}
+
+	public Node getSubject() {
+		return subject;
+	}
+
+	public Node getLiteral() {
+		return literal;
+	}
+
+	public TemporalRange getRange() {
+		return range;
+	}
+
+	@Override
+	public String toString() {
+		return "TemporalIndexItem{subject=" + subject + ", range=" + range + "}";
+	}
+
+}
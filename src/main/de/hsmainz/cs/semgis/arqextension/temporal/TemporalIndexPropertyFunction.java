@@ -0,0 +1,75 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.pfunction.PFuncSimpleAndList;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.apache.jena.sparql.pfunction.PropertyFunctionFactory;
+
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexPropertyFunction;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeWrapper;
+
+/**
+ * Property function binding the resources whose temporal range is in a
+ * {@link TemporalRelation} to the given range, found in the {@link TemporalIndex}
+ * of the active graph: <code>?event geo2:temporalOverlaps (range)</code>.<br>
+ * A variable subject is bound to each resource found, a bound subject is kept if it
+ * is among them.
+ */
+public class TemporalIndexPropertyFunction extends PFuncSimpleAndList {
+
+	private final TemporalRelation relation;
+
+	public TemporalIndexPropertyFunction(TemporalRelation relation) {
+		this.relation = relation;
+	}
+
+	/**
+	 *
+	 * @param relation The relation.
+	 * @return Factory of the property function of the relation.
+	 */
+	public static PropertyFunctionFactory factory(TemporalRelation relation) {
+		return uri -> new TemporalIndexPropertyFunction(relation);
+	}
+
+	@Override
+	public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		super.build(argSubject, predicate, argObject, execCxt);
+		if (!argObject.isList() || argObject.getArgListSize() != 1) {
+			throw new QueryBuildException("Property function '" + Lib.className(this) + "' takes a list of one temporal range");
+		}
+	}
+
+	@Override
+	public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object, ExecutionContext execCxt) {
+		Node arg = object.getArg(0);
+		if (arg.isVariable()) {
+			throw new ExprEvalException("Property function '" + Lib.className(this) + "' argument not bound: " + arg);
+		}
+		List<TemporalIndexItem> items;
+		try {
+			TemporalRange range = TemporalRangeWrapper.extract(arg);
+			items = TemporalIndexRegistry.get(execCxt.getActiveGraph()).query(relation, range);
+		} catch (DatatypeFormatException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+		Set<Node> subjects = new LinkedHashSet<>();
+		for (TemporalIndexItem item : items) {
+			subjects.add(item.getSubject());
+		}
+		return SpatialIndexPropertyFunction.bindSubjects(binding, subject, subjects, execCxt);
+	}
+
+}
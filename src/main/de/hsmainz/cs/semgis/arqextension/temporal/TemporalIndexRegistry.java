@@ -0,0 +1,57 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import org.apache.jena.graph.Graph;
+
+import de.hsmainz.cs.semgis.arqextension.index.GraphIndexCache;
+
+/**
+ * Temporal indexes of the graphs queried with the temporal property functions.
+ * <p>
+ * An index is built on first use for a graph, or ahead of the first query through
+ * {@link #build(Graph)}, and dropped as soon as a triple of the graph is added or
+ * removed.
+ */
+public class TemporalIndexRegistry {
+
+	private static final GraphIndexCache<TemporalIndex> INDEXES = new GraphIndexCache<>();
+
+	/**
+	 * Index of the graph, built if the graph has none.
+	 * @param graph The graph.
+	 * @return The index of the graph.
+	 */
+	public static TemporalIndex get(Graph graph) {
+		return INDEXES.get(graph, TemporalIndex::build);
+	}
+
+	/**
+	 * Builds the index of the graph, replacing an existing index.
+	 * @param graph The graph.
+	 * @return The new index.
+	 */
+	public static TemporalIndex build(Graph graph) {
+		return INDEXES.build(graph, TemporalIndex::build);
+	}
+
+	/**
+	 *
+	 * @param graph The graph.
+	 * @return True if the graph has a current index.
+	 */
+	public static boolean contains(Graph graph) {
+		return INDEXES.contains(graph);
+	}
+
+	/**
+	 * Drops the index of the graph.
+	 * @param graph The graph.
+	 */
+	public static void remove(Graph graph) {
+		INDEXES.remove(graph);
+	}
+
+	public static void clear() {
+		INDEXES.clear();
+	}
+
+}
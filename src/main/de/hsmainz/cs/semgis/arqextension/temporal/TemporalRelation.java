@@ -0,0 +1,100 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import org.apache.jena.rdf.model.Property;
+
+import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+
+/**
+ * The relations between two temporal ranges, each tested by a filter function and
+ * answered from a {@link TemporalIndex} by a property function.
+ * <p>
+ * Ranges are closed, so ranges sharing an instant overlap but are neither before
+ * nor after each other.
+ */
+public enum TemporalRelation {
+
+	BEFORE(PostGISGeo.temporalBefore) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.to < other.from;
+		}
+	},
+	AFTER(PostGISGeo.temporalAfter) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from > other.to;
+		}
+	},
+	DURING(PostGISGeo.temporalDuring) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from > other.from && range.to < other.to;
+		}
+	},
+	CONTAINS(PostGISGeo.temporalContains) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return DURING.test(other, range);
+		}
+	},
+	OVERLAPS(PostGISGeo.temporalOverlaps) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from <= other.to && range.to >= other.from;
+		}
+	},
+	EQUALS(PostGISGeo.temporalEquals) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from == other.from && range.to == other.to;
+		}
+	},
+	STARTS(PostGISGeo.temporalStarts) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from == other.from;
+		}
+	},
+	FINISHES(PostGISGeo.temporalFinishes) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.to == other.to;
+		}
+	},
+	MEETS(PostGISGeo.temporalMeets) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.to == other.from;
+		}
+	},
+	MET_BY(PostGISGeo.temporalMetBy) {
+		@Override
+		public boolean test(TemporalRange range, TemporalRange other) {
+			return range.from == other.to;
+		}
+	};
+
+	private final Property propertyFunction;
+
+	private TemporalRelation(Property propertyFunction) {
+		this.propertyFunction = propertyFunction;
+	}
+
+	/**
+	 *
+	 * @return The property function answering the relation from the index.
+	 */
+	public Property getPropertyFunction() {
+		return propertyFunction;
+	}
+
+	/**
+	 *
+	 * @param range The first range.
+	 * @param other The second range.
+	 * @return True if the first range is in the relation to the second range.
+	 */
+	public abstract boolean test(TemporalRange range, TemporalRange other);
+
+}
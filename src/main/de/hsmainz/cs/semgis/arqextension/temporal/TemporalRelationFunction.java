@@ -0,0 +1,37 @@
+package de.hsmainz.cs.semgis.arqextension.temporal;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase2;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeWrapper;
+
+/**
+ * Tests a {@link TemporalRelation} between two temporal range literals.
+ */
+public abstract class TemporalRelationFunction extends FunctionBase2 {
+
+	private final TemporalRelation relation;
+
+	protected TemporalRelationFunction(TemporalRelation relation) {
+		this.relation = relation;
+	}
+
+	public TemporalRelation getRelation() {
+		return relation;
+	}
+
+	@Override
+	public NodeValue exec(NodeValue v1, NodeValue v2) {
+		try {
+			TemporalRange range1=TemporalRangeWrapper.extract(v1);
+			TemporalRange range2=TemporalRangeWrapper.extract(v2);
+			return NodeValue.makeNodeBoolean(relation.test(range1, range2));
+		} catch (DatatypeFormatException ex) {
+			throw new ExprEvalException(ex.getMessage(), ex);
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package de.hsmainz.cs.semgis.arqextension.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sis.referencing.CRS;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.galbiston.geosparql_jena.implementation.SRSInfo;
+import io.github.galbiston.geosparql_jena.implementation.registry.MathTransformRegistry;
+import io.github.galbiston.geosparql_jena.implementation.registry.SRSRegistry;
+
+/**
+ * Process wide cache of coordinate reference systems by SRID and SRS URI and
+ * of math transforms between them.<br>
+ * Reads do not lock. Misses are resolved through {@link SRSRegistry} and
+ * {@link MathTransformRegistry}, so entries are shared with the geometry
+ * literals. Unlike {@link SRSRegistry}, an SRS that is not recognised raises a
+ * FactoryException instead of falling back to the default SRS.
+ */
+public class CRSCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CRSCache.class);
+
+	private static final ConcurrentHashMap<Integer, CoordinateReferenceSystem> SRID_CACHE = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, CoordinateReferenceSystem> URI_CACHE = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<List<CoordinateReferenceSystem>, MathTransform> TRANSFORM_CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param srid EPSG code.
+	 * @return Coordinate reference system of the EPSG code.
+	 * @throws FactoryException if the code is not recognised.
+	 */
+	public static final CoordinateReferenceSystem getCRS(int srid) throws FactoryException {
+		CoordinateReferenceSystem crs = SRID_CACHE.get(srid);
+		if (crs == null) {
+			crs = resolve(SRSInfo.convertSRID(srid), "EPSG:" + srid);
+			SRID_CACHE.putIfAbsent(srid, crs);
+		}
+		return crs;
+	}
+
+	/**
+	 *
+	 * @param srsURI SRS URI or authority code.
+	 * @return Coordinate reference system of the URI.
+	 * @throws FactoryException if the URI is not recognised.
+	 */
+	public static final CoordinateReferenceSystem getCRS(String srsURI) throws FactoryException {
+		CoordinateReferenceSystem crs = URI_CACHE.get(srsURI);
+		if (crs == null) {
+			crs = resolve(srsURI, srsURI);
+			URI_CACHE.putIfAbsent(srsURI, crs);
+		}
+		return crs;
+	}
+
+	private static CoordinateReferenceSystem resolve(String srsURI, String code) throws FactoryException {
+		SRSInfo srsInfo = SRSRegistry.getSRSInfo(srsURI);
+		if (srsInfo.isSRSRecognised()) {
+			return srsInfo.getCrs();
+		}
+		//Raises the authority exception for the code.
+		return CRS.forCode(code);
+	}
+
+	/**
+	 *
+	 * @param sourceCRS
+	 * @param targetCRS
+	 * @return Math transform from the source to the target CRS.
+	 * @throws FactoryException
+	 * @throws MismatchedDimensionException
+	 * @throws TransformException
+	 */
+	public static final MathTransform getMathTransform(CoordinateReferenceSystem sourceCRS, CoordinateReferenceSystem targetCRS) throws FactoryException, MismatchedDimensionException, TransformException {
+		List<CoordinateReferenceSystem> key = Arrays.asList(sourceCRS, targetCRS);
+		MathTransform transform = TRANSFORM_CACHE.get(key);
+		if (transform == null) {
+			transform = MathTransformRegistry.getMathTransform(sourceCRS, targetCRS);
+			TRANSFORM_CACHE.putIfAbsent(key, transform);
+		}
+		return transform;
+	}
+
+	/**
+	 *
+	 * @param sourceSRID
+	 * @param targetSRID
+	 * @return Math transform between the EPSG codes.
+	 * @throws FactoryException
+	 * @throws MismatchedDimensionException
+	 * @throws TransformException
+	 */
+	public static final MathTransform getMathTransform(int sourceSRID, int targetSRID) throws FactoryException, MismatchedDimensionException, TransformException {
+		return getMathTransform(getCRS(sourceSRID), getCRS(targetSRID));
+	}
+
+	/**
+	 * Resolves the EPSG codes ahead of the first literal using them.<br>
+	 * Codes that are not recognised are logged and skipped.
+	 *
+	 * @param srids
+	 */
+	public static final void warmUp(int... srids) {
+		for (int srid : srids) {
+			try {
+				getCRS(srid);
+			} catch (FactoryException ex) {
+				LOGGER.warn("SRID not recognised during warm up: {} - {}", srid, ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Number of cached coordinate reference systems and transforms.
+	 */
+	public static final int size() {
+		return SRID_CACHE.size() + URI_CACHE.size() + TRANSFORM_CACHE.size();
+	}
+
+	public static final void clear() {
+		SRID_CACHE.clear();
+		URI_CACHE.clear();
+		TRANSFORM_CACHE.clear();
+		MathTransformRegistry.clear();
+	}
+
+}
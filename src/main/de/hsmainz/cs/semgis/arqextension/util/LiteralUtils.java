@@ -14,6 +14,7 @@ import javax.media.jai.JAI;
 import javax.media.jai.RasterFactory;
 import javax.media.jai.RenderedOp;
 
+import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.apache.sis.coverage.Category;
 import org.apache.sis.coverage.SampleDimension;
@@ -46,87 +47,81 @@ import com.vividsolutions.jts.geom.Point;
 
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
-import io.github.galbiston.geosparql_jena.implementation.datatype.GeometryDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.RasterDataType;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.SpatialKind;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandStatistics;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandView;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
 
 public class LiteralUtils {
 
 	public static Wrapper rasterOrVector(NodeValue v) {
-		GeometryDatatype datatype=null;
-		try {
-			datatype=GeometryDatatype.get(v.getDatatypeURI());
-		}catch(Exception e) {
-			datatype=null;
+		SpatialKind kind=SpatialDatatypeRegistry.getKind(v.getDatatypeURI());
+		if(kind==null) {
+			throw new DatatypeFormatException("No valid raster or vector geometry definition given: "+v.getDatatypeURI());
+		}
+		if(kind==SpatialKind.RASTER) {
+			return CoverageWrapper.extract(v);
 		}
-			if(datatype==null) {
-				RasterDataType rdatatype=RasterDataType.get(v.getDatatypeURI());
-				if(rdatatype==null) {
-					throw new AssertionError("No valid raster or vector geometry definition given!");
-				}else {
-					return CoverageWrapper.extract(v);	
-				}	
-			}else{
-				return  GeometryWrapper.extract(v);
-			}	
+		return GeometryWrapper.extract(v);
 	}
 	
 	public static Double maxRasterValue(CoverageWrapper wrapper,Integer bandnum) {
-		return maxRasterValue(wrapper.getXYGeometry(), bandnum);
+		return wrapper.getRasterStatistics().getStatistics(bandnum, false).getMax();
 	}
 	
 	public static Double maxRasterValue(GridCoverage raster,Integer bandnum) {
-		RenderedImage rendered=raster.render(null);
-		Double maxVal=Double.MIN_VALUE;
-    	for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-    		for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-    			if(rendered.getData().getSample(i, j, bandnum)>maxVal) {
-    				maxVal=(double) rendered.getData().getSample(i, j, bandnum);
-    			}
-    		}
-    	}
-    	System.out.println("MaxRasterVal: "+maxVal);
-    	return maxVal;
+		return maxRasterValue(new PixelAccess(raster), bandnum);
+	}
+
+	public static Double maxRasterValue(PixelAccess access,Integer bandnum) {
+		return BandStatistics.compute(access.getBand(bandnum), null).getMax();
+	}
+
+	public static Double arithmeticMeanRasterValue(CoverageWrapper wrapper, Integer bandnum) {
+		return wrapper.getRasterStatistics().getStatistics(bandnum, false).getMean();
 	}
 
 	public static Double arithmeticMeanRasterValue(GridCoverage raster, Integer bandnum) {
-		RenderedImage rendered=raster.render(null);
-		Double sum=0.,counter=0.;
-        for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-        	for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-        		sum+=(double) rendered.getData().getSample(i, j, bandnum);
-        		counter++;
-        	}
-        }
-    	System.out.println("MeanRasterVal: "+(sum/counter));
-		return (sum/counter);
+		return arithmeticMeanRasterValue(new PixelAccess(raster), bandnum);
+	}
+
+	public static Double arithmeticMeanRasterValue(PixelAccess access, Integer bandnum) {
+		return BandStatistics.compute(access.getBand(bandnum), null).getMean();
+	}
+
+	public static Double minRasterValue(CoverageWrapper wrapper, Integer bandnum) {
+		return wrapper.getRasterStatistics().getStatistics(bandnum, false).getMin();
 	}
 
 	public static Double minRasterValue(GridCoverage raster, Integer bandnum) {
-		RenderedImage rendered=raster.render(null);
-		Double maxVal=Double.MAX_VALUE;
-        	for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-        		for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-        			if(rendered.getData().getSample(i, j, bandnum)<maxVal) {
-        				maxVal=(double) rendered.getData().getSample(i, j, bandnum);
-        			}
-        		}
-        	}
-        System.out.println("MinRasterVal: "+maxVal);
-		return maxVal;
+		return minRasterValue(new PixelAccess(raster), bandnum);
+	}
+
+	public static Double minRasterValue(PixelAccess access, Integer bandnum) {
+		return BandStatistics.compute(access.getBand(bandnum), null).getMin();
 	}
 	
-	
+	public static Boolean containsRasterValue(CoverageWrapper wrapper, Integer bandnum, Double value) {
+		return containsRasterValue(wrapper.getPixelAccess(), bandnum, value);
+	}
+
 	public static Boolean containsRasterValue(GridCoverage raster, Integer bandnum, Double value) {
-		RenderedImage rendered=raster.render(null);
-        	for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-        		for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-        			if(rendered.getData().getSample(i, j, bandnum)==value) {
-        				return true;
-        			}
-        		}
-        	}
+		return containsRasterValue(new PixelAccess(raster), bandnum, value);
+	}
+
+	public static Boolean containsRasterValue(PixelAccess access, Integer bandnum, Double value) {
+		BandView band=access.getBand(bandnum);
+		double searched=value;
+		for(int j=band.getMinY(),maxY=j+band.getHeight();j<maxY;j++) {
+			for(int i=band.getMinX(),maxX=i+band.getWidth();i<maxX;i++) {
+				if(band.getDouble(i, j)==searched) {
+					return true;
+				}
+			}
+		}
 		return false;
 	}
 	
@@ -261,7 +256,7 @@ public class LiteralUtils {
 		CoordinateReferenceSystem crss=null;
 		Envelope2D envelope=null;
 		try {
-			crss = CRS.forCode("EPSG:4326");
+			crss = CRSCache.getCRS(4326);
 			envelope = new Envelope2D(crss, 0, 0, 30, 30);
 		} catch (FactoryException e) {
 			// TODO Auto-generated catch block
@@ -285,7 +280,7 @@ public class LiteralUtils {
 		if(wrapper instanceof GeometryWrapper) {
 			return ((GeometryWrapper) wrapper).getXYGeometry();
 		}else {
-			return toGeometry(((CoverageWrapper) wrapper).getParsingGeometry().getGridGeometry().getEnvelope());
+			return toGeometry(((CoverageWrapper) wrapper).getEnvelope());
 		}
 	}
 	
@@ -0,0 +1,286 @@
+package de.hsmainz.cs.semgis.arqextension.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.sparql.expr.NodeValue;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.CoordinateXYZM;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import io.github.galbiston.geosparql_jena.implementation.DimensionInfo;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.jts.CoordinateSequenceDimensions;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomCoordinateSequence;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomGeometryFactory;
+
+/**
+ * Filters the vertices of a geometry by their m value, the measure of a measured
+ * geometry or the timestamp of a trajectory built with ST_MakePointT. Timestamps
+ * are kept in the m ordinate as seconds since the epoch.
+ * <p>
+ * Sequences whose m values do not decrease, as those of trajectories, are cut by
+ * two binary searches and a copy of the range in between. Other sequences are
+ * filtered vertex by vertex. The order is checked on every call, the input may
+ * be shared through the geometry literal index and is not modified.<br>
+ * Components left with too few vertices for their type are dropped, an empty
+ * geometry of the input type remains if no component is left.
+ */
+public class MeasureFilter {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = CustomGeometryFactory.theInstance();
+
+	/**
+	 * The m value of a measure or timestamp argument.
+	 * @param value A number or an xsd:dateTime, taken as seconds since the epoch.
+	 * @return The m value.
+	 */
+	public static double toMeasure(NodeValue value) {
+		if (value.isDateTime()) {
+			return value.getDateTime().toGregorianCalendar().getTimeInMillis() / 1000.0;
+		}
+		return value.getDouble();
+	}
+
+	/**
+	 *
+	 * @param sequence The sequence.
+	 * @return True if the sequence has m values and none is NaN or less than its predecessor.
+	 */
+	public static boolean isMonotonic(CoordinateSequence sequence) {
+		if (!sequence.hasM()) {
+			return false;
+		}
+		double previous = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < sequence.size(); i++) {
+			double m = sequence.getM(i);
+			//NaN fails the comparison as well
+			if (!(m >= previous)) {
+				return false;
+			}
+			previous = m;
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @param sequence A monotonic sequence.
+	 * @param m The m value.
+	 * @return The first index whose m value is not less than the given one.
+	 */
+	public static int lowerBound(CoordinateSequence sequence, double m) {
+		int lo = 0;
+		int hi = sequence.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sequence.getM(mid) < m) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 *
+	 * @param sequence A monotonic sequence.
+	 * @param m The m value.
+	 * @return The first index whose m value is greater than the given one.
+	 */
+	public static int upperBound(CoordinateSequence sequence, double m) {
+		int lo = 0;
+		int hi = sequence.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sequence.getM(mid) <= m) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * The vertices whose m value lies within the range.
+	 * @param sequence The sequence.
+	 * @param min The smallest m value kept.
+	 * @param max The largest m value kept.
+	 * @param keepM Whether the m values are kept in the result.
+	 * @return The vertices in sequence order.
+	 */
+	public static CoordinateSequence filter(CoordinateSequence sequence, double min, double max, boolean keepM) {
+		return filter(sequence, isMonotonic(sequence), min, max, keepM);
+	}
+
+	private static CoordinateSequence filter(CoordinateSequence sequence, boolean monotonic, double min, double max, boolean keepM) {
+		CoordinateSequenceDimensions dimensions = getDimensions(sequence.hasZ(), keepM);
+		List<Coordinate> coordinates = new ArrayList<>();
+		if (!sequence.hasM()) {
+			return new CustomCoordinateSequence(dimensions, coordinates);
+		}
+		if (monotonic) {
+			int to = upperBound(sequence, max);
+			for (int i = lowerBound(sequence, min); i < to; i++) {
+				coordinates.add(copy(sequence, i, keepM));
+			}
+		} else {
+			for (int i = 0; i < sequence.size(); i++) {
+				double m = sequence.getM(i);
+				if (m >= min && m <= max) {
+					coordinates.add(copy(sequence, i, keepM));
+				}
+			}
+		}
+		return new CustomCoordinateSequence(dimensions, coordinates);
+	}
+
+	/**
+	 *
+	 * @param hasZ Whether the coordinates have a z value.
+	 * @param hasM Whether the coordinates have an m value.
+	 * @return The coordinate dimensions.
+	 */
+	public static CoordinateSequenceDimensions getDimensions(boolean hasZ, boolean hasM) {
+		if (hasM) {
+			return hasZ ? CoordinateSequenceDimensions.XYZM : CoordinateSequenceDimensions.XYM;
+		}
+		return hasZ ? CoordinateSequenceDimensions.XYZ : CoordinateSequenceDimensions.XY;
+	}
+
+	private static Coordinate copy(CoordinateSequence sequence, int index, boolean keepM) {
+		double x = sequence.getX(index);
+		double y = sequence.getY(index);
+		boolean hasZ = sequence.hasZ();
+		if (keepM) {
+			double m = sequence.getM(index);
+			return hasZ ? new CoordinateXYZM(x, y, sequence.getZ(index), m) : new CoordinateXYM(x, y, m);
+		}
+		return hasZ ? new Coordinate(x, y, sequence.getZ(index)) : new Coordinate(x, y);
+	}
+
+	/**
+	 * The geometry reduced to the vertices whose m value lies within the range.
+	 * @param geometry The geometry.
+	 * @param min The smallest m value kept.
+	 * @param max The largest m value kept.
+	 * @param keepM Whether the m values are kept in the result.
+	 * @return The filtered geometry in the SRS and datatype of the input.
+	 */
+	public static GeometryWrapper filter(GeometryWrapper geometry, double min, double max, boolean keepM) {
+		Geometry result = filter(geometry.getParsingGeometry(), min, max, keepM);
+		CoordinateSequenceDimensions input = geometry.getDimensionInfo().getDimensions();
+		boolean hasZ = input == CoordinateSequenceDimensions.XYZ || input == CoordinateSequenceDimensions.XYZM;
+		DimensionInfo dimensionInfo = new DimensionInfo(getDimensions(hasZ, keepM), result.getDimension());
+		return new GeometryWrapper(result, geometry.getSrsURI(), geometry.getGeometryDatatypeURI(), dimensionInfo);
+	}
+
+	/**
+	 * The geometry reduced to the vertices whose m value lies within the range.
+	 * @param geometry The geometry.
+	 * @param min The smallest m value kept.
+	 * @param max The largest m value kept.
+	 * @param keepM Whether the m values are kept in the result.
+	 * @return The filtered geometry, empty if no component is left.
+	 */
+	public static Geometry filter(Geometry geometry, double min, double max, boolean keepM) {
+		Geometry result = filterComponent(geometry, min, max, keepM);
+		if (result != null) {
+			return result;
+		}
+		switch (geometry.getGeometryType()) {
+		case "Point":
+			return GEOMETRY_FACTORY.createPoint();
+		case "LineString":
+			return GEOMETRY_FACTORY.createLineString();
+		case "Polygon":
+			return GEOMETRY_FACTORY.createPolygon();
+		case "MultiPoint":
+			return GEOMETRY_FACTORY.createMultiPoint();
+		case "MultiLineString":
+			return GEOMETRY_FACTORY.createMultiLineString();
+		case "MultiPolygon":
+			return GEOMETRY_FACTORY.createMultiPolygon();
+		default:
+			return GEOMETRY_FACTORY.createGeometryCollection();
+		}
+	}
+
+	/**
+	 *
+	 * @return The filtered component or null if too few vertices are left.
+	 */
+	private static Geometry filterComponent(Geometry geometry, double min, double max, boolean keepM) {
+		if (geometry instanceof Point) {
+			//a single vertex is in order
+			CoordinateSequence sequence = filter(((Point) geometry).getCoordinateSequence(), true, min, max, keepM);
+			return sequence.size() == 0 ? null : GEOMETRY_FACTORY.createPoint(sequence);
+		}
+		if (geometry instanceof LineString) {
+			LineString line = (LineString) geometry;
+			CoordinateSequence sequence = filter(line.getCoordinateSequence(), min, max, keepM);
+			return sequence.size() < 2 ? null : GEOMETRY_FACTORY.createLineString(sequence);
+		}
+		if (geometry instanceof Polygon) {
+			Polygon polygon = (Polygon) geometry;
+			LinearRing shell = filterRing(polygon.getExteriorRing(), min, max, keepM);
+			if (shell == null) {
+				return null;
+			}
+			List<LinearRing> holes = new ArrayList<>();
+			for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+				LinearRing hole = filterRing(polygon.getInteriorRingN(i), min, max, keepM);
+				if (hole != null) {
+					holes.add(hole);
+				}
+			}
+			return GEOMETRY_FACTORY.createPolygon(shell, holes.toArray(new LinearRing[holes.size()]));
+		}
+		if (geometry instanceof GeometryCollection) {
+			List<Geometry> components = new ArrayList<>();
+			for (int i = 0; i < geometry.getNumGeometries(); i++) {
+				Geometry component = filterComponent(geometry.getGeometryN(i), min, max, keepM);
+				if (component != null) {
+					components.add(component);
+				}
+			}
+			if (components.isEmpty()) {
+				return null;
+			}
+			if (geometry instanceof MultiPoint) {
+				return GEOMETRY_FACTORY.createMultiPoint(components.toArray(new Point[components.size()]));
+			}
+			if (geometry instanceof MultiLineString) {
+				return GEOMETRY_FACTORY.createMultiLineString(components.toArray(new LineString[components.size()]));
+			}
+			if (geometry instanceof MultiPolygon) {
+				return GEOMETRY_FACTORY.createMultiPolygon(components.toArray(new Polygon[components.size()]));
+			}
+			return GEOMETRY_FACTORY.createGeometryCollection(components.toArray(new Geometry[components.size()]));
+		}
+		return null;
+	}
+
+	private static LinearRing filterRing(LineString ring, double min, double max, boolean keepM) {
+		CoordinateSequence sequence = filter(ring.getCoordinateSequence(), min, max, keepM);
+		int last = sequence.size() - 1;
+		if (sequence.size() < 4 || sequence.getX(0) != sequence.getX(last) || sequence.getY(0) != sequence.getY(last)) {
+			return null;
+		}
+		return GEOMETRY_FACTORY.createLinearRing(sequence);
+	}
+
+}
@@ -0,0 +1,174 @@
+package de.hsmainz.cs.semgis.arqextension.util;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.SRSInfo;
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprint;
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprintRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.SpatialKind;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+
+/**
+ * A function argument parsed once into a GeometryWrapper or CoverageWrapper.
+ * Values derived from it, like the raster footprint, the envelope or an SRS
+ * transformation, are computed on first use and reused afterwards.
+ * Instances are obtained through {@link SpatialArguments#resolve(NodeValue)}.
+ * <p>
+ * The literal is only read when the wrapper is needed. The footprint of a
+ * raster is taken from the footprint index of the active graph if it has one,
+ * otherwise from the WKB header, so raster extents are compared without
+ * reading or decoding the literal.
+ */
+public class SpatialArgument {
+
+	private final NodeValue nodeValue;
+
+	private final SpatialKind kind;
+
+	private final Graph graph;
+
+	private Wrapper wrapper;
+
+	private RasterFootprint rasterFootprint;
+
+	private Geometry footprint;
+
+	private Envelope envelope;
+
+	private String transformSrsURI;
+
+	private GeometryWrapper transformed;
+
+	SpatialArgument(NodeValue nodeValue, Graph graph) {
+		this.nodeValue = nodeValue;
+		this.kind = SpatialDatatypeRegistry.getKind(nodeValue.getDatatypeURI());
+		if (kind == null) {
+			throw new DatatypeFormatException("No valid raster or vector geometry definition given: " + nodeValue.getDatatypeURI());
+		}
+		this.graph = graph;
+	}
+
+	public Wrapper getWrapper() {
+		if (wrapper == null) {
+			wrapper = LiteralUtils.rasterOrVector(nodeValue);
+		}
+		return wrapper;
+	}
+
+	public boolean isRaster() {
+		return kind == SpatialKind.RASTER;
+	}
+
+	public boolean isVector() {
+		return kind == SpatialKind.VECTOR;
+	}
+
+	/**
+	 *
+	 * @return The parsed geometry, throws a ClassCastException for rasters.
+	 */
+	public GeometryWrapper getGeometryWrapper() {
+		return (GeometryWrapper) getWrapper();
+	}
+
+	/**
+	 *
+	 * @return The parsed coverage, throws a ClassCastException for geometries.
+	 */
+	public CoverageWrapper getCoverageWrapper() {
+		return (CoverageWrapper) getWrapper();
+	}
+
+	public GridCoverage getCoverage() {
+		return getCoverageWrapper().getXYGeometry();
+	}
+
+	/**
+	 * Georeferencing of a raster argument, from the footprint index of the
+	 * active graph or the WKB header.
+	 * @return The footprint, throws a ClassCastException for geometries.
+	 */
+	public RasterFootprint getRasterFootprint() {
+		if (rasterFootprint == null) {
+			if (!isRaster()) {
+				throw new ClassCastException("Not a raster literal: " + nodeValue);
+			}
+			if (nodeValue.hasNode()) {
+				rasterFootprint = RasterFootprintRegistry.find(graph, nodeValue.asNode());
+			}
+			if (rasterFootprint == null) {
+				rasterFootprint = RasterFootprint.of(getCoverageWrapper());
+			}
+		}
+		return rasterFootprint;
+	}
+
+	/**
+	 * Vector representation of the argument: the XY geometry of a geometry
+	 * literal or the grid envelope polygon of a raster literal.
+	 * @return The footprint geometry.
+	 */
+	public Geometry getFootprint() {
+		if (footprint == null) {
+			if (isRaster()) {
+				footprint = getRasterFootprint().getGeometry();
+			} else {
+				footprint = getGeometryWrapper().getXYGeometry();
+			}
+		}
+		return footprint;
+	}
+
+	/**
+	 *
+	 * @return The 2D envelope of the geometry or raster.
+	 */
+	public Envelope getEnvelope() {
+		if (envelope == null) {
+			if (isRaster()) {
+				envelope = getRasterFootprint().getEnvelope();
+			} else {
+				envelope = getGeometryWrapper().getEnvelope();
+			}
+		}
+		return envelope;
+	}
+
+	/**
+	 * Transforms the geometry into the given SRS. The last transformation is kept
+	 * so that repeated use with the same target SRS does not transform again.
+	 * @param srsURI The target SRS URI.
+	 * @return The transformed geometry or the geometry itself if already in the SRS.
+	 */
+	public GeometryWrapper transform(String srsURI) throws MismatchedDimensionException, TransformException, FactoryException {
+		GeometryWrapper geometry = getGeometryWrapper();
+		if (geometry.getSrsURI().equals(srsURI)) {
+			return geometry;
+		}
+		if (!srsURI.equals(transformSrsURI)) {
+			transformed = geometry.transform(srsURI);
+			transformSrsURI = srsURI;
+		}
+		return transformed;
+	}
+
+	/**
+	 * Transforms the geometry into the SRS described by the SRSInfo.
+	 * @param srsInfo The target SRS.
+	 * @return The transformed geometry or the geometry itself if already in the SRS.
+	 */
+	public GeometryWrapper transform(SRSInfo srsInfo) throws MismatchedDimensionException, TransformException, FactoryException {
+		return transform(srsInfo.getSrsURI());
+	}
+
+}
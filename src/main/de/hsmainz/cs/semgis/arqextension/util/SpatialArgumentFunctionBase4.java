@@ -0,0 +1,20 @@
+package de.hsmainz.cs.semgis.arqextension.util;
+
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase4;
+import org.apache.jena.sparql.function.FunctionEnv;
+
+/**
+ * FunctionBase4 whose spatial arguments, resolved through
+ * {@link SpatialArguments#resolve(NodeValue)}, are parsed once per solution row.
+ */
+public abstract class SpatialArgumentFunctionBase4 extends FunctionBase4 {
+
+	@Override
+	public NodeValue exec(Binding binding, ExprList args, String uri, FunctionEnv env) {
+		return SpatialArguments.withinRow(binding, env, () -> super.exec(binding, args, uri, env));
+	}
+
+}
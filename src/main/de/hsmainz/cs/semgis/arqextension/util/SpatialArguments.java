@@ -0,0 +1,140 @@
+package de.hsmainz.cs.semgis.arqextension.util;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionEnv;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+
+import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+
+/**
+ * Resolves spatial function arguments so that each literal is parsed only
+ * once per solution row.
+ * While a function extending one of the SpatialArgumentFunctionBase classes is
+ * evaluated, resolved arguments are memoized against the current Binding and
+ * the identity of the argument Node. Further functions evaluated on the same
+ * Binding, e.g. several spatial FILTER expressions over the same variables,
+ * reuse the parsed wrappers. The memo is kept in the context of the query
+ * execution, one per thread, and is replaced as soon as a different Binding
+ * is evaluated, so at most one row is retained per thread and nothing outlives
+ * the query execution. Outside of a Binding or a query execution each call to
+ * resolve parses its argument once.
+ * <p>
+ * Within a row the active graph of the query is known as well, raster
+ * footprints are then taken from the footprint index of that graph if it has one.
+ */
+public class SpatialArguments {
+
+	/**
+	 * Context entry holding the row memos of a query execution.
+	 */
+	private static final Symbol ROW_MEMOS = Symbol.create(PostGISGeo.uri2 + "spatialArgumentRowMemos");
+
+	/**
+	 * Memo of the function evaluation in progress on the thread, only set
+	 * during the evaluation.
+	 */
+	private static final ThreadLocal<RowMemo> ACTIVE_MEMO = new ThreadLocal<>();
+
+	private SpatialArguments() {
+	}
+
+	/**
+	 *
+	 * @param nodeValue A geometry or raster literal.
+	 * @return The resolved argument, shared with earlier calls on the same row.
+	 */
+	public static SpatialArgument resolve(NodeValue nodeValue) {
+		RowMemo memo = ACTIVE_MEMO.get();
+		if (memo == null) {
+			return new SpatialArgument(nodeValue, null);
+		}
+		if (!nodeValue.hasNode()) {
+			return new SpatialArgument(nodeValue, memo.graph);
+		}
+		Node node = nodeValue.asNode();
+		SpatialArgument argument = memo.arguments.get(node);
+		if (argument == null) {
+			argument = new SpatialArgument(nodeValue, memo.graph);
+			memo.arguments.put(node, argument);
+		}
+		return argument;
+	}
+
+	/**
+	 * Evaluates the function with argument memoization scoped to the binding.
+	 * @param binding The solution row being evaluated.
+	 * @param env The environment of the function, may be null.
+	 * @param evaluation The function evaluation.
+	 * @return The result of the evaluation.
+	 */
+	public static NodeValue withinRow(Binding binding, FunctionEnv env, Supplier<NodeValue> evaluation) {
+		Graph graph = env == null ? null : env.getActiveGraph();
+		RowMemo outer = ACTIVE_MEMO.get();
+		if (outer != null && outer.binding == binding && outer.graph == graph) {
+			return evaluation.get();
+		}
+		ACTIVE_MEMO.set(getMemo(binding, graph, env == null ? null : env.getContext()));
+		try {
+			return evaluation.get();
+		} finally {
+			if (outer == null) {
+				ACTIVE_MEMO.remove();
+			} else {
+				ACTIVE_MEMO.set(outer);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Memo of the binding, reused from the context of the query
+	 * execution if the thread evaluated the same binding last.
+	 */
+	private static RowMemo getMemo(Binding binding, Graph graph, Context context) {
+		if (context == null) {
+			return new RowMemo(binding, graph);
+		}
+		Map<Thread, RowMemo> memos = context.get(ROW_MEMOS);
+		if (memos == null) {
+			synchronized (context) {
+				memos = context.get(ROW_MEMOS);
+				if (memos == null) {
+					memos = new ConcurrentHashMap<>();
+					context.set(ROW_MEMOS, memos);
+				}
+			}
+		}
+		Thread thread = Thread.currentThread();
+		RowMemo memo = memos.get(thread);
+		if (memo == null || memo.binding != binding || memo.graph != graph) {
+			memo = new RowMemo(binding, graph);
+			memos.put(thread, memo);
+		}
+		return memo;
+	}
+
+	private static class RowMemo {
+
+		private final Binding binding;
+
+		private final Graph graph;
+
+		private final Map<Node, SpatialArgument> arguments = new IdentityHashMap<>();
+
+		private RowMemo(Binding binding, Graph graph) {
+			this.binding = binding;
+			this.graph = graph;
+		}
+
+	}
+
+}
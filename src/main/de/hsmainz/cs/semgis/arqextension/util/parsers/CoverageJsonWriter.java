@@ -29,7 +29,6 @@
 package de.hsmainz.cs.semgis.arqextension.util.parsers;
 
 
-import java.awt.image.RenderedImage;
 
 import org.apache.sis.coverage.Category;
 import org.apache.sis.coverage.SampleDimension;
@@ -37,6 +36,9 @@ import org.apache.sis.coverage.grid.GridCoverage;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandView;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+
 public class CoverageJsonWriter {
 	GridCoverage coverage;
 
@@ -130,10 +132,10 @@ public class CoverageJsonWriter {
 			//paramrange.put("shape",new JSONArray());
 			paramrange.put("values",new JSONArray());
 			JSONArray values=paramrange.getJSONArray("values");
-			RenderedImage rendered=coverage.render(null);
-	        	for(int i=0;i<rendered.getSampleModel().getWidth();i++) {
-	        		for(int j=0;j<rendered.getSampleModel().getHeight();j++) {
-	        			values.put(rendered.getData().getSample(i, j, 0));
+			BandView band=new PixelAccess(coverage).getBand(0);
+	        	for(int i=band.getMinX(),maxX=i+band.getWidth();i<maxX;i++) {
+	        		for(int j=band.getMinY(),maxY=j+band.getHeight();j<maxY;j++) {
+	        			values.put(band.getInt(i, j));
 	        		}
 	        	}
 			
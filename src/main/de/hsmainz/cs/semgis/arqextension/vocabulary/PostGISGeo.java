@@ -79,6 +79,9 @@ public class PostGISGeo {
    public static final Property st_aswkb = property("ST_AsWKB");
    public static final Property st_aswkt = property("ST_AsWKT");
    public static final Property st_asx3d = property("ST_AsX3D");
+   public static final Property st_avgX = property("ST_AvgX");
+   public static final Property st_avgY = property("ST_AvgY");
+   public static final Property st_avgZ = property("ST_AvgZ");
    public static final Property st_azimuth = property("ST_Azimuth");
    public static final Property st_band = property("ST_Band");
    public static final Property st_bandmetadata = property("ST_BandMetaData");
@@ -100,6 +103,7 @@ public class PostGISGeo {
    public static final Property st_bboxrightof = property("ST_BBOXRightOf");
    public static final Property st_bezierSmoothing = property("ST_BezierSmoothing");
    public static final Property st_boundary = property("ST_Boundary");
+   public static final Property st_boundingBox = property("ST_BoundingBox");
    public static final Property st_boundingdiagonal = property("ST_BoundingDiagonal");
    public static final Property st_centroid = property("ST_Centroid");
    public static final Property st_centroidDistance = property("ST_CentroidDistance");
@@ -111,9 +115,11 @@ public class PostGISGeo {
    public static final Property st_closestPoint = property("ST_ClosestPoint");
    public static final Property st_closestPoint3d = property("ST_3DClosestPoint");
    public static final Property st_closestPointOfApproach = property("ST_ClosestPointOfApproach");
+   public static final Property st_clusterDBSCAN = property("ST_ClusterDBSCAN");
    public static final Property st_clusterIntersecting = property("ST_ClusterIntersecting");
    public static final Property st_clusterKMeans = property("ST_ClusterKMeans");
    public static final Property st_clusterWithin = property("ST_ClusterWithin");
+   public static final Property st_collect = property("ST_Collect");
    public static final Property st_collectionExtract = property("ST_CollectionExtract");
    public static final Property st_collectionHomogenize = property("ST_CollectionHomogenize");
    public static final Property st_compactnessRatio = property("ST_CompactnessRatio");
@@ -122,6 +128,7 @@ public class PostGISGeo {
    public static final Property st_contains = property("ST_Contains");
    public static final Property st_containsProperly = property("ST_ContainsProperly");
    public static final Property st_count = property("ST_Count");
+   public static final Property st_curvature = property("ST_Curvature");
    public static final Property st_curveToLine = property("ST_CurveToLine");
    public static final Property st_densify = property("ST_Densify");
    public static final Property st_delaunayTriangles = property("ST_DelaunayTriangles");
@@ -142,6 +149,7 @@ public class PostGISGeo {
    public static final Property st_equalsTopo = property("ST_EqualsTopo");
    public static final Property st_equalType = property("ST_EqualType");
    public static final Property st_explode = property("ST_Explode");
+   public static final Property st_extent = property("ST_Extent");
    public static final Property st_filterByM = property("ST_FilterByM");
    public static final Property st_filterByT = property("ST_FilterByT");
    public static final Property st_flipCoordinates = property("ST_FlipCoordinates");
@@ -177,6 +185,8 @@ public class PostGISGeo {
    public static final Property st_hasRepeatedPoints = property("ST_HasRepeatedPoints");
    public static final Property st_hausdorffDistance = property("ST_HausdorffDistance");
    public static final Property st_height = property("ST_Height");
+   public static final Property st_hillShade = property("ST_HillShade");
+   public static final Property st_histogram = property("ST_Histogram");
    public static final Property st_interiorRingN = property("ST_InteriorRingN");
    public static final Property st_interpolatePoint = property("ST_InterpolatePoint");
    public static final Property st_intersectionMatrix= property("ST_IntersectionMatrix");
@@ -244,11 +254,18 @@ public class PostGISGeo {
    public static final Property st_makeLine = property("ST_MakeLine");
    public static final Property st_makePoint = property("ST_MakePoint");
    public static final Property st_makePointM = property("ST_MakePointM");
+   public static final Property st_makePointT = property("ST_MakePointT");
    public static final Property st_makePolygon = property("ST_MakePolygon");
    public static final Property st_makeValid = property("ST_MakeValid");
+   public static final Property st_maxX = property("ST_MaxX");
+   public static final Property st_maxY = property("ST_MaxY");
+   public static final Property st_maxZ = property("ST_MaxZ");
    public static final Property st_maxDistance = property("ST_MaxDistance");
    public static final Property st_maxDistance3D = property("ST_MaxDistance3D");
    public static final Property st_memsize = property("ST_MemSize");
+   public static final Property st_minX = property("ST_MinX");
+   public static final Property st_minY = property("ST_MinY");
+   public static final Property st_minZ = property("ST_MinZ");
    public static final Property st_minimumBoundingCircle = property("ST_MinimumBoundingCircle");
    public static final Property st_minimumBoundingCircleCenter = property("ST_MinimumBoundingCircleCenter");
    public static final Property st_minimumBoundingRadius = property("ST_MinimumBoundingRadius");
@@ -315,6 +332,7 @@ public class PostGISGeo {
    public static final Property st_polygonFromText = property("ST_PolygonFromText");
    public static final Property st_polygonFromWKB = property("ST_PolygonFromWKB");
    public static final Property st_precisionReducer = property("ST_PrecisionReducer");
+   public static final Property st_quantile = property("ST_Quantile");
    public static final Property st_rastFromHexWKB = property("ST_RastFromHexWKB");
    public static final Property st_rastFromWKB = property("ST_RastFromWKB");
    public static final Property st_rast_algebra_add = property("ST_Add");
@@ -439,6 +457,7 @@ public class PostGISGeo {
    public static final Property st_upperLeftX = property("ST_UpperLeftX");
    public static final Property st_upperLeftY = property("ST_UpperLeftY");
    public static final Property st_union = property("ST_Union");
+   public static final Property st_unionAgg = property("ST_UnionAgg");
    public static final Property st_unaryUnion = property("ST_UnaryUnion");
    public static final Property st_value = property("ST_Value");
    public static final Property st_vectorize = property("ST_Vectorize");
@@ -492,6 +511,38 @@ public class PostGISGeo {
    public static final Property USMileToMeter = property("USMileToMeter"); 
    public static final Property USYardToMeter = property("USYardToMeter"); 
    public static final Property yardToMeter = property("YardToMeter"); 
+
+   // spatial index property functions
+   public static final Property intersectsBox = property("intersectsBox");
+   public static final Property withinDistance = property("withinDistance");
+   public static final Property near = property("near");
+   public static final Property inBoxDuring = property("inBoxDuring");
+
+   // temporal range functions
+   public static final Property st_after = property("ST_After");
+   public static final Property st_before = property("ST_Before");
+   public static final Property st_during = property("ST_During");
+   public static final Property st_equalsPeriod = property("ST_EqualsPeriod");
+   public static final Property st_finishes = property("ST_Finishes");
+   public static final Property st_isMetBy = property("ST_IsMetBy");
+   public static final Property st_meets = property("ST_Meets");
+   public static final Property st_periodContains = property("ST_PeriodContains");
+   public static final Property st_periodEnd = property("ST_PeriodEnd");
+   public static final Property st_periodOverlaps = property("ST_PeriodOverlaps");
+   public static final Property st_periodStart = property("ST_PeriodStart");
+   public static final Property st_starts = property("ST_Starts");
+
+   // temporal index property functions
+   public static final Property temporalAfter = property("temporalAfter");
+   public static final Property temporalBefore = property("temporalBefore");
+   public static final Property temporalContains = property("temporalContains");
+   public static final Property temporalDuring = property("temporalDuring");
+   public static final Property temporalEquals = property("temporalEquals");
+   public static final Property temporalFinishes = property("temporalFinishes");
+   public static final Property temporalMeets = property("temporalMeets");
+   public static final Property temporalMetBy = property("temporalMetBy");
+   public static final Property temporalOverlaps = property("temporalOverlaps");
+   public static final Property temporalStarts = property("temporalStarts");
    
    public static final String WKB = "http://www.opengis.net/ont/geosparqlplus#wkbLiteral";
 public static final String GeoJSON = "http://www.opengis.net/ont/geosparqlplus#GeoJSONLiteral";
@@ -515,7 +566,7 @@ public static final String OSM= "http://www.opengis.net/ont/geosparqlplus#OSMLit
 public static final String NetCDF="http://www.opengis.net/ont/geosparqlplus#NetCDFLiteral";
 public static final String HexWKBRaster = "http://www.opengis.net/ont/geosparqlplus#HexWKBRasterLiteral";
 public static final String TopoJSON = "http://www.opengis.net/ont/geosparqlplus#TopoJSON";
-public static final String TemporalRange="TemporalRange";
+public static final String TemporalRange="http://www.opengis.net/ont/geosparqlplus#TemporalRange";
 public static final String CoverageJSON = "http://www.opengis.net/ont/geosparqlplus#covJSONLiteral";
 public static final String XYZASCII = "http://www.opengis.net/ont/geosparqlplus#XYZASCIILiteral";
 
@@ -567,6 +618,7 @@ public static void main(String[] args) throws IllegalArgumentException, IllegalA
       public static final Node st_makeLine = PostGISGeo.st_makeLine.asNode();
       public static final Node st_makePoint = PostGISGeo.st_makePoint.asNode();
       public static final Node st_makePointM = PostGISGeo.st_makePointM.asNode();
+      public static final Node st_makePointT = PostGISGeo.st_makePointT.asNode();
       public static final Node st_makePolygon = PostGISGeo.st_makePolygon.asNode();
       public static final Node st_mLineFromText = PostGISGeo.st_mLineFromText.asNode();
       public static final Node st_mPointFromText = PostGISGeo.st_mPointFromText.asNode();
@@ -630,4 +682,4 @@ public static void main(String[] args) throws IllegalArgumentException, IllegalA
 
    }
 }
-
+
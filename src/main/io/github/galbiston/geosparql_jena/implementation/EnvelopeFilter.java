@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.geom.Location;
+
+/**
+ * Fast reject stage of the topological predicates of {@link GeometryWrapper}.
+ * <br>
+ * The envelopes of both geometries, in the same SRS, are compared before any
+ * prepared geometry or DE-9IM evaluation. When they decide the result, e.g.
+ * disjoint envelopes for intersects, JTS is not called. The decisions are the
+ * ones JTS makes from the envelopes, so results are unchanged.<br>
+ * Each predicate counts its evaluations and the evaluations decided by the
+ * envelopes.
+ */
+public class EnvelopeFilter {
+
+    public enum Predicate {
+        CONTAINS, CROSSES, DISJOINT, EQUALS_EXACT, EQUALS_TOPO, INTERSECTS, OVERLAPS, RELATE, TOUCHES, WITHIN
+    }
+
+    private static volatile boolean ACTIVE = true;
+    private static final LongAdder[] EVALUATIONS = createCounters();
+    private static final LongAdder[] DECISIONS = createCounters();
+
+    private static LongAdder[] createCounters() {
+        LongAdder[] counters = new LongAdder[Predicate.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    /**
+     *
+     * @param isActive False evaluates every pair with JTS.
+     */
+    public static final void setActive(boolean isActive) {
+        ACTIVE = isActive;
+    }
+
+    public static final boolean isActive() {
+        return ACTIVE;
+    }
+
+    /**
+     * Whether the envelopes decide the predicate. The result is then true
+     * for {@link Predicate#DISJOINT} and false for the other predicates.
+     *
+     * @param predicate
+     * @param envelope Envelope of the geometry evaluating the predicate.
+     * @param targetEnvelope Envelope of the target geometry, in the same SRS.
+     * @return True if the envelopes decide the predicate.
+     */
+    public static final boolean decides(Predicate predicate, Envelope envelope, Envelope targetEnvelope) {
+        boolean isDecided;
+        switch (predicate) {
+            case CONTAINS:
+                isDecided = !envelope.covers(targetEnvelope);
+                break;
+            case WITHIN:
+                isDecided = !targetEnvelope.covers(envelope);
+                break;
+            case EQUALS_EXACT:
+            case EQUALS_TOPO:
+                isDecided = !envelope.equals(targetEnvelope);
+                break;
+            default:
+                isDecided = !envelope.intersects(targetEnvelope);
+        }
+        return count(predicate, isDecided);
+    }
+
+    /**
+     * Whether the envelopes decide that the geometries are not exactly equal
+     * within the tolerance.
+     *
+     * @param envelope
+     * @param targetEnvelope
+     * @param tolerance
+     * @return True if the envelopes decide the predicate to be false.
+     */
+    public static final boolean decidesEqualsExact(Envelope envelope, Envelope targetEnvelope, double tolerance) {
+        boolean isDecided;
+        if (envelope.isNull() || targetEnvelope.isNull()) {
+            isDecided = envelope.isNull() != targetEnvelope.isNull();
+        } else {
+            isDecided = Math.abs(envelope.getMinX() - targetEnvelope.getMinX()) > tolerance
+                    || Math.abs(envelope.getMaxX() - targetEnvelope.getMaxX()) > tolerance
+                    || Math.abs(envelope.getMinY() - targetEnvelope.getMinY()) > tolerance
+                    || Math.abs(envelope.getMaxY() - targetEnvelope.getMaxY()) > tolerance;
+        }
+        return count(Predicate.EQUALS_EXACT, isDecided);
+    }
+
+    /**
+     * DE-9IM of two geometries whose envelopes do not intersect, as computed
+     * by JTS for disjoint geometries.
+     *
+     * @param geometry
+     * @param targetGeometry
+     * @return Intersection matrix or null if the envelopes intersect or a
+     * geometry is a collection, which JTS does not relate.
+     */
+    public static final IntersectionMatrix disjointMatrix(Geometry geometry, Geometry targetGeometry) {
+        if (geometry.getClass() == GeometryCollection.class || targetGeometry.getClass() == GeometryCollection.class) {
+            return null;
+        }
+        if (!decides(Predicate.RELATE, geometry.getEnvelopeInternal(), targetGeometry.getEnvelopeInternal())) {
+            return null;
+        }
+        IntersectionMatrix matrix = new IntersectionMatrix();
+        matrix.set(Location.EXTERIOR, Location.EXTERIOR, 2);
+        if (!geometry.isEmpty()) {
+            matrix.set(Location.INTERIOR, Location.EXTERIOR, geometry.getDimension());
+            matrix.set(Location.BOUNDARY, Location.EXTERIOR, geometry.getBoundaryDimension());
+        }
+        if (!targetGeometry.isEmpty()) {
+            matrix.set(Location.EXTERIOR, Location.INTERIOR, targetGeometry.getDimension());
+            matrix.set(Location.EXTERIOR, Location.BOUNDARY, targetGeometry.getBoundaryDimension());
+        }
+        return matrix;
+    }
+
+    private static boolean count(Predicate predicate, boolean isDecided) {
+        if (!ACTIVE) {
+            return false;
+        }
+        EVALUATIONS[predicate.ordinal()].increment();
+        if (isDecided) {
+            DECISIONS[predicate.ordinal()].increment();
+        }
+        return isDecided;
+    }
+
+    /**
+     *
+     * @param predicate
+     * @return Number of evaluations of the predicate.
+     */
+    public static final long getEvaluationCount(Predicate predicate) {
+        return EVALUATIONS[predicate.ordinal()].sum();
+    }
+
+    /**
+     *
+     * @param predicate
+     * @return Number of evaluations of the predicate decided by the envelopes.
+     */
+    public static final long getDecisionCount(Predicate predicate) {
+        return DECISIONS[predicate.ordinal()].sum();
+    }
+
+    /**
+     *
+     * @return Number of evaluations of all predicates.
+     */
+    public static final long getEvaluationCount() {
+        long sum = 0;
+        for (LongAdder counter : EVALUATIONS) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    /**
+     *
+     * @return Number of evaluations of all predicates decided by the
+     * envelopes.
+     */
+    public static final long getDecisionCount() {
+        long sum = 0;
+        for (LongAdder counter : DECISIONS) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    public static final void resetCounts() {
+        for (int i = 0; i < EVALUATIONS.length; i++) {
+            EVALUATIONS[i].reset();
+            DECISIONS[i].reset();
+        }
+    }
+
+}
@@ -18,6 +18,7 @@
 package io.github.galbiston.geosparql_jena.implementation;
 
 import io.github.galbiston.geosparql_jena.implementation.DimensionInfo;
+import io.github.galbiston.geosparql_jena.implementation.EnvelopeFilter.Predicate;
 import io.github.galbiston.geosparql_jena.implementation.GeometryReverse;
 import io.github.galbiston.geosparql_jena.implementation.SRSInfo;
 import io.github.galbiston.geosparql_jena.implementation.UnitsOfMeasure;
@@ -32,7 +33,7 @@ import io.github.galbiston.geosparql_jena.implementation.index.GeometryTransform
 import io.github.galbiston.geosparql_jena.implementation.jts.CoordinateSequenceDimensions;
 import io.github.galbiston.geosparql_jena.implementation.jts.CustomCoordinateSequence;
 import io.github.galbiston.geosparql_jena.implementation.jts.CustomGeometryFactory;
-import io.github.galbiston.geosparql_jena.implementation.registry.MathTransformRegistry;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 import io.github.galbiston.geosparql_jena.implementation.registry.SRSRegistry;
 import io.github.galbiston.geosparql_jena.implementation.registry.UnitsRegistry;
 import io.github.galbiston.geosparql_jena.implementation.vocabulary.SRS_URI;
@@ -80,6 +81,7 @@ public class GeometryWrapper extends SpatialWrapper {
     private final String geometryDatatypeURI;
     private GeometryDatatype geometryDatatype;
     private String lexicalForm;
+    private boolean retainLexicalForm = true;
     private String utmURI = null;
     private Double latitude = null;
 
@@ -192,6 +194,7 @@ public class GeometryWrapper extends SpatialWrapper {
         this.srsInfo = geometryWrapper.srsInfo;
         this.dimensionInfo = geometryWrapper.dimensionInfo;
         this.lexicalForm = geometryWrapper.lexicalForm;
+        this.retainLexicalForm = geometryWrapper.retainLexicalForm;
     }
 
     /**
@@ -462,8 +465,8 @@ public class GeometryWrapper extends SpatialWrapper {
             DirectPosition2D point = new DirectPosition2D(coord.getX(), coord.getY());
 
             //Convert to WGS84. Use WGS84 and not CRS84 as assuming WGS8 is more prevalent.
-            CoordinateReferenceSystem wgs84CRS = SRSRegistry.getCRS(SRS_URI.WGS84_CRS);
-            MathTransform transform = MathTransformRegistry.getMathTransform(srsInfo.getCrs(), wgs84CRS);
+            CoordinateReferenceSystem wgs84CRS = CRSCache.getCRS(SRS_URI.WGS84_CRS);
+            MathTransform transform = CRSCache.getMathTransform(srsInfo.getCrs(), wgs84CRS);
 
             DirectPosition wgs84Point = transform.transform(point, null);
 
@@ -768,6 +771,10 @@ public class GeometryWrapper extends SpatialWrapper {
      */
     public IntersectionMatrix relate(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        IntersectionMatrix disjointMatrix = EnvelopeFilter.disjointMatrix(xyGeometry, transformedGeometry.xyGeometry);
+        if (disjointMatrix != null) {
+            return disjointMatrix;
+        }
         return xyGeometry.relate(transformedGeometry.xyGeometry);
     }
 
@@ -781,6 +788,10 @@ public class GeometryWrapper extends SpatialWrapper {
      */
     public boolean relate(GeometryWrapper targetGeometry, String intersectionPattern) throws FactoryException, MismatchedDimensionException, TransformException {
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        IntersectionMatrix disjointMatrix = EnvelopeFilter.disjointMatrix(xyGeometry, transformedGeometry.xyGeometry);
+        if (disjointMatrix != null) {
+            return disjointMatrix.matches(intersectionPattern);
+        }
         return xyGeometry.relate(transformedGeometry.xyGeometry, intersectionPattern);
     }
 
@@ -820,8 +831,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean contains(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.CONTAINS, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.contains(transformedGeometry.xyGeometry);
     }
 
@@ -833,8 +847,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean crosses(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.CROSSES, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.crosses(transformedGeometry.xyGeometry);
     }
 
@@ -846,8 +863,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean disjoint(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.DISJOINT, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return true;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.disjoint(transformedGeometry.xyGeometry);
     }
 
@@ -860,6 +880,9 @@ public class GeometryWrapper extends SpatialWrapper {
      */
     public boolean equalsTopo(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.EQUALS_TOPO, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
         return this.xyGeometry.equalsTopo(transformedGeometry.xyGeometry);
     }
 
@@ -872,6 +895,9 @@ public class GeometryWrapper extends SpatialWrapper {
      */
     public boolean equalsExact(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.EQUALS_EXACT, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
         return this.xyGeometry.equalsExact(transformedGeometry.xyGeometry);
     }
 
@@ -886,6 +912,9 @@ public class GeometryWrapper extends SpatialWrapper {
      */
     public boolean equalsExact(GeometryWrapper targetGeometry, double tolerance) throws FactoryException, MismatchedDimensionException, TransformException {
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decidesEqualsExact(getEnvelope(), transformedGeometry.getEnvelope(), tolerance)) {
+            return false;
+        }
         return this.xyGeometry.equalsExact(transformedGeometry.xyGeometry, tolerance);
     }
 
@@ -897,8 +926,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean intersects(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.INTERSECTS, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.intersects(transformedGeometry.xyGeometry);
     }
 
@@ -910,8 +942,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean overlaps(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.OVERLAPS, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.overlaps(transformedGeometry.xyGeometry);
     }
 
@@ -923,8 +958,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean touches(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.TOUCHES, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.touches(transformedGeometry.xyGeometry);
     }
 
@@ -936,8 +974,11 @@ public class GeometryWrapper extends SpatialWrapper {
      * @throws org.opengis.referencing.operation.TransformException
      */
     public boolean within(GeometryWrapper targetGeometry) throws FactoryException, MismatchedDimensionException, TransformException {
-        this.checkPreparedGeometry();
         GeometryWrapper transformedGeometry = checkTransformSRS(targetGeometry);
+        if (EnvelopeFilter.decides(Predicate.WITHIN, getEnvelope(), transformedGeometry.getEnvelope())) {
+            return false;
+        }
+        this.checkPreparedGeometry();
         return this.preparedGeometry.within(transformedGeometry.xyGeometry);
     }
 
@@ -970,10 +1011,21 @@ public class GeometryWrapper extends SpatialWrapper {
         }
 
         Literal literal = asLiteral(datatype);
-        lexicalForm = literal.getLexicalForm();
+        if (retainLexicalForm) {
+            lexicalForm = literal.getLexicalForm();
+        }
         return literal;
     }
 
+    /**
+     * Drops the lexical form so it is re-serialised on demand and not retained.
+     */
+    @Override
+    public void releaseLexicalForm() {
+        lexicalForm = null;
+        retainLexicalForm = false;
+    }
+
     /**
      *
      * @param outputGeometryDatatypeURI
@@ -18,22 +18,10 @@
 package io.github.galbiston.geosparql_jena.implementation.datatype;
 
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.EncodedPolylineDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GMLDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GPXDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoJSONDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoURIDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.HexWKBDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.KMLDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.TWKBDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.WKBDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.topo.TopoJSONDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.DatatypeEntry;
 import io.github.galbiston.geosparql_jena.implementation.index.GeometryLiteralIndex;
 import io.github.galbiston.geosparql_jena.implementation.index.GeometryLiteralIndex.GeometryIndex;
 
-import java.util.Iterator;
-
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.datatypes.RDFDatatype;
 import org.apache.jena.datatypes.TypeMapper;
@@ -74,35 +62,16 @@ public abstract class GeometryDatatype extends SpatialDatatype {
     }
 
     private static final TypeMapper TYPE_MAPPER = TypeMapper.getInstance();
-    private static boolean isDatatypesRegistered = false;
 
+    /**
+     * Registers the geometry and raster datatypes with the TypeMapper.<br>
+     * Only the first call has any effect, see {@link SpatialDatatypeRegistry}.
+     */
     public static final void registerDatatypes() {
-    	//System.out.println("Is")
-        //if (!isDatatypesRegistered) {
-            TYPE_MAPPER.registerDatatype(WKTDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(GMLDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(GeoJSONDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(KMLDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(WKBDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(TWKBDatatype.INSTANCE);
-            //TYPE_MAPPER.registerDatatype(TopoJSONDatatype.INSTANCE);
-            //TYPE_MAPPER.registerDatatype(GeobufDatatype.INSTANCE);
-            //TYPE_MAPPER.registerDatatype(GeoHashDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(EncodedPolylineDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(HexWKBDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(GeoURIDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(GPXDatatype.INSTANCE);
-            isDatatypesRegistered = true;
-        //}
+        SpatialDatatypeRegistry.registerDatatypes();
     }
 
     public static final GeometryDatatype get(RDFDatatype rdfDatatype) {
-    	registerDatatypes();
-    	//System.out.println(rdfDatatype);
-    	//Iterator it=TYPE_MAPPER.listTypes();
-    	/*while(it.hasNext()) {
-    		System.out.println(it.next());
-    	}*/
         if (rdfDatatype instanceof GeometryDatatype) {
             return (GeometryDatatype) rdfDatatype;
         } else {
@@ -111,6 +80,11 @@ public abstract class GeometryDatatype extends SpatialDatatype {
     }
 
     public static final GeometryDatatype get(String datatypeURI) {
+        DatatypeEntry entry = SpatialDatatypeRegistry.get(datatypeURI);
+        if (entry != null && !entry.isRaster()) {
+            return (GeometryDatatype) entry.getDatatype();
+        }
+
         checkURI(datatypeURI);
         RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
 
@@ -118,6 +92,11 @@ public abstract class GeometryDatatype extends SpatialDatatype {
     }
 
     public static final boolean checkURI(String datatypeURI) {
+        DatatypeEntry entry = SpatialDatatypeRegistry.get(datatypeURI);
+        if (entry != null) {
+            return !entry.isRaster();
+        }
+
         registerDatatypes();
         RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
         if (rdfDatatype != null) {
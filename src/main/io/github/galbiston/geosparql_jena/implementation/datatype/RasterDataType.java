@@ -4,10 +4,8 @@ import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.datatypes.RDFDatatype;
 import org.apache.jena.datatypes.TypeMapper;
 
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CovJSONDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry.DatatypeEntry;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
-import io.github.galbiston.geosparql_jena.implementation.datatype.raster.WKBRastDatatype;
 import io.github.galbiston.geosparql_jena.implementation.index.GeometryLiteralIndex;
 import io.github.galbiston.geosparql_jena.implementation.index.GeometryLiteralIndex.GeometryIndex;
 
@@ -19,6 +17,19 @@ public abstract class RasterDataType extends SpatialDatatype {
 
     public abstract CoverageWrapper read(String geometryLiteral);
 
+    /**
+     * Rasters held as the value of a literal are valid without being
+     * serialised, the default would unparse and so compute a pending map
+     * algebra expression.
+     *
+     * @param value
+     * @return Whether the value is a raster.
+     */
+    @Override
+    public boolean isValidValue(Object value) {
+        return value instanceof CoverageWrapper;
+    }
+
     /**
      * This method Parses the Geometry Literal to the JTS Geometry
      *
@@ -44,28 +55,29 @@ public abstract class RasterDataType extends SpatialDatatype {
     }
 
     private static final TypeMapper TYPE_MAPPER = TypeMapper.getInstance();
-    private static boolean isDatatypesRegistered = false;
 
+    /**
+     * Registers the geometry and raster datatypes with the TypeMapper.<br>
+     * Only the first call has any effect, see {@link SpatialDatatypeRegistry}.
+     */
     public static final void registerDatatypes() {
-        if (!isDatatypesRegistered) {
-            TYPE_MAPPER.registerDatatype(CovJSONDatatype.INSTANCE);
-        	//TYPE_MAPPER.registerDatatype(GeoTIFFDatatype.INSTANCE);
-            //TYPE_MAPPER.registerDatatype(GMLCOVDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(HexWKBRastDatatype.INSTANCE);
-            TYPE_MAPPER.registerDatatype(WKBRastDatatype.INSTANCE);
-            isDatatypesRegistered = true;
-        }
+        SpatialDatatypeRegistry.registerDatatypes();
     }
 
     public static final RasterDataType get(RDFDatatype rdfDatatype) {
         if (rdfDatatype instanceof RasterDataType) {
             return (RasterDataType) rdfDatatype;
         } else {
-            throw new DatatypeFormatException("Unrecognised Raster Datatype: " + rdfDatatype.getURI() + " Ensure that Datatype is extending GeometryDatatype.");
+            throw new DatatypeFormatException("Unrecognised Raster Datatype: " + rdfDatatype.getURI() + " Ensure that Datatype is extending RasterDataType.");
         }
     }
 
     public static final RasterDataType get(String datatypeURI) {
+        DatatypeEntry entry = SpatialDatatypeRegistry.get(datatypeURI);
+        if (entry != null && entry.isRaster()) {
+            return (RasterDataType) entry.getDatatype();
+        }
+
         checkURI(datatypeURI);
         RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
 
@@ -73,10 +85,15 @@ public abstract class RasterDataType extends SpatialDatatype {
     }
 
     public static final boolean checkURI(String datatypeURI) {
+        DatatypeEntry entry = SpatialDatatypeRegistry.get(datatypeURI);
+        if (entry != null) {
+            return entry.isRaster();
+        }
+
         registerDatatypes();
         RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
         if (rdfDatatype != null) {
-            return rdfDatatype instanceof GeometryDatatype;
+            return rdfDatatype instanceof RasterDataType;
         } else {
             throw new DatatypeFormatException("Datatype not found: " + datatypeURI + " Ensure that GeoSPARQL is enabled and Datatype has been registered.");
         }
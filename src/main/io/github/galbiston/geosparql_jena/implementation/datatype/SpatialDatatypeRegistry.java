@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.EncodedPolylineDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GMLDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GPXDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoJSONDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoURIDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.HexWKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.KMLDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.TWKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.WKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CovJSONDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.WKBRastDatatype;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+
+/**
+ * Registers the geometry and raster datatypes with the Jena TypeMapper exactly
+ * once and holds an immutable dispatch table from datatype URI to datatype
+ * and vector/raster kind.<br>
+ * Registration happens when the class is first used, normally from
+ * PostGISConfig.setup(), so lookups on the extraction path never touch the
+ * TypeMapper for the built-in datatypes.
+ */
+public class SpatialDatatypeRegistry {
+
+    public enum SpatialKind {
+        VECTOR, RASTER
+    }
+
+    private static final Map<String, DatatypeEntry> DISPATCH_TABLE;
+
+    static {
+        Map<String, DatatypeEntry> dispatchTable = new LinkedHashMap<>();
+        addEntry(dispatchTable, WKTDatatype.INSTANCE);
+        addEntry(dispatchTable, GMLDatatype.INSTANCE);
+        addEntry(dispatchTable, GeoJSONDatatype.INSTANCE);
+        addEntry(dispatchTable, KMLDatatype.INSTANCE);
+        addEntry(dispatchTable, WKBDatatype.INSTANCE);
+        addEntry(dispatchTable, TWKBDatatype.INSTANCE);
+        addEntry(dispatchTable, EncodedPolylineDatatype.INSTANCE);
+        addEntry(dispatchTable, HexWKBDatatype.INSTANCE);
+        addEntry(dispatchTable, GeoURIDatatype.INSTANCE);
+        addEntry(dispatchTable, GPXDatatype.INSTANCE);
+        addEntry(dispatchTable, CovJSONDatatype.INSTANCE);
+        addEntry(dispatchTable, HexWKBRastDatatype.INSTANCE);
+        addEntry(dispatchTable, WKBRastDatatype.INSTANCE);
+        DISPATCH_TABLE = Collections.unmodifiableMap(dispatchTable);
+
+        TypeMapper typeMapper = TypeMapper.getInstance();
+        for (DatatypeEntry entry : DISPATCH_TABLE.values()) {
+            typeMapper.registerDatatype(entry.getDatatype());
+        }
+    }
+
+    private static void addEntry(Map<String, DatatypeEntry> dispatchTable, SpatialDatatype datatype) {
+        dispatchTable.put(datatype.getURI(), new DatatypeEntry(datatype));
+    }
+
+    /**
+     * Registers the datatypes with the Jena TypeMapper.<br>
+     * Only the first call has any effect.
+     */
+    public static final void registerDatatypes() {
+        //Registration is performed by the static initialiser.
+    }
+
+    /**
+     *
+     * @return Immutable table of the built-in datatypes by URI.
+     */
+    public static final Map<String, DatatypeEntry> getDispatchTable() {
+        return DISPATCH_TABLE;
+    }
+
+    /**
+     *
+     * @param datatypeURI
+     * @return Entry of a built-in datatype or null if not built-in.
+     */
+    public static final DatatypeEntry get(String datatypeURI) {
+        return DISPATCH_TABLE.get(datatypeURI);
+    }
+
+    /**
+     * Kind of the datatype, checking the TypeMapper only for datatypes that are
+     * not built-in.
+     *
+     * @param datatypeURI
+     * @return Vector or raster kind, null if not a spatial datatype.
+     */
+    public static final SpatialKind getKind(String datatypeURI) {
+        if (datatypeURI == null) {
+            return null;
+        }
+        DatatypeEntry entry = DISPATCH_TABLE.get(datatypeURI);
+        if (entry != null) {
+            return entry.getKind();
+        }
+        RDFDatatype rdfDatatype = TypeMapper.getInstance().getTypeByName(datatypeURI);
+        if (rdfDatatype instanceof GeometryDatatype) {
+            return SpatialKind.VECTOR;
+        } else if (rdfDatatype instanceof RasterDataType) {
+            return SpatialKind.RASTER;
+        }
+        return null;
+    }
+
+    /**
+     * Built-in datatype with its kind.
+     */
+    public static final class DatatypeEntry {
+
+        private final SpatialDatatype datatype;
+        private final SpatialKind kind;
+
+        private DatatypeEntry(SpatialDatatype datatype) {
+            this.datatype = datatype;
+            this.kind = datatype instanceof RasterDataType ? SpatialKind.RASTER : SpatialKind.VECTOR;
+        }
+
+        public SpatialDatatype getDatatype() {
+            return datatype;
+        }
+
+        public SpatialKind getKind() {
+            return kind;
+        }
+
+        public boolean isRaster() {
+            return kind == SpatialKind.RASTER;
+        }
+
+        @Override
+        public String toString() {
+            return "DatatypeEntry{" + "datatypeURI=" + datatype.getURI() + ", kind=" + kind + '}';
+        }
+    }
+
+}
@@ -6,4 +6,11 @@ import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
 
 public class SpatialWrapper implements Serializable,Wrapper {
 
+    /**
+     * Drops any lexical form held by the wrapper so that it is re-serialised
+     * from the parsed value when next required, and not retained afterwards.
+     */
+    public void releaseLexicalForm() {
+    }
+
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+/**
+ * Histogram of a band with equal width bins between a minimum and maximum.<br>
+ * Samples outside the range, NaN samples and no-data values are not counted.
+ * The last bin includes the maximum. Quantiles are approximated by linear
+ * interpolation inside the bin holding the requested rank.
+ */
+public final class BandHistogram {
+
+    private final double min;
+    private final double max;
+    private final long[] counts;
+    private final long total;
+
+    private BandHistogram(double min, double max, long[] counts) {
+        this.min = min;
+        this.max = max;
+        this.counts = counts;
+        long sum = 0;
+        for (long binCount : counts) {
+            sum += binCount;
+        }
+        this.total = sum;
+    }
+
+    /**
+     *
+     * @param band
+     * @param noDataValues Samples to skip, may be null or empty.
+     * @param min Lower bound of the first bin.
+     * @param max Upper bound of the last bin.
+     * @param bins Number of bins.
+     * @return Histogram of the band.
+     */
+    public static final BandHistogram compute(BandView band, double[] noDataValues, double min, double max, int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("Histogram requires at least one bin: " + bins);
+        }
+        double[] noData = noDataValues != null ? noDataValues : new double[0];
+        if (!(min <= max)) {
+            //No valid samples to count.
+            return new BandHistogram(min, max, new long[bins]);
+        }
+        long[] counts = BandScan.run(band, (rowStart, rowEnd) -> scan(band, noData, min, max, bins, rowStart, rowEnd), BandHistogram::add);
+        return new BandHistogram(min, max, counts);
+    }
+
+    private static long[] scan(BandView band, double[] noData, double min, double max, int bins, int rowStart, int rowEnd) {
+        long[] counts = new long[bins];
+        double scale = max > min ? bins / (max - min) : 0;
+        int lastBin = bins - 1;
+        int minX = band.getMinX();
+        int maxX = minX + band.getWidth();
+        for (int y = rowStart; y < rowEnd; y++) {
+            for (int x = minX; x < maxX; x++) {
+                double sample = band.getDouble(x, y);
+                if (!(sample >= min && sample <= max) || BandStatistics.isNoData(sample, noData)) {
+                    continue;
+                }
+                int bin = (int) ((sample - min) * scale);
+                counts[bin > lastBin ? lastBin : bin]++;
+            }
+        }
+        return counts;
+    }
+
+    private static long[] add(long[] counts, long[] other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other[i];
+        }
+        return counts;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     *
+     * @return Number of samples counted in all bins.
+     */
+    public long getTotalCount() {
+        return total;
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    public double getBinMin(int bin) {
+        return min + bin * getBinWidth();
+    }
+
+    public double getBinMax(int bin) {
+        return bin == counts.length - 1 ? max : min + (bin + 1) * getBinWidth();
+    }
+
+    public double getBinWidth() {
+        return (max - min) / counts.length;
+    }
+
+    /**
+     *
+     * @param quantile Between 0 and 1.
+     * @return Approximate sample value of the quantile or NaN if the histogram
+     * is empty.
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double rank = quantile * total;
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long binCount = counts[i];
+            if (binCount > 0 && cumulative + binCount >= rank) {
+                double fraction = (rank - cumulative) / binCount;
+                return getBinMin(i) + fraction * (getBinMax(i) - getBinMin(i));
+            }
+            cumulative += binCount;
+        }
+        return max;
+    }
+
+    /**
+     *
+     * @return One (min,max,count,percent) record per bin and line.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                builder.append(System.lineSeparator());
+            }
+            double percent = total == 0 ? 0 : (double) counts[i] / total;
+            builder.append("(").append(getBinMin(i)).append(",").append(getBinMax(i)).append(",").append(counts[i]).append(",").append(percent).append(")");
+        }
+        return builder.toString();
+    }
+
+}
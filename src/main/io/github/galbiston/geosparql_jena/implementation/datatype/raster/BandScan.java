@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Scans the rows of a band, splitting large bands into row ranges that are
+ * scanned in parallel on the shared pool of {@link RasterTiles}. The partial
+ * results are merged pairwise.
+ */
+final class BandScan {
+
+    private static int parallelThreshold = 1 << 16;
+
+    private BandScan() {
+    }
+
+    interface RowScanner<R> {
+
+        /**
+         *
+         * @param rowStart First row in image coordinates, inclusive.
+         * @param rowEnd Last row in image coordinates, exclusive.
+         * @return Partial result of the rows.
+         */
+        R scan(int rowStart, int rowEnd);
+    }
+
+    /**
+     *
+     * @param pixels Minimum number of pixels for a band to be split.
+     */
+    static void setParallelThreshold(int pixels) {
+        parallelThreshold = Math.max(1, pixels);
+    }
+
+    static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    static <R> R run(BandView band, RowScanner<R> scanner, BinaryOperator<R> merger) {
+        int rowStart = band.getMinY();
+        int rowEnd = rowStart + band.getHeight();
+        long pixels = (long) band.getWidth() * band.getHeight();
+        if (pixels < parallelThreshold || band.getHeight() < 2) {
+            return scanner.scan(rowStart, rowEnd);
+        }
+        int minRows = Math.max(1, parallelThreshold / Math.max(1, band.getWidth()));
+        return RasterTiles.invoke(new ScanTask<>(scanner, merger, rowStart, rowEnd, minRows));
+    }
+
+    private static final class ScanTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RowScanner<R> scanner;
+        private final BinaryOperator<R> merger;
+        private final int rowStart;
+        private final int rowEnd;
+        private final int minRows;
+
+        private ScanTask(RowScanner<R> scanner, BinaryOperator<R> merger, int rowStart, int rowEnd, int minRows) {
+            this.scanner = scanner;
+            this.merger = merger;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.minRows = minRows;
+        }
+
+        @Override
+        protected R compute() {
+            int rows = rowEnd - rowStart;
+            if (rows <= minRows) {
+                return scanner.scan(rowStart, rowEnd);
+            }
+            int middle = rowStart + rows / 2;
+            ScanTask<R> upper = new ScanTask<>(scanner, merger, rowStart, middle, minRows);
+            ScanTask<R> lower = new ScanTask<>(scanner, merger, middle, rowEnd, minRows);
+            upper.fork();
+            R lowerResult = lower.compute();
+            return merger.apply(upper.join(), lowerResult);
+        }
+    }
+
+}
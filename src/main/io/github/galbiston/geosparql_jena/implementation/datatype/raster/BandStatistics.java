@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+/**
+ * Count, sum, mean, standard deviation, minimum and maximum of a band,
+ * computed in a single pass.<br>
+ * NaN samples and the given no-data values are skipped. The variance is
+ * accumulated from samples shifted by the first valid sample of each row range
+ * and partial results are merged with the parallel algorithm of Chan et al.,
+ * so large bands can be scanned in parallel without losing precision.
+ */
+public final class BandStatistics {
+
+    private final long count;
+    private final long skippedCount;
+    private final double sum;
+    private final double mean;
+    private final double m2;
+    private final double min;
+    private final double max;
+
+    private BandStatistics(long count, long skippedCount, double sum, double mean, double m2, double min, double max) {
+        this.count = count;
+        this.skippedCount = skippedCount;
+        this.sum = sum;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     *
+     * @param band
+     * @param noDataValues Samples to skip, may be null or empty.
+     * @return Statistics of the band.
+     */
+    public static final BandStatistics compute(BandView band, double[] noDataValues) {
+        double[] noData = noDataValues != null ? noDataValues : new double[0];
+        return BandScan.run(band, (rowStart, rowEnd) -> scan(band, noData, rowStart, rowEnd), BandStatistics::merge);
+    }
+
+    private static BandStatistics scan(BandView band, double[] noData, int rowStart, int rowEnd) {
+        long count = 0;
+        long skipped = 0;
+        double shift = 0;
+        double shiftedSum = 0;
+        double shiftedSquares = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int minX = band.getMinX();
+        int maxX = minX + band.getWidth();
+        for (int y = rowStart; y < rowEnd; y++) {
+            for (int x = minX; x < maxX; x++) {
+                double sample = band.getDouble(x, y);
+                if (sample != sample || isNoData(sample, noData)) {
+                    skipped++;
+                    continue;
+                }
+                if (count == 0) {
+                    shift = sample;
+                }
+                count++;
+                double shifted = sample - shift;
+                shiftedSum += shifted;
+                shiftedSquares += shifted * shifted;
+                if (sample < min) {
+                    min = sample;
+                }
+                if (sample > max) {
+                    max = sample;
+                }
+            }
+        }
+        if (count == 0) {
+            return new BandStatistics(0, skipped, 0, Double.NaN, 0, min, max);
+        }
+        double sum = shift * count + shiftedSum;
+        double mean = shift + shiftedSum / count;
+        double m2 = Math.max(0, shiftedSquares - shiftedSum * shiftedSum / count);
+        return new BandStatistics(count, skipped, sum, mean, m2, min, max);
+    }
+
+    static boolean isNoData(double sample, double[] noData) {
+        for (double value : noData) {
+            if (sample == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param other
+     * @return Statistics of both sample sets.
+     */
+    public BandStatistics merge(BandStatistics other) {
+        if (other.count == 0) {
+            return new BandStatistics(count, skippedCount + other.skippedCount, sum, mean, m2, min, max);
+        }
+        if (count == 0) {
+            return new BandStatistics(other.count, skippedCount + other.skippedCount, other.sum, other.mean, other.m2, other.min, other.max);
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        double mergedMean = mean + delta * other.count / total;
+        double mergedM2 = m2 + other.m2 + delta * delta * ((double) count * other.count / total);
+        return new BandStatistics(total, skippedCount + other.skippedCount, sum + other.sum, mergedMean, mergedM2, Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    /**
+     *
+     * @return Number of samples counted.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     *
+     * @return Number of NaN and no-data samples skipped.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     *
+     * @return Mean or NaN if no samples were counted.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     *
+     * @return Population standard deviation.
+     */
+    public double getStdDev() {
+        return count == 0 ? Double.NaN : Math.sqrt(m2 / count);
+    }
+
+    /**
+     *
+     * @return Sample standard deviation.
+     */
+    public double getSampleStdDev() {
+        return count < 2 ? Double.NaN : Math.sqrt(m2 / (count - 1));
+    }
+
+    /**
+     *
+     * @return Minimum or positive infinity if no samples were counted.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     *
+     * @return Maximum or negative infinity if no samples were counted.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     *
+     * @return Statistics in the record form (count,sum,mean,stddev,min,max).
+     */
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "(0,,,,,)";
+        }
+        return "(" + count + "," + sum + "," + mean + "," + getStdDev() + "," + min + "," + max + ")";
+    }
+
+}
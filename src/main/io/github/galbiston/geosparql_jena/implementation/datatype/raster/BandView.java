@@ -0,0 +1,500 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+
+/**
+ * Read only view of one band of a Raster.<br>
+ * For component sample models (pixel interleaved and banded) the samples are
+ * read straight from the primitive array of the DataBuffer using the pixel and
+ * scanline strides. Other sample models fall back to
+ * {@link Raster#getSampleDouble(int, int, int)}, which does not copy either.
+ * Coordinates are image coordinates, starting at {@link #getMinX()} and
+ * {@link #getMinY()}. Pixels outside of the band throw an
+ * IndexOutOfBoundsException, as the backing array may extend beyond them.
+ */
+public abstract class BandView {
+
+    protected final int minX;
+    protected final int minY;
+    protected final int width;
+    protected final int height;
+    protected final int dataType;
+
+    private BandView(Raster raster) {
+        this.minX = raster.getMinX();
+        this.minY = raster.getMinY();
+        this.width = raster.getWidth();
+        this.height = raster.getHeight();
+        this.dataType = raster.getSampleModel().getDataType();
+    }
+
+    /**
+     *
+     * @param raster
+     * @param band
+     * @return View of the band suited to the sample model and data type.
+     */
+    public static final BandView create(Raster raster, int band) {
+        SampleModel sampleModel = raster.getSampleModel();
+        if (!(sampleModel instanceof ComponentSampleModel)) {
+            return new GenericBand(raster, band);
+        }
+        ComponentSampleModel componentModel = (ComponentSampleModel) sampleModel;
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int bank = componentModel.getBankIndices()[band];
+        int pixelStride = componentModel.getPixelStride();
+        int scanlineStride = componentModel.getScanlineStride();
+        //Index of image pixel (0, 0) in the bank array.
+        int origin = dataBuffer.getOffsets()[bank] + componentModel.getBandOffsets()[band]
+                - raster.getSampleModelTranslateY() * scanlineStride
+                - raster.getSampleModelTranslateX() * pixelStride;
+        switch (dataBuffer.getDataType()) {
+            case DataBuffer.TYPE_BYTE:
+                return new ByteBand(raster, ((DataBufferByte) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            case DataBuffer.TYPE_USHORT:
+                return new UShortBand(raster, ((DataBufferUShort) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            case DataBuffer.TYPE_SHORT:
+                return new ShortBand(raster, ((DataBufferShort) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            case DataBuffer.TYPE_INT:
+                return new IntBand(raster, ((DataBufferInt) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            case DataBuffer.TYPE_FLOAT:
+                return new FloatBand(raster, ((DataBufferFloat) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            case DataBuffer.TYPE_DOUBLE:
+                return new DoubleBand(raster, ((DataBufferDouble) dataBuffer).getData(bank), origin, pixelStride, scanlineStride);
+            default:
+                return new GenericBand(raster, band);
+        }
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     *
+     * @return DataBuffer type of the samples.
+     */
+    public int getDataType() {
+        return dataType;
+    }
+
+    public boolean isFloatingPoint() {
+        return dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE;
+    }
+
+    /**
+     *
+     * @param x Column in image coordinates.
+     * @param y Row in image coordinates.
+     * @return Sample value.
+     * @throws IndexOutOfBoundsException if the pixel is outside of the band.
+     */
+    public abstract double getDouble(int x, int y);
+
+    /**
+     *
+     * @param x Column in image coordinates.
+     * @param y Row in image coordinates.
+     * @return Sample value, truncated for floating point data.
+     * @throws IndexOutOfBoundsException if the pixel is outside of the band.
+     */
+    public abstract int getInt(int x, int y);
+
+    /**
+     * Copies one row of samples into the provided array.
+     *
+     * @param y Row in image coordinates.
+     * @param row Array of at least getWidth() length.
+     */
+    public void readRow(int y, double[] row) {
+        readRow(minX, y, width, row);
+    }
+
+    /**
+     * Copies part of a row of samples into the provided array.
+     *
+     * @param x First column in image coordinates.
+     * @param y Row in image coordinates.
+     * @param length Number of samples.
+     * @param row Array of at least length length.
+     * @throws IndexOutOfBoundsException if a pixel is outside of the band.
+     */
+    public void readRow(int x, int y, int length, double[] row) {
+        checkBounds(x, y, length);
+        for (int i = 0; i < length; i++) {
+            row[i] = getDouble(x + i, y);
+        }
+    }
+
+    /**
+     *
+     * @return Backing primitive array or null if the samples are not read
+     * from an array.
+     */
+    public abstract Object getArray();
+
+    /**
+     *
+     * @return Distance between the samples of neighbouring pixels in the
+     * backing array.
+     */
+    public abstract int getPixelStride();
+
+    /**
+     *
+     * @return Distance between the samples of neighbouring rows in the backing
+     * array.
+     */
+    public abstract int getScanlineStride();
+
+    /**
+     *
+     * @param x Column in image coordinates.
+     * @param y Row in image coordinates.
+     * @return Index of the sample in the backing array.
+     * @throws IndexOutOfBoundsException if the pixel is outside of the band.
+     */
+    public abstract int getIndex(int x, int y);
+
+    /**
+     * Checks that a run of pixels of a row lies within the band.
+     *
+     * @param x First column in image coordinates.
+     * @param y Row in image coordinates.
+     * @param length Number of pixels.
+     * @throws IndexOutOfBoundsException if a pixel is outside of the band.
+     */
+    protected final void checkBounds(int x, int y, int length) {
+        if (x < minX || y < minY || y - minY >= height || length < 0 || x - minX > width - length) {
+            throw new IndexOutOfBoundsException("Pixels (" + x + ", " + y + ") to (" + (x + length - 1) + ", " + y + ") are outside of the band: "
+                    + minX + ", " + minY + " to " + (minX + width - 1) + ", " + (minY + height - 1));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + "width=" + width + ", height=" + height + ", dataType=" + dataType + '}';
+    }
+
+    private static abstract class ArrayBand extends BandView {
+
+        protected final int origin;
+        protected final int pixelStride;
+        protected final int scanlineStride;
+
+        private ArrayBand(Raster raster, int origin, int pixelStride, int scanlineStride) {
+            super(raster);
+            this.origin = origin;
+            this.pixelStride = pixelStride;
+            this.scanlineStride = scanlineStride;
+        }
+
+        @Override
+        public final int getIndex(int x, int y) {
+            checkBounds(x, y, 1);
+            return origin + y * scanlineStride + x * pixelStride;
+        }
+
+        /**
+         *
+         * @param x First column in image coordinates.
+         * @param y Row in image coordinates.
+         * @param length Number of pixels.
+         * @return Index of the first sample of the run in the backing array.
+         */
+        protected final int getRowIndex(int x, int y, int length) {
+            checkBounds(x, y, length);
+            return origin + y * scanlineStride + x * pixelStride;
+        }
+
+        @Override
+        public final int getPixelStride() {
+            return pixelStride;
+        }
+
+        @Override
+        public final int getScanlineStride() {
+            return scanlineStride;
+        }
+    }
+
+    private static final class ByteBand extends ArrayBand {
+
+        private final byte[] data;
+
+        private ByteBand(Raster raster, byte[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)] & 0xFF;
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return data[getIndex(x, y)] & 0xFF;
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index] & 0xFF;
+            }
+        }
+    }
+
+    private static final class UShortBand extends ArrayBand {
+
+        private final short[] data;
+
+        private UShortBand(Raster raster, short[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)] & 0xFFFF;
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return data[getIndex(x, y)] & 0xFFFF;
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index] & 0xFFFF;
+            }
+        }
+    }
+
+    private static final class ShortBand extends ArrayBand {
+
+        private final short[] data;
+
+        private ShortBand(Raster raster, short[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index];
+            }
+        }
+    }
+
+    private static final class IntBand extends ArrayBand {
+
+        private final int[] data;
+
+        private IntBand(Raster raster, int[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index];
+            }
+        }
+    }
+
+    private static final class FloatBand extends ArrayBand {
+
+        private final float[] data;
+
+        private FloatBand(Raster raster, float[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return (int) data[getIndex(x, y)];
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index];
+            }
+        }
+    }
+
+    private static final class DoubleBand extends ArrayBand {
+
+        private final double[] data;
+
+        private DoubleBand(Raster raster, double[] data, int origin, int pixelStride, int scanlineStride) {
+            super(raster, origin, pixelStride, scanlineStride);
+            this.data = data;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return data[getIndex(x, y)];
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return (int) data[getIndex(x, y)];
+        }
+
+        @Override
+        public Object getArray() {
+            return data;
+        }
+
+        @Override
+        public void readRow(int x, int y, int length, double[] row) {
+            int index = getRowIndex(x, y, length);
+            for (int i = 0; i < length; i++, index += pixelStride) {
+                row[i] = data[index];
+            }
+        }
+    }
+
+    private static final class GenericBand extends BandView {
+
+        private final Raster raster;
+        private final int band;
+
+        private GenericBand(Raster raster, int band) {
+            super(raster);
+            this.raster = raster;
+            this.band = band;
+        }
+
+        @Override
+        public double getDouble(int x, int y) {
+            return raster.getSampleDouble(x, y, band);
+        }
+
+        @Override
+        public int getInt(int x, int y) {
+            return raster.getSample(x, y, band);
+        }
+
+        @Override
+        public Object getArray() {
+            return null;
+        }
+
+        @Override
+        public int getPixelStride() {
+            return 1;
+        }
+
+        @Override
+        public int getScanlineStride() {
+            return width;
+        }
+
+        @Override
+        public int getIndex(int x, int y) {
+            checkBounds(x, y, 1);
+            return (y - minY) * width + (x - minX);
+        }
+    }
+
+}
@@ -40,17 +40,26 @@ import io.github.galbiston.geosparql_jena.implementation.registry.SRSRegistry;
 import io.github.galbiston.geosparql_jena.implementation.registry.UnitsRegistry;
 import io.github.galbiston.geosparql_jena.implementation.vocabulary.SRS_URI;
 import io.github.galbiston.geosparql_jena.implementation.vocabulary.Unit_URI;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.DataBuffer;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.nodevalue.NodeValueNode;
 import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridGeometry;
 import org.apache.sis.geometry.DirectPosition2D;
+import org.geotoolkit.coverage.wkb.WKBRasterConstants;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -70,6 +79,7 @@ import org.locationtech.jts.geom.util.AffineTransformation;
 import org.opengis.geometry.DirectPosition;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.PixelInCell;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
@@ -84,14 +94,21 @@ public class CoverageWrapper extends SpatialWrapper {
 
     private final DimensionInfo dimensionInfo;
     private final SRSInfo srsInfo;
-    private final GridCoverage xyGeometry;
-    private final GridCoverage parsingGeometry;
+    private volatile GridCoverage xyGeometry;
+    private volatile GridCoverage parsingGeometry;
+    private final WKBRasterHeader rasterHeader;
+    private Supplier<GridCoverage> coverageLoader;
+    private volatile RasterExpression expression;
+    private Object pendingKey;
     private PreparedGeometry preparedGeometry;
     private Envelope envelope;
     private GridCoverage translateXYGeometry;
     private final String geometryDatatypeURI;
     private RasterDataType geometryDatatype;
     private String lexicalForm;
+    private boolean retainLexicalForm = true;
+    private PixelAccess pixelAccess;
+    private RasterStatistics rasterStatistics;
     private String utmURI = null;
     private Double latitude = null;
 
@@ -123,9 +140,30 @@ public class CoverageWrapper extends SpatialWrapper {
     }
 
     private CoverageWrapper(GridCoverage parsingGeometry, GridCoverage xyGeometry, String srsURI, String geometryDatatypeURI, DimensionInfo dimensionInfo, String lexicalForm) {
+        this(parsingGeometry, xyGeometry, null, null, srsURI, geometryDatatypeURI, dimensionInfo, lexicalForm);
+    }
+
+    /**
+     * Raster whose pixel data are decoded on first access. Metadata are
+     * answered from the header until then.
+     *
+     * @param rasterHeader Header and band descriptors of the raster.
+     * @param coverageLoader Decodes the coverage, called at most once.
+     * @param srsURI
+     * @param geometryDatatypeURI
+     * @param lexicalForm Literal the raster is read from.
+     */
+    public CoverageWrapper(WKBRasterHeader rasterHeader, Supplier<GridCoverage> coverageLoader, String srsURI, String geometryDatatypeURI, String lexicalForm) {
+        this(null, null, rasterHeader, coverageLoader, srsURI, geometryDatatypeURI, DimensionInfo.XY_POINT, lexicalForm);
+        this.pendingKey = lexicalForm;
+    }
+
+    private CoverageWrapper(GridCoverage parsingGeometry, GridCoverage xyGeometry, WKBRasterHeader rasterHeader, Supplier<GridCoverage> coverageLoader, String srsURI, String geometryDatatypeURI, DimensionInfo dimensionInfo, String lexicalForm) {
 
         this.parsingGeometry = parsingGeometry;
         this.xyGeometry = xyGeometry;
+        this.rasterHeader = rasterHeader;
+        this.coverageLoader = coverageLoader;
         this.preparedGeometry = null; //Initialised when required by spatial relations checkPreparedGeometry.
         this.envelope = null; //Initialised when required by getEnvelope().
         this.translateXYGeometry = null; //Initialised when required by translateGeometry().
@@ -185,8 +223,14 @@ public class CoverageWrapper extends SpatialWrapper {
      */
     public CoverageWrapper(CoverageWrapper geometryWrapper) {
 
-        this.xyGeometry = geometryWrapper.xyGeometry;
-        this.parsingGeometry = geometryWrapper.parsingGeometry;
+        synchronized (geometryWrapper) {
+            this.xyGeometry = geometryWrapper.xyGeometry;
+            this.parsingGeometry = geometryWrapper.parsingGeometry;
+            this.coverageLoader = geometryWrapper.coverageLoader;
+            this.expression = geometryWrapper.expression;
+        }
+        this.pendingKey = geometryWrapper.pendingKey;
+        this.rasterHeader = geometryWrapper.rasterHeader;
         this.preparedGeometry = geometryWrapper.preparedGeometry;
         this.envelope = geometryWrapper.envelope;
         this.translateXYGeometry = geometryWrapper.translateXYGeometry;
@@ -198,6 +242,9 @@ public class CoverageWrapper extends SpatialWrapper {
         this.srsInfo = geometryWrapper.srsInfo;
         this.dimensionInfo = geometryWrapper.dimensionInfo;
         this.lexicalForm = geometryWrapper.lexicalForm;
+        this.retainLexicalForm = geometryWrapper.retainLexicalForm;
+        this.pixelAccess = geometryWrapper.pixelAccess;
+        this.rasterStatistics = geometryWrapper.rasterStatistics;
     }
 
     /**
@@ -280,7 +327,7 @@ public class CoverageWrapper extends SpatialWrapper {
      * @return Geometry with coordinates as originally provided.
      */
     public GridCoverage getParsingGeometry() {
-        return parsingGeometry;
+        return loadCoverage();
     }
     
     /**
@@ -288,7 +335,7 @@ public class CoverageWrapper extends SpatialWrapper {
     * @return Geometry with coordinates as originally provided.
     */
    public GridCoverage getGridGeometry() {
-       return parsingGeometry;
+       return loadCoverage();
    }
    
    /**
@@ -296,9 +343,204 @@ public class CoverageWrapper extends SpatialWrapper {
    * @return Geometry with coordinates as originally provided.
    */
   public GridCoverage getXYGeometry() {
-      return parsingGeometry;
+      return loadCoverage();
   }
 
+    /**
+     * Decodes the pixel data of a raster created from its header.
+     *
+     * @return The coverage.
+     */
+    private GridCoverage loadCoverage() {
+        GridCoverage coverage = parsingGeometry;
+        if (coverage == null) {
+            synchronized (this) {
+                coverage = parsingGeometry;
+                if (coverage == null) {
+                    coverage = coverageLoader.get();
+                    xyGeometry = coverage;
+                    parsingGeometry = coverage;
+                    coverageLoader = null;
+                    expression = null;
+                }
+            }
+        }
+        return coverage;
+    }
+
+    /**
+     *
+     * @return Whether the pixel data have been decoded.
+     */
+    public boolean isCoverageLoaded() {
+        return parsingGeometry != null;
+    }
+
+    /**
+     *
+     * @return Map algebra expression of a raster that has not been
+     * materialised yet, otherwise null.
+     */
+    public RasterExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     *
+     * @return Header of a raster created from its header, otherwise null.
+     */
+    public WKBRasterHeader getRasterHeader() {
+        return rasterHeader;
+    }
+
+    /**
+     *
+     * @return Width of the raster in pixels.
+     */
+    public int getWidth() {
+        if (rasterHeader != null) {
+            return rasterHeader.getWidth();
+        }
+        RasterExpression pending = expression;
+        if (pending != null) {
+            return pending.getWidth();
+        }
+        return (int) getXYGeometry().getGridGeometry().getExtent().getSize(0);
+    }
+
+    /**
+     *
+     * @return Height of the raster in pixels.
+     */
+    public int getHeight() {
+        if (rasterHeader != null) {
+            return rasterHeader.getHeight();
+        }
+        RasterExpression pending = expression;
+        if (pending != null) {
+            return pending.getHeight();
+        }
+        return (int) getXYGeometry().getGridGeometry().getExtent().getSize(1);
+    }
+
+    /**
+     *
+     * @return Number of bands.
+     */
+    public int getNumBands() {
+        if (rasterHeader != null) {
+            return rasterHeader.getNumBands();
+        }
+        RasterExpression pending = expression;
+        if (pending != null) {
+            return pending.getNumBands();
+        }
+        return getXYGeometry().getSampleDimensions().size();
+    }
+
+    /**
+     *
+     * @return Transform from the pixel centers to the CRS.
+     */
+    public AffineTransform getGridToCRS() {
+        if (rasterHeader != null) {
+            return rasterHeader.getGridToCRS();
+        }
+        return (AffineTransform) getGrid().getGridToCRS(PixelInCell.CELL_CENTER);
+    }
+
+    /**
+     *
+     * @return DataBuffer type of the samples, TYPE_UNDEFINED if it is not
+     * known without rendering the coverage.
+     */
+    public int getDataType() {
+        if (rasterHeader != null) {
+            return rasterHeader.getDataBufferType();
+        }
+        RasterExpression pending = expression;
+        if (pending != null) {
+            return pending.getDataType();
+        }
+        PixelAccess access = pixelAccess;
+        if (access != null && access.getNumBands() > 0) {
+            return access.getBand(0).getDataType();
+        }
+        return DataBuffer.TYPE_UNDEFINED;
+    }
+
+    /**
+     *
+     * @param band
+     * @return PostGIS pixel type of the band, e.g. 32BF.
+     */
+    public String getBandPixelType(int band) {
+        if (rasterHeader != null) {
+            return WKBRasterConstants.getPixelTypeName(rasterHeader.getPixelType(band));
+        }
+        return WKBRasterConstants.getPixelTypeName(WKBRasterConstants.getPixelType(getPixelAccess().getBand(band).getDataType()));
+    }
+
+    /**
+     *
+     * @return Envelope of the raster cells in the CRS.
+     */
+    public Envelope getEnvelope() {
+        if (envelope == null) {
+            if (rasterHeader != null) {
+                Rectangle2D bounds = rasterHeader.getEnvelope();
+                envelope = new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+            } else {
+                org.opengis.geometry.Envelope bounds = getGrid().getEnvelope();
+                envelope = new Envelope(bounds.getMinimum(0), bounds.getMaximum(0), bounds.getMinimum(1), bounds.getMaximum(1));
+            }
+        }
+        return envelope;
+    }
+
+    /**
+     *
+     * @return Grid geometry, from the expression of a raster that has not
+     * been materialised.
+     */
+    private GridGeometry getGrid() {
+        RasterExpression pending = expression;
+        if (pending != null) {
+            return pending.getGridGeometry();
+        }
+        return getXYGeometry().getGridGeometry();
+    }
+
+    /**
+     * Pixel access to the coverage. The coverage is rendered on first use and
+     * the rendered image is shared by all later calls.
+     *
+     * @return PixelAccess of the coverage.
+     */
+    public PixelAccess getPixelAccess() {
+        PixelAccess access = pixelAccess;
+        if (access == null) {
+            access = new PixelAccess(getXYGeometry());
+            pixelAccess = access;
+        }
+        return access;
+    }
+
+    /**
+     * Band statistics of the coverage, kept with the wrapper so they are
+     * computed at most once per literal.
+     *
+     * @return RasterStatistics of the coverage.
+     */
+    public RasterStatistics getRasterStatistics() {
+        RasterStatistics statistics = rasterStatistics;
+        if (statistics == null) {
+            statistics = new RasterStatistics(getXYGeometry(), getPixelAccess());
+            rasterStatistics = statistics;
+        }
+        return statistics;
+    }
+
    
 
     /**
@@ -359,12 +601,17 @@ public class CoverageWrapper extends SpatialWrapper {
     
 
     /**
+     * A raster without a lexical form is held as the value of the literal and
+     * only serialised when the lexical form is requested, so a result passed
+     * on to another raster function is neither written nor parsed again.
      *
      * @return GeometryWrapper as NodeValue
      */
     public NodeValue asNodeValue() throws DatatypeFormatException {
-        Literal literal = asLiteral();
-        return NodeValue.makeNode(literal.getLexicalForm(), literal.getDatatype());
+        if (lexicalForm != null) {
+            return NodeValue.makeNode(lexicalForm, getRasterDatatype());
+        }
+        return new NodeValueNode(NodeFactory.createLiteralByValue(this, getRasterDatatype()));
     }
 
     /**
@@ -387,10 +634,25 @@ public class CoverageWrapper extends SpatialWrapper {
         }
 
         Literal literal = asLiteral(datatype);
-        lexicalForm = literal.getLexicalForm();
+        if (retainLexicalForm) {
+            lexicalForm = literal.getLexicalForm();
+        }
         return literal;
     }
 
+    /**
+     * Drops the lexical form so it is re-serialised on demand and not retained.
+     */
+    @Override
+    public void releaseLexicalForm() {
+        if (pendingKey != null && pendingKey == lexicalForm) {
+            //compared by identity from now on, so the literal is not retained
+            pendingKey = rasterHeader;
+        }
+        lexicalForm = null;
+        retainLexicalForm = false;
+    }
+
     /**
      *
      * @param outputGeometryDatatypeURI
@@ -501,6 +763,11 @@ public class CoverageWrapper extends SpatialWrapper {
         if (!geometryLiteral.isLiteral()) {
             throw new DatatypeFormatException("Not a Literal: " + geometryLiteral);
         }
+        //Rasters created by functions are held as the literal value.
+        Object value = geometryLiteral.getLiteralValue();
+        if (value instanceof CoverageWrapper) {
+            return (CoverageWrapper) value;
+        }
 
         String datatypeURI = geometryLiteral.getLiteralDatatypeURI();
         String lexicalForm = geometryLiteral.getLiteralLexicalForm();
@@ -613,15 +880,38 @@ public class CoverageWrapper extends SpatialWrapper {
         return new CoverageWrapper(xyGeometry, xyGeometry, srsURI, geometryDatatypeURI, dimsInfo);
     }
 
+    /**
+     * Create a raster computed by a map algebra expression. The expression is
+     * materialised on first access to the coverage, until then it can be
+     * extended by further map algebra functions.
+     *
+     * @param expression
+     * @param srsURI
+     * @param geometryDatatypeURI
+     * @return CoverageWrapper with SRS URI and raster datatype URI.
+     */
+    public static final CoverageWrapper createCoverage(RasterExpression expression, String srsURI, String geometryDatatypeURI) {
+        CoverageWrapper wrapper = new CoverageWrapper(null, null, null, expression::materialise, srsURI, geometryDatatypeURI, DimensionInfo.XY_POINT, null);
+        wrapper.expression = expression;
+        wrapper.pendingKey = expression;
+        return wrapper;
+    }
+
 
 
-    
+    /**
+     * Rasters read from their header or created with their pixels pending are
+     * hashed and compared by the lexical form or expression they are computed
+     * from, so that neither wrapping them in a node nor caching them decodes
+     * or computes the pixels. They are only equal to rasters computed from
+     * the same.
+     */
     @Override
     public int hashCode() {
         int hash = 3;
         hash = 23 * hash + Objects.hashCode(this.dimensionInfo);
         hash = 23 * hash + Objects.hashCode(this.srsInfo);
-        hash = 23 * hash + Objects.hashCode(this.xyGeometry);
+        hash = 23 * hash + (pendingKey != null ? pendingKey.hashCode() : Objects.hashCode(getXYGeometry()));
         hash = 23 * hash + Objects.hashCode(this.geometryDatatypeURI);
         return hash;
     }
@@ -647,7 +937,10 @@ public class CoverageWrapper extends SpatialWrapper {
         if (!Objects.equals(this.srsInfo, other.srsInfo)) {
             return false;
         }
-        return Objects.equals(this.xyGeometry, other.xyGeometry);
+        if (pendingKey != null || other.pendingKey != null) {
+            return Objects.equals(pendingKey, other.pendingKey);
+        }
+        return Objects.equals(getXYGeometry(), other.getXYGeometry());
     }
 
     @Override
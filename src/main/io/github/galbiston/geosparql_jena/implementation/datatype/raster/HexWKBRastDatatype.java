@@ -3,12 +3,13 @@ package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
+import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.sis.coverage.grid.GridCoverage;
 import org.apache.sis.referencing.CRS;
 import org.apache.sis.referencing.crs.DefaultGeographicCRS;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
 import org.geotoolkit.coverage.wkb.WKBRasterReader;
 import org.geotoolkit.coverage.wkb.WKBRasterWriter;
-import org.locationtech.jts.io.WKBReader;
 import org.locationtech.jts.io.WKBWriter;
 import org.opengis.referencing.crs.CRSAuthorityFactory;
 import org.opengis.util.FactoryException;
@@ -44,22 +45,29 @@ public class HexWKBRastDatatype extends RasterDataType {
         }
 	}
 
+	/**
+	 * Reads the header and band descriptors only. The pixel data are decoded
+	 * on first access to the coverage, so metadata functions do not decode
+	 * the bands.
+	 */
 	@Override
 	public CoverageWrapper read(String geometryLiteral) {
+		WKBRasterHeader header;
+		try {
+			header = WKBRasterHeader.read(geometryLiteral);
+		} catch (IOException e) {
+			throw new DatatypeFormatException(e.getMessage() + " - Illegal Raster Literal: " + geometryLiteral);
+		}
+		return new CoverageWrapper(header, () -> readCoverage(geometryLiteral), "", URI, geometryLiteral);
+	}
+
+	private static GridCoverage readCoverage(String geometryLiteral) {
 		WKBRasterReader reader2=new WKBRasterReader();
-		GridCoverage coverage;
 		try {
-			//BufferedImage img=reader2.read(WKBReader.hexToBytes(geometryLiteral));
-			//CRS.forCode("EPSG:4326").getCoordinateSystem().
-			coverage = reader2.readCoverage(WKBReader.hexToBytes(geometryLiteral),null);
-			//System.out.println(coverage);
-			return new CoverageWrapper(coverage, URI);
+			return reader2.readCoverage(WKBRasterReader.hexToByteBuffer(geometryLiteral),null);
 		} catch (IOException | FactoryException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-			throw new RuntimeException(e.getMessage());
+			throw new DatatypeFormatException(e.getMessage() + " - Illegal Raster Literal: " + geometryLiteral);
 		}
-
 	}
 	
     @Override
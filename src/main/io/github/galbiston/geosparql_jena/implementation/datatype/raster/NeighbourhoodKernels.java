@@ -0,0 +1,296 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.util.Arrays;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation.Kernel;
+
+/**
+ * Kernels of the terrain and focal filter functions.<br>
+ * The 3 x 3 terrain kernels name the window as
+ * <pre>
+ * | z1 z2 z3 |
+ * | z4 z5 z6 |
+ * | z7 z8 z9 |
+ * </pre>
+ * with north up. The gradients follow Horn: dx is east minus west, dy south
+ * minus north, each divided by 8 cell sizes.
+ */
+public final class NeighbourhoodKernels {
+
+    private static final double DEGREES = 180 / Math.PI;
+
+    private NeighbourhoodKernels() {
+    }
+
+    /**
+     *
+     * @param cellX Width of a cell.
+     * @param cellY Height of a cell.
+     * @param zFactor Ratio of the elevation unit to the cell size unit.
+     * @return Slope in degrees.
+     */
+    public static Kernel slope(double cellX, double cellY, double zFactor) {
+        double scaleX = zFactor / (8 * cellX);
+        double scaleY = zFactor / (8 * cellY);
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double dx = ((a[x + 2] + 2 * b[x + 2] + c[x + 2]) - (a[x] + 2 * b[x] + c[x])) * scaleX;
+                double dy = ((c[x] + 2 * c[x + 1] + c[x + 2]) - (a[x] + 2 * a[x + 1] + a[x + 2])) * scaleY;
+                out[x] = Math.atan(Math.sqrt(dx * dx + dy * dy)) * DEGREES;
+            }
+        });
+    }
+
+    /**
+     *
+     * @param cellX Width of a cell.
+     * @param cellY Height of a cell.
+     * @return Aspect in degrees clockwise from north the slope faces, -1 for
+     * flat cells.
+     */
+    public static Kernel aspect(double cellX, double cellY) {
+        double scaleX = 1 / (8 * cellX);
+        double scaleY = 1 / (8 * cellY);
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double dx = ((a[x + 2] + 2 * b[x + 2] + c[x + 2]) - (a[x] + 2 * b[x] + c[x])) * scaleX;
+                double dy = ((c[x] + 2 * c[x + 1] + c[x + 2]) - (a[x] + 2 * a[x + 1] + a[x + 2])) * scaleY;
+                double angle = Math.atan2(dy, -dx) * DEGREES;
+                out[x] = dx == 0 && dy == 0 ? -1 : angle > 90 ? 450 - angle : 90 - angle;
+            }
+        });
+    }
+
+    /**
+     *
+     * @param cellX Width of a cell.
+     * @param cellY Height of a cell.
+     * @param azimuth Direction of the light in degrees clockwise from north.
+     * @param altitude Angle of the light above the horizon in degrees.
+     * @param zFactor Ratio of the elevation unit to the cell size unit.
+     * @return Illumination from 0 to 255.
+     */
+    public static Kernel hillShade(double cellX, double cellY, double azimuth, double altitude, double zFactor) {
+        double scaleX = zFactor / (8 * cellX);
+        double scaleY = zFactor / (8 * cellY);
+        double east = Math.sin(Math.toRadians(azimuth)) * Math.cos(Math.toRadians(altitude));
+        double north = Math.cos(Math.toRadians(azimuth)) * Math.cos(Math.toRadians(altitude));
+        double up = Math.sin(Math.toRadians(altitude));
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double dx = ((a[x + 2] + 2 * b[x + 2] + c[x + 2]) - (a[x] + 2 * b[x] + c[x])) * scaleX;
+                double dy = ((c[x] + 2 * c[x + 1] + c[x + 2]) - (a[x] + 2 * a[x + 1] + a[x + 2])) * scaleY;
+                //the normal is (-dz/deast, -dz/dnorth, 1) with dz/dnorth = -dy
+                double cosine = (up - dx * east + dy * north) / Math.sqrt(1 + dx * dx + dy * dy);
+                out[x] = 255 * Math.max(0, cosine);
+            }
+        });
+    }
+
+    /**
+     * Curvature after Zevenbergen and Thorne, the second derivative of the
+     * surface: -2 (D + E) * 100 with D = ((z4 + z6) / 2 - z5) / L&sup2; and E
+     * = ((z2 + z8) / 2 - z5) / L&sup2;. Positive values are convex.
+     *
+     * @param cellX Width of a cell.
+     * @param cellY Height of a cell.
+     * @param zFactor Ratio of the elevation unit to the cell size unit.
+     * @return Curvature in hundredths of a z unit.
+     */
+    public static Kernel curvature(double cellX, double cellY, double zFactor) {
+        double scaleX = -200 * zFactor / (cellX * cellX);
+        double scaleY = -200 * zFactor / (cellY * cellY);
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double z5 = b[x + 1];
+                out[x] = ((b[x] + b[x + 2]) / 2 - z5) * scaleX + ((a[x + 1] + c[x + 1]) / 2 - z5) * scaleY;
+            }
+        });
+    }
+
+    /**
+     *
+     * @return Largest difference of two cells of the window.
+     */
+    public static Kernel roughness() {
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double max = Math.max(Math.max(Math.max(a[x], a[x + 1]), Math.max(a[x + 2], b[x])),
+                        Math.max(Math.max(b[x + 1], b[x + 2]), Math.max(Math.max(c[x], c[x + 1]), c[x + 2])));
+                double min = Math.min(Math.min(Math.min(a[x], a[x + 1]), Math.min(a[x + 2], b[x])),
+                        Math.min(Math.min(b[x + 1], b[x + 2]), Math.min(Math.min(c[x], c[x + 1]), c[x + 2])));
+                out[x] = max - min;
+            }
+        });
+    }
+
+    /**
+     *
+     * @return Terrain ruggedness index, the mean absolute difference of the
+     * centre and its 8 neighbours.
+     */
+    public static Kernel terrainRuggednessIndex() {
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                double z5 = b[x + 1];
+                out[x] = (Math.abs(a[x] - z5) + Math.abs(a[x + 1] - z5) + Math.abs(a[x + 2] - z5)
+                        + Math.abs(b[x] - z5) + Math.abs(b[x + 2] - z5)
+                        + Math.abs(c[x] - z5) + Math.abs(c[x + 1] - z5) + Math.abs(c[x + 2] - z5)) / 8;
+            }
+        });
+    }
+
+    /**
+     *
+     * @return Topographic position index, the difference of the centre and
+     * the mean of its 8 neighbours.
+     */
+    public static Kernel topographicPositionIndex() {
+        return new Kernel3x3((a, b, c, start, end, out) -> {
+            for (int x = start; x < end; x++) {
+                out[x] = b[x + 1] - (a[x] + a[x + 1] + a[x + 2] + b[x] + b[x + 2] + c[x] + c[x + 1] + c[x + 2]) / 8;
+            }
+        });
+    }
+
+    /**
+     *
+     * @param radius
+     * @return Minimum of the window.
+     */
+    public static Kernel min(int radius) {
+        return new Focal(radius) {
+            @Override
+            public void compute(double[][] rows, int start, int end, double[] out) {
+                Arrays.fill(out, start, end, Double.POSITIVE_INFINITY);
+                for (double[] row : rows) {
+                    for (int d = 0; d <= 2 * radius; d++) {
+                        for (int x = start; x < end; x++) {
+                            out[x] = Math.min(out[x], row[x + d]);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     *
+     * @param radius
+     * @return Maximum of the window.
+     */
+    public static Kernel max(int radius) {
+        return new Focal(radius) {
+            @Override
+            public void compute(double[][] rows, int start, int end, double[] out) {
+                Arrays.fill(out, start, end, Double.NEGATIVE_INFINITY);
+                for (double[] row : rows) {
+                    for (int d = 0; d <= 2 * radius; d++) {
+                        for (int x = start; x < end; x++) {
+                            out[x] = Math.max(out[x], row[x + d]);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     *
+     * @param radius
+     * @return Median of the window.
+     */
+    public static Kernel median(int radius) {
+        int span = 2 * radius + 1;
+        ThreadLocal<double[]> values = ThreadLocal.withInitial(() -> new double[span * span]);
+        return new Focal(radius) {
+            @Override
+            public void compute(double[][] rows, int start, int end, double[] out) {
+                double[] window = values.get();
+                for (int x = start; x < end; x++) {
+                    int i = 0;
+                    for (double[] row : rows) {
+                        System.arraycopy(row, x, window, i, span);
+                        i += span;
+                    }
+                    Arrays.sort(window);
+                    out[x] = window[window.length / 2];
+                }
+            }
+        };
+    }
+
+    /**
+     * Kernel of a square window of any radius.
+     */
+    private abstract static class Focal implements Kernel {
+
+        private final int radius;
+
+        private Focal(int radius) {
+            if (radius < 1) {
+                throw new IllegalArgumentException("Radius must be positive: " + radius);
+            }
+            this.radius = radius;
+        }
+
+        @Override
+        public int getRadius() {
+            return radius;
+        }
+    }
+
+    private interface RowKernel {
+
+        /**
+         *
+         * @param a Row above.
+         * @param b Centre row.
+         * @param c Row below.
+         * @param start
+         * @param end
+         * @param out
+         */
+        void compute(double[] a, double[] b, double[] c, int start, int end, double[] out);
+    }
+
+    /**
+     * Kernel of a 3 x 3 window handing the three rows to a row loop.
+     */
+    private static final class Kernel3x3 implements Kernel {
+
+        private final RowKernel rowKernel;
+
+        private Kernel3x3(RowKernel rowKernel) {
+            this.rowKernel = rowKernel;
+        }
+
+        @Override
+        public int getRadius() {
+            return 1;
+        }
+
+        @Override
+        public void compute(double[][] rows, int start, int end, double[] out) {
+            rowKernel.compute(rows[0], rows[1], rows[2], start, end, out);
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.awt.image.DataBuffer;
+
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.Matrix;
+
+/**
+ * Computes a band from the square neighbourhood of each pixel.<br>
+ * The band is streamed through a rolling window of 2 * radius + 1 row
+ * buffers, so each source row is read once per tile. The rows are padded by
+ * the radius on both sides and the window is extended beyond the edges of the
+ * band by repeating the edge pixels.
+ * <p>
+ * No-data samples and NaN are replaced by the centre pixel of the window, the
+ * output of a no-data centre is the first no-data value of the band, or NaN.
+ * Kernels therefore only see windows without no-data: columns whose window is
+ * complete are handed to the kernel as a run of the row buffers, the others
+ * pixel by pixel from a copy of their window.
+ * <p>
+ * The rows are computed in tiles by {@link RasterTiles}.
+ */
+public final class NeighbourhoodOperation {
+
+    private NeighbourhoodOperation() {
+    }
+
+    /**
+     * Computation of output pixels from their neighbourhood.
+     */
+    public interface Kernel {
+
+        /**
+         *
+         * @return Number of pixels the neighbourhood extends from the centre
+         * in each direction, 1 for 3 x 3.
+         */
+        int getRadius();
+
+        /**
+         * Computes the output of a run of columns. The loops over the columns
+         * should be plain array arithmetic, so that the JIT can vectorise
+         * them.
+         *
+         * @param rows The 2 * radius + 1 rows of the window from top to
+         * bottom. The sample at column offset d of output column x is at index
+         * x + radius + d. The samples of the run are never NaN.
+         * @param start First output column, inclusive.
+         * @param end Last output column, exclusive.
+         * @param out Output row, written from start to end.
+         */
+        void compute(double[][] rows, int start, int end, double[] out);
+    }
+
+    /**
+     * Applies a kernel to bands of a raster.
+     *
+     * @param wrapper Source raster.
+     * @param bands Bands of the source, one output band each.
+     * @param kernel
+     * @param dataType DataBuffer type of the output.
+     * @param operator Name the timing is recorded under.
+     * @return Coverage on the grid of the source.
+     */
+    public static GridCoverage apply(CoverageWrapper wrapper, int[] bands, Kernel kernel, int dataType, String operator) {
+        return apply(wrapper.getXYGeometry(), wrapper.getPixelAccess(), wrapper.getRasterStatistics(), bands, kernel, dataType, operator);
+    }
+
+    /**
+     * Applies a kernel to bands of a coverage.
+     *
+     * @param coverage Source coverage.
+     * @param bands Bands of the source, one output band each.
+     * @param kernel
+     * @param dataType DataBuffer type of the output.
+     * @param operator Name the timing is recorded under.
+     * @return Coverage on the grid of the source.
+     */
+    public static GridCoverage apply(GridCoverage coverage, int[] bands, Kernel kernel, int dataType, String operator) {
+        PixelAccess pixelAccess = new PixelAccess(coverage);
+        return apply(coverage, pixelAccess, new RasterStatistics(coverage, pixelAccess), bands, kernel, dataType, operator);
+    }
+
+    private static GridCoverage apply(GridCoverage coverage, PixelAccess pixelAccess, RasterStatistics statistics, int[] bands, Kernel kernel, int dataType, String operator) {
+        int width = pixelAccess.getWidth();
+        int height = pixelAccess.getHeight();
+        DataBuffer buffer = RasterExpression.createDataBuffer(dataType, width * height, bands.length);
+        Number background = null;
+        for (int i = 0; i < bands.length; i++) {
+            BandView band = pixelAccess.getBand(bands[i]);
+            double[] noData = statistics.getNoDataValues(bands[i], true);
+            double fill = noData.length > 0 ? noData[0] : Double.NaN;
+            if (i == 0 && noData.length > 0) {
+                background = fill;
+            }
+            int bank = i;
+            RasterTiles.run(operator, width, height, (rowStart, rowEnd) -> computeRows(band, noData, fill, kernel, buffer, bank, rowStart, rowEnd));
+        }
+        return RasterExpression.createCoverage(coverage.getGridGeometry(), buffer, background);
+    }
+
+    /**
+     *
+     * @param grid
+     * @return Width and height of a pixel in units of the CRS, 1 if the grid
+     * has no linear grid to CRS transform.
+     */
+    public static double[] getCellSize(GridGeometry grid) {
+        if (grid.isDefined(GridGeometry.GRID_TO_CRS)) {
+            Matrix matrix = MathTransforms.getMatrix(grid.getGridToCRS(PixelInCell.CELL_CENTER));
+            if (matrix != null && matrix.getNumRow() == 3 && matrix.getNumCol() == 3) {
+                double cellX = Math.hypot(matrix.getElement(0, 0), matrix.getElement(1, 0));
+                double cellY = Math.hypot(matrix.getElement(0, 1), matrix.getElement(1, 1));
+                if (cellX > 0 && cellY > 0) {
+                    return new double[]{cellX, cellY};
+                }
+            }
+        }
+        return new double[]{1, 1};
+    }
+
+    private static void computeRows(BandView band, double[] noData, double fill, Kernel kernel, DataBuffer buffer, int bank, int rowStart, int rowEnd) {
+        int width = band.getWidth();
+        int radius = kernel.getRadius();
+        int span = 2 * radius + 1;
+        double[][] window = new double[span][width + 2 * radius];
+        boolean[] incomplete = new boolean[span];
+        double[] line = new double[width];
+        for (int k = 0; k < span; k++) {
+            incomplete[k] = readRow(band, noData, rowStart - radius + k, radius, line, window[k]);
+        }
+        double[] out = new double[width];
+        int[] columnNaN = new int[width + 2 * radius];
+        double[][] scratch = new double[span][span];
+        double[] single = new double[1];
+        for (int y = rowStart; y < rowEnd; y++) {
+            if (y > rowStart) {
+                double[] first = window[0];
+                System.arraycopy(window, 1, window, 0, span - 1);
+                System.arraycopy(incomplete, 1, incomplete, 0, span - 1);
+                window[span - 1] = first;
+                incomplete[span - 1] = readRow(band, noData, y + radius, radius, line, first);
+            }
+            boolean complete = true;
+            for (boolean rowIncomplete : incomplete) {
+                complete &= !rowIncomplete;
+            }
+            if (complete) {
+                kernel.compute(window, 0, width, out);
+            } else {
+                computeIncomplete(window, radius, kernel, columnNaN, scratch, single, fill, out);
+            }
+            RasterExpression.store(buffer, bank, y * width, out, width);
+        }
+    }
+
+    /**
+     * Reads a row into a window buffer, padding it by the radius.
+     *
+     * @return Whether the row holds NaN after mapping no-data to NaN.
+     */
+    private static boolean readRow(BandView band, double[] noData, int y, int radius, double[] line, double[] padded) {
+        int width = line.length;
+        if (width == 0) {
+            return false;
+        }
+        int row = Math.min(band.getHeight() - 1, Math.max(0, y));
+        band.readRow(band.getMinX(), band.getMinY() + row, width, line);
+        boolean hasNaN = false;
+        for (int x = 0; x < width; x++) {
+            double sample = line[x];
+            if (sample != sample || BandStatistics.isNoData(sample, noData)) {
+                line[x] = Double.NaN;
+                hasNaN = true;
+            }
+        }
+        System.arraycopy(line, 0, padded, radius, width);
+        for (int i = 0; i < radius; i++) {
+            padded[i] = line[0];
+            padded[radius + width + i] = line[width - 1];
+        }
+        return hasNaN;
+    }
+
+    /**
+     * Computes a row whose window holds NaN. Runs of columns without NaN in
+     * their window are computed by the kernel on the row buffers, the other
+     * columns one by one on a copy with NaN replaced by the centre.
+     */
+    private static void computeIncomplete(double[][] window, int radius, Kernel kernel, int[] columnNaN, double[][] scratch, double[] single, double fill, double[] out) {
+        int span = 2 * radius + 1;
+        int width = out.length;
+        for (int i = 0; i < columnNaN.length; i++) {
+            int count = 0;
+            for (double[] row : window) {
+                if (row[i] != row[i]) {
+                    count++;
+                }
+            }
+            columnNaN[i] = count;
+        }
+        //number of NaN in the columns of the window of x, updated as the window slides
+        int windowNaN = 0;
+        for (int i = 0; i < span - 1; i++) {
+            windowNaN += columnNaN[i];
+        }
+        int runStart = -1;
+        for (int x = 0; x < width; x++) {
+            windowNaN += columnNaN[x + span - 1];
+            if (windowNaN == 0) {
+                if (runStart < 0) {
+                    runStart = x;
+                }
+            } else {
+                if (runStart >= 0) {
+                    kernel.compute(window, runStart, x, out);
+                    runStart = -1;
+                }
+                double centre = window[radius][x + radius];
+                if (centre != centre) {
+                    out[x] = fill;
+                } else {
+                    for (int k = 0; k < span; k++) {
+                        double[] row = window[k];
+                        double[] copy = scratch[k];
+                        for (int d = 0; d < span; d++) {
+                            double sample = row[x + d];
+                            copy[d] = sample != sample ? centre : sample;
+                        }
+                    }
+                    kernel.compute(scratch, 0, 1, single);
+                    out[x] = single[0];
+                }
+            }
+            windowNaN -= columnNaN[x];
+        }
+        if (runStart >= 0) {
+            kernel.compute(window, runStart, width, out);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+
+import org.apache.sis.coverage.grid.GridCoverage;
+
+/**
+ * Pixel access to a coverage rendered exactly once.<br>
+ * Single tile images, the common case for WKB rasters, are read directly from
+ * their tile without copying. Multi tile images are copied once into a single
+ * Raster. Samples are then read through typed {@link BandView}s over the
+ * underlying DataBuffer arrays, so reading pixels allocates nothing.
+ */
+public class PixelAccess {
+
+    private final RenderedImage image;
+    private final Raster raster;
+    private final BandView[] bands;
+
+    /**
+     *
+     * @param coverage
+     */
+    public PixelAccess(GridCoverage coverage) {
+        this(coverage.render(null));
+    }
+
+    /**
+     *
+     * @param image
+     */
+    public PixelAccess(RenderedImage image) {
+        this.image = image;
+        if (image.getNumXTiles() == 1 && image.getNumYTiles() == 1) {
+            this.raster = image.getTile(image.getMinTileX(), image.getMinTileY());
+        } else {
+            this.raster = image.getData();
+        }
+        this.bands = new BandView[raster.getNumBands()];
+    }
+
+    /**
+     *
+     * @return Rendered image the pixels are read from.
+     */
+    public RenderedImage getImage() {
+        return image;
+    }
+
+    /**
+     *
+     * @return Raster holding all pixels of the image.
+     */
+    public Raster getRaster() {
+        return raster;
+    }
+
+    public int getMinX() {
+        return raster.getMinX();
+    }
+
+    public int getMinY() {
+        return raster.getMinY();
+    }
+
+    public int getWidth() {
+        return raster.getWidth();
+    }
+
+    public int getHeight() {
+        return raster.getHeight();
+    }
+
+    public int getNumBands() {
+        return bands.length;
+    }
+
+    /**
+     *
+     * @param band
+     * @return View of the band, created on first use.
+     * @throws IndexOutOfBoundsException if the band does not exist.
+     */
+    public BandView getBand(int band) {
+        if (band < 0 || band >= bands.length) {
+            throw new IndexOutOfBoundsException("Band " + band + " does not exist. Number of bands: " + bands.length);
+        }
+        BandView view = bands[band];
+        if (view == null) {
+            view = BandView.create(raster, band);
+            bands[band] = view;
+        }
+        return view;
+    }
+
+    /**
+     *
+     * @param x Column in image coordinates.
+     * @param y Row in image coordinates.
+     * @param band
+     * @return Sample value.
+     */
+    public double getSampleDouble(int x, int y, int band) {
+        return getBand(band).getDouble(x, y);
+    }
+
+    /**
+     *
+     * @param x Column in image coordinates.
+     * @param y Row in image coordinates.
+     * @param band
+     * @return Sample value, truncated for floating point data.
+     */
+    public int getSample(int x, int y, int band) {
+        return getBand(band).getInt(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return "PixelAccess{" + "width=" + getWidth() + ", height=" + getHeight() + ", numBands=" + bands.length + '}';
+    }
+
+}
@@ -0,0 +1,702 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.sis.coverage.Category;
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.coverage.BufferedGridCoverage;
+import org.apache.sis.util.iso.DefaultNameFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.operation.MathTransform;
+
+/**
+ * Pixelwise map algebra expression that is evaluated lazily.<br>
+ * The map algebra functions combine their arguments into expression nodes
+ * instead of computing a coverage per operation. A chain of operations is
+ * evaluated in one pass over the source bands when the result is
+ * materialised: row by row, each node computes its row into one of a few
+ * reused row buffers, so the only raster allocated is the output.
+ * <p>
+ * Intermediate values are doubles, the output samples are rounded and clamped
+ * to the output data type. The output covers the rows and columns common to
+ * all sources and is georeferenced like the first source. A single band source
+ * combined with a multi band source is applied to every band.
+ */
+public abstract class RasterExpression {
+
+    protected final int width;
+    protected final int height;
+    protected final int numBands;
+    protected final int dataType;
+    private final MathTransform gridToCRS;
+    private final CoordinateReferenceSystem crs;
+    private GridGeometry gridGeometry;
+
+    private RasterExpression(int width, int height, int numBands, int dataType, MathTransform gridToCRS, CoordinateReferenceSystem crs) {
+        this.width = width;
+        this.height = height;
+        this.numBands = numBands;
+        this.dataType = dataType;
+        this.gridToCRS = gridToCRS;
+        this.crs = crs;
+    }
+
+    private RasterExpression(RasterExpression first, int width, int height, int numBands, int dataType) {
+        this(width, height, numBands, dataType, first.gridToCRS, first.crs);
+    }
+
+    /**
+     *
+     * @param wrapper
+     * @return The pending expression of the raster if it has not been
+     * materialised, otherwise an expression reading the raster.
+     */
+    public static final RasterExpression of(CoverageWrapper wrapper) {
+        RasterExpression expression = wrapper.getExpression();
+        if (expression != null) {
+            return expression;
+        }
+        return new Source(wrapper.getXYGeometry(), wrapper.getPixelAccess());
+    }
+
+    /**
+     *
+     * @param coverage
+     * @return Expression reading the coverage.
+     */
+    public static final RasterExpression of(GridCoverage coverage) {
+        return new Source(coverage, new PixelAccess(coverage));
+    }
+
+    /**
+     * Applies the operation to all bands.
+     *
+     * @param source
+     * @param op
+     * @param parameters Parameters of the operation.
+     * @return Expression node.
+     */
+    public static final RasterExpression apply(RasterExpression source, UnaryOp op, double... parameters) {
+        return applyToBand(source, op, -1, parameters);
+    }
+
+    /**
+     * Applies the operation to one band.
+     *
+     * @param source
+     * @param op
+     * @param band Band the operation is applied to, negative for all bands.
+     * Other bands are passed through.
+     * @param parameters Parameters of the operation.
+     * @return Expression node.
+     */
+    public static final RasterExpression applyToBand(RasterExpression source, UnaryOp op, int band, double... parameters) {
+        if (parameters.length < op.parameterCount) {
+            throw new IllegalArgumentException(op + " takes " + op.parameterCount + " parameters: " + parameters.length);
+        }
+        double[][] bandParameters = new double[source.numBands][];
+        for (int i = 0; i < bandParameters.length; i++) {
+            if (band < 0 || band == i) {
+                bandParameters[i] = parameters;
+            }
+        }
+        return new Unary(source, op, bandParameters);
+    }
+
+    /**
+     *
+     * @param left
+     * @param right
+     * @param op
+     * @return Expression node.
+     */
+    public static final RasterExpression apply(RasterExpression left, RasterExpression right, BinaryOp op) {
+        return new Binary(left, right, op);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumBands() {
+        return numBands;
+    }
+
+    /**
+     *
+     * @return DataBuffer type of the output samples.
+     */
+    public int getDataType() {
+        return dataType;
+    }
+
+    /**
+     *
+     * @return Grid geometry of the output.
+     */
+    public GridGeometry getGridGeometry() {
+        GridGeometry grid = gridGeometry;
+        if (grid == null) {
+            grid = new GridGeometry(new GridExtent(width, height), PixelInCell.CELL_CENTER, gridToCRS, crs);
+            gridGeometry = grid;
+        }
+        return grid;
+    }
+
+    /**
+     * Computes one row of a band.
+     *
+     * @param band Band of this expression.
+     * @param y Row, starting at 0.
+     * @param row Array of at least {@link #getRowLength()} length receiving
+     * the samples.
+     * @param buffers Row buffers.
+     * @param level First row buffer the node may use.
+     */
+    abstract void evaluate(int band, int y, double[] row, double[][] buffers, int level);
+
+    /**
+     *
+     * @return Number of row buffers needed besides the output row.
+     */
+    abstract int getBufferCount();
+
+    /**
+     *
+     * @return Length of the row buffers, the widest source.
+     */
+    abstract int getRowLength();
+
+    /**
+     *
+     * @return Name of the operation of this node, the timing of the output is
+     * recorded under it.
+     */
+    abstract String getOperatorName();
+
+    /**
+     * Computes the output in one pass over the sources. The rows are computed
+     * in tiles by {@link RasterTiles}.
+     *
+     * @return Coverage holding the output samples.
+     */
+    public GridCoverage materialise() {
+        DataBuffer buffer = createDataBuffer(dataType, width * height, numBands);
+        RasterTiles.run(getOperatorName(), width, height, (rowStart, rowEnd) -> evaluateRows(rowStart, rowEnd, buffer));
+        return createCoverage(getGridGeometry(), buffer, 0.);
+    }
+
+    /**
+     *
+     * @param grid
+     * @param buffer Samples with one bank per band.
+     * @param background Background value of the bands.
+     * @return Coverage of the samples.
+     */
+    static GridCoverage createCoverage(GridGeometry grid, DataBuffer buffer, Number background) {
+        List<SampleDimension> dimensions = new LinkedList<SampleDimension>();
+        DefaultNameFactory fac = new DefaultNameFactory();
+        for (int i = 0; i < buffer.getNumBanks(); i++) {
+            dimensions.add(new SampleDimension(fac.createGenericName(null, "Dimension " + i), background, new LinkedList<Category>()));
+        }
+        return new BufferedGridCoverage(grid, dimensions, buffer);
+    }
+
+    /**
+     * Computes rows of all bands into the output buffer. Distinct row ranges
+     * may be computed at the same time.
+     *
+     * @param rowStart First row, inclusive.
+     * @param rowEnd Last row, exclusive.
+     * @param buffer Output buffer with one bank per band.
+     */
+    void evaluateRows(int rowStart, int rowEnd, DataBuffer buffer) {
+        double[][] buffers = new double[getBufferCount() + 1][getRowLength()];
+        for (int y = rowStart; y < rowEnd; y++) {
+            for (int band = 0; band < numBands; band++) {
+                evaluate(band, y, buffers[0], buffers, 1);
+                store(buffer, band, y * width, buffers[0], width);
+            }
+        }
+    }
+
+    static DataBuffer createDataBuffer(int dataType, int size, int banks) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                return new DataBufferByte(size, banks);
+            case DataBuffer.TYPE_USHORT:
+                return new DataBufferUShort(size, banks);
+            case DataBuffer.TYPE_SHORT:
+                return new DataBufferShort(size, banks);
+            case DataBuffer.TYPE_INT:
+                return new DataBufferInt(size, banks);
+            case DataBuffer.TYPE_FLOAT:
+                return new DataBufferFloat(size, banks);
+            default:
+                return new DataBufferDouble(size, banks);
+        }
+    }
+
+    static void store(DataBuffer buffer, int bank, int offset, double[] row, int length) {
+        switch (buffer.getDataType()) {
+            case DataBuffer.TYPE_BYTE: {
+                byte[] data = ((DataBufferByte) buffer).getData(bank);
+                for (int i = 0; i < length; i++) {
+                    data[offset + i] = (byte) clampRound(row[i], 0, 0xFF);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_USHORT: {
+                short[] data = ((DataBufferUShort) buffer).getData(bank);
+                for (int i = 0; i < length; i++) {
+                    data[offset + i] = (short) clampRound(row[i], 0, 0xFFFF);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_SHORT: {
+                short[] data = ((DataBufferShort) buffer).getData(bank);
+                for (int i = 0; i < length; i++) {
+                    data[offset + i] = (short) clampRound(row[i], Short.MIN_VALUE, Short.MAX_VALUE);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_INT: {
+                int[] data = ((DataBufferInt) buffer).getData(bank);
+                for (int i = 0; i < length; i++) {
+                    data[offset + i] = (int) clampRound(row[i], Integer.MIN_VALUE, Integer.MAX_VALUE);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_FLOAT: {
+                float[] data = ((DataBufferFloat) buffer).getData(bank);
+                for (int i = 0; i < length; i++) {
+                    data[offset + i] = (float) row[i];
+                }
+                break;
+            }
+            default: {
+                double[] data = ((DataBufferDouble) buffer).getData(bank);
+                System.arraycopy(row, 0, data, offset, length);
+            }
+        }
+    }
+
+    private static long clampRound(double value, long min, long max) {
+        if (Double.isNaN(value)) {
+            return 0;
+        }
+        long rounded = Math.round(value);
+        return rounded < min ? min : rounded > max ? max : rounded;
+    }
+
+    /**
+     *
+     * @return Data type holding the samples of both data types, following
+     * the JAI arithmetic operations.
+     */
+    private static int widen(int dataType, int dataType2) {
+        if ((dataType == DataBuffer.TYPE_SHORT && dataType2 == DataBuffer.TYPE_USHORT)
+                || (dataType == DataBuffer.TYPE_USHORT && dataType2 == DataBuffer.TYPE_SHORT)) {
+            return DataBuffer.TYPE_INT;
+        }
+        return Math.max(dataType, dataType2);
+    }
+
+    /**
+     * Operations of one raster, with numeric parameters. Bitwise operations
+     * work on the integral part of the samples.
+     */
+    public enum UnaryOp {
+        ADD(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] += p[0];
+                }
+            }
+        },
+        SUBTRACT(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] -= p[0];
+                }
+            }
+        },
+        SUBTRACT_FROM(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = p[0] - row[i];
+                }
+            }
+        },
+        MULTIPLY(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] *= p[0];
+                }
+            }
+        },
+        DIVIDE(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] /= p[0];
+                }
+            }
+        },
+        AND(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                long value = (long) p[0];
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] & value;
+                }
+            }
+        },
+        OR(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                long value = (long) p[0];
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] | value;
+                }
+            }
+        },
+        XOR(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                long value = (long) p[0];
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] ^ value;
+                }
+            }
+        },
+        /**
+         * Bitwise not, the parameter is the mask of unsigned data types or 0.
+         */
+        NOT(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                long mask = p[0] == 0 ? -1 : (long) p[0];
+                for (int i = 0; i < length; i++) {
+                    row[i] = ~(long) row[i] & mask;
+                }
+            }
+        },
+        ABS(0) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = Math.abs(row[i]);
+                }
+            }
+        },
+        EXP(0) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = Math.exp(row[i]);
+                }
+            }
+        },
+        LOG(0) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = Math.log(row[i]);
+                }
+            }
+        },
+        /**
+         * Parameters low and high.
+         */
+        CLAMP(2) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = row[i] < p[0] ? p[0] : row[i] > p[1] ? p[1] : row[i];
+                }
+            }
+        },
+        /**
+         * Parameters low, high and the value replacing samples from low to
+         * high.
+         */
+        THRESHOLD(3) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    if (row[i] >= p[0] && row[i] <= p[1]) {
+                        row[i] = p[2];
+                    }
+                }
+            }
+        },
+        /**
+         * 1 for samples of at least the parameter, otherwise 0. The output is
+         * of byte type if all bands are binarized.
+         */
+        BINARIZE(1) {
+            @Override
+            void apply(double[] row, int length, double[] p) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = row[i] >= p[0] ? 1 : 0;
+                }
+            }
+        };
+
+        private final int parameterCount;
+
+        private UnaryOp(int parameterCount) {
+            this.parameterCount = parameterCount;
+        }
+
+        abstract void apply(double[] row, int length, double[] p);
+    }
+
+    /**
+     * Operations of two rasters. Bitwise operations work on the integral part
+     * of the samples.
+     */
+    public enum BinaryOp {
+        ADD {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] += other[i];
+                }
+            }
+        },
+        SUBTRACT {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] -= other[i];
+                }
+            }
+        },
+        MULTIPLY {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] *= other[i];
+                }
+            }
+        },
+        DIVIDE {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] /= other[i];
+                }
+            }
+        },
+        AND {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] & (long) other[i];
+                }
+            }
+        },
+        OR {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] | (long) other[i];
+                }
+            }
+        },
+        XOR {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = (long) row[i] ^ (long) other[i];
+                }
+            }
+        },
+        MIN {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = Math.min(row[i], other[i]);
+                }
+            }
+        },
+        MAX {
+            @Override
+            void apply(double[] row, double[] other, int length) {
+                for (int i = 0; i < length; i++) {
+                    row[i] = Math.max(row[i], other[i]);
+                }
+            }
+        };
+
+        abstract void apply(double[] row, double[] other, int length);
+    }
+
+    /**
+     * Reads the bands of a raster.
+     */
+    private static final class Source extends RasterExpression {
+
+        private final PixelAccess pixelAccess;
+
+        private Source(GridCoverage coverage, PixelAccess pixelAccess) {
+            super(pixelAccess.getWidth(), pixelAccess.getHeight(), pixelAccess.getNumBands(), pixelAccess.getBand(0).getDataType(),
+                    getGridToCRS(coverage.getGridGeometry()), getCRS(coverage.getGridGeometry()));
+            this.pixelAccess = pixelAccess;
+        }
+
+        private static MathTransform getGridToCRS(GridGeometry grid) {
+            return grid.isDefined(GridGeometry.GRID_TO_CRS) ? grid.getGridToCRS(PixelInCell.CELL_CENTER) : null;
+        }
+
+        private static CoordinateReferenceSystem getCRS(GridGeometry grid) {
+            return grid.isDefined(GridGeometry.CRS) ? grid.getCoordinateReferenceSystem() : null;
+        }
+
+        @Override
+        void evaluate(int band, int y, double[] row, double[][] buffers, int level) {
+            pixelAccess.getBand(band).readRow(pixelAccess.getMinX(), pixelAccess.getMinY() + y, width, row);
+        }
+
+        @Override
+        int getBufferCount() {
+            return 0;
+        }
+
+        @Override
+        int getRowLength() {
+            return width;
+        }
+
+        @Override
+        String getOperatorName() {
+            return "SOURCE";
+        }
+    }
+
+    private static final class Unary extends RasterExpression {
+
+        private final RasterExpression source;
+        private final UnaryOp op;
+        private final double[][] bandParameters;
+
+        private Unary(RasterExpression source, UnaryOp op, double[][] bandParameters) {
+            super(source, source.width, source.height, source.numBands, op == UnaryOp.BINARIZE && isAllBands(bandParameters) ? DataBuffer.TYPE_BYTE : source.dataType);
+            this.source = source;
+            this.op = op;
+            this.bandParameters = bandParameters;
+        }
+
+        private static boolean isAllBands(double[][] bandParameters) {
+            for (double[] parameters : bandParameters) {
+                if (parameters == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void evaluate(int band, int y, double[] row, double[][] buffers, int level) {
+            source.evaluate(band, y, row, buffers, level);
+            if (bandParameters[band] != null) {
+                op.apply(row, width, bandParameters[band]);
+            }
+        }
+
+        @Override
+        int getBufferCount() {
+            return source.getBufferCount();
+        }
+
+        @Override
+        int getRowLength() {
+            return source.getRowLength();
+        }
+
+        @Override
+        String getOperatorName() {
+            return op.name();
+        }
+    }
+
+    private static final class Binary extends RasterExpression {
+
+        private final RasterExpression left;
+        private final RasterExpression right;
+        private final BinaryOp op;
+
+        private Binary(RasterExpression left, RasterExpression right, BinaryOp op) {
+            super(left, Math.min(left.width, right.width), Math.min(left.height, right.height),
+                    left.numBands == 1 || right.numBands == 1 ? Math.max(left.numBands, right.numBands) : Math.min(left.numBands, right.numBands),
+                    widen(left.dataType, right.dataType));
+            this.left = left;
+            this.right = right;
+            this.op = op;
+        }
+
+        @Override
+        void evaluate(int band, int y, double[] row, double[][] buffers, int level) {
+            //the left operand is complete before the right one uses the buffers from level on
+            left.evaluate(left.numBands == 1 ? 0 : band, y, row, buffers, level);
+            double[] other = buffers[level];
+            right.evaluate(right.numBands == 1 ? 0 : band, y, other, buffers, level + 1);
+            op.apply(row, other, width);
+        }
+
+        @Override
+        int getBufferCount() {
+            return Math.max(left.getBufferCount(), right.getBufferCount() + 1);
+        }
+
+        @Override
+        int getRowLength() {
+            return Math.max(left.getRowLength(), right.getRowLength());
+        }
+
+        @Override
+        String getOperatorName() {
+            return op.name();
+        }
+    }
+
+}
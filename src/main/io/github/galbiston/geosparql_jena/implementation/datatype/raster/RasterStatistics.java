@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+
+/**
+ * Band statistics, histograms and quantiles of one coverage.<br>
+ * Results are computed on first request and kept, so repeated requests on the
+ * same literal, e.g. in one query, are answered from memory. No-data values
+ * are taken from the sample dimensions of the coverage.
+ */
+public class RasterStatistics {
+
+    /**
+     * Number of bins of the histogram used to approximate quantiles.
+     */
+    public static final int QUANTILE_BINS = 4096;
+
+    private final GridCoverage coverage;
+    private final PixelAccess pixelAccess;
+    private final ConcurrentHashMap<List<Object>, BandStatistics> statistics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<Object>, BandHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param coverage Source of the no-data values, may be null.
+     * @param pixelAccess
+     */
+    public RasterStatistics(GridCoverage coverage, PixelAccess pixelAccess) {
+        this.coverage = coverage;
+        this.pixelAccess = pixelAccess;
+    }
+
+    /**
+     * Sets the number of pixels from which a band is split into row ranges
+     * scanned in parallel.
+     *
+     * @param pixels
+     */
+    public static final void setParallelThreshold(int pixels) {
+        BandScan.setParallelThreshold(pixels);
+    }
+
+    public static final int getParallelThreshold() {
+        return BandScan.getParallelThreshold();
+    }
+
+    /**
+     *
+     * @param band
+     * @param excludeNoData Whether the no-data values of the band are skipped.
+     * @return Statistics of the band.
+     */
+    public BandStatistics getStatistics(int band, boolean excludeNoData) {
+        BandView view = pixelAccess.getBand(band);
+        return statistics.computeIfAbsent(Arrays.asList(band, excludeNoData), key -> BandStatistics.compute(view, getNoDataValues(band, excludeNoData)));
+    }
+
+    /**
+     *
+     * @param band
+     * @param excludeNoData Whether the no-data values of the band are skipped.
+     * @param bins
+     * @return Histogram between the minimum and maximum of the band.
+     */
+    public BandHistogram getHistogram(int band, boolean excludeNoData, int bins) {
+        BandStatistics bandStatistics = getStatistics(band, excludeNoData);
+        return getHistogram(band, excludeNoData, bins, bandStatistics.getMin(), bandStatistics.getMax());
+    }
+
+    /**
+     *
+     * @param band
+     * @param excludeNoData Whether the no-data values of the band are skipped.
+     * @param bins
+     * @param min
+     * @param max
+     * @return Histogram between the minimum and maximum.
+     */
+    public BandHistogram getHistogram(int band, boolean excludeNoData, int bins, double min, double max) {
+        BandView view = pixelAccess.getBand(band);
+        return histograms.computeIfAbsent(Arrays.asList(band, excludeNoData, bins, min, max), key -> BandHistogram.compute(view, getNoDataValues(band, excludeNoData), min, max, bins));
+    }
+
+    /**
+     *
+     * @param band
+     * @param excludeNoData Whether the no-data values of the band are skipped.
+     * @param quantile Between 0 and 1.
+     * @return Approximate quantile, within one bin width of a
+     * {@link #QUANTILE_BINS} histogram.
+     */
+    public double getQuantile(int band, boolean excludeNoData, double quantile) {
+        BandStatistics bandStatistics = getStatistics(band, excludeNoData);
+        if (quantile == 0) {
+            return bandStatistics.getCount() == 0 ? Double.NaN : bandStatistics.getMin();
+        }
+        if (quantile == 1) {
+            return bandStatistics.getCount() == 0 ? Double.NaN : bandStatistics.getMax();
+        }
+        return getHistogram(band, excludeNoData, QUANTILE_BINS).getQuantile(quantile);
+    }
+
+    /**
+     *
+     * @param band
+     * @param excludeNoData
+     * @return No-data values of the band or an empty array.
+     */
+    public double[] getNoDataValues(int band, boolean excludeNoData) {
+        if (!excludeNoData || coverage == null) {
+            return new double[0];
+        }
+        List<SampleDimension> sampleDimensions = coverage.getSampleDimensions();
+        if (band >= sampleDimensions.size()) {
+            return new double[0];
+        }
+        Set<Number> noDataValues = sampleDimensions.get(band).getNoDataValues();
+        double[] values = new double[noDataValues.size()];
+        int i = 0;
+        for (Number value : noDataValues) {
+            values[i++] = value.doubleValue();
+        }
+        return values;
+    }
+
+}
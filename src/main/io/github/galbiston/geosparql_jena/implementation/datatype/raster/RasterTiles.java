@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.datatype.raster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.hsmainz.cs.semgis.arqextension.index.PartitionedSpatialJoin;
+
+/**
+ * Runs raster operators over fixed-size tiles of rows on the shared pool of
+ * {@link PartitionedSpatialJoin}.<br>
+ * A raster is cut into strips of whole rows holding about the tile size in
+ * pixels. Up to the parallelism workers take the next strip until all are
+ * done, the calling thread being one of them, so a large raster keeps all
+ * threads busy while a raster of one tile runs in the calling thread. After a
+ * tile failed no further tile is taken, and the run returns with the failure
+ * once the workers that were computing a tile have finished it.
+ * <p>
+ * The time, tiles and pixels of each run are recorded per operator.
+ */
+public final class RasterTiles {
+
+    /**
+     * Default number of pixels of a tile.
+     */
+    public static final int DEFAULT_TILE_SIZE = 1 << 18;
+
+    private static volatile int tileSize = DEFAULT_TILE_SIZE;
+
+    private static volatile int parallelism = 0;
+
+    private static final Map<String, OperatorTiming> TIMINGS = new ConcurrentHashMap<>();
+
+    private RasterTiles() {
+    }
+
+    interface TileTask {
+
+        /**
+         *
+         * @param rowStart First row of the tile, inclusive.
+         * @param rowEnd Last row of the tile, exclusive.
+         */
+        void compute(int rowStart, int rowEnd);
+    }
+
+    public static int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     *
+     * @param pixels Number of pixels of a tile, rounded to whole rows.
+     */
+    public static void setTileSize(int pixels) {
+        if (pixels < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + pixels);
+        }
+        tileSize = pixels;
+    }
+
+    /**
+     *
+     * @return Number of tiles of one raster computed at the same time.
+     */
+    public static int getParallelism() {
+        int value = parallelism;
+        return value > 0 ? value : PartitionedSpatialJoin.getDefaultParallelism();
+    }
+
+    /**
+     * Sets the number of tiles of one raster computed at the same time. The
+     * shared pool still bounds the threads of all rasters.
+     *
+     * @param value The number of workers, 1 to compute in the calling thread,
+     * 0 for the parallelism of the shared pool.
+     */
+    public static void setParallelism(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Parallelism must not be negative: " + value);
+        }
+        parallelism = value;
+    }
+
+    /**
+     * Runs a task on the shared pool tiles are computed on.
+     *
+     * @param task
+     * @return The result of the task.
+     */
+    static <T> T invoke(ForkJoinTask<T> task) {
+        return PartitionedSpatialJoin.invoke(task);
+    }
+
+    /**
+     * Computes all tiles of a raster and records the timing of the operator.
+     *
+     * @param operator Name the timing is recorded under.
+     * @param width Width of the raster.
+     * @param height Height of the raster.
+     * @param task Computation of a tile, called from several threads.
+     */
+    static void run(String operator, int width, int height, TileTask task) {
+        long start = System.nanoTime();
+        int rowsPerTile = Math.max(1, tileSize / Math.max(1, width));
+        int tiles = height == 0 ? 0 : (height - 1) / rowsPerTile + 1;
+        int workers = Math.min(tiles, getParallelism());
+        if (workers <= 1) {
+            for (int tile = 0; tile < tiles; tile++) {
+                int rowStart = tile * rowsPerTile;
+                task.compute(rowStart, Math.min(height, rowStart + rowsPerTile));
+            }
+        } else {
+            AtomicInteger next = new AtomicInteger();
+            AtomicBoolean failed = new AtomicBoolean();
+            Runnable worker = () -> {
+                for (int tile = next.getAndIncrement(); tile < tiles && !failed.get(); tile = next.getAndIncrement()) {
+                    int rowStart = tile * rowsPerTile;
+                    try {
+                        task.compute(rowStart, Math.min(height, rowStart + rowsPerTile));
+                    } catch (RuntimeException | Error ex) {
+                        failed.set(true);
+                        throw ex;
+                    }
+                }
+            };
+            List<ForkJoinTask<?>> forked = new ArrayList<>(workers - 1);
+            for (int i = 1; i < workers; i++) {
+                forked.add(PartitionedSpatialJoin.submit(Executors.callable(worker)));
+            }
+            try {
+                worker.run();
+            } finally {
+                //no tile is written once the run has returned
+                for (ForkJoinTask<?> forkedTask : forked) {
+                    if (failed.get()) {
+                        forkedTask.cancel(false);
+                    }
+                    forkedTask.quietlyJoin();
+                }
+            }
+            for (ForkJoinTask<?> forkedTask : forked) {
+                if (!forkedTask.isCancelled()) {
+                    forkedTask.join();
+                }
+            }
+        }
+        OperatorTiming timing = TIMINGS.computeIfAbsent(operator, OperatorTiming::new);
+        timing.record(tiles, (long) width * height, System.nanoTime() - start);
+    }
+
+    /**
+     *
+     * @param operator
+     * @return Timing of the operator, null if it has not run.
+     */
+    public static OperatorTiming getTiming(String operator) {
+        return TIMINGS.get(operator);
+    }
+
+    /**
+     *
+     * @return Timings of all operators that have run, by name.
+     */
+    public static Map<String, OperatorTiming> getTimings() {
+        return Collections.unmodifiableMap(new TreeMap<>(TIMINGS));
+    }
+
+    public static void resetTimings() {
+        TIMINGS.clear();
+    }
+
+    /**
+     * Accumulated runs of one raster operator.
+     */
+    public static final class OperatorTiming {
+
+        private final String operator;
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder tiles = new LongAdder();
+        private final LongAdder pixels = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private OperatorTiming(String operator) {
+            this.operator = operator;
+        }
+
+        private void record(int tileCount, long pixelCount, long time) {
+            runs.increment();
+            tiles.add(tileCount);
+            pixels.add(pixelCount);
+            nanos.add(time);
+        }
+
+        public String getOperator() {
+            return operator;
+        }
+
+        public long getRuns() {
+            return runs.sum();
+        }
+
+        public long getTiles() {
+            return tiles.sum();
+        }
+
+        public long getPixels() {
+            return pixels.sum();
+        }
+
+        /**
+         *
+         * @return Wall clock time of all runs in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "OperatorTiming{" + "operator=" + operator + ", runs=" + getRuns() + ", tiles=" + getTiles() + ", pixels=" + getPixels() + ", nanos=" + getNanos() + '}';
+        }
+    }
+
+}
@@ -46,7 +46,6 @@ public class WKBRastDatatype extends RasterDataType {
 		GridCoverage coverage;
 		try {
 			coverage = reader2.readCoverage(Base64.decode(geometryLiteral), null);
-			System.out.println(coverage);
 			return new CoverageWrapper(coverage, URI);
 		} catch (IOException | FactoryException e) {
 			e.printStackTrace();
@@ -1,16 +1,54 @@
 package io.github.galbiston.geosparql_jena.implementation.datatype.temporal;
 
+import java.time.Instant;
 import java.util.Date;
 
+/**
+ * A closed time interval, with both ends in milliseconds since the epoch.
+ */
 public class TemporalRange {
 
-	public Date from;
+	public final long from;
 	
-	public Date to;
+	public final long to;
 	
-	public TemporalRange(Date from,Date to) {
+	public TemporalRange(long from,long to) {
 		this.from=from;
 		this.to=to;
 	}
 	
+	public TemporalRange(Date from,Date to) {
+		this(from.getTime(),to.getTime());
+	}
+	
+	public Date getFrom() {
+		return new Date(from);
+	}
+	
+	public Date getTo() {
+		return new Date(to);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TemporalRange)) {
+			return false;
+		}
+		TemporalRange other = (TemporalRange) obj;
+		return from == other.from && to == other.to;
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(from) + Long.hashCode(to);
+	}
+	
+	@Override
+	public String toString() {
+		return "TemporalRange{" + Instant.ofEpochMilli(from) + ", " + Instant.ofEpochMilli(to) + '}';
+	}
+	
 }
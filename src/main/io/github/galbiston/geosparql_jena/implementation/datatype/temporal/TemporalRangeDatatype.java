@@ -1,36 +1,99 @@
 package io.github.galbiston.geosparql_jena.implementation.datatype.temporal;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 import org.apache.jena.datatypes.BaseDatatype;
 import org.apache.jena.datatypes.DatatypeFormatException;
 
 import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+import io.github.galbiston.geosparql_jena.implementation.index.LiteralCache;
+import io.github.galbiston.geosparql_jena.implementation.index.WTinyLfuCache;
 
+/**
+ * Temporal ranges written as two instants separated by a semicolon. An instant is
+ * either a number of seconds since the epoch, as written by {@link #unparse(Object)},
+ * an ISO 8601 date or date time, UTC if no offset is given, or a date understood by
+ * {@link Date#Date(String)}.
+ * <p>
+ * Parsed ranges are cached by their lexical form, so that functions evaluated per
+ * row do not parse the same literal again.
+ */
 public class TemporalRangeDatatype extends BaseDatatype {
 
 	public static final String URI = PostGISGeo.TemporalRange;
 	
+	public static final long CACHE_SIZE = 100000;
+	
     /**
-     * A static instance of WKTDatatype.
+     * A static instance of TemporalRangeDatatype.
      */
     public static final TemporalRangeDatatype INSTANCE = new TemporalRangeDatatype();
 
+	private final LiteralCache<String, TemporalRange> cache = new WTinyLfuCache<>("Temporal Range Literal Cache", CACHE_SIZE, LiteralCache.UNLIMITED, 0, (lexicalForm, range) -> 1);
+	
 	public TemporalRangeDatatype() {
 		super(URI);
 	}
 	
 	@Override
 	public String unparse(Object value) {
-		return ((TemporalRange)value).from.getTime()/1000+";"+((TemporalRange)value).to.getTime()/1000;
+		return ((TemporalRange)value).from/1000+";"+((TemporalRange)value).to/1000;
 	}
 	
 	
 	@Override
 	public Object parse(String lexicalForm) throws DatatypeFormatException {
+		return cache.computeIfAbsent(lexicalForm, TemporalRangeDatatype::read);
+	}
+	
+	@Override
+	public boolean isValid(String lexicalForm) {
+		try {
+			parse(lexicalForm);
+			return true;
+		} catch (DatatypeFormatException ex) {
+			return false;
+		}
+	}
+
+	private static TemporalRange read(String lexicalForm) throws DatatypeFormatException {
 		String[] dates=lexicalForm.split(";");
-		TemporalRange range=new TemporalRange(new Date(dates[0]),new Date(dates[1]));
-		return range;
+		if (dates.length != 2) {
+			throw new DatatypeFormatException(lexicalForm, INSTANCE, "Temporal range is not two instants separated by ';'");
+		}
+		return new TemporalRange(readInstant(dates[0].trim(), lexicalForm),readInstant(dates[1].trim(), lexicalForm));
+	}
+
+	@SuppressWarnings("deprecation")
+	private static long readInstant(String date, String lexicalForm) throws DatatypeFormatException {
+		if (date.matches("-?\\d+")) {
+			return Long.parseLong(date) * 1000;
+		}
+		try {
+			return OffsetDateTime.parse(date).toInstant().toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			//No offset or no time.
+		}
+		try {
+			return LocalDateTime.parse(date).toInstant(ZoneOffset.UTC).toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			//No time.
+		}
+		try {
+			return LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			//Legacy formats.
+		}
+		try {
+			return Date.parse(date);
+		} catch (IllegalArgumentException ex) {
+			throw new DatatypeFormatException(lexicalForm, INSTANCE, "Instant not readable: " + date);
+		}
 	}
 
 }
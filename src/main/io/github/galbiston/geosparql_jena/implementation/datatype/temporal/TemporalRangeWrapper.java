@@ -1,18 +1,33 @@
 package io.github.galbiston.geosparql_jena.implementation.datatype.temporal;
 
 import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.NodeValue;
 
 public class TemporalRangeWrapper {
 
     public static TemporalRange extract(String lexicalForm, String datatypeURI) throws DatatypeFormatException {
 
         if (lexicalForm == null || datatypeURI == null) {
-            throw new DatatypeFormatException("GeometryWrapper extraction: arguments cannot be null - " + lexicalForm + ", " + datatypeURI);
+            throw new DatatypeFormatException("TemporalRangeWrapper extraction: arguments cannot be null - " + lexicalForm + ", " + datatypeURI);
         }
 
         TemporalRangeDatatype datatype = TemporalRangeDatatype.INSTANCE;
-        TemporalRange geometry = (TemporalRange) datatype.parse(lexicalForm);
-        return geometry;
+        TemporalRange range = (TemporalRange) datatype.parse(lexicalForm);
+        return range;
+    }
+
+    public static TemporalRange extract(NodeValue nodeValue) throws DatatypeFormatException {
+        return extract(nodeValue.asNode());
+    }
+
+    public static TemporalRange extract(Node node) throws DatatypeFormatException {
+
+        if (!node.isLiteral()) {
+            throw new DatatypeFormatException("Not a Literal: " + node);
+        }
+
+        return extract(node.getLiteralLexicalForm(), node.getLiteralDatatypeURI());
     }
 	
 }
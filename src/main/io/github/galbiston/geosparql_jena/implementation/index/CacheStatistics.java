@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the counters of a {@link LiteralCache}.
+ *
+ */
+public class CacheStatistics implements Serializable {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long rejectionCount;
+    private final long expiryCount;
+
+    public CacheStatistics(long hitCount, long missCount, long loadCount, long evictionCount, long evictionWeight, long rejectionCount, long expiryCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.rejectionCount = rejectionCount;
+        this.expiryCount = expiryCount;
+    }
+
+    /**
+     *
+     * @return Number of lookups that found a value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     *
+     * @return Number of lookups that did not find a value.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     *
+     * @return Number of values computed by a loader.
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     *
+     * @return Number of entries removed to respect the size or weight bound.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     *
+     * @return Sum of the weight of evicted entries.
+     */
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     *
+     * @return Number of loaded values not admitted, either too heavy or less
+     * frequent than the entries they would replace.
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    /**
+     *
+     * @return Number of entries removed after the expiry interval.
+     */
+    public long getExpiryCount() {
+        return expiryCount;
+    }
+
+    /**
+     *
+     * @return Ratio of hits to lookups, 1.0 when there have been no lookups.
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" + "hitCount=" + hitCount + ", missCount=" + missCount + ", loadCount=" + loadCount + ", evictionCount=" + evictionCount + ", evictionWeight=" + evictionWeight + ", rejectionCount=" + rejectionCount + ", expiryCount=" + expiryCount + '}';
+    }
+
+}
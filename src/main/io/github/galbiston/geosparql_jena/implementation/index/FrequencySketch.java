@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often a key has been
+ * requested.<br>
+ * All counters are halved once the number of increments reaches ten times the
+ * table width so that the estimate follows recent popularity.<br>
+ * Not thread safe, callers synchronise.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MIN_WIDTH = 16;
+    private static final int MAX_WIDTH = 1 << 30;
+    private static final int MAX_COUNT = 15;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch() {
+        resize(MIN_WIDTH);
+    }
+
+    /**
+     * Widens the table so that it can discriminate the given number of keys.
+     * Existing counts are discarded when the table grows.
+     *
+     * @param expectedSize
+     */
+    void ensureCapacity(long expectedSize) {
+        if (expectedSize <= table.length || table.length >= MAX_WIDTH) {
+            return;
+        }
+        long width = Long.highestOneBit(Math.min(expectedSize, MAX_WIDTH) - 1) << 1;
+        resize((int) width);
+    }
+
+    private void resize(int width) {
+        table = new long[width];
+        tableMask = width - 1;
+        sampleSize = 10 * width;
+        additions = 0;
+    }
+
+    /**
+     *
+     * @param hashCode
+     * @return Estimated number of recent occurrences, at most 15.
+     */
+    int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of the hash code.
+     *
+     * @param hashCode
+     */
+    void increment(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            added |= incrementAt(index, start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = additions >>> 1;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    private int indexOf(int hash, int i) {
+        long item = (hash + SEEDS[i]) * SEEDS[i];
+        item += item >>> 32;
+        return ((int) item) & tableMask;
+    }
+
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
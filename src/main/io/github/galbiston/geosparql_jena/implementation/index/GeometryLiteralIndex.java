@@ -17,21 +17,23 @@
  */
 package io.github.galbiston.geosparql_jena.implementation.index;
 
-import io.github.galbiston.expiring_map.ExpiringMap;
-import static io.github.galbiston.expiring_map.MapDefaultValues.MAP_EXPIRY_INTERVAL;
-import static io.github.galbiston.expiring_map.MapDefaultValues.UNLIMITED_MAP;
-
 import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
-import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatype;
 import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.GeometryDatatype;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.RasterDataType;
 
-import java.util.Map;
+import java.util.function.Function;
 
 /**
- *
+ * Index of parsed geometry and raster literals.<br>
+ * Both indexes are bounded by entry count and by the estimated bytes of the
+ * parsed literals, see {@link SpatialWrapperWeigher}, and default to
+ * {@link WTinyLfuCache}.<br>
+ * Entries are keyed by a {@link LiteralKey} content hash so the lexical form is
+ * not retained by the index. Wrappers parsed from literals longer than the
+ * lexical form retention limit also drop their lexical form and re-serialise
+ * it on demand.
  *
  */
 public class GeometryLiteralIndex {
@@ -39,8 +41,25 @@ public class GeometryLiteralIndex {
     private static boolean INDEX_ACTIVE = false;
     private static final String PRIMARY_INDEX_LABEL = "Primary Geometry Literal Index";
     private static final String SECONDARY_INDEX_LABEL = "Secondary Geometry Literal Index";
-    private static ExpiringMap<String, SpatialWrapper> PRIMARY_INDEX = new ExpiringMap<>(PRIMARY_INDEX_LABEL, UNLIMITED_MAP, MAP_EXPIRY_INTERVAL);
-    private static ExpiringMap<String, SpatialWrapper> SECONDARY_INDEX = new ExpiringMap<>(SECONDARY_INDEX_LABEL, UNLIMITED_MAP, MAP_EXPIRY_INTERVAL);
+
+    /**
+     * Default weight bound: an eighth of the maximum heap.
+     */
+    public static final long DEFAULT_MAX_WEIGHT = Runtime.getRuntime().maxMemory() / 8;
+
+    private static long MAX_SIZE = LiteralCache.UNLIMITED;
+    private static long MAX_WEIGHT = DEFAULT_MAX_WEIGHT;
+    private static long EXPIRY_INTERVAL = 0;
+
+    /**
+     * Default length, in characters, above which indexed wrappers do not keep
+     * their lexical form.
+     */
+    public static final int DEFAULT_LEXICAL_FORM_RETENTION_LIMIT = 4096;
+    private static int LEXICAL_FORM_RETENTION_LIMIT = DEFAULT_LEXICAL_FORM_RETENTION_LIMIT;
+    private static Function<String, LiteralCache<LiteralKey, SpatialWrapper>> CACHE_FACTORY = GeometryLiteralIndex::createDefaultCache;
+    private static LiteralCache<LiteralKey, SpatialWrapper> PRIMARY_INDEX = CACHE_FACTORY.apply(PRIMARY_INDEX_LABEL);
+    private static LiteralCache<LiteralKey, SpatialWrapper> SECONDARY_INDEX = CACHE_FACTORY.apply(SECONDARY_INDEX_LABEL);
 
     public enum GeometryIndex {
         PRIMARY, SECONDARY
@@ -51,75 +70,70 @@ public class GeometryLiteralIndex {
 
         switch (targetIndex) {
             case SECONDARY:
-                geometryWrapper = retrieveMemoryIndex(geometryLiteral, geometryDatatype, SECONDARY_INDEX, PRIMARY_INDEX);
+                geometryWrapper = (GeometryWrapper) retrieveMemoryIndex(geometryLiteral, geometryDatatype.getURI(), geometryDatatype::read, SECONDARY_INDEX, PRIMARY_INDEX);
                 break;
             default:
-                geometryWrapper = retrieveMemoryIndex(geometryLiteral, geometryDatatype, PRIMARY_INDEX, SECONDARY_INDEX);
+                geometryWrapper = (GeometryWrapper) retrieveMemoryIndex(geometryLiteral, geometryDatatype.getURI(), geometryDatatype::read, PRIMARY_INDEX, SECONDARY_INDEX);
         }
 
         return geometryWrapper;
     }
-    
+
     public static final CoverageWrapper retrieve(String geometryLiteral, RasterDataType geometryDatatype, GeometryIndex targetIndex) {
-    	CoverageWrapper geometryWrapper;
+        CoverageWrapper geometryWrapper;
 
         switch (targetIndex) {
             case SECONDARY:
-                geometryWrapper = retrieveMemoryIndex(geometryLiteral, geometryDatatype, SECONDARY_INDEX, PRIMARY_INDEX);
+                geometryWrapper = (CoverageWrapper) retrieveMemoryIndex(geometryLiteral, geometryDatatype.getURI(), geometryDatatype::read, SECONDARY_INDEX, PRIMARY_INDEX);
                 break;
             default:
-                geometryWrapper = retrieveMemoryIndex(geometryLiteral, geometryDatatype, PRIMARY_INDEX, SECONDARY_INDEX);
+                geometryWrapper = (CoverageWrapper) retrieveMemoryIndex(geometryLiteral, geometryDatatype.getURI(), geometryDatatype::read, PRIMARY_INDEX, SECONDARY_INDEX);
         }
 
         return geometryWrapper;
     }
 
-    private static GeometryWrapper retrieveMemoryIndex(String geometryLiteral, GeometryDatatype geometryDatatype, Map<String, SpatialWrapper> index, Map<String, SpatialWrapper> otherIndex) {
-
-        GeometryWrapper geometryWrapper;
+    private static SpatialWrapper retrieveMemoryIndex(String geometryLiteral, String datatypeURI, Function<String, ? extends SpatialWrapper> reader, LiteralCache<LiteralKey, SpatialWrapper> index, LiteralCache<LiteralKey, SpatialWrapper> otherIndex) {
 
         if (INDEX_ACTIVE) {
-
-            if (index.containsKey(geometryLiteral)) {
-                geometryWrapper = (GeometryWrapper)index.get(geometryLiteral);
-            } else {
-                if (otherIndex.containsKey(geometryLiteral)) {
-                    geometryWrapper = (GeometryWrapper)otherIndex.get(geometryLiteral);
-                } else {
-                    geometryWrapper = geometryDatatype.read(geometryLiteral);
+            return index.computeIfAbsent(LiteralKey.of(geometryLiteral, datatypeURI), key -> {
+                SpatialWrapper spatialWrapper = otherIndex.getIfPresent(key);
+                if (spatialWrapper == null) {
+                    spatialWrapper = reader.apply(geometryLiteral);
+                    if (LEXICAL_FORM_RETENTION_LIMIT >= 0 && geometryLiteral.length() > LEXICAL_FORM_RETENTION_LIMIT) {
+                        spatialWrapper.releaseLexicalForm();
+                    }
                 }
-                index.put(geometryLiteral, geometryWrapper);
-            }
-
-            return geometryWrapper;
+                return spatialWrapper;
+            });
         }
 
-        return geometryDatatype.read(geometryLiteral);
-
+        return reader.apply(geometryLiteral);
     }
-    
-    private static CoverageWrapper retrieveMemoryIndex(String geometryLiteral, RasterDataType geometryDatatype, Map<String, SpatialWrapper> index, Map<String, SpatialWrapper> otherIndex) {
-
-        CoverageWrapper geometryWrapper;
-
-        if (INDEX_ACTIVE) {
-
-            if (index.containsKey(geometryLiteral)) {
-                geometryWrapper = (CoverageWrapper)index.get(geometryLiteral);
-            } else {
-                if (otherIndex.containsKey(geometryLiteral)) {
-                    geometryWrapper = (CoverageWrapper) otherIndex.get(geometryLiteral);
-                } else {
-                    geometryWrapper = geometryDatatype.read(geometryLiteral);
-                }
-                index.put(geometryLiteral, geometryWrapper);
-            }
 
-            return geometryWrapper;
-        }
+    private static LiteralCache<LiteralKey, SpatialWrapper> createDefaultCache(String label) {
+        return new WTinyLfuCache<>(label, MAX_SIZE, MAX_WEIGHT, EXPIRY_INTERVAL, SpatialWrapperWeigher.INSTANCE);
+    }
 
-        return geometryDatatype.read(geometryLiteral);
+    /**
+     * Sets the cache implementation used by the indexes.<br>
+     * The factory receives the index label, the current size, weight and
+     * expiry settings are then applied. All contents will be lost.
+     *
+     * @param cacheFactory
+     */
+    public static final void setCacheFactory(Function<String, LiteralCache<LiteralKey, SpatialWrapper>> cacheFactory) {
+        CACHE_FACTORY = cacheFactory;
+        PRIMARY_INDEX = createIndex(PRIMARY_INDEX_LABEL);
+        SECONDARY_INDEX = createIndex(SECONDARY_INDEX_LABEL);
+    }
 
+    private static LiteralCache<LiteralKey, SpatialWrapper> createIndex(String label) {
+        LiteralCache<LiteralKey, SpatialWrapper> index = CACHE_FACTORY.apply(label);
+        index.setMaxSize(MAX_SIZE);
+        index.setMaxWeight(MAX_WEIGHT);
+        index.setExpiryInterval(EXPIRY_INTERVAL);
+        return index;
     }
 
     /**
@@ -136,8 +150,31 @@ public class GeometryLiteralIndex {
      * @param maxSize : use -1 for unlimited size
      */
     public static final void setMaxSize(int maxSize) {
-        PRIMARY_INDEX.setMaxSize(maxSize);
-        SECONDARY_INDEX.setMaxSize(maxSize);
+        MAX_SIZE = maxSize < 0 ? LiteralCache.UNLIMITED : maxSize;
+        PRIMARY_INDEX.setMaxSize(MAX_SIZE);
+        SECONDARY_INDEX.setMaxSize(MAX_SIZE);
+    }
+
+    /**
+     * Sets the literal length above which indexed wrappers drop their lexical
+     * form.<br>
+     * Only applies to literals parsed after the change.
+     *
+     * @param retentionLimit : use -1 to always retain
+     */
+    public static final void setLexicalFormRetentionLimit(int retentionLimit) {
+        LEXICAL_FORM_RETENTION_LIMIT = retentionLimit;
+    }
+
+    /**
+     * Sets the maximum estimated bytes held by each Geometry Literal Index.
+     *
+     * @param maxWeight : use -1 for unlimited weight
+     */
+    public static final void setMaxWeight(long maxWeight) {
+        MAX_WEIGHT = maxWeight < 0 ? LiteralCache.UNLIMITED : maxWeight;
+        PRIMARY_INDEX.setMaxWeight(MAX_WEIGHT);
+        SECONDARY_INDEX.setMaxWeight(MAX_WEIGHT);
     }
 
     /**
@@ -147,6 +184,7 @@ public class GeometryLiteralIndex {
      * @param expiryInterval : use 0 or negative for unlimited timeout
      */
     public static final void setExpiry(long expiryInterval) {
+        EXPIRY_INTERVAL = expiryInterval;
         PRIMARY_INDEX.setExpiryInterval(expiryInterval);
         SECONDARY_INDEX.setExpiryInterval(expiryInterval);
     }
@@ -156,7 +194,7 @@ public class GeometryLiteralIndex {
      * @return Number of items in the primary index.
      */
     public static final long getPrimaryIndexSize() {
-        return PRIMARY_INDEX.mappingCount();
+        return PRIMARY_INDEX.size();
     }
 
     /**
@@ -164,7 +202,37 @@ public class GeometryLiteralIndex {
      * @return Number of items in the secondary index.
      */
     public static final long getSecondaryIndexSize() {
-        return SECONDARY_INDEX.mappingCount();
+        return SECONDARY_INDEX.size();
+    }
+
+    /**
+     *
+     * @return Estimated bytes held by the primary index.
+     */
+    public static final long getPrimaryIndexWeight() {
+        return PRIMARY_INDEX.weightedSize();
+    }
+
+    /**
+     *
+     * @return Estimated bytes held by the secondary index.
+     */
+    public static final long getSecondaryIndexWeight() {
+        return SECONDARY_INDEX.weightedSize();
+    }
+
+    /**
+     *
+     * @param targetIndex
+     * @return Hit, miss and eviction counters of the index.
+     */
+    public static final CacheStatistics getStatistics(GeometryIndex targetIndex) {
+        switch (targetIndex) {
+            case SECONDARY:
+                return SECONDARY_INDEX.getStatistics();
+            default:
+                return PRIMARY_INDEX.getStatistics();
+        }
     }
 
     /**
@@ -182,13 +250,6 @@ public class GeometryLiteralIndex {
      */
     public static void setIndexActive(boolean indexActive) {
         INDEX_ACTIVE = indexActive;
-        if (INDEX_ACTIVE) {
-            PRIMARY_INDEX.startExpiry();
-            SECONDARY_INDEX.startExpiry();
-        } else {
-            PRIMARY_INDEX.stopExpiry();
-            SECONDARY_INDEX.stopExpiry();
-        }
     }
 
     /**
@@ -199,8 +260,10 @@ public class GeometryLiteralIndex {
      * @param expiryInterval
      */
     public static void reset(int maxSize, long expiryInterval) {
-        PRIMARY_INDEX = new ExpiringMap<>(PRIMARY_INDEX_LABEL, maxSize, expiryInterval);
-        SECONDARY_INDEX = new ExpiringMap<>(SECONDARY_INDEX_LABEL, maxSize, expiryInterval);
+        MAX_SIZE = maxSize < 0 ? LiteralCache.UNLIMITED : maxSize;
+        EXPIRY_INTERVAL = expiryInterval;
+        PRIMARY_INDEX = createIndex(PRIMARY_INDEX_LABEL);
+        SECONDARY_INDEX = createIndex(SECONDARY_INDEX_LABEL);
     }
 
 }
\ No newline at end of file
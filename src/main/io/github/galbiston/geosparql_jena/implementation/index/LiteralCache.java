@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import java.util.function.Function;
+
+/**
+ * Bounded cache used by the Geometry Literal Index.<br>
+ * Implementations may be swapped in through
+ * {@link GeometryLiteralIndex#setCacheFactory(java.util.function.Function)}.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public interface LiteralCache<K, V> {
+
+    /**
+     * Value used to indicate no bound on size, weight or expiry.
+     */
+    public static final long UNLIMITED = -1;
+
+    /**
+     *
+     * @param key
+     * @return Cached value or null if not present.
+     */
+    public V getIfPresent(K key);
+
+    /**
+     * Returns the cached value for the key or computes, stores and returns it
+     * using the loader.<br>
+     * The key is looked up only once when present.
+     *
+     * @param key
+     * @param loader Function applied to the key when the value is not cached.
+     * @return Cached or loaded value.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * Removes the value for the key, if present.
+     *
+     * @param key
+     */
+    public void invalidate(K key);
+
+    /**
+     * Removes all values.
+     */
+    public void clear();
+
+    /**
+     *
+     * @return Number of entries held.
+     */
+    public long size();
+
+    /**
+     *
+     * @return Sum of the estimated weight of entries held.
+     */
+    public long weightedSize();
+
+    /**
+     * Sets the maximum number of entries.
+     *
+     * @param maxSize : use -1 for unlimited size
+     */
+    public void setMaxSize(long maxSize);
+
+    /**
+     * Sets the maximum total weight of entries, in estimated bytes.
+     *
+     * @param maxWeight : use -1 for unlimited weight
+     */
+    public void setMaxWeight(long maxWeight);
+
+    /**
+     * Sets the expiry time in milliseconds since the last access of an entry.
+     *
+     * @param expiryInterval : use 0 or negative for unlimited timeout
+     */
+    public void setExpiryInterval(long expiryInterval);
+
+    /**
+     *
+     * @return Snapshot of the hit, miss and eviction counters.
+     */
+    public CacheStatistics getStatistics();
+
+}
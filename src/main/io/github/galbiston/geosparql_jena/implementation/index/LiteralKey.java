@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * Geometry Literal Index key made of a 128-bit MurmurHash3 of the lexical form
+ * and the datatype URI.<br>
+ * Keys are equal if their hash, length and datatype are equal. The lexical
+ * form is only weakly referenced so the index does not keep it alive. While
+ * both lexical forms are reachable they are compared as well, which rejects a
+ * hash collision; once one has been collected the hash and length decide, so
+ * an entry stays reachable regardless of garbage collection.
+ */
+public final class LiteralKey {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long hash1;
+    private final long hash2;
+    private final int length;
+    private final String datatypeURI;
+    private final WeakReference<String> lexicalForm;
+
+    private LiteralKey(long hash1, long hash2, int length, String datatypeURI, String lexicalForm) {
+        this.hash1 = hash1;
+        this.hash2 = hash2;
+        this.length = length;
+        this.datatypeURI = datatypeURI;
+        this.lexicalForm = new WeakReference<>(lexicalForm);
+    }
+
+    /**
+     *
+     * @param lexicalForm
+     * @param datatypeURI
+     * @return Key for the literal.
+     */
+    public static final LiteralKey of(String lexicalForm, String datatypeURI) {
+        int length = lexicalForm.length();
+        long h1 = 0;
+        long h2 = 0;
+
+        //Eight UTF-16 chars per 128-bit block.
+        int blocks = length >>> 3;
+        for (int i = 0; i < blocks; i++) {
+            int offset = i << 3;
+            long k1 = chars(lexicalForm, offset);
+            long k2 = chars(lexicalForm, offset + 4);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = blocks << 3;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = length - 1; i >= tail; i--) {
+            int position = i - tail;
+            long c = lexicalForm.charAt(i);
+            if (position >= 4) {
+                k2 |= c << ((position - 4) << 4);
+            } else {
+                k1 |= c << (position << 4);
+            }
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        long byteLength = (long) length << 1;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new LiteralKey(h1, h2, length, datatypeURI, lexicalForm);
+    }
+
+    private static long chars(String text, int offset) {
+        return (long) text.charAt(offset)
+                | (long) text.charAt(offset + 1) << 16
+                | (long) text.charAt(offset + 2) << 32
+                | (long) text.charAt(offset + 3) << 48;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    public String getDatatypeURI() {
+        return datatypeURI;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash1 ^ (hash1 >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final LiteralKey other = (LiteralKey) obj;
+        if (this.hash1 != other.hash1 || this.hash2 != other.hash2 || this.length != other.length) {
+            return false;
+        }
+        if (!Objects.equals(this.datatypeURI, other.datatypeURI)) {
+            return false;
+        }
+        String thisLexicalForm = this.lexicalForm.get();
+        String otherLexicalForm = other.lexicalForm.get();
+        if (thisLexicalForm == null || otherLexicalForm == null || thisLexicalForm == otherLexicalForm) {
+            return true;
+        }
+        return thisLexicalForm.equals(otherLexicalForm);
+    }
+
+    @Override
+    public String toString() {
+        return "LiteralKey{" + "hash=" + String.format("%016x%016x", hash1, hash2) + ", length=" + length + ", datatypeURI=" + datatypeURI + '}';
+    }
+
+}
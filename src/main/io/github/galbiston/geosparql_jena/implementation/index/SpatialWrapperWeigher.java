@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import java.awt.image.DataBuffer;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Estimates the bytes held by an indexed literal.<br>
+ * Geometries are weighed by coordinate count, coverages by the size of their
+ * sample buffer.
+ */
+public class SpatialWrapperWeigher implements Weigher<Object, SpatialWrapper> {
+
+    public static final SpatialWrapperWeigher INSTANCE = new SpatialWrapperWeigher();
+
+    /**
+     * Approximate fixed cost of a wrapper, its key, map entry and SRS
+     * references.
+     */
+    private static final long ENTRY_OVERHEAD = 256;
+    private static final long BYTES_PER_ORDINATE = Double.BYTES;
+    private static final int DEFAULT_BYTES_PER_SAMPLE = Double.BYTES;
+
+    @Override
+    public long weigh(Object key, SpatialWrapper value) {
+        long weight = ENTRY_OVERHEAD;
+        if (value instanceof GeometryWrapper) {
+            weight += weigh((GeometryWrapper) value);
+        } else if (value instanceof CoverageWrapper) {
+            weight += weigh((CoverageWrapper) value);
+        }
+        return weight;
+    }
+
+    /**
+     *
+     * @param geometryWrapper
+     * @return Estimated bytes of the coordinates held by the wrapper.
+     */
+    public static final long weigh(GeometryWrapper geometryWrapper) {
+        Geometry xyGeometry = geometryWrapper.getXYGeometry();
+        Geometry parsingGeometry = geometryWrapper.getParsingGeometry();
+        long ordinates = (long) xyGeometry.getNumPoints() * geometryWrapper.getCoordinateDimension();
+        long weight = ordinates * BYTES_PER_ORDINATE;
+        if (parsingGeometry != xyGeometry) {
+            weight *= 2;
+        }
+        return weight;
+    }
+
+    /**
+     * Rasters not decoded yet are weighed from their header, as the sample
+     * buffer they will hold plus the hexadecimal literal held until then.
+     * Others are weighed as width x height x bands x sample size, without
+     * rendering or materialising the coverage.
+     *
+     * @param coverageWrapper
+     * @return Estimated bytes of the sample buffer held by the wrapper.
+     */
+    public static final long weigh(CoverageWrapper coverageWrapper) {
+        WKBRasterHeader header = coverageWrapper.getRasterHeader();
+        if (header != null && !coverageWrapper.isCoverageLoaded()) {
+            return header.getDataLength() + 2L * header.getLength();
+        }
+        long cells = (long) coverageWrapper.getWidth() * coverageWrapper.getHeight();
+        int bands = Math.max(1, coverageWrapper.getNumBands());
+        return cells * bands * bytesPerSample(coverageWrapper.getDataType());
+    }
+
+    private static int bytesPerSample(int dataType) {
+        if (dataType == DataBuffer.TYPE_UNDEFINED) {
+            return DEFAULT_BYTES_PER_SAMPLE;
+        }
+        return Math.max(1, DataBuffer.getDataTypeSize(dataType) / Byte.SIZE);
+    }
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * Size and weight bounded cache using Window TinyLFU eviction.<br>
+ * New entries enter a small LRU window. Entries leaving the window compete for
+ * a place in the main segmented LRU (probation and protected) against the
+ * least recently used probation entry, the more frequently requested of the two
+ * being kept. Request frequencies are estimated by a {@link FrequencySketch}.
+ * <br>
+ * Values are loaded outside of the lock so a slow parse does not block other
+ * lookups. Two threads missing on the same key may both load it, the first
+ * stored value is returned to both.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class WTinyLfuCache<K, V> implements LiteralCache<K, V> {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final String label;
+    private final Weigher<? super K, ? super V> weigher;
+    private final HashMap<K, Entry<K, V>> data;
+    private final AccessQueue<K, V> window;
+    private final AccessQueue<K, V> probation;
+    private final AccessQueue<K, V> protectedQueue;
+    private final FrequencySketch sketch;
+
+    private long maxSize;
+    private long maxWeight;
+    private long expiryInterval;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long loadCount = 0;
+    private long evictionCount = 0;
+    private long evictionWeight = 0;
+    private long rejectionCount = 0;
+    private long expiryCount = 0;
+
+    /**
+     *
+     * @param label Name used in toString.
+     * @param maxSize Maximum number of entries, -1 for unlimited.
+     * @param maxWeight Maximum total weight of entries, -1 for unlimited.
+     * @param expiryInterval Milliseconds since last access before an entry
+     * expires, 0 or negative for unlimited.
+     * @param weigher Estimates the weight of each entry.
+     */
+    public WTinyLfuCache(String label, long maxSize, long maxWeight, long expiryInterval, Weigher<? super K, ? super V> weigher) {
+        this.label = label;
+        this.weigher = weigher;
+        this.data = new HashMap<>();
+        this.window = new AccessQueue<>();
+        this.probation = new AccessQueue<>();
+        this.protectedQueue = new AccessQueue<>();
+        this.sketch = new FrequencySketch();
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.expiryInterval = expiryInterval;
+    }
+
+    @Override
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key.hashCode());
+        Entry<K, V> entry = data.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (isExpired(entry, now)) {
+            removeEntry(entry);
+            expiryCount++;
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        entry.accessTime = now;
+        onHit(entry);
+        return entry.value;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        long weight = weigher.weigh(key, loaded);
+        return store(key, loaded, weight);
+    }
+
+    private synchronized V store(K key, V value, long weight) {
+        loadCount++;
+        long now = System.currentTimeMillis();
+        Entry<K, V> existing = data.get(key);
+        if (existing != null) {
+            if (!isExpired(existing, now)) {
+                //Loaded concurrently by another thread so keep the stored value.
+                existing.accessTime = now;
+                return existing.value;
+            }
+            removeEntry(existing);
+            expiryCount++;
+        }
+
+        if (maxWeight >= 0 && weight > maxWeight || maxSize == 0) {
+            //Entry could never fit so do not disturb the cache.
+            rejectionCount++;
+            return value;
+        }
+
+        Entry<K, V> entry = new Entry<>(key, value, weight, now);
+        data.put(key, entry);
+        window.addLast(entry);
+        sketch.ensureCapacity(data.size());
+
+        expireEntries(now);
+        evictEntries();
+        return value;
+    }
+
+    private void onHit(Entry<K, V> entry) {
+        AccessQueue<K, V> queue = entry.queue;
+        if (queue == probation) {
+            probation.remove(entry);
+            protectedQueue.addLast(entry);
+            //Demote the least recent protected entries back to probation.
+            while (exceeds(protectedQueue, PROTECTED_RATIO * (1 - WINDOW_RATIO)) && protectedQueue.head != null) {
+                Entry<K, V> demoted = protectedQueue.head;
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            queue.moveToLast(entry);
+        }
+    }
+
+    /**
+     * Moves entries overflowing the window into probation and then evicts until
+     * within bounds, comparing the newest probation entry against the oldest.
+     */
+    private void evictEntries() {
+        while (exceeds(window, WINDOW_RATIO) && window.head != null) {
+            Entry<K, V> candidate = window.head;
+            window.remove(candidate);
+            probation.addLast(candidate);
+        }
+
+        while (isOverBounds()) {
+            Entry<K, V> victim = probation.head;
+            Entry<K, V> candidate = probation.tail;
+            if (victim == null) {
+                victim = protectedQueue.head != null ? protectedQueue.head : window.head;
+                evict(victim);
+            } else if (victim == candidate) {
+                evict(victim);
+            } else if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                rejectionCount++;
+            }
+        }
+    }
+
+    private void evict(Entry<K, V> entry) {
+        removeEntry(entry);
+        evictionCount++;
+        evictionWeight += entry.weight;
+    }
+
+    private void expireEntries(long now) {
+        if (expiryInterval <= 0) {
+            return;
+        }
+        expireQueue(window, now);
+        expireQueue(probation, now);
+        expireQueue(protectedQueue, now);
+    }
+
+    private void expireQueue(AccessQueue<K, V> queue, long now) {
+        while (queue.head != null && isExpired(queue.head, now)) {
+            removeEntry(queue.head);
+            expiryCount++;
+        }
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return expiryInterval > 0 && now - entry.accessTime > expiryInterval;
+    }
+
+    private void removeEntry(Entry<K, V> entry) {
+        data.remove(entry.key);
+        entry.queue.remove(entry);
+    }
+
+    private boolean isOverBounds() {
+        return (maxSize >= 0 && data.size() > maxSize) || (maxWeight >= 0 && weightedSize() > maxWeight);
+    }
+
+    private boolean exceeds(AccessQueue<K, V> queue, double ratio) {
+        return (maxSize >= 0 && queue.size > (long) (maxSize * ratio)) || (maxWeight >= 0 && queue.weight > (long) (maxWeight * ratio));
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        Entry<K, V> entry = data.get(key);
+        if (entry != null) {
+            removeEntry(entry);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        sketch.clear();
+    }
+
+    @Override
+    public synchronized long size() {
+        return data.size();
+    }
+
+    @Override
+    public synchronized long weightedSize() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    @Override
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        evictEntries();
+    }
+
+    @Override
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evictEntries();
+    }
+
+    @Override
+    public synchronized void setExpiryInterval(long expiryInterval) {
+        this.expiryInterval = expiryInterval;
+        expireEntries(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, loadCount, evictionCount, evictionWeight, rejectionCount, expiryCount);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "WTinyLfuCache{" + "label=" + label + ", size=" + data.size() + ", weightedSize=" + weightedSize() + ", maxSize=" + maxSize + ", maxWeight=" + maxWeight + ", expiryInterval=" + expiryInterval + '}';
+    }
+
+    private static class Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long weight;
+        private long accessTime;
+        private AccessQueue<K, V> queue;
+        private Entry<K, V> previous;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value, long weight, long accessTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.accessTime = accessTime;
+        }
+    }
+
+    /**
+     * Doubly linked list in access order, least recent at the head.
+     */
+    private static class AccessQueue<K, V> {
+
+        private Entry<K, V> head;
+        private Entry<K, V> tail;
+        private long size;
+        private long weight;
+
+        private void addLast(Entry<K, V> entry) {
+            entry.queue = this;
+            entry.previous = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+            size++;
+            weight += entry.weight;
+        }
+
+        private void remove(Entry<K, V> entry) {
+            if (entry.previous == null) {
+                head = entry.next;
+            } else {
+                entry.previous.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.previous;
+            } else {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            entry.queue = null;
+            size--;
+            weight -= entry.weight;
+        }
+
+        private void moveToLast(Entry<K, V> entry) {
+            if (entry != tail) {
+                remove(entry);
+                addLast(entry);
+            }
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+            weight = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.galbiston.geosparql_jena.implementation.index;
+
+/**
+ * Estimates the memory held by a cache entry.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     *
+     * @param key
+     * @param value
+     * @return Estimated weight of the entry in bytes, non-negative.
+     */
+    public long weigh(K key, V value);
+
+}
@@ -81,6 +81,28 @@ public final class WKBRasterConstants {
         }
     }
 
+    /**
+     * @param pixelType
+     * @return String, postGIS name of the pixel type, e.g. 32BF
+     */
+    public static String getPixelTypeName(int pixelType) {
+        switch (pixelType) {
+            case PT_1BB: return "1BB";
+            case PT_2BUI: return "2BUI";
+            case PT_4BUI: return "4BUI";
+            case PT_8BSI: return "8BSI";
+            case PT_8BUI: return "8BUI";
+            case PT_16BSI: return "16BSI";
+            case PT_16BUI: return "16BUI";
+            case PT_32BSI: return "32BSI";
+            case PT_32BUI: return "32BUI";
+            case PT_32BF: return "32BF";
+            case PT_64BF: return "64BF";
+            default:
+                throw new IllegalArgumentException("unknowned pixel type : " + pixelType);
+        }
+    }
+
     public static int getDataBufferType(int pixelType){
         switch (pixelType) {
             case PT_1BB:
@@ -0,0 +1,344 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2012, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.coverage.wkb;
+
+import java.awt.geom.Rectangle2D;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+
+import static org.geotoolkit.coverage.wkb.WKBRasterConstants.*;
+
+/**
+ * Fixed size header and band descriptors of a WKB raster.
+ * <p>
+ * Only the header and the band descriptors are read, band values are skipped.
+ * An hexadecimal WKB is decoded only where the header and descriptors are.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public final class WKBRasterHeader {
+
+    /** size in bytes of the raster header, before the first band */
+    public static final int HEADER_SIZE = 61;
+
+    private final ByteOrder byteOrder;
+    private final int version;
+    private final double scaleX;
+    private final double scaleY;
+    private final double ipX;
+    private final double ipY;
+    private final double skewX;
+    private final double skewY;
+    private final int srid;
+    private final int width;
+    private final int height;
+    private final WKBRasterBand[] bands;
+    private final int[] dataOffsets;
+    private final int length;
+
+    private WKBRasterHeader(final Source source) throws IOException {
+        byteOrder = source.read(0, 1).get() == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        final ByteBuffer ds = source.read(1, HEADER_SIZE - 1).order(byteOrder);
+        version = ds.getShort() & 0xFFFF;
+        final int nbBand = ds.getShort() & 0xFFFF;
+        scaleX = ds.getDouble();
+        scaleY = ds.getDouble();
+        ipX = ds.getDouble();
+        ipY = ds.getDouble();
+        skewX = ds.getDouble();
+        skewY = ds.getDouble();
+        srid = ds.getInt();
+        width = ds.getShort() & 0xFFFF;
+        height = ds.getShort() & 0xFFFF;
+
+        final int nbPixel = width*height;
+        bands = new WKBRasterBand[nbBand];
+        dataOffsets = new int[nbBand];
+        int offset = HEADER_SIZE;
+        for(int i=0;i<nbBand;i++){
+            final WKBRasterBand band = new WKBRasterBand();
+            final byte b = source.read(offset, 1).get();
+            band.setPixelType(b & BANDTYPE_PIXTYPE_MASK);
+            band.setOffDatabase( (b & BANDTYPE_FLAG_OFFDB) != 0);
+            band.setHasNodata( (b & BANDTYPE_FLAG_HASNODATA) != 0);
+            band.setIsNodata( (b & BANDTYPE_FLAG_ISNODATA) != 0);
+            band.setReserved( (b & BANDTYPE_FLAG_RESERVED3) != 0);
+            offset++;
+
+            final int nbBytePerPixel;
+            try {
+                nbBytePerPixel = band.getNbBytePerPixel();
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("unknowned pixel type : "+band.getPixelType());
+            }
+
+            /* read nodata value */
+            final ByteBuffer nodata = source.read(offset, nbBytePerPixel).order(byteOrder);
+            switch (band.getPixelType()) {
+                case PT_1BB:
+                case PT_2BUI:
+                case PT_4BUI:
+                case PT_8BUI:
+                    band.setNoDataValue(nodata.get() & 0xFF);
+                    break;
+                case PT_8BSI:
+                    band.setNoDataValue(nodata.get());
+                    break;
+                case PT_16BSI:
+                    band.setNoDataValue(nodata.getShort());
+                    break;
+                case PT_16BUI:
+                    band.setNoDataValue(nodata.getShort() & 0xFFFF);
+                    break;
+                case PT_32BSI:
+                    band.setNoDataValue(nodata.getInt());
+                    break;
+                case PT_32BUI:
+                    band.setNoDataValue(nodata.getInt() & 0x00000000ffffffffL);
+                    break;
+                case PT_32BF:
+                    band.setNoDataValue(nodata.getFloat());
+                    break;
+                default:
+                    band.setNoDataValue(nodata.getDouble());
+                    break;
+            }
+            offset += nbBytePerPixel;
+
+            if(band.isOffDatabase()){
+                throw new IOException("can not access data which are off database");
+            }
+
+            //we expect all bands to have the same type
+            if(i > 0 && bands[0].getDataBufferType() != band.getDataBufferType()){
+                throw new IOException("Band type differ, can not be mapped to java image.");
+            }
+
+            dataOffsets[i] = offset;
+            offset += nbPixel*nbBytePerPixel;
+            bands[i] = band;
+        }
+        if(source.length() < offset){
+            throw new IOException("Unexpected end of WKB raster : "+offset+" bytes expected, "+source.length()+" available");
+        }
+        length = offset;
+    }
+
+    /**
+     * Read the header from the position of the buffer.
+     * The position of the buffer is not modified.
+     *
+     * @param buffer
+     * @return WKBRasterHeader
+     * @throws IOException if the header is invalid or the buffer too short.
+     */
+    public static WKBRasterHeader read(final ByteBuffer buffer) throws IOException {
+        final ByteBuffer base = buffer.slice();
+        return new WKBRasterHeader(new Source() {
+            @Override
+            public ByteBuffer read(int offset, int length) throws IOException {
+                if (offset + length > base.limit()) {
+                    throw new IOException("Unexpected end of WKB raster at byte "+offset);
+                }
+                final ByteBuffer window = base.duplicate();
+                window.position(offset);
+                window.limit(offset + length);
+                return window;
+            }
+
+            @Override
+            public long length() {
+                return base.limit();
+            }
+        });
+    }
+
+    /**
+     * Read the header from an hexadecimal WKB.
+     * Only the header and band descriptors are decoded.
+     *
+     * @param hex
+     * @return WKBRasterHeader
+     * @throws IOException if the header is invalid or the WKB too short.
+     */
+    public static WKBRasterHeader read(final CharSequence hex) throws IOException {
+        if ((hex.length() & 1) != 0) {
+            throw new IOException("Hexadecimal WKB has an odd number of characters : " + hex.length());
+        }
+        return new WKBRasterHeader(new Source() {
+            @Override
+            public ByteBuffer read(int offset, int length) throws IOException {
+                if (2L * (offset + length) > hex.length()) {
+                    throw new IOException("Unexpected end of WKB raster at byte "+offset);
+                }
+                return WKBRasterReader.hexToByteBuffer(hex.subSequence(2 * offset, 2 * (offset + length)));
+            }
+
+            @Override
+            public long length() {
+                return hex.length() / 2;
+            }
+        });
+    }
+
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getNumBands() {
+        return bands.length;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public double getUpperLeftX() {
+        return ipX;
+    }
+
+    public double getUpperLeftY() {
+        return ipY;
+    }
+
+    public double getSkewX() {
+        return skewX;
+    }
+
+    public double getSkewY() {
+        return skewY;
+    }
+
+    /**
+     * @return int, postgis srid
+     */
+    public int getSRID() {
+        return srid;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return AffineTransform2D, grid to CRS transform of the pixel centers
+     */
+    public AffineTransform2D getGridToCRS() {
+        return new AffineTransform2D(scaleX, skewY, skewX, scaleY, ipX, ipY);
+    }
+
+    /**
+     * Envelope of the grid cells, as computed by a grid geometry with
+     * the grid to CRS transform of the pixel centers.
+     *
+     * @return Rectangle2D in CRS units
+     */
+    public Rectangle2D getEnvelope() {
+        final Rectangle2D cells = new Rectangle2D.Double(-0.5, -0.5, width, height);
+        return getGridToCRS().createTransformedShape(cells).getBounds2D();
+    }
+
+    /**
+     * @param band
+     * @return int, one of the WKBRasterConstants PT_* pixel types
+     */
+    public int getPixelType(int band) {
+        return bands[band].getPixelType();
+    }
+
+    /**
+     * @return int, java DataBuffer type shared by all bands
+     */
+    public int getDataBufferType() {
+        return bands.length == 0 ? DataBuffer.TYPE_UNDEFINED : bands[0].getDataBufferType();
+    }
+
+    public boolean hasNoData(int band) {
+        return bands[band].hasNodata();
+    }
+
+    public boolean isNoData(int band) {
+        return bands[band].isNodata();
+    }
+
+    public Number getNoDataValue(int band) {
+        return bands[band].getNoDataValue();
+    }
+
+    /**
+     * @param band
+     * @return int, offset in bytes of the band values from the raster start
+     */
+    public int getDataOffset(int band) {
+        return dataOffsets[band];
+    }
+
+    /**
+     * @return long, size in bytes of the band values of all bands
+     */
+    public long getDataLength() {
+        long size = 0;
+        for (WKBRasterBand band : bands) {
+            size += (long) width * height * band.getNbBytePerPixel();
+        }
+        return size;
+    }
+
+    /**
+     * @return int, size in bytes of the WKB raster
+     */
+    public int getLength() {
+        return length;
+    }
+
+    private interface Source {
+
+        ByteBuffer read(int offset, int length) throws IOException;
+
+        long length();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WKB Raster Header :");
+        sb.append("\n- version : ").append(version);
+        sb.append("\n- srid : ").append(srid);
+        sb.append("\n- size : ").append(width).append('x').append(height);
+        sb.append("\n- bands : ").append(bands.length);
+        for (WKBRasterBand band : bands) {
+            sb.append('\n').append(band);
+        }
+        return sb.toString();
+    }
+
+}
@@ -21,16 +21,22 @@ import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
-import java.awt.image.RenderedImage;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
 import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
-import java.io.ByteArrayInputStream;
-import java.io.DataInput;
-import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.Collections;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -45,15 +51,9 @@ import org.apache.sis.coverage.grid.GridGeometry;
 import org.apache.sis.internal.coverage.BufferedGridCoverage;
 import org.apache.sis.internal.coverage.ColorModelFactory;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
-import org.apache.sis.metadata.iso.content.DefaultSampleDimension;
-import org.apache.sis.referencing.CRS;
-import org.apache.sis.util.iso.DefaultInternationalString;
 import org.apache.sis.util.iso.DefaultNameFactory;
-import org.apache.sis.util.iso.DefaultScopedName;
 
-import static org.geotoolkit.coverage.wkb.WKBRasterConstants.*;
-import org.geotoolkit.io.LEDataInputStream;
-import org.opengis.coverage.CannotEvaluateException;
+import de.hsmainz.cs.semgis.arqextension.util.CRSCache;
 import org.opengis.referencing.NoSuchAuthorityCodeException;
 import org.opengis.referencing.crs.CRSAuthorityFactory;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -62,11 +62,29 @@ import org.opengis.util.FactoryException;
 
 /**
  * WKB Raster Reader, used in postGIS 2 but can be used elsewhere.
+ * <p>
+ * The WKB is decoded from a ByteBuffer in the byte order declared by the WKB.
+ * Band values are bulk copied from the buffer into the typed arrays of the
+ * image DataBuffer, without intermediate byte arrays. Heap, direct and memory
+ * mapped buffers are supported.
  *
  * @author Johann Sorel (Geomatys)
  */
 public class WKBRasterReader {
 
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
     private AffineTransform2D gridToCRS = null;
     private int srid = 0;
 
@@ -97,6 +115,32 @@ public class WKBRasterReader {
         return srid;
     }
 
+    /**
+     * Decode an hexadecimal WKB string into a buffer ready to be read.
+     *
+     * @param hex
+     * @return ByteBuffer holding the decoded bytes.
+     * @throws IOException if the string is not valid hexadecimal.
+     */
+    public static ByteBuffer hexToByteBuffer(final CharSequence hex) throws IOException {
+        final int length = hex.length();
+        if ((length & 1) != 0) {
+            throw new IOException("Hexadecimal WKB has an odd number of characters : " + length);
+        }
+        final byte[] bytes = new byte[length / 2];
+        for (int i = 0, j = 0; i < length; i += 2, j++) {
+            final char high = hex.charAt(i);
+            final char low = hex.charAt(i + 1);
+            final int highValue = high < 128 ? HEX_VALUES[high] : -1;
+            final int lowValue = low < 128 ? HEX_VALUES[low] : -1;
+            if (highValue < 0 || lowValue < 0) {
+                throw new IOException("Invalid hexadecimal character at index " + (highValue < 0 ? i : i + 1));
+            }
+            bytes[j] = (byte) ((highValue << 4) | lowValue);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
     /**
      * Parse given byte[] and rebuild a GridCoverage2D.
      *
@@ -106,12 +150,12 @@ public class WKBRasterReader {
      */
     public GridCoverage readCoverage(byte[] data, CRSAuthorityFactory authorityFactory)
             throws IOException, NoSuchAuthorityCodeException, FactoryException{
-        final InputStream stream = new ByteArrayInputStream(data);
-        return readCoverage(stream,authorityFactory);
+        return readCoverage(ByteBuffer.wrap(data),authorityFactory);
     }
 
     /**
      * Parse given InputStream and rebuild a GridCoverage2D.
+     * The stream is read to its end.
      *
      * @param stream
      * @return
@@ -119,13 +163,40 @@ public class WKBRasterReader {
      */
     public GridCoverage readCoverage(final InputStream stream, CRSAuthorityFactory authorityFactory)
             throws IOException, NoSuchAuthorityCodeException, FactoryException{
-        final BufferedImage image = read(stream);
-        final String epsgCode = "EPSG:"+srid;
+        return readCoverage(toByteBuffer(stream),authorityFactory);
+    }
+
+    /**
+     * Memory map given file and rebuild a GridCoverage2D.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public GridCoverage readCoverage(final Path file, CRSAuthorityFactory authorityFactory)
+            throws IOException, NoSuchAuthorityCodeException, FactoryException{
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readCoverage(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),authorityFactory);
+        }
+    }
+
+    /**
+     * Parse given ByteBuffer from its position and rebuild a GridCoverage2D.
+     * The position of the buffer is not modified.
+     *
+     * @param buffer
+     * @return
+     * @throws IOException
+     */
+    public GridCoverage readCoverage(final ByteBuffer buffer, CRSAuthorityFactory authorityFactory)
+            throws IOException, NoSuchAuthorityCodeException, FactoryException{
+        final BufferedImage image = read(buffer);
         final CoordinateReferenceSystem crs;
         if (authorityFactory != null) {
-            crs = authorityFactory.createCoordinateReferenceSystem(epsgCode);
+            crs = authorityFactory.createCoordinateReferenceSystem("EPSG:"+srid);
         } else {
-            crs = CRS.forCode(epsgCode);
+            //resolved once per srid for all decoded rasters
+            crs = CRSCache.getCRS(srid);
         }
         GridExtent extent=new GridExtent(image.getWidth(), image.getHeight());
         GridGeometry gridgeom=new GridGeometry(extent, PixelInCell.CELL_CENTER, getGridToCRS(), crs);
@@ -134,8 +205,9 @@ public class WKBRasterReader {
         for(int i=0;i<image.getRaster().getNumBands();i++) {
         	dimensions.add(new SampleDimension(fac.createGenericName(null,  "Dimension "+i),0.,new LinkedList<Category>()));
         }
+        //the decoded raster owns its data buffer, no need to copy it
         BufferedGridCoverage cov=new BufferedGridCoverage(
-        		gridgeom, dimensions, image.getData().getDataBuffer());
+        		gridgeom, dimensions, image.getRaster().getDataBuffer());
         return cov;
     }
 
@@ -147,202 +219,112 @@ public class WKBRasterReader {
      * @throws IOException
      */
     public BufferedImage read(byte[] data) throws IOException{
-        final InputStream stream = new ByteArrayInputStream(data);
-        return read(stream);
+        return read(ByteBuffer.wrap(data));
     }
 
     /**
      * Parse given InputStream and rebuild RenderedImage.
+     * The stream is read to its end.
      *
      * @param stream
      * @return
      * @throws IOException
      */
     public BufferedImage read(final InputStream stream) throws IOException{
+        return read(toByteBuffer(stream));
+    }
 
-        final DataInput ds;
-        final boolean littleEndian = stream.read() == 1;
-        if(littleEndian){
-            //big endian
-            ds = new LEDataInputStream(stream);
-        }else{
-            //little endian
-            ds = new DataInputStream(stream);
+    private static ByteBuffer toByteBuffer(final InputStream stream) throws IOException{
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[8192];
+        int read;
+        while ((read = stream.read(chunk)) >= 0) {
+            out.write(chunk, 0, read);
         }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
 
-        final int version = ds.readUnsignedShort();
-        final int nbBand = ds.readUnsignedShort();
-        //grid to crs
-        final double scaleX = ds.readDouble();
-        final double scaleY = ds.readDouble();
-        final double ipX = ds.readDouble();
-        final double ipY = ds.readDouble();
-        final double skewX = ds.readDouble();
-        final double skewY = ds.readDouble();
-        gridToCRS = new AffineTransform2D(scaleX, skewY, skewX, scaleY, ipX, ipY);
+    /**
+     * Parse given ByteBuffer from its position and rebuild RenderedImage.
+     * The position and byte order of the buffer are not modified.
+     *
+     * @param buffer
+     * @return
+     * @throws IOException
+     */
+    public BufferedImage read(final ByteBuffer buffer) throws IOException{
+        try {
+            return decode(buffer.duplicate());
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("Unexpected end of WKB raster", ex);
+        }
+    }
 
+    private BufferedImage decode(final ByteBuffer ds) throws IOException{
 
-        srid = ds.readInt();
-        final int width = ds.readUnsignedShort();
-        final int height = ds.readUnsignedShort();
+        final WKBRasterHeader header = WKBRasterHeader.read(ds);
+        gridToCRS = header.getGridToCRS();
+        srid = header.getSRID();
 
+        final int nbBand = header.getNumBands();
         if(nbBand == 0){
             //possible for empty raster
             return null;
         }
 
-        final WKBRasterBand[] bands = new WKBRasterBand[nbBand];
+        final int width = header.getWidth();
+        final int height = header.getHeight();
+        final int nbPixel = width*height;
+        final int dataBufferType = header.getDataBufferType();
+        final Object[] bankData = new Object[nbBand];
 
         for(int i=0;i<nbBand;i++){
-            final WKBRasterBand band = new WKBRasterBand();
-
-            final byte b = ds.readByte();
-            band.setPixelType(b & BANDTYPE_PIXTYPE_MASK);
-            band.setOffDatabase( (b & BANDTYPE_FLAG_OFFDB) != 0);
-            band.setHasNodata( (b & BANDTYPE_FLAG_HASNODATA) != 0);
-            band.setIsNodata( (b & BANDTYPE_FLAG_ISNODATA) != 0);
-            band.setReserved( (b & BANDTYPE_FLAG_RESERVED3) != 0);
-
-            /* read nodata value */
-            switch (band.getPixelType()) {
-                case PT_1BB:
-                case PT_2BUI:
-                case PT_4BUI:
-                case PT_8BUI:
-                    band.setNoDataValue(ds.readUnsignedByte());
-                    break;
-                case PT_8BSI:
-                    band.setNoDataValue(ds.readByte());
+            //read values, the buffer views apply the byte order
+            final ByteBuffer values = ds.duplicate().order(header.getByteOrder());
+            values.position(ds.position()+header.getDataOffset(i));
+            switch (dataBufferType) {
+                case DataBuffer.TYPE_BYTE:
+                    final byte[] bytes = new byte[nbPixel];
+                    values.get(bytes);
+                    bankData[i] = bytes;
                     break;
-                case PT_16BSI:
-                    band.setNoDataValue(ds.readShort());
+                case DataBuffer.TYPE_SHORT:
+                case DataBuffer.TYPE_USHORT:
+                    final short[] shorts = new short[nbPixel];
+                    values.asShortBuffer().get(shorts);
+                    bankData[i] = shorts;
                     break;
-                case PT_16BUI:
-                    band.setNoDataValue(ds.readUnsignedShort());
+                case DataBuffer.TYPE_INT:
+                    final int[] ints = new int[nbPixel];
+                    values.asIntBuffer().get(ints);
+                    bankData[i] = ints;
                     break;
-                case PT_32BSI:
-                    band.setNoDataValue(ds.readInt());
+                case DataBuffer.TYPE_FLOAT:
+                    final float[] floats = new float[nbPixel];
+                    values.asFloatBuffer().get(floats);
+                    bankData[i] = floats;
                     break;
-                case PT_32BUI:
-                    band.setNoDataValue(ds.readInt() & 0x00000000ffffffffL);
-                    break;
-                case PT_32BF:
-                    band.setNoDataValue(ds.readFloat());
-                    break;
-                case PT_64BF:
-                    band.setNoDataValue(ds.readDouble());
+                case DataBuffer.TYPE_DOUBLE:
+                    final double[] doubles = new double[nbPixel];
+                    values.asDoubleBuffer().get(doubles);
+                    bankData[i] = doubles;
                     break;
                 default:
-                    throw new IOException("unknowned pixel type : "+band.getPixelType());
+                    throw new IllegalArgumentException("unknowned data buffer type : " + dataBufferType);
             }
-
-            if(band.isOffDatabase()){
-                throw new IOException("can not access data which are off database");
-            }else{
-                //read values
-                final int nbBytePerPixel = band.getNbBytePerPixel();
-                final byte[] datas = new byte[width*height*band.getNbBytePerPixel()];
-                ds.readFully(datas);
-                if(littleEndian && nbBytePerPixel > 1){
-                    //image databank expect values in big endian so we must flip bytes
-                    byte temp;
-                    for(int k=0;k<datas.length;k+=nbBytePerPixel){
-                        for(int p=0,n=nbBytePerPixel/2; p<n ;p++){
-                            final int index1 = k+p;
-                            final int index2 = k+(nbBytePerPixel-p-1);
-                            temp = datas[index1];
-                            datas[index1] = datas[index2];
-                            datas[index2] = temp;
-                        }
-                    }
-                }
-                band.setDatas(datas);
-            }
-
-            bands[i] = band;
         }
 
-        //we expect all bands to have the same type
-        final int dataBufferType = bands[0].getDataBufferType();
-
-        //rebuild raster
-        final WritableRaster raster;
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-
-        if(dataBufferType == DataBuffer.TYPE_BYTE){
-            //more efficient but only works for byte type bands
-            //check all band have the same sample model and rebuild data buffer
-            Integer dataType = null;
-            final byte[][] dataArray = new byte[nbBand][0];
-            final int[] bankIndices = new int[nbBand];
-            final int[] bankOffsets = new int[nbBand];
-            for(int i=0;i<bands.length;i++){
-                final WKBRasterBand band = bands[i];
-                if(dataType == null){
-                    dataType = band.getDataBufferType();
-                }else if(dataType != band.getDataBufferType()){
-                    throw new IOException("Band type differ, can not be mapped to java image.");
-                }
-                dataArray[i] = band.getDatas();
-                bankIndices[i] = i;
-                bankOffsets[i] = 0;
-            }
-
-            min = -100.0;
-            max = 100.0;
-
-            //rebuild data buffer
-            final DataBuffer db = new DataBufferByte(dataArray, dataArray[0].length);
-            final int scanlineStride = width;
-            raster = RasterFactory.createBandedRaster(
-                    db, width, height, scanlineStride, bankIndices, bankOffsets, new Point(0,0));
-
-        }else{
-            raster = RasterFactory.createBandedRaster(dataBufferType,width,height,nbBand,new Point(0,0));
-            for(int i=0;i<bands.length;i++){
-                final byte[] datas = bands[i].getDatas();
-                final DataInputStream dds = new DataInputStream(new ByteArrayInputStream(datas));
-                for(int y=0;y<height;y++){
-                    for(int x=0;x<width;x++){
-                        switch (dataBufferType) {
-                            case DataBuffer.TYPE_SHORT:
-                                short d1 = dds.readShort();
-                                raster.setSample(x, y, i, d1);
-                                min = Math.min(min, (double)d1);
-                                max = Math.max(max, (double)d1);
-                                break;
-                            case DataBuffer.TYPE_USHORT:
-                                int d2 = dds.readUnsignedShort();
-                                raster.setSample(x, y, i, d2);
-                                min = Math.min(min, (double)d2);
-                                max = Math.max(max, (double)d2);
-                                break;
-                            case DataBuffer.TYPE_INT:
-                                int d3 = dds.readInt();
-                                raster.setSample(x, y, i, d3);
-                                min = Math.min(min, (double)d3);
-                                max = Math.max(max, (double)d3);
-                                break;
-                            case DataBuffer.TYPE_FLOAT:
-                                float d4 = dds.readFloat();
-                                raster.setSample(x, y, i, d4);
-                                min = Math.min(min, (double)d4);
-                                max = Math.max(max, (double)d4);
-                                break;
-                            case DataBuffer.TYPE_DOUBLE:
-                                double d5 = dds.readDouble();
-                                raster.setSample(x, y, i, d5);
-                                min = Math.min(min, d5);
-                                max = Math.max(max, d5);
-                                break;
-                            default:
-                                throw new IllegalArgumentException("unknowned data buffer type : " + dataBufferType);
-                        }
-                    }
-                }
-            }
+        //rebuild data buffer, one bank per band
+        final DataBuffer db = createDataBuffer(dataBufferType, bankData, nbPixel);
+        final int[] bankIndices = new int[nbBand];
+        final int[] bankOffsets = new int[nbBand];
+        for(int i=0;i<nbBand;i++){
+            bankIndices[i] = i;
         }
+        final int scanlineStride = width;
+        final WritableRaster raster = RasterFactory.createBandedRaster(
+                db, width, height, scanlineStride, bankIndices, bankOffsets, new Point(0,0));
+
         //rebuild image
         final SampleModel sm = raster.getSampleModel();
         ColorModel cm = PlanarImage.getDefaultColorModel(sm.getDataType(), raster.getNumBands());
@@ -352,4 +334,36 @@ public class WKBRasterReader {
         }
         return new BufferedImage(cm, raster, false, null);
     }
-}
\ No newline at end of file
+
+    private static DataBuffer createDataBuffer(final int dataBufferType, final Object[] bankData, final int size){
+        final int nbBank = bankData.length;
+        switch (dataBufferType) {
+            case DataBuffer.TYPE_BYTE:
+                final byte[][] bytes = new byte[nbBank][];
+                for(int i=0;i<nbBank;i++) bytes[i] = (byte[]) bankData[i];
+                return new DataBufferByte(bytes, size);
+            case DataBuffer.TYPE_SHORT:
+                final short[][] shorts = new short[nbBank][];
+                for(int i=0;i<nbBank;i++) shorts[i] = (short[]) bankData[i];
+                return new DataBufferShort(shorts, size);
+            case DataBuffer.TYPE_USHORT:
+                final short[][] ushorts = new short[nbBank][];
+                for(int i=0;i<nbBank;i++) ushorts[i] = (short[]) bankData[i];
+                return new DataBufferUShort(ushorts, size);
+            case DataBuffer.TYPE_INT:
+                final int[][] ints = new int[nbBank][];
+                for(int i=0;i<nbBank;i++) ints[i] = (int[]) bankData[i];
+                return new DataBufferInt(ints, size);
+            case DataBuffer.TYPE_FLOAT:
+                final float[][] floats = new float[nbBank][];
+                for(int i=0;i<nbBank;i++) floats[i] = (float[]) bankData[i];
+                return new DataBufferFloat(floats, size);
+            case DataBuffer.TYPE_DOUBLE:
+                final double[][] doubles = new double[nbBank][];
+                for(int i=0;i<nbBank;i++) doubles[i] = (double[]) bankData[i];
+                return new DataBufferDouble(doubles, size);
+            default:
+                throw new IllegalArgumentException("unknowned data buffer type : " + dataBufferType);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package de.hsmainz.cs.semgis.arqextension.test.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.TopologyException;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.aggregate.CollectPartial;
+import de.hsmainz.cs.semgis.arqextension.aggregate.GeometryPartial;
+import de.hsmainz.cs.semgis.arqextension.aggregate.PartialAccumulator;
+import de.hsmainz.cs.semgis.arqextension.aggregate.UnionPartial;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Geo;
+
+public class AggregateTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator();
+
+	private static Model createModel() {
+		Model model = ModelFactory.createDefaultModel();
+		Property group = model.createProperty(NS + "group");
+		String[][] rows = { { "a", "POINT(1 2)" }, { "a", "LINESTRING(3 4, 5 -6)" },
+				{ "b", "POINT Z(1 2 3)" }, { "b", "POINT Z(1 2 3)" }, { "b", "POINT(7 8)" } };
+		for (int i = 0; i < rows.length; i++) {
+			model.createResource(NS + "feature" + i).addProperty(group, rows[i][0])
+					.addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(rows[i][1], WKTDatatype.INSTANCE));
+		}
+		return model;
+	}
+
+	@Test
+	public void testGroupBy() {
+		PostGISConfig.setup();
+		String query = "SELECT ?group (geo2:ST_AvgX(?wkt) AS ?avgX) (geo2:ST_AvgX(DISTINCT ?wkt) AS ?avgXDistinct)"
+				+ " (geo2:ST_MinY(?wkt) AS ?minY) (geo2:ST_MaxY(?wkt) AS ?maxY) (geo2:ST_MaxZ(?wkt) AS ?maxZ) (geo2:ST_BoundingBox(?wkt) AS ?bbox)"
+				+ " WHERE { ?feature <" + NS + "group> ?group ; <" + Geo.AS_WKT_PROP.getURI() + "> ?wkt } GROUP BY ?group ORDER BY ?group";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, createModel())) {
+			ResultSet rs = qe.execSelect();
+			QuerySolution a = rs.next();
+			assertEquals(3, a.getLiteral("avgX").getDouble(), 0);
+			assertEquals(-6, a.getLiteral("minY").getDouble(), 0);
+			assertEquals(4, a.getLiteral("maxY").getDouble(), 0);
+			//no Z coordinates
+			assertNull(a.get("maxZ"));
+			assertEquals(new Envelope(1, 5, -6, 4), GeometryWrapper.extract(a.getLiteral("bbox")).getEnvelope());
+			QuerySolution b = rs.next();
+			assertEquals(3, b.getLiteral("avgX").getDouble(), 0);
+			assertEquals(4, b.getLiteral("avgXDistinct").getDouble(), 0);
+			assertEquals(3, b.getLiteral("maxZ").getDouble(), 0);
+			assertEquals(new Envelope(1, 7, 2, 8), GeometryWrapper.extract(b.getLiteral("bbox")).getEnvelope());
+			assertFalse(rs.hasNext());
+		}
+	}
+
+	@Test
+	public void testEmptyGroup() {
+		PostGISConfig.setup();
+		String query = "SELECT (geo2:ST_AvgX(?wkt) AS ?avgX) (geo2:ST_MinX(?wkt) AS ?minX) WHERE { ?feature <" + NS + "none> ?wkt }";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, createModel())) {
+			QuerySolution solution = qe.execSelect().next();
+			assertEquals(0, solution.getLiteral("avgX").getDouble(), 0);
+			assertNull(solution.get("minX"));
+		}
+	}
+
+	/**
+	 * Unit squares of a grid of 40 x 10 cells in four districts of 10 x 10 cells.
+	 */
+	private static Model createParcels() {
+		Model model = ModelFactory.createDefaultModel();
+		Property district = model.createProperty(NS + "district");
+		GeometryFactory factory = new GeometryFactory();
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 10; y++) {
+				String wkt = factory.toGeometry(new Envelope(x, x + 1, y, y + 1)).toText();
+				model.createResource(NS + "parcel" + x + "_" + y).addProperty(district, "d" + (x / 10))
+						.addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(wkt, WKTDatatype.INSTANCE));
+			}
+		}
+		return model;
+	}
+
+	@Test
+	public void testDissolve() {
+		PostGISConfig.setup();
+		String query = "SELECT ?district (geo2:ST_UnionAgg(?wkt) AS ?union) (geo2:ST_Collect(?wkt) AS ?collect) (geo2:ST_Extent(?wkt) AS ?extent)"
+				+ " WHERE { ?parcel <" + NS + "district> ?district ; <" + Geo.AS_WKT_PROP.getURI() + "> ?wkt } GROUP BY ?district ORDER BY ?district";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, createParcels())) {
+			ResultSet rs = qe.execSelect();
+			for (int i = 0; i < 4; i++) {
+				QuerySolution solution = rs.next();
+				Geometry union = GeometryWrapper.extract(solution.getLiteral("union")).getParsingGeometry();
+				assertEquals("Polygon", union.getGeometryType());
+				assertEquals(100, union.getArea(), 1e-9);
+				Geometry collect = GeometryWrapper.extract(solution.getLiteral("collect")).getParsingGeometry();
+				assertEquals("MultiPolygon", collect.getGeometryType());
+				assertEquals(100, collect.getNumGeometries());
+				assertEquals(new Envelope(i * 10, i * 10 + 10, 0, 10), GeometryWrapper.extract(solution.getLiteral("extent")).getEnvelope());
+			}
+			assertFalse(rs.hasNext());
+		}
+	}
+
+	@Test
+	public void testPartials() {
+		GeometryFactory factory = new GeometryFactory();
+		//small blocks, unioned on the pool and in the calling thread
+		UnionPartial union = new UnionPartial(4, 4);
+		UnionPartial sequential = new UnionPartial(4, 1);
+		CollectPartial collect = new CollectPartial();
+		for (int i = 0; i < 37; i++) {
+			Geometry square = factory.toGeometry(new Envelope(i, i + 1, 0, 1));
+			union.add(square);
+			sequential.add(square);
+			collect.add(factory.createPoint(new Coordinate(i, i)));
+		}
+		Geometry result = union.getResult(factory);
+		assertEquals("Polygon", result.getGeometryType());
+		assertEquals(37, result.getArea(), 1e-9);
+		assertEquals(37, sequential.getResult(factory).getArea(), 1e-9);
+		assertEquals(37, collect.size());
+		assertEquals("MultiPoint", collect.getResult(factory).getGeometryType());
+		assertNull(new UnionPartial().getResult(factory));
+	}
+
+	@Test
+	public void testTopologyFailure() {
+		GeometryPartial failing = new GeometryPartial() {
+
+			@Override
+			public void add(Geometry geometry) {
+			}
+
+			@Override
+			public Geometry getResult(GeometryFactory factory) {
+				throw new TopologyException("found non-noded intersection");
+			}
+		};
+		NodeValue point = NodeValue.makeNode("POINT(1 2)", WKTDatatype.INSTANCE);
+		PartialAccumulator<GeometryPartial> accumulator = new PartialAccumulator<>(point, false, failing);
+		accumulator.accumulate(BindingFactory.root(), null);
+		assertThrows(ExprEvalException.class, accumulator::getValue);
+	}
+
+	@Test
+	public void testClusterWithin() {
+		PostGISConfig.setup();
+		Model model = ModelFactory.createDefaultModel();
+		String[] points = { "POINT(0 0)", "POINT(1 0)", "POINT(2 0)", "POINT(10 0)", "POINT(11 0)", "POINT(50 50)" };
+		for (int i = 0; i < points.length; i++) {
+			model.createResource(NS + "point" + i).addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(points[i], WKTDatatype.INSTANCE));
+		}
+		String query = "SELECT (geo2:ST_ClusterWithin(?wkt, 1.5) AS ?within) (geo2:ST_ClusterDBSCAN(?wkt, 1.5, 3) AS ?dbscan)"
+				+ " WHERE { ?point <" + Geo.AS_WKT_PROP.getURI() + "> ?wkt }";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, model)) {
+			QuerySolution solution = qe.execSelect().next();
+			Geometry within = GeometryWrapper.extract(solution.getLiteral("within")).getParsingGeometry();
+			assertEquals(3, within.getNumGeometries());
+			assertEquals(6, within.getNumPoints());
+			//the pair and the single point are noise
+			Geometry dbscan = GeometryWrapper.extract(solution.getLiteral("dbscan")).getParsingGeometry();
+			assertEquals(1, dbscan.getNumGeometries());
+			assertEquals(3, dbscan.getGeometryN(0).getNumGeometries());
+		}
+	}
+
+	@Test
+	public void testClusterKMeans() throws ParseException {
+		PostGISConfig.setup();
+		String wkt = "\"^^<" + WKTDatatype.URI + ">";
+		//the last point is in EPSG:4326, latitude first, and is clustered in the SRS of the first one
+		String query = "SELECT (geo2:ST_ClusterKMeans(?wkt, 2) AS ?kmeans) WHERE { VALUES ?wkt { \"POINT(0 50)" + wkt + " \"POINT(50 0)" + wkt
+				+ " \"POINT(1 51)" + wkt + " \"POINT(51 1)" + wkt + " \"POINT EMPTY" + wkt + " \"<http://www.opengis.net/def/crs/EPSG/0/4326> POINT(50 1)" + wkt + " } }";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, ModelFactory.createDefaultModel())) {
+			//nested collections are read by JTS, a collection per cluster in the order of their first point
+			Geometry kmeans = new WKTReader().read(qe.execSelect().next().getLiteral("kmeans").getLexicalForm());
+			assertEquals(2, kmeans.getNumGeometries());
+			assertEquals(3, kmeans.getGeometryN(0).getNumGeometries());
+			assertEquals(new Envelope(0, 1, 50, 51), kmeans.getGeometryN(0).getEnvelopeInternal());
+			assertEquals(new Envelope(50, 51, 0, 1), kmeans.getGeometryN(1).getEnvelopeInternal());
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package de.hsmainz.cs.semgis.arqextension.test.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.Wrapper;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.GeometryDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.RasterDataType;
+import io.github.galbiston.geosparql_jena.implementation.datatype.SpatialDatatypeRegistry;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.EncodedPolylineDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GMLDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GPXDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoJSONDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.GeoURIDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.HexWKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.KMLDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.TWKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.geometry.WKBDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+import io.github.galbiston.geosparql_jena.implementation.index.GeometryLiteralIndex;
+
+/**
+ * JMH benchmark of datatype dispatch on the literal extraction path.<br>
+ * legacyDispatch reproduces the former per-call TypeMapper registration and
+ * exception driven vector/raster fallback, tableDispatch uses the
+ * SpatialDatatypeRegistry. The extract benchmarks measure a complete indexed
+ * extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatatypeDispatchBenchmark {
+
+	private static final TypeMapper TYPE_MAPPER = TypeMapper.getInstance();
+
+	private String wktURI;
+
+	private String rasterURI;
+
+	private NodeValue wktLiteral;
+
+	@Setup
+	public void setup() {
+		SpatialDatatypeRegistry.registerDatatypes();
+		GeometryLiteralIndex.setIndexActive(true);
+		wktURI = WKTDatatype.URI;
+		rasterURI = HexWKBRastDatatype.URI;
+		wktLiteral = NodeValue.makeNode("POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))", WKTDatatype.INSTANCE);
+	}
+
+	@Benchmark
+	public Object legacyDispatchVector() {
+		return legacyDispatch(wktURI);
+	}
+
+	@Benchmark
+	public Object legacyDispatchRaster() {
+		return legacyDispatch(rasterURI);
+	}
+
+	@Benchmark
+	public Object tableDispatchVector() {
+		return SpatialDatatypeRegistry.getKind(wktURI) == SpatialDatatypeRegistry.SpatialKind.VECTOR ? GeometryDatatype.get(wktURI) : null;
+	}
+
+	@Benchmark
+	public Object tableDispatchRaster() {
+		return SpatialDatatypeRegistry.getKind(rasterURI) == SpatialDatatypeRegistry.SpatialKind.RASTER ? RasterDataType.get(rasterURI) : null;
+	}
+
+	@Benchmark
+	public GeometryWrapper extractVector() {
+		return GeometryWrapper.extract(wktLiteral);
+	}
+
+	@Benchmark
+	public Wrapper extractRasterOrVector() {
+		return LiteralUtils.rasterOrVector(wktLiteral);
+	}
+
+	/**
+	 * Former dispatch: all geometry datatypes registered with the TypeMapper on
+	 * every call and a thrown exception to fall back to the raster datatypes.
+	 */
+	private static Object legacyDispatch(String datatypeURI) {
+		try {
+			legacyRegisterDatatypes();
+			RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
+			if (!(rdfDatatype instanceof GeometryDatatype)) {
+				legacyRegisterDatatypes();
+				throw new IllegalArgumentException("Unrecognised Geometry Datatype: " + datatypeURI);
+			}
+			return rdfDatatype;
+		} catch (Exception e) {
+			RDFDatatype rdfDatatype = TYPE_MAPPER.getTypeByName(datatypeURI);
+			return rdfDatatype instanceof RasterDataType ? rdfDatatype : null;
+		}
+	}
+
+	private static void legacyRegisterDatatypes() {
+		TYPE_MAPPER.registerDatatype(WKTDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(GMLDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(GeoJSONDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(KMLDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(WKBDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(TWKBDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(EncodedPolylineDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(HexWKBDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(GeoURIDatatype.INSTANCE);
+		TYPE_MAPPER.registerDatatype(GPXDatatype.INSTANCE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DatatypeDispatchBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
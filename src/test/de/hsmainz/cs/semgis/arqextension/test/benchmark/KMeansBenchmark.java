@@ -0,0 +1,84 @@
+package de.hsmainz.cs.semgis.arqextension.test.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.hsmainz.cs.semgis.arqextension.index.KMeansClustering;
+
+/**
+ * JMH benchmark of ST_ClusterKMeans over groups of 10k to 10M points drawn
+ * around random centres.<br>
+ * parallel assigns the chunks on the shared pool, sequential in the calling
+ * thread. Groups above the mini-batch threshold, the 10M group by default, use
+ * mini-batch k-means.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class KMeansBenchmark {
+
+	private static final int CLUSTERS = 16;
+
+	@Param({"10000", "100000", "1000000", "10000000"})
+	public int size;
+
+	private double[] x;
+
+	private double[] y;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		double[] centreX = new double[CLUSTERS];
+		double[] centreY = new double[CLUSTERS];
+		for (int c = 0; c < CLUSTERS; c++) {
+			centreX[c] = random.nextDouble() * 1000;
+			centreY[c] = random.nextDouble() * 1000;
+		}
+		x = new double[size];
+		y = new double[size];
+		for (int i = 0; i < size; i++) {
+			int c = random.nextInt(CLUSTERS);
+			x[i] = centreX[c] + random.nextGaussian() * 20;
+			y[i] = centreY[c] + random.nextGaussian() * 20;
+		}
+	}
+
+	@Benchmark
+	public int[] parallel() {
+		return new KMeansClustering(CLUSTERS).cluster(x, y, size);
+	}
+
+	@Benchmark
+	public int[] sequential() {
+		return new KMeansClustering(CLUSTERS, KMeansClustering.DEFAULT_MAX_ITERATIONS, KMeansClustering.DEFAULT_MINI_BATCH_THRESHOLD,
+				KMeansClustering.DEFAULT_BATCH_SIZE, 1, KMeansClustering.DEFAULT_SEED).cluster(x, y, size);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(KMeansBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
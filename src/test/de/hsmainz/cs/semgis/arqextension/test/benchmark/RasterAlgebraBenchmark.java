@@ -0,0 +1,120 @@
+package de.hsmainz.cs.semgis.arqextension.test.benchmark;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferFloat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.coverage.BufferedGridCoverage;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.util.iso.Names;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengis.referencing.datum.PixelInCell;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression.UnaryOp;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterTiles;
+
+/**
+ * JMH benchmark of the pixelwise and neighbourhood raster operators on square
+ * float DEMs of 1000 to 10000 pixels side.<br>
+ * parallelism 1 computes the tiles in the calling thread, 0 on all threads of
+ * the shared pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RasterAlgebraBenchmark {
+
+	@Param({"1000", "4000", "10000"})
+	public int size;
+
+	@Param({"1", "0"})
+	public int parallelism;
+
+	private GridCoverage dem;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		DataBufferFloat buffer = new DataBufferFloat(size * size, 1);
+		for (int i = 0; i < size * size; i++) {
+			buffer.setElemFloat(i, random.nextFloat() * 3000 - 100);
+		}
+		GridGeometry grid = new GridGeometry(new GridExtent(size, size), PixelInCell.CELL_CENTER,
+				new AffineTransform2D(1, 0, 0, -1, 0, size), null);
+		List<SampleDimension> dimensions = new ArrayList<>();
+		dimensions.add(new SampleDimension(Names.createLocalName(null, null, "Elevation"), 0., new ArrayList<>()));
+		dem = new BufferedGridCoverage(grid, dimensions, buffer);
+		RasterTiles.setParallelism(parallelism);
+	}
+
+	@TearDown
+	public void tearDown() {
+		RasterTiles.setParallelism(0);
+	}
+
+	@Benchmark
+	public GridCoverage abs() {
+		return RasterExpression.apply(RasterExpression.of(dem), UnaryOp.ABS).materialise();
+	}
+
+	@Benchmark
+	public GridCoverage log() {
+		return RasterExpression.apply(RasterExpression.of(dem), UnaryOp.LOG).materialise();
+	}
+
+	@Benchmark
+	public GridCoverage binarize() {
+		return RasterExpression.apply(RasterExpression.of(dem), UnaryOp.BINARIZE, 1000).materialise();
+	}
+
+	@Benchmark
+	public GridCoverage divConst() {
+		return RasterExpression.apply(RasterExpression.of(dem), UnaryOp.DIVIDE, 3.5).materialise();
+	}
+
+	@Benchmark
+	public GridCoverage slope() {
+		return NeighbourhoodOperation.apply(dem, new int[] {0}, NeighbourhoodKernels.slope(1, 1, 1), DataBuffer.TYPE_FLOAT, "SLOPE");
+	}
+
+	@Benchmark
+	public GridCoverage median() {
+		return NeighbourhoodOperation.apply(dem, new int[] {0}, NeighbourhoodKernels.median(1), DataBuffer.TYPE_FLOAT, "MEDIAN_FILTER");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RasterAlgebraBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
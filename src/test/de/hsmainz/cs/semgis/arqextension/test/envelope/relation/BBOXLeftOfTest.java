@@ -6,7 +6,9 @@ import org.apache.jena.sparql.expr.NodeValue;
 import org.junit.jupiter.api.Test;
 
 import de.hsmainz.cs.semgis.arqextension.envelope.relation.BBOXLeftOf;
+import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
 import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
 
 public class BBOXLeftOfTest {
 
@@ -38,5 +40,15 @@ public class BBOXLeftOfTest {
         NodeValue result = instance.exec(geometryLiteral,geometryLiteral1);
         assertEquals(expResult, result);
 	}
+
+	@Test
+	public void testBBOXLeftOfRaster() {
+		//the raster covers 3427927.725 to 3427927.975 on the x axis, its envelope is read from the header
+        NodeValue rasterLiteral = NodeValue.makeNode(SampleRasters.wkbString4, HexWKBRastDatatype.INSTANCE);
+        NodeValue geometryLiteral = NodeValue.makeNode("POINT(3427928 5793244)", WKTDatatype.INSTANCE);
+        BBOXLeftOf instance=new BBOXLeftOf();
+        assertEquals(NodeValue.TRUE, instance.exec(rasterLiteral,geometryLiteral));
+        assertEquals(NodeValue.FALSE, instance.exec(geometryLiteral,rasterLiteral));
+	}
 	
 }
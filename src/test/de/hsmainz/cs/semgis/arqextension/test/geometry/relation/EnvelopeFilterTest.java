@@ -0,0 +1,94 @@
+package de.hsmainz.cs.semgis.arqextension.test.geometry.relation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import io.github.galbiston.geosparql_jena.implementation.EnvelopeFilter;
+import io.github.galbiston.geosparql_jena.implementation.EnvelopeFilter.Predicate;
+
+public class EnvelopeFilterTest {
+
+	private static final String[] GEOMETRIES=new String[] {
+			"POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))",
+			"POLYGON((20 20, 30 20, 30 30, 20 30, 20 20))",
+			"POLYGON((2 2, 4 2, 4 4, 2 4, 2 2))",
+			"LINESTRING(-5 5, 15 5)",
+			"LINESTRING(40 0, 50 10)",
+			"POINT(5 5)",
+			"POINT(100 100)",
+			"MULTIPOINT((1 1), (60 60))",
+			"POINT EMPTY"
+	};
+
+	private static Geometry read(String wkt) throws ParseException {
+		return new WKTReader().read(wkt);
+	}
+
+	@Test
+	public void testDecisionsMatchJTS() throws ParseException {
+		for(String wkt:GEOMETRIES) {
+			for(String targetWkt:GEOMETRIES) {
+				Geometry geometry=read(wkt);
+				Geometry target=read(targetWkt);
+				Envelope envelope=geometry.getEnvelopeInternal();
+				Envelope targetEnvelope=target.getEnvelopeInternal();
+				if(EnvelopeFilter.decides(Predicate.INTERSECTS, envelope, targetEnvelope)) {
+					assertFalse(geometry.intersects(target));
+					assertTrue(geometry.disjoint(target));
+					assertFalse(geometry.touches(target));
+				}
+				if(EnvelopeFilter.decides(Predicate.CONTAINS, envelope, targetEnvelope)) {
+					assertFalse(geometry.contains(target));
+				}
+				if(EnvelopeFilter.decides(Predicate.WITHIN, envelope, targetEnvelope)) {
+					assertFalse(geometry.within(target));
+				}
+				if(EnvelopeFilter.decides(Predicate.EQUALS_TOPO, envelope, targetEnvelope)) {
+					assertFalse(geometry.equalsExact(target));
+				}
+				IntersectionMatrix matrix=EnvelopeFilter.disjointMatrix(geometry, target);
+				if(matrix!=null) {
+					assertEquals(geometry.relate(target).toString(), matrix.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIntersectingEnvelopesAreNotDecided() throws ParseException {
+		Geometry square=read(GEOMETRIES[0]);
+		Geometry inner=read(GEOMETRIES[2]);
+		assertFalse(EnvelopeFilter.decides(Predicate.INTERSECTS, square.getEnvelopeInternal(), inner.getEnvelopeInternal()));
+		assertFalse(EnvelopeFilter.decides(Predicate.CONTAINS, square.getEnvelopeInternal(), inner.getEnvelopeInternal()));
+		assertTrue(EnvelopeFilter.decides(Predicate.WITHIN, square.getEnvelopeInternal(), inner.getEnvelopeInternal()));
+		assertNull(EnvelopeFilter.disjointMatrix(square, inner));
+	}
+
+	@Test
+	public void testEqualsExactTolerance() {
+		Envelope envelope=new Envelope(0, 10, 0, 10);
+		assertFalse(EnvelopeFilter.decidesEqualsExact(envelope, new Envelope(0.05, 10, 0, 10), 0.1));
+		assertTrue(EnvelopeFilter.decidesEqualsExact(envelope, new Envelope(0.5, 10, 0, 10), 0.1));
+		assertTrue(EnvelopeFilter.decidesEqualsExact(envelope, new Envelope(), 0.1));
+	}
+
+	@Test
+	public void testCounters() {
+		EnvelopeFilter.resetCounts();
+		EnvelopeFilter.decides(Predicate.OVERLAPS, new Envelope(0, 1, 0, 1), new Envelope(2, 3, 2, 3));
+		EnvelopeFilter.decides(Predicate.OVERLAPS, new Envelope(0, 1, 0, 1), new Envelope(0, 3, 0, 3));
+		assertEquals(2, EnvelopeFilter.getEvaluationCount(Predicate.OVERLAPS));
+		assertEquals(1, EnvelopeFilter.getDecisionCount(Predicate.OVERLAPS));
+		assertEquals(1, EnvelopeFilter.getDecisionCount());
+	}
+
+}
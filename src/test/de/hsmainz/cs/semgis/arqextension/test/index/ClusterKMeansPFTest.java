@@ -0,0 +1,96 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.expr.aggregate.AggregateRegistry;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.vocabulary.PostGISGeo;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+
+public class ClusterKMeansPFTest {
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator();
+
+	/**
+	 * Two groups of points around (0 50) and (50 0), a string, an unbound
+	 * geometry and a point in EPSG:4326, whose latitude comes first, of the
+	 * first group.
+	 */
+	private static final String VALUES = "VALUES (?name ?wkt) { (\"a0\" " + wkt("POINT(0 50)") + ") (\"b0\" " + wkt("POINT(50 0)") + ")"
+			+ " (\"text\" \"POINT(50 0)\") (\"a1\" " + wkt("POINT(1 51)") + ") (\"b1\" " + wkt("POINT(51 1)") + ") (\"unbound\" UNDEF)"
+			+ " (\"a2\" " + wkt("<http://www.opengis.net/def/crs/EPSG/0/4326> POINT(50 1)") + ") (\"b2\" " + wkt("POINT(49 1)") + ") } ";
+
+	private static String wkt(String wkt) {
+		return "\"" + wkt + "\"^^<" + WKTDatatype.URI + ">";
+	}
+
+	private static Map<String, Integer> select(String query) {
+		Map<String, Integer> ids = new LinkedHashMap<>();
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, ModelFactory.createDefaultModel())) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				QuerySolution solution = rs.next();
+				ids.put(solution.getLiteral("name").getString(), solution.contains("id") ? solution.getLiteral("id").getInt() : null);
+			}
+		}
+		return ids;
+	}
+
+	@Test
+	public void testRegistered() {
+		PostGISConfig.setup();
+		assertTrue(PropertyFunctionRegistry.get().isRegistered(PostGISGeo.st_clusterKMeans.getURI()));
+		assertTrue(AggregateRegistry.isRegistered(PostGISGeo.st_clusterKMeans.getURI()));
+	}
+
+	@Test
+	public void testWindow() {
+		PostGISConfig.setup();
+		Map<String, Integer> ids = select("SELECT ?name ?id WHERE { " + VALUES + "?id geo2:ST_ClusterKMeans (?wkt 2) }");
+		//all solutions are returned in their order, the ids computed over all of them
+		List<String> names = new ArrayList<>(ids.keySet());
+		assertEquals(8, names.size());
+		assertEquals("a0", names.get(0));
+		assertEquals("b2", names.get(7));
+		assertEquals(ids.get("a0"), ids.get("a1"));
+		assertEquals(ids.get("a0"), ids.get("a2"));
+		assertEquals(ids.get("b0"), ids.get("b1"));
+		assertEquals(ids.get("b0"), ids.get("b2"));
+		assertNotEquals(ids.get("a0"), ids.get("b0"));
+		//no geometry literal, no id
+		assertTrue(ids.containsKey("text"));
+		assertNull(ids.get("text"));
+		assertNull(ids.get("unbound"));
+	}
+
+	@Test
+	public void testBoundSubject() {
+		PostGISConfig.setup();
+		int id = select("SELECT ?name ?id WHERE { " + VALUES + "?id geo2:ST_ClusterKMeans (?wkt 2) }").get("b0");
+		Map<String, Integer> cluster = select("SELECT ?name WHERE { " + VALUES + id + " geo2:ST_ClusterKMeans (?wkt 2) }");
+		assertEquals(3, cluster.size());
+		assertTrue(cluster.keySet().containsAll(Arrays.asList("b0", "b1", "b2")));
+		assertFalse(cluster.containsKey("text"));
+		assertTrue(select("SELECT ?name WHERE { " + VALUES + "7 geo2:ST_ClusterKMeans (?wkt 2) }").isEmpty());
+	}
+
+}
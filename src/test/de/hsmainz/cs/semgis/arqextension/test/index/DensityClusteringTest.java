@@ -0,0 +1,146 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import de.hsmainz.cs.semgis.arqextension.index.DensityClustering;
+
+public class DensityClusteringTest {
+
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+
+	private static List<Geometry> createGeometries(Random random, int count, boolean isBoxes) {
+		List<Geometry> geometries = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			geometries.add(isBoxes ? FACTORY.toGeometry(new Envelope(x, x + random.nextDouble() * 3, y, y + random.nextDouble() * 3))
+					: FACTORY.createPoint(new Coordinate(x, y)));
+		}
+		return geometries;
+	}
+
+	private static boolean isNeighbour(List<Geometry> geometries, int i, int j, double distance) {
+		return i == j || geometries.get(i).isWithinDistance(geometries.get(j), distance);
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Cluster ids numbered in order of the first geometry of each cluster.
+	 */
+	private static int[] renumber(int[] roots) {
+		int[] numbers = new int[roots.length];
+		Arrays.fill(numbers, DensityClustering.NOISE);
+		int next = 0;
+		int[] ids = new int[roots.length];
+		for (int i = 0; i < roots.length; i++) {
+			if (roots[i] == DensityClustering.NOISE) {
+				ids[i] = DensityClustering.NOISE;
+				continue;
+			}
+			if (numbers[roots[i]] == DensityClustering.NOISE) {
+				numbers[roots[i]] = next++;
+			}
+			ids[i] = numbers[roots[i]];
+		}
+		return ids;
+	}
+
+	private static int[] bruteForceWithin(List<Geometry> geometries, double distance) {
+		int[] parent = new int[geometries.size()];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+			for (int j = 0; j < i; j++) {
+				if (isNeighbour(geometries, i, j, distance)) {
+					parent[find(parent, i)] = find(parent, j);
+				}
+			}
+		}
+		int[] roots = new int[parent.length];
+		for (int i = 0; i < parent.length; i++) {
+			roots[i] = find(parent, i);
+		}
+		return renumber(roots);
+	}
+
+	private static int[] bruteForceDBSCAN(List<Geometry> geometries, double eps, int minPoints) {
+		int size = geometries.size();
+		boolean[] isCore = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			int count = 0;
+			for (int j = 0; j < size; j++) {
+				count += isNeighbour(geometries, i, j, eps) ? 1 : 0;
+			}
+			isCore[i] = count >= minPoints;
+		}
+		int[] parent = new int[size];
+		for (int i = 0; i < size; i++) {
+			parent[i] = i;
+			for (int j = 0; j < i; j++) {
+				if (isCore[i] && isCore[j] && isNeighbour(geometries, i, j, eps)) {
+					parent[find(parent, i)] = find(parent, j);
+				}
+			}
+		}
+		int[] roots = new int[size];
+		for (int i = 0; i < size; i++) {
+			roots[i] = DensityClustering.NOISE;
+			for (int j = 0; j < size && roots[i] == DensityClustering.NOISE; j++) {
+				if (isCore[i] ? i == j : isCore[j] && isNeighbour(geometries, i, j, eps)) {
+					roots[i] = find(parent, j);
+				}
+			}
+		}
+		return renumber(roots);
+	}
+
+	@Test
+	public void testClusterWithin() {
+		Random random = new Random(3);
+		for (int run = 0; run < 10; run++) {
+			List<Geometry> geometries = createGeometries(random, 300, run % 2 == 1);
+			double distance = random.nextDouble() * 4;
+			assertArrayEquals(bruteForceWithin(geometries, distance), DensityClustering.clusterWithin(geometries, distance));
+		}
+	}
+
+	@Test
+	public void testClusterIntersecting() {
+		List<Geometry> geometries = createGeometries(new Random(5), 300, true);
+		assertArrayEquals(bruteForceWithin(geometries, 0), DensityClustering.clusterIntersecting(geometries));
+	}
+
+	@Test
+	public void testDBSCAN() {
+		Random random = new Random(7);
+		for (int run = 0; run < 10; run++) {
+			List<Geometry> geometries = createGeometries(random, 300, run % 2 == 1);
+			double eps = random.nextDouble() * 4;
+			int minPoints = 2 + random.nextInt(4);
+			assertArrayEquals(bruteForceDBSCAN(geometries, eps, minPoints), DensityClustering.dbscan(geometries, eps, minPoints));
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, DensityClustering.clusterWithin(new ArrayList<>(), 1).length);
+	}
+
+}
@@ -0,0 +1,66 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.index.GraphIndexCache;
+
+public class GraphIndexCacheTest {
+
+	private static final int THREADS = 8;
+
+	@Test
+	public void testConcurrentGet() throws Exception {
+		GraphIndexCache<Object> cache = new GraphIndexCache<>();
+		Graph graph = GraphFactory.createDefaultGraph();
+		AtomicInteger builds = new AtomicInteger();
+		Function<Graph, Object> builder = g -> {
+			builds.incrementAndGet();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return new Object();
+		};
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return cache.get(graph, builder);
+				}));
+			}
+			start.countDown();
+			Object index = results.get(0).get();
+			for (Future<Object> result : results) {
+				assertSame(index, result.get());
+			}
+			assertEquals(1, builds.get());
+			//a change drops the index, the next query builds it again
+			graph.add(Triple.create(NodeFactory.createURI("http://example.org/s"), NodeFactory.createURI("http://example.org/p"), NodeFactory.createLiteral("o")));
+			cache.get(graph, builder);
+			assertEquals(2, builds.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
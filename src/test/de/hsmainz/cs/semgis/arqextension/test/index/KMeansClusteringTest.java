@@ -0,0 +1,89 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.index.KMeansClustering;
+
+public class KMeansClusteringTest {
+
+	private static final int CLUSTERS = 5;
+
+	private double[] x;
+
+	private double[] y;
+
+	private int[] blobs;
+
+	/**
+	 * Points around well separated centres, blob i around (100 * i, 100 * i).
+	 */
+	private void createBlobs(int count) {
+		Random random = new Random(11);
+		x = new double[count];
+		y = new double[count];
+		blobs = new int[count];
+		for (int i = 0; i < count; i++) {
+			blobs[i] = random.nextInt(CLUSTERS);
+			x[i] = blobs[i] * 100 + random.nextGaussian();
+			y[i] = blobs[i] * 100 + random.nextGaussian();
+		}
+	}
+
+	/**
+	 * Asserts that the clusters are the blobs, numbered in order of their first point.
+	 */
+	private void assertBlobs(int[] ids) {
+		int[] numbers = new int[CLUSTERS];
+		Arrays.fill(numbers, -1);
+		int next = 0;
+		for (int i = 0; i < blobs.length; i++) {
+			if (numbers[blobs[i]] == -1) {
+				numbers[blobs[i]] = next++;
+			}
+			assertEquals(numbers[blobs[i]], ids[i]);
+		}
+	}
+
+	@Test
+	public void testBlobs() {
+		createBlobs(20000);
+		KMeansClustering clustering = new KMeansClustering(CLUSTERS);
+		assertBlobs(clustering.cluster(x, y, x.length));
+		for (int c = 0; c < CLUSTERS; c++) {
+			int blob = (int) Math.round(clustering.getCentreX()[c] / 100);
+			assertEquals(blob * 100, clustering.getCentreX()[c], 0.1);
+			assertEquals(blob * 100, clustering.getCentreY()[c], 0.1);
+		}
+	}
+
+	@Test
+	public void testStable() {
+		createBlobs(200000);
+		int[] sequential = new KMeansClustering(CLUSTERS, 100, Integer.MAX_VALUE, 1000, 1, 3).cluster(x, y, x.length);
+		int[] parallel = new KMeansClustering(CLUSTERS, 100, Integer.MAX_VALUE, 1000, 4, 3).cluster(x, y, x.length);
+		assertArrayEquals(sequential, parallel);
+		assertArrayEquals(sequential, new KMeansClustering(CLUSTERS, 100, Integer.MAX_VALUE, 1000, 4, 3).cluster(x, y, x.length));
+	}
+
+	@Test
+	public void testMiniBatch() {
+		createBlobs(50000);
+		KMeansClustering clustering = new KMeansClustering(CLUSTERS, 50, 1000, 500, 2, KMeansClustering.DEFAULT_SEED);
+		assertBlobs(clustering.cluster(x, y, x.length));
+		assertEquals(50, clustering.getIterations());
+	}
+
+	@Test
+	public void testFewerPoints() {
+		int[] ids = new KMeansClustering(CLUSTERS).cluster(new double[] {0, 10, 0}, new double[] {0, 10, 0}, 2);
+		assertArrayEquals(new int[] {0, 1}, ids);
+		assertEquals(0, new KMeansClustering(CLUSTERS).cluster(new double[0], new double[0], 0).length);
+	}
+
+}
@@ -0,0 +1,52 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.galbiston.geosparql_jena.implementation.index.LiteralKey;
+
+public class LiteralKeyTest {
+
+	private static final String DATATYPE = "http://www.opengis.net/ont/geosparql#wktLiteral";
+
+	/**
+	 * Key with a given hash, as two lexical forms with the same 128-bit hash
+	 * can not be found.
+	 */
+	private static LiteralKey createKey(String lexicalForm) throws ReflectiveOperationException {
+		Constructor<LiteralKey> constructor = LiteralKey.class.getDeclaredConstructor(long.class, long.class, int.class, String.class, String.class);
+		constructor.setAccessible(true);
+		return constructor.newInstance(1L, 2L, 10, DATATYPE, lexicalForm);
+	}
+
+	@Test
+	public void testEqualLexicalForms() {
+		LiteralKey key = LiteralKey.of("POINT(1 2)", DATATYPE);
+		LiteralKey other = LiteralKey.of(new String("POINT(1 2)"), DATATYPE);
+		assertTrue(key.equals(other));
+		assertEquals(key.hashCode(), other.hashCode());
+		assertFalse(key.equals(LiteralKey.of("POINT(1 3)", DATATYPE)));
+		assertFalse(key.equals(LiteralKey.of("POINT(1 2)", "http://www.opengis.net/ont/geosparql#gmlLiteral")));
+	}
+
+	@Test
+	public void testHashCollision() throws ReflectiveOperationException {
+		LiteralKey key = createKey("POINT(1 2)");
+		LiteralKey collision = createKey("POINT(3 4)");
+		assertEquals(key.hashCode(), collision.hashCode());
+		assertFalse(key.equals(collision));
+		assertTrue(key.equals(createKey(new String("POINT(1 2)"))));
+		//a collected lexical form is matched by hash and length, so its entry is still found
+		LiteralKey collected = createKey(null);
+		assertTrue(collected.equals(key));
+		assertTrue(key.equals(collected));
+		assertEquals(key.hashCode(), collected.hashCode());
+		assertFalse(collected.equals(LiteralKey.of("POINT(1 2)", DATATYPE)));
+	}
+
+}
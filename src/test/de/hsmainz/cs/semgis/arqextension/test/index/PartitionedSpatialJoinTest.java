@@ -0,0 +1,125 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinTask;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import de.hsmainz.cs.semgis.arqextension.index.PartitionedSpatialJoin;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialJoinStatistics;
+
+public class PartitionedSpatialJoinTest {
+
+	private static List<Envelope> createEnvelopes(Random random, int count, double maxSize) {
+		List<Envelope> envelopes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			//clustered in the lower left corner to skew the grid
+			double x = random.nextBoolean() ? random.nextDouble() * 100 : random.nextDouble() * 10;
+			double y = random.nextBoolean() ? random.nextDouble() * 100 : random.nextDouble() * 10;
+			envelopes.add(new Envelope(x, x + random.nextDouble() * maxSize, y, y + random.nextDouble() * maxSize));
+		}
+		return envelopes;
+	}
+
+	private static List<String> bruteForce(List<Envelope> build, List<Envelope> probe) {
+		List<String> pairs = new ArrayList<>();
+		for (int i = 0; i < build.size(); i++) {
+			for (int j = 0; j < probe.size(); j++) {
+				if (build.get(i).intersects(probe.get(j))) {
+					pairs.add(i + " " + j);
+				}
+			}
+		}
+		Collections.sort(pairs);
+		return pairs;
+	}
+
+	@Test
+	public void testEqualsBruteForce() {
+		Random random = new Random(42);
+		List<Envelope> build = createEnvelopes(random, 2000, 5);
+		List<Envelope> probe = createEnvelopes(random, 3000, 20);
+		List<Integer> buildIds = new ArrayList<>();
+		List<Integer> probeIds = new ArrayList<>();
+		for (int i = 0; i < build.size(); i++) {
+			buildIds.add(i);
+		}
+		for (int i = 0; i < probe.size(); i++) {
+			probeIds.add(i);
+		}
+		PartitionedSpatialJoin<Integer, Integer, String> join = new PartitionedSpatialJoin<>(4, 256);
+		List<String> pairs = join.join(buildIds, build::get, probeIds, probe::get, (i, j) -> i + " " + j);
+		Collections.sort(pairs);
+		//each pair once, although large envelopes fall into several cells
+		assertEquals(bruteForce(build, probe), pairs);
+		SpatialJoinStatistics statistics = join.getStatistics();
+		assertEquals(pairs.size(), statistics.getResults());
+		assertTrue(statistics.getPartitions() >= 16);
+		assertTrue(statistics.getReplication() > 1);
+		assertTrue(statistics.getSkew() >= 1);
+	}
+
+	@Test
+	public void testRefineAndDistance() {
+		Random random = new Random(7);
+		List<Envelope> build = createEnvelopes(random, 500, 0);
+		List<Envelope> probe = createEnvelopes(random, 500, 0);
+		PartitionedSpatialJoin<Envelope, Envelope, Envelope> join = new PartitionedSpatialJoin<>(2, 64);
+		List<Envelope> results = join.join(build, envelope -> envelope, probe, envelope -> {
+			Envelope window = new Envelope(envelope);
+			window.expandBy(2);
+			return window;
+		}, (point, other) -> point.distance(other) <= 2 ? point : null);
+		int expected = 0;
+		for (Envelope point : build) {
+			for (Envelope other : probe) {
+				if (point.distance(other) <= 2) {
+					expected++;
+				}
+			}
+		}
+		assertEquals(expected, results.size());
+		assertTrue(join.getStatistics().getCandidates() >= expected);
+	}
+
+	@Test
+	public void testEmpty() {
+		PartitionedSpatialJoin<Envelope, Envelope, Envelope> join = new PartitionedSpatialJoin<>();
+		assertTrue(join.join(new ArrayList<>(), envelope -> envelope, Collections.singletonList(new Envelope(0, 1, 0, 1)), envelope -> envelope, (a, b) -> a).isEmpty());
+		assertEquals(0, join.getStatistics().getJoinedPartitions());
+	}
+
+	@Test
+	public void testChangeParallelism() throws InterruptedException {
+		int parallelism = PartitionedSpatialJoin.getDefaultParallelism();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ForkJoinTask<Integer> running = PartitionedSpatialJoin.submit(() -> {
+			started.countDown();
+			release.await();
+			return 1;
+		});
+		started.await();
+		try {
+			//a task on the replaced pool still completes
+			PartitionedSpatialJoin.setDefaultParallelism(parallelism + 1);
+			assertEquals(2, (int) PartitionedSpatialJoin.submit(() -> 2).join());
+			release.countDown();
+			assertEquals(1, (int) running.join());
+			assertEquals(3, PartitionedSpatialJoin.map(Arrays.asList(1, 2, 3), i -> i, parallelism + 1).size());
+		} finally {
+			release.countDown();
+			PartitionedSpatialJoin.setDefaultParallelism(parallelism);
+		}
+	}
+
+}
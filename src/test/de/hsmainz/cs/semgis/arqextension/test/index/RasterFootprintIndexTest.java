@@ -0,0 +1,143 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.geotoolkit.coverage.wkb.WKBRasterConstants;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprint;
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprintIndex;
+import de.hsmainz.cs.semgis.arqextension.index.RasterFootprintRegistry;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.DFullyWithin;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.GreaterIntersects;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.NotSameAlignmentReason;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.RasterIntersection;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.SameAlignment;
+import de.hsmainz.cs.semgis.arqextension.raster.relation.ValueIntersects;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+
+public class RasterFootprintIndexTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final int WIDTH = 4;
+
+	private static final int HEIGHT = 3;
+
+	/**
+	 * One band raster of WIDTH x HEIGHT pixels without SRID.
+	 */
+	private static String createRaster(double upperLeftX, double upperLeftY, double scaleX, double scaleY) {
+		ByteBuffer buffer = ByteBuffer.allocate(WKBRasterHeader.HEADER_SIZE + 1 + 4 + WIDTH * HEIGHT * 4).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put((byte) 1).putShort((short) 0).putShort((short) 1);
+		buffer.putDouble(scaleX).putDouble(scaleY).putDouble(upperLeftX).putDouble(upperLeftY).putDouble(0).putDouble(0);
+		buffer.putInt(0).putShort((short) WIDTH).putShort((short) HEIGHT);
+		buffer.put((byte) (WKBRasterConstants.PT_32BF | WKBRasterConstants.BANDTYPE_FLAG_HASNODATA)).putFloat(-9);
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			buffer.putFloat(i);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : buffer.array()) {
+			hex.append(String.format("%02X", b));
+		}
+		return hex.toString();
+	}
+
+	private static NodeValue createLiteral(double upperLeftX, double upperLeftY, double scaleX, double scaleY) {
+		return NodeValue.makeNode(createRaster(upperLeftX, upperLeftY, scaleX, scaleY), HexWKBRastDatatype.INSTANCE);
+	}
+
+	@Test
+	public void testFootprint() {
+		CoverageWrapper raster = HexWKBRastDatatype.INSTANCE.read(createRaster(100, 200, 2, -3));
+		RasterFootprint footprint = RasterFootprint.of(raster);
+		assertEquals(WIDTH, footprint.getWidth());
+		assertEquals(HEIGHT, footprint.getHeight());
+		assertEquals(1, footprint.getNumBands());
+		assertEquals(2, footprint.getPixelWidth(), 0);
+		assertEquals(3, footprint.getPixelHeight(), 0);
+		//pixel centers are georeferenced, the cells extend half a pixel
+		assertEquals(new Envelope(99, 107, 192.5, 201.5), footprint.getEnvelope());
+		assertFalse(raster.isCoverageLoaded());
+	}
+
+	@Test
+	public void testAlignment() {
+		NodeValue raster = createLiteral(100, 200, 2, -3);
+		SameAlignment sameAlignment = new SameAlignment();
+		NotSameAlignmentReason reason = new NotSameAlignmentReason();
+		assertEquals(NodeValue.TRUE, sameAlignment.exec(raster, createLiteral(104, 194, 2, -3)));
+		assertEquals(NodeValue.TRUE, sameAlignment.exec(raster, createLiteral(-2, 500, 2, -3)));
+		assertEquals(NodeValue.FALSE, sameAlignment.exec(raster, createLiteral(101, 200, 2, -3)));
+		assertEquals("The rasters are aligned", reason.exec(raster, createLiteral(104, 194, 2, -3)).getString());
+		assertEquals("The rasters are not aligned", reason.exec(raster, createLiteral(100, 201, 2, -3)).getString());
+		assertEquals("The rasters have different scales on the X axis", reason.exec(raster, createLiteral(100, 200, 1, -3)).getString());
+	}
+
+	@Test
+	public void testRelationsOfFootprints() {
+		NodeValue raster = createLiteral(100, 200, 2, -3);
+		NodeValue overlapping = createLiteral(104, 194, 2, -3);
+		NodeValue disjoint = createLiteral(-100, 500, 2, -3);
+		//disjoint footprints are answered without cropping the rasters
+		assertEquals(NodeValue.FALSE, new ValueIntersects().exec(raster, disjoint, NodeValue.makeInteger(0), NodeValue.makeDouble(1)));
+		assertEquals(NodeValue.FALSE, new GreaterIntersects().exec(disjoint, raster, NodeValue.makeInteger(0), NodeValue.makeDouble(1)));
+		//the same footprint returns the literal requested as it is
+		NodeValue same = createLiteral(100, 200, 2, -3);
+		assertEquals(raster, new RasterIntersection().exec(raster, same, NodeValue.FALSE));
+		assertEquals(same, new RasterIntersection().exec(raster, same, NodeValue.TRUE));
+		//the farthest corners of the footprints are (99 201.5) and (111 186.5)
+		assertEquals(NodeValue.TRUE, new DFullyWithin().exec(raster, overlapping, NodeValue.makeDouble(19.21)));
+		assertEquals(NodeValue.FALSE, new DFullyWithin().exec(raster, overlapping, NodeValue.makeDouble(19.2)));
+	}
+
+	@Test
+	public void testIndex() {
+		Graph graph = GraphFactory.createDefaultGraph();
+		Node predicate = NodeFactory.createURI(NS + "raster");
+		Set<Node> tiles = new HashSet<>();
+		//10 x 10 tiles of 4 x 3 cells
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 10; j++) {
+				Node literal = createLiteral(i * WIDTH, j * HEIGHT, 1, -1).asNode();
+				graph.add(Triple.create(NodeFactory.createURI(NS + "tile" + i + "_" + j), predicate, literal));
+				tiles.add(literal);
+			}
+		}
+		RasterFootprintIndex index = RasterFootprintRegistry.build(graph);
+		assertEquals(100, index.size());
+		Envelope region = new Envelope(10, 20, 10, 20);
+		Set<Node> expected = new HashSet<>();
+		for (Node tile : tiles) {
+			if (index.get(tile).getEnvelope().intersects(region)) {
+				expected.add(tile);
+			}
+		}
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, new HashSet<>(index.query(region)));
+		Node tile = tiles.iterator().next();
+		assertNotNull(RasterFootprintRegistry.find(graph, tile));
+		assertTrue(RasterFootprintRegistry.contains(graph));
+		graph.add(Triple.create(NodeFactory.createURI(NS + "other"), predicate, createLiteral(0, 0, 1, -1).asNode()));
+		assertNull(RasterFootprintRegistry.find(graph, tile));
+	}
+
+}
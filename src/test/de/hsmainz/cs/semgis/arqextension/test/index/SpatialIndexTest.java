@@ -0,0 +1,185 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.index.MappedSpatialIndex;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndex;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexItem;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialIndexRegistry;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Geo;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Unit_URI;
+
+public class SpatialIndexTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator() + "PREFIX geo: <http://www.opengis.net/ont/geosparql#>"
+			+ System.lineSeparator();
+
+	private static Model createModel() {
+		Model model = ModelFactory.createDefaultModel();
+		addFeature(model, "a", "POINT(1 1)");
+		addFeature(model, "b", "POINT(5 5)");
+		addFeature(model, "c", "LINESTRING(0 10, 10 10)");
+		addFeature(model, "d", "POLYGON((20 20, 30 20, 30 30, 20 30, 20 20))");
+		addFeature(model, "e", "POINT EMPTY");
+		return model;
+	}
+
+	private static void addFeature(Model model, String name, String wkt) {
+		Resource feature = model.createResource(NS + name);
+		Resource geometry = model.createResource(NS + name + "Geom");
+		feature.addProperty(Geo.HAS_GEOMETRY_PROP, geometry);
+		geometry.addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(wkt, WKTDatatype.INSTANCE));
+	}
+
+	private static Set<String> subjects(List<SpatialIndexItem> items) {
+		Set<String> subjects = new HashSet<>();
+		for (SpatialIndexItem item : items) {
+			subjects.add(item.getSubject().getURI());
+		}
+		return subjects;
+	}
+
+	private static Set<String> select(Model model, String query) {
+		Set<String> features = new HashSet<>();
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, model)) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				features.add(rs.next().getResource("feature").getURI());
+			}
+		}
+		return features;
+	}
+
+	@Test
+	public void testBuild() {
+		SpatialIndex index = SpatialIndex.build(createModel().getGraph());
+		//four non-empty literals, each indexed for its geometry and its feature
+		assertEquals(8, index.size());
+		Set<String> found = subjects(index.query(new Envelope(0, 6, 0, 6)));
+		assertTrue(found.contains(NS + "a"));
+		assertTrue(found.contains(NS + "bGeom"));
+		assertFalse(found.contains(NS + "d"));
+	}
+
+	@Test
+	public void testIntersectsBox() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		Set<String> features = select(model, "SELECT ?feature WHERE { ?feature geo:hasGeometry ?g . ?feature geo2:intersectsBox (0 0 6 10) }");
+		Set<String> expected = new HashSet<>();
+		expected.add(NS + "a");
+		expected.add(NS + "b");
+		expected.add(NS + "c");
+		assertEquals(expected, features);
+	}
+
+	@Test
+	public void testWithinDistance() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		String query = "SELECT ?feature WHERE { ?feature geo:hasGeometry ?g . "
+				+ "?feature geo2:withinDistance (\"POINT(1 1.001)\"^^geo:wktLiteral 500) }";
+		Set<String> expected = new HashSet<>();
+		expected.add(NS + "a");
+		assertEquals(expected, select(model, query));
+	}
+
+	@Test
+	public void testNearest() throws Exception {
+		SpatialIndex index = SpatialIndex.build(createModel().getGraph());
+		GeometryWrapper origin = GeometryWrapper.extract("POINT(0 0)", WKTDatatype.URI);
+		List<SpatialIndexItem> items = index.nearest(origin, 2, Double.POSITIVE_INFINITY, Unit_URI.METRE_URL);
+		//two literals, each found for its geometry and its feature
+		assertEquals(4, items.size());
+		assertTrue(subjects(items.subList(0, 2)).contains(NS + "a"));
+		assertTrue(subjects(items.subList(2, 4)).contains(NS + "b"));
+	}
+
+	@Test
+	public void testNear() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		String query = "SELECT ?feature WHERE { ?feature geo:hasGeometry ?g . "
+				+ "?feature geo2:near (\"POINT(0 0)\"^^geo:wktLiteral 2) }";
+		Set<String> expected = new HashSet<>();
+		expected.add(NS + "a");
+		expected.add(NS + "b");
+		assertEquals(expected, select(model, query));
+		//a is about 157 km away, b about 786 km
+		query = "SELECT ?feature WHERE { ?feature geo:hasGeometry ?g . "
+				+ "?feature geo2:near (\"POINT(0 0)\"^^geo:wktLiteral 2 200000) }";
+		expected.remove(NS + "b");
+		assertEquals(expected, select(model, query));
+	}
+
+	@Test
+	public void testInvalidation() {
+		Model model = createModel();
+		SpatialIndex index = SpatialIndexRegistry.build(model.getGraph());
+		assertEquals(index, SpatialIndexRegistry.get(model.getGraph()));
+		addFeature(model, "f", "POINT(2 2)");
+		assertFalse(SpatialIndexRegistry.contains(model.getGraph()));
+		assertEquals(10, SpatialIndexRegistry.get(model.getGraph()).size());
+	}
+
+	@Test
+	public void testMappedIndex() throws Exception {
+		File source = File.createTempFile("spatialindex", ".ttl");
+		File file = new File(source.getPath() + SpatialIndexRegistry.INDEX_FILE_SUFFIX);
+		try {
+			try (OutputStream out = new FileOutputStream(source)) {
+				createModel().write(out, "TTL");
+			}
+			Model model = ModelFactory.createDefaultModel();
+			model.read(source.toURI().toString(), "TTL");
+			SpatialIndex built = SpatialIndexRegistry.load(model.getGraph(), source);
+			assertFalse(built instanceof MappedSpatialIndex);
+			assertTrue(file.isFile());
+			SpatialIndexRegistry.clear();
+			SpatialIndex mapped = SpatialIndexRegistry.load(model.getGraph(), source);
+			assertTrue(mapped instanceof MappedSpatialIndex);
+			assertEquals(built.size(), mapped.size());
+			Envelope envelope = new Envelope(0, 6, 0, 6);
+			assertEquals(subjects(built.query(envelope)), subjects(mapped.query(envelope)));
+			GeometryWrapper point = GeometryWrapper.extract("POINT(4 4)", WKTDatatype.URI);
+			assertEquals(subjects(built.nearest(point, 2, Double.POSITIVE_INFINITY, Unit_URI.METRE_URL)),
+					subjects(mapped.nearest(point, 2, Double.POSITIVE_INFINITY, Unit_URI.METRE_URL)));
+			//a changed source is indexed again
+			try (OutputStream out = new FileOutputStream(source, true)) {
+				out.write("<http://example.org/x> <http://example.org/p> \"x\" .".getBytes(StandardCharsets.UTF_8));
+			}
+			SpatialIndexRegistry.clear();
+			assertFalse(SpatialIndexRegistry.load(model.getGraph(), source) instanceof MappedSpatialIndex);
+		} finally {
+			SpatialIndexRegistry.clear();
+			file.delete();
+			source.delete();
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.index.OpSpatialJoin;
+import de.hsmainz.cs.semgis.arqextension.index.SpatialJoinTransform;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Geo;
+
+public class SpatialJoinTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator() + "PREFIX geo: <http://www.opengis.net/ont/geosparql#>"
+			+ System.lineSeparator();
+
+	private static final String PATTERN = "?f1 geo:hasGeometry ?g1 . ?g1 geo:asWKT ?a . ?f2 geo:hasGeometry ?g2 . ?g2 geo:asWKT ?b . ";
+
+	private static Model createModel() {
+		Model model = ModelFactory.createDefaultModel();
+		for (int x = 0; x < 6; x++) {
+			for (int y = 0; y < 6; y++) {
+				addFeature(model, "p" + x + "_" + y, "POINT(" + (x * 2) + " " + (y * 2) + ")");
+			}
+		}
+		addFeature(model, "square", "POLYGON((1 1, 5 1, 5 5, 1 5, 1 1))");
+		addFeature(model, "line", "LINESTRING(0 9, 10 9)");
+		addFeature(model, "empty", "POINT EMPTY");
+		return model;
+	}
+
+	private static void addFeature(Model model, String name, String wkt) {
+		Resource feature = model.createResource(NS + name);
+		Resource geometry = model.createResource(NS + name + "Geom");
+		feature.addProperty(Geo.HAS_GEOMETRY_PROP, geometry);
+		geometry.addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(wkt, WKTDatatype.INSTANCE));
+	}
+
+	private static List<String> select(Model model, String filter, boolean isSpatialJoin) {
+		return select(model, filter, isSpatialJoin, 1);
+	}
+
+	private static List<String> select(Model model, String filter, boolean isSpatialJoin, int parallelism) {
+		List<String> pairs = new ArrayList<>();
+		String query = QUERY_PREFIX + "SELECT ?f1 ?f2 WHERE { " + PATTERN + "FILTER(" + filter + ") }";
+		try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
+			qe.getContext().set(SpatialJoinTransform.SPATIAL_JOIN, isSpatialJoin);
+			qe.getContext().set(SpatialJoinTransform.SPATIAL_JOIN_PARALLELISM, parallelism);
+			qe.getContext().set(SpatialJoinTransform.SPATIAL_JOIN_PARTITION_THRESHOLD, 1);
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				QuerySolution solution = rs.next();
+				pairs.add(solution.getResource("f1").getURI() + " " + solution.getResource("f2").getURI());
+			}
+		}
+		Collections.sort(pairs);
+		return pairs;
+	}
+
+	private static boolean isRewritten(String filter) {
+		Op op = Algebra.optimize(Algebra.compile(QueryFactory.create(QUERY_PREFIX + "SELECT ?f1 ?f2 WHERE { " + PATTERN + "FILTER(" + filter + ") }")));
+		return op.toString().contains("(" + OpSpatialJoin.TAG);
+	}
+
+	@Test
+	public void testRewrite() {
+		PostGISConfig.setup();
+		assertTrue(isRewritten("geo2:ST_Intersects(?a, ?b)"));
+		assertTrue(isRewritten("geo2:ST_DWithin(?a, ?b, 2)"));
+		assertTrue(isRewritten("geo2:ST_BBOXLeftOf(?b, ?a) && ?f1 != ?f2"));
+		//the distance has to be a constant
+		assertFalse(isRewritten("geo2:ST_DWithin(?a, ?b, ?a)"));
+		//both arguments on the same side
+		assertFalse(isRewritten("geo2:ST_Intersects(?a, ?a)"));
+		assertFalse(isRewritten("geo2:ST_Area(?a) > 1"));
+	}
+
+	@Test
+	public void testIntersects() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		List<String> pairs = select(model, "geo2:ST_Intersects(?a, ?b) && ?f1 != ?f2", true);
+		//the square covers the points from 2 2 to 4 4, each pair is found in both orders
+		assertEquals(8, pairs.size());
+		assertTrue(pairs.contains(NS + "square " + NS + "p1_1"));
+		assertEquals(select(model, "geo2:ST_Intersects(?a, ?b) && ?f1 != ?f2", false), pairs);
+	}
+
+	@Test
+	public void testEqualsNaivePlan() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		String[] filters = { "geo2:ST_Contains(?a, ?b)", "geo2:ST_Within(?b, ?a)", "geo2:ST_DWithin(?a, ?b, 2.5)",
+				"geo2:ST_BBOXIntersect(?a, ?b)", "geo2:ST_BBOXAbove(?b, ?a)", "geo2:ST_BBOXLeftOf(?a, ?b)",
+				"geo2:ST_BBOXOverlapsRight(?a, ?b)" };
+		for (String filter : filters) {
+			assertEquals(filter, select(model, filter, false), select(model, filter, true));
+		}
+	}
+
+	@Test
+	public void testPartitioned() {
+		PostGISConfig.setup();
+		Model model = createModel();
+		String[] filters = { "geo2:ST_Intersects(?a, ?b) && ?f1 != ?f2", "geo2:ST_Contains(?a, ?b)", "geo2:ST_DWithin(?a, ?b, 2.5)",
+				"geo2:ST_BBOXIntersect(?a, ?b)", "geo2:ST_BBOXLeftOf(?a, ?b)" };
+		for (String filter : filters) {
+			assertEquals(filter, select(model, filter, false), select(model, filter, true, 4));
+		}
+	}
+
+}
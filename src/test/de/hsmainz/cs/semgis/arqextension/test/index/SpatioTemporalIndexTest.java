@@ -0,0 +1,160 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.index.SpatioTemporalIndex;
+import de.hsmainz.cs.semgis.arqextension.index.SpatioTemporalIndexItem;
+import de.hsmainz.cs.semgis.arqextension.util.LiteralUtils;
+import de.hsmainz.cs.semgis.arqextension.util.MeasureFilter;
+import io.github.galbiston.geosparql_jena.implementation.GeometryWrapperFactory;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+import io.github.galbiston.geosparql_jena.implementation.jts.CoordinateSequenceDimensions;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomCoordinateSequence;
+import io.github.galbiston.geosparql_jena.implementation.jts.CustomGeometryFactory;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.Geo;
+import io.github.galbiston.geosparql_jena.implementation.vocabulary.SRS_URI;
+
+public class SpatioTemporalIndexTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator();
+
+	private static final int TRACKS = 200;
+
+	private static final int VERTICES = 100;
+
+	/**
+	 * Random walks with one vertex per second, each starting at its own time.
+	 */
+	private static double[][][] createTracks(Random random) {
+		double[][][] tracks = new double[TRACKS][VERTICES][];
+		for (int t = 0; t < TRACKS; t++) {
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			double time = random.nextInt(10000);
+			for (int v = 0; v < VERTICES; v++) {
+				x += random.nextDouble() - 0.5;
+				y += random.nextDouble() - 0.5;
+				tracks[t][v] = new double[] { x, y, time + v };
+			}
+		}
+		return tracks;
+	}
+
+	private static Model createModel(double[][][] tracks) {
+		Model model = ModelFactory.createDefaultModel();
+		for (int t = 0; t < tracks.length; t++) {
+			StringBuilder wkt = new StringBuilder("LINESTRING M(");
+			for (int v = 0; v < tracks[t].length; v++) {
+				wkt.append(v == 0 ? "" : ", ").append(tracks[t][v][0]).append(' ').append(tracks[t][v][1]).append(' ').append(tracks[t][v][2]);
+			}
+			wkt.append(')');
+			model.createResource(NS + "track" + t).addLiteral(Geo.AS_WKT_PROP, model.createTypedLiteral(wkt.toString(), WKTDatatype.INSTANCE));
+		}
+		return model;
+	}
+
+	private static Set<String> bruteForce(double[][][] tracks, Envelope box, double from, double to) {
+		Set<String> subjects = new HashSet<>();
+		for (int t = 0; t < tracks.length; t++) {
+			for (double[] vertex : tracks[t]) {
+				if (vertex[2] >= from && vertex[2] <= to && box.covers(vertex[0], vertex[1])) {
+					subjects.add(NS + "track" + t);
+				}
+			}
+		}
+		return subjects;
+	}
+
+	@Test
+	public void testMeasureFilter() {
+		GeometryFactory factory = CustomGeometryFactory.theInstance();
+		List<Coordinate> coordinates = new ArrayList<>();
+		for (int i = 0; i < VERTICES; i++) {
+			coordinates.add(new CoordinateXYM(i, -i, i));
+		}
+		LineString monotonic = factory.createLineString(new CustomCoordinateSequence(CoordinateSequenceDimensions.XYM, coordinates));
+		assertTrue(MeasureFilter.isMonotonic(monotonic.getCoordinateSequence()));
+		Geometry filtered = MeasureFilter.filter(monotonic, 10.5, 20, true);
+		assertEquals(10, filtered.getNumPoints());
+		assertEquals(11, ((LineString) filtered).getCoordinateSequence().getM(0), 0);
+		assertEquals(20, ((LineString) filtered).getCoordinateSequence().getM(9), 0);
+		assertTrue(Double.isNaN(MeasureFilter.filter(monotonic, 10.5, 20, false).getCoordinates()[0].getM()));
+		assertTrue(MeasureFilter.filter(monotonic, 200, 300, true).isEmpty());
+		//the filtered line is left as it is, user data included
+		assertNull(monotonic.getUserData());
+		LineString labelled = factory.createLineString(monotonic.getCoordinateSequence());
+		labelled.setUserData("track");
+		assertTrue(filtered.equalsExact(MeasureFilter.filter(labelled, 10.5, 20, true)));
+		assertEquals("track", labelled.getUserData());
+		//the same vertices when the m values are not ordered
+		Collections.swap(coordinates, 0, 50);
+		LineString unordered = factory.createLineString(new CustomCoordinateSequence(CoordinateSequenceDimensions.XYM, coordinates));
+		assertFalse(MeasureFilter.isMonotonic(unordered.getCoordinateSequence()));
+		assertTrue(filtered.equalsExact(MeasureFilter.filter(unordered, 10.5, 20, true)));
+	}
+
+	@Test
+	public void testEqualsBruteForce() throws Exception {
+		Random random = new Random(42);
+		double[][][] tracks = createTracks(random);
+		SpatioTemporalIndex index = SpatioTemporalIndex.build(createModel(tracks).getGraph());
+		assertEquals(TRACKS * ((VERTICES + SpatioTemporalIndex.VERTICES_PER_ITEM - 1) / SpatioTemporalIndex.VERTICES_PER_ITEM), index.size());
+		for (int i = 0; i < 100; i++) {
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			Envelope box = new Envelope(x, x + random.nextDouble() * 20, y, y + random.nextDouble() * 20);
+			double from = random.nextInt(10000);
+			double to = from + random.nextInt(500);
+			Set<String> subjects = new HashSet<>();
+			for (SpatioTemporalIndexItem item : index.queryWithin(GeometryWrapperFactory.createGeometry(LiteralUtils.toGeometry(box), SRS_URI.DEFAULT_WKT_CRS84, WKTDatatype.URI), from, to)) {
+				subjects.add(item.getSubject().getURI());
+			}
+			assertEquals(bruteForce(tracks, box, from, to), subjects);
+		}
+	}
+
+	@Test
+	public void testPropertyFunction() {
+		PostGISConfig.setup();
+		double[][][] tracks = createTracks(new Random(7));
+		Model model = createModel(tracks);
+		Set<String> subjects = new HashSet<>();
+		String query = "SELECT ?track WHERE { ?track geo2:inBoxDuring (20 20 60 60 2000 2500) }";
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, model)) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				subjects.add(rs.next().getResource("track").getURI());
+			}
+		}
+		assertFalse(subjects.isEmpty());
+		assertEquals(bruteForce(tracks, new Envelope(20, 60, 20, 60), 2000, 2500), subjects);
+	}
+
+}
@@ -0,0 +1,67 @@
+package de.hsmainz.cs.semgis.arqextension.test.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.galbiston.geosparql_jena.implementation.index.CacheStatistics;
+import io.github.galbiston.geosparql_jena.implementation.index.WTinyLfuCache;
+
+public class WTinyLfuCacheTest {
+
+	@Test
+	public void testComputeIfAbsentHit() {
+		WTinyLfuCache<String, String> instance = new WTinyLfuCache<>("test", -1, -1, 0, (key, value) -> 1);
+		instance.computeIfAbsent("POINT(1 2)", key -> "first");
+		String result = instance.computeIfAbsent("POINT(1 2)", key -> "second");
+		assertEquals("first", result);
+		CacheStatistics stats = instance.getStatistics();
+		assertEquals(1, stats.getHitCount());
+		assertEquals(1, stats.getMissCount());
+		assertEquals(1, stats.getLoadCount());
+	}
+
+	@Test
+	public void testWeightBound() {
+		WTinyLfuCache<Integer, String> instance = new WTinyLfuCache<>("test", -1, 1000, 0, (key, value) -> 100);
+		for (int i = 0; i < 100; i++) {
+			instance.computeIfAbsent(i, key -> "value" + key);
+		}
+		assertTrue(instance.weightedSize() <= 1000);
+		assertEquals(90, instance.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void testOversizedEntryRejected() {
+		WTinyLfuCache<Integer, String> instance = new WTinyLfuCache<>("test", -1, 1000, 0, (key, value) -> key);
+		instance.computeIfAbsent(10, key -> "small");
+		String result = instance.computeIfAbsent(5000, key -> "large");
+		assertEquals("large", result);
+		assertNull(instance.getIfPresent(5000));
+		assertNotNull(instance.getIfPresent(10));
+	}
+
+	@Test
+	public void testFrequentEntriesRetained() {
+		WTinyLfuCache<Integer, String> instance = new WTinyLfuCache<>("test", 100, -1, 0, (key, value) -> 1);
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 50; i++) {
+				instance.computeIfAbsent(i, key -> "hot");
+			}
+		}
+		for (int i = 1000; i < 5000; i++) {
+			instance.computeIfAbsent(i, key -> "cold");
+		}
+		int retained = 0;
+		for (int i = 0; i < 50; i++) {
+			if (instance.getIfPresent(i) != null) {
+				retained++;
+			}
+		}
+		assertTrue(retained >= 45);
+	}
+
+}
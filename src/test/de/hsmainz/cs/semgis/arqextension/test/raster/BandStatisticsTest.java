@@ -0,0 +1,89 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandHistogram;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandStatistics;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandView;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterStatistics;
+
+public class BandStatisticsTest {
+
+	private static BandView createBand(int width, int height) {
+		BufferedImage image=new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+		WritableRaster raster=image.getRaster();
+		for(int j=0;j<height;j++) {
+			for(int i=0;i<width;i++) {
+				raster.setSample(i, j, 0, (i*7+j*13)%1000);
+			}
+		}
+		return new PixelAccess(image).getBand(0);
+	}
+
+	@Test
+	public void testStatistics() {
+		BufferedImage image=new BufferedImage(3, 3, BufferedImage.TYPE_BYTE_GRAY);
+		WritableRaster raster=image.getRaster();
+		int value=1;
+		for(int j=0;j<3;j++) {
+			for(int i=0;i<3;i++) {
+				raster.setSample(i, j, 0, value++);
+			}
+		}
+		BandStatistics result=BandStatistics.compute(new PixelAccess(image).getBand(0), null);
+		assertEquals(9, result.getCount());
+		assertEquals(45., result.getSum(), 0.);
+		assertEquals(5., result.getMean(), 0.);
+		assertEquals(Math.sqrt(60./9), result.getStdDev(), 1e-12);
+		assertEquals(1., result.getMin(), 0.);
+		assertEquals(9., result.getMax(), 0.);
+		BandStatistics noData=BandStatistics.compute(new PixelAccess(image).getBand(0), new double[]{9, 1});
+		assertEquals(7, noData.getCount());
+		assertEquals(2, noData.getSkippedCount());
+		assertEquals(5., noData.getMean(), 0.);
+		assertEquals(8., noData.getMax(), 0.);
+	}
+
+	@Test
+	public void testParallelStatistics() {
+		BandView band=createBand(300, 500);
+		int threshold=RasterStatistics.getParallelThreshold();
+		BandStatistics sequential=BandStatistics.compute(band, null);
+		try {
+			RasterStatistics.setParallelThreshold(1000);
+			BandStatistics parallel=BandStatistics.compute(band, null);
+			assertEquals(sequential.getCount(), parallel.getCount());
+			assertEquals(sequential.getSum(), parallel.getSum(), 0.);
+			assertEquals(sequential.getMean(), parallel.getMean(), 1e-9);
+			assertEquals(sequential.getStdDev(), parallel.getStdDev(), 1e-9);
+			assertEquals(sequential.getMin(), parallel.getMin(), 0.);
+			assertEquals(sequential.getMax(), parallel.getMax(), 0.);
+		} finally {
+			RasterStatistics.setParallelThreshold(threshold);
+		}
+	}
+
+	@Test
+	public void testHistogramAndQuantile() {
+		BufferedImage image=new BufferedImage(100, 1, BufferedImage.TYPE_BYTE_GRAY);
+		for(int i=0;i<100;i++) {
+			image.getRaster().setSample(i, 0, 0, i);
+		}
+		BandHistogram histogram=BandHistogram.compute(new PixelAccess(image).getBand(0), null, 0, 99, 10);
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(10, histogram.getCount(0));
+		assertEquals(10, histogram.getCount(9));
+		RasterStatistics statistics=new RasterStatistics(null, new PixelAccess(image));
+		assertEquals(0., statistics.getQuantile(0, true, 0), 0.);
+		assertEquals(99., statistics.getQuantile(0, true, 1), 0.);
+		assertEquals(49.5, statistics.getQuantile(0, true, 0.5), 1.);
+		assertEquals(24.75, statistics.getQuantile(0, true, 0.25), 1.);
+	}
+
+}
@@ -0,0 +1,216 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferFloat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntBinaryOperator;
+
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.coverage.BufferedGridCoverage;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.util.iso.Names;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opengis.referencing.datum.PixelInCell;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodKernels;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterTiles;
+
+public class NeighbourhoodOperationTest {
+
+	private static final double CELL = 2;
+
+	private static GridGeometry createGrid(int width, int height) {
+		return new GridGeometry(new GridExtent(width, height), PixelInCell.CELL_CENTER,
+				new AffineTransform2D(CELL, 0, 0, -CELL, 0, 0), null);
+	}
+
+	private static List<SampleDimension> createDimensions(int bands) {
+		List<SampleDimension> dimensions = new ArrayList<>();
+		for (int i = 0; i < bands; i++) {
+			dimensions.add(new SampleDimension(Names.createLocalName(null, null, "Dimension " + i), 0., new ArrayList<>()));
+		}
+		return dimensions;
+	}
+
+	private static GridCoverage createDem(int width, int height, IntBinaryOperator elevation) {
+		DataBufferFloat buffer = new DataBufferFloat(width * height, 1);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				buffer.setElemFloat(y * width + x, elevation.applyAsInt(x, y));
+			}
+		}
+		return new BufferedGridCoverage(createGrid(width, height), createDimensions(1), buffer);
+	}
+
+	private static PixelAccess apply(GridCoverage coverage, NeighbourhoodOperation.Kernel kernel) {
+		return new PixelAccess(NeighbourhoodOperation.apply(coverage, new int[] {0}, kernel, DataBuffer.TYPE_FLOAT, "TEST"));
+	}
+
+	/**
+	 * Window of a pixel with the edges repeated and NaN replaced by the centre.
+	 */
+	private static double[] window(PixelAccess source, int x, int y, int radius) {
+		int span = 2 * radius + 1;
+		double centre = source.getSampleDouble(x, y, 0);
+		double[] values = new double[span * span];
+		for (int dy = -radius; dy <= radius; dy++) {
+			for (int dx = -radius; dx <= radius; dx++) {
+				int sx = Math.min(source.getWidth() - 1, Math.max(0, x + dx));
+				int sy = Math.min(source.getHeight() - 1, Math.max(0, y + dy));
+				double sample = source.getSampleDouble(sx, sy, 0);
+				values[(dy + radius) * span + dx + radius] = Double.isNaN(sample) ? centre : sample;
+			}
+		}
+		return values;
+	}
+
+	@AfterEach
+	public void reset() {
+		RasterTiles.setTileSize(RasterTiles.DEFAULT_TILE_SIZE);
+		RasterTiles.setParallelism(0);
+	}
+
+	@Test
+	public void testSlopeAndAspectOfPlanes() {
+		GridCoverage east = createDem(9, 7, (x, y) -> 3 * x);
+		double[] cellSize = NeighbourhoodOperation.getCellSize(east.getGridGeometry());
+		assertEquals(CELL, cellSize[0], 0.);
+		assertEquals(CELL, cellSize[1], 0.);
+		PixelAccess slope = apply(east, NeighbourhoodKernels.slope(CELL, CELL, 1));
+		PixelAccess aspect = apply(east, NeighbourhoodKernels.aspect(CELL, CELL));
+		GridCoverage south = createDem(9, 7, (x, y) -> 5 * y);
+		PixelAccess northAspect = apply(south, NeighbourhoodKernels.aspect(CELL, CELL));
+		PixelAccess flat = apply(createDem(9, 7, (x, y) -> 10), NeighbourhoodKernels.aspect(CELL, CELL));
+		PixelAccess shade = apply(createDem(9, 7, (x, y) -> 10), NeighbourhoodKernels.hillShade(CELL, CELL, 315, 45, 1));
+		for (int y = 1; y < 6; y++) {
+			for (int x = 1; x < 8; x++) {
+				assertEquals(Math.toDegrees(Math.atan(1.5)), slope.getSampleDouble(x, y, 0), 1e-4);
+				assertEquals(270, aspect.getSampleDouble(x, y, 0), 1e-4);
+				assertEquals(0, northAspect.getSampleDouble(x, y, 0), 1e-4);
+				assertEquals(-1, flat.getSampleDouble(x, y, 0), 0.);
+				assertEquals(255 * Math.sin(Math.toRadians(45)), shade.getSampleDouble(x, y, 0), 1e-3);
+			}
+		}
+		//the slope of the edges is computed with the edge pixels repeated
+		assertEquals(Math.toDegrees(Math.atan(0.75)), slope.getSampleDouble(0, 3, 0), 1e-4);
+	}
+
+	@Test
+	public void testHillShadeFacingLight() {
+		//rising to the east, facing west, lit from the west at the angle of the slope
+		PixelAccess shade = apply(createDem(5, 5, (x, y) -> 2 * x), NeighbourhoodKernels.hillShade(CELL, CELL, 270, 45, 1));
+		assertEquals(255, shade.getSampleDouble(2, 2, 0), 1e-3);
+		PixelAccess dark = apply(createDem(5, 5, (x, y) -> 2 * x), NeighbourhoodKernels.hillShade(CELL, CELL, 90, 45, 1));
+		assertEquals(0, dark.getSampleDouble(2, 2, 0), 1e-3);
+	}
+
+	@Test
+	public void testCurvatureOfBowl() {
+		PixelAccess curvature = apply(createDem(7, 7, (x, y) -> (x - 3) * (x - 3) + (y - 3) * (y - 3)), NeighbourhoodKernels.curvature(CELL, CELL, 1));
+		for (int y = 1; y < 6; y++) {
+			for (int x = 1; x < 6; x++) {
+				assertEquals(-400 / (CELL * CELL), curvature.getSampleDouble(x, y, 0), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testNoDataAcrossTiles() {
+		Random random = new Random(3);
+		int width = 37;
+		int height = 29;
+		DataBufferFloat buffer = new DataBufferFloat(width * height, 1);
+		for (int i = 0; i < width * height; i++) {
+			buffer.setElemFloat(i, random.nextInt(10) == 0 ? Float.NaN : random.nextFloat() * 100);
+		}
+		GridCoverage coverage = new BufferedGridCoverage(createGrid(width, height), createDimensions(1), buffer);
+		PixelAccess source = new PixelAccess(coverage);
+		RasterTiles.setTileSize(width * 4);
+		RasterTiles.setParallelism(3);
+		PixelAccess tpi = apply(coverage, NeighbourhoodKernels.topographicPositionIndex());
+		PixelAccess tri = apply(coverage, NeighbourhoodKernels.terrainRuggednessIndex());
+		PixelAccess roughness = apply(coverage, NeighbourhoodKernels.roughness());
+		PixelAccess median = apply(coverage, NeighbourhoodKernels.median(2));
+		int nan = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (Double.isNaN(source.getSampleDouble(x, y, 0))) {
+					assertTrue(Double.isNaN(tpi.getSampleDouble(x, y, 0)));
+					assertTrue(Double.isNaN(median.getSampleDouble(x, y, 0)));
+					nan++;
+					continue;
+				}
+				double[] window = window(source, x, y, 1);
+				double centre = window[4];
+				double sum = 0;
+				double differences = 0;
+				for (double value : window) {
+					sum += value;
+					differences += Math.abs(value - centre);
+				}
+				assertEquals(centre - (sum - centre) / 8, tpi.getSampleDouble(x, y, 0), 1e-4);
+				assertEquals(differences / 8, tri.getSampleDouble(x, y, 0), 1e-4);
+				double[] sorted = window.clone();
+				Arrays.sort(sorted);
+				assertEquals(sorted[8] - sorted[0], roughness.getSampleDouble(x, y, 0), 1e-4);
+				double[] large = window(source, x, y, 2);
+				Arrays.sort(large);
+				assertEquals(large[12], median.getSampleDouble(x, y, 0), 1e-4);
+			}
+		}
+		assertTrue(nan > 0);
+	}
+
+	@Test
+	public void testMinMaxFilterBands() {
+		int width = 11;
+		int height = 8;
+		DataBufferByte buffer = new DataBufferByte(width * height, 2);
+		Random random = new Random(5);
+		for (int b = 0; b < 2; b++) {
+			for (int i = 0; i < width * height; i++) {
+				buffer.setElem(b, i, random.nextInt(256));
+			}
+		}
+		GridCoverage coverage = new BufferedGridCoverage(createGrid(width, height), createDimensions(2), buffer);
+		PixelAccess source = new PixelAccess(coverage);
+		PixelAccess min = new PixelAccess(NeighbourhoodOperation.apply(coverage, new int[] {0, 1}, NeighbourhoodKernels.min(1), DataBuffer.TYPE_BYTE, "MIN"));
+		PixelAccess max = new PixelAccess(NeighbourhoodOperation.apply(coverage, new int[] {1}, NeighbourhoodKernels.max(2), DataBuffer.TYPE_BYTE, "MAX"));
+		assertEquals(2, min.getNumBands());
+		assertEquals(1, max.getNumBands());
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				for (int b = 0; b < 2; b++) {
+					int expected = 255;
+					for (int dy = -1; dy <= 1; dy++) {
+						for (int dx = -1; dx <= 1; dx++) {
+							expected = Math.min(expected, source.getSample(Math.min(width - 1, Math.max(0, x + dx)), Math.min(height - 1, Math.max(0, y + dy)), b));
+						}
+					}
+					assertEquals(expected, min.getSample(x, y, b));
+				}
+				int expected = 0;
+				for (int dy = -2; dy <= 2; dy++) {
+					for (int dx = -2; dx <= 2; dx++) {
+						expected = Math.max(expected, source.getSample(Math.min(width - 1, Math.max(0, x + dx)), Math.min(height - 1, Math.max(0, y + dy)), 1));
+					}
+				}
+				assertEquals(expected, max.getSample(x, y, 0));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Point;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.BandView;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+
+public class PixelAccessTest {
+
+	@Test
+	public void testByteBand() {
+		BufferedImage image=new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+		WritableRaster raster=image.getRaster();
+		raster.setSample(0, 0, 0, 7);
+		raster.setSample(2, 1, 0, 254);
+		PixelAccess access=new PixelAccess(image);
+		BandView band=access.getBand(0);
+		assertEquals(DataBuffer.TYPE_BYTE, band.getDataType());
+		assertSame(((DataBufferByte)raster.getDataBuffer()).getData(), band.getArray());
+		assertEquals(7, band.getInt(0, 0));
+		assertEquals(254., band.getDouble(2, 1), 0.);
+		assertEquals(0., access.getSampleDouble(1, 1, 0), 0.);
+	}
+
+	@Test
+	public void testInterleavedBands() {
+		BufferedImage image=new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+		WritableRaster raster=image.getRaster();
+		for(int j=0;j<4;j++) {
+			for(int i=0;i<4;i++) {
+				raster.setPixel(i, j, new int[]{i, j, i*j});
+			}
+		}
+		PixelAccess access=new PixelAccess(image);
+		assertEquals(3, access.getNumBands());
+		for(int j=0;j<4;j++) {
+			for(int i=0;i<4;i++) {
+				assertEquals(i, access.getSample(i, j, 0));
+				assertEquals(j, access.getSample(i, j, 1));
+				assertEquals(i*j, access.getSample(i, j, 2));
+			}
+		}
+	}
+
+	@Test
+	public void testTranslatedFloatRaster() {
+		WritableRaster parent=Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_FLOAT, 6, 5, 2), new Point(0, 0));
+		for(int j=0;j<5;j++) {
+			for(int i=0;i<6;i++) {
+				parent.setSample(i, j, 0, i+10*j+0.5f);
+				parent.setSample(i, j, 1, -i);
+			}
+		}
+		WritableRaster child=parent.createWritableChild(2, 1, 3, 3, 10, 20, null);
+		BandView band=BandView.create(child, 0);
+		BandView band2=BandView.create(child, 1);
+		double[] row=new double[3];
+		band.readRow(21, row);
+		for(int j=0;j<3;j++) {
+			for(int i=0;i<3;i++) {
+				assertEquals(child.getSampleDouble(10+i, 20+j, 0), band.getDouble(10+i, 20+j), 0.);
+				assertEquals(child.getSampleDouble(10+i, 20+j, 1), band2.getDouble(10+i, 20+j), 0.);
+			}
+			assertEquals(child.getSampleDouble(10+j, 21, 0), row[j], 0.);
+		}
+	}
+
+	@Test
+	public void testOutOfBounds() {
+		WritableRaster parent=Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_FLOAT, 6, 5, 1), new Point(0, 0));
+		//the backing array extends beyond the child on all sides
+		WritableRaster child=parent.createWritableChild(2, 1, 3, 3, 10, 20, null);
+		BandView band=BandView.create(child, 0);
+		double[] row=new double[4];
+		band.readRow(10, 22, 3, row);
+		assertThrows(IndexOutOfBoundsException.class, () -> band.getDouble(9, 20));
+		assertThrows(IndexOutOfBoundsException.class, () -> band.getDouble(13, 20));
+		assertThrows(IndexOutOfBoundsException.class, () -> band.getInt(10, 19));
+		assertThrows(IndexOutOfBoundsException.class, () -> band.getInt(10, 23));
+		assertThrows(IndexOutOfBoundsException.class, () -> band.readRow(11, 21, 3, row));
+		assertThrows(IndexOutOfBoundsException.class, () -> band.readRow(23, row));
+		BufferedImage image=new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+		assertThrows(IndexOutOfBoundsException.class, () -> new PixelAccess(image).getSampleDouble(3, 0, 0));
+	}
+
+}
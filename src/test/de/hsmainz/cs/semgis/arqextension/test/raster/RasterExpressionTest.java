@@ -0,0 +1,127 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferFloat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.coverage.BufferedGridCoverage;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.util.iso.Names;
+import org.junit.jupiter.api.Test;
+import org.opengis.referencing.datum.PixelInCell;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression.BinaryOp;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression.UnaryOp;
+
+public class RasterExpressionTest {
+
+	private static GridGeometry createGrid(int width, int height) {
+		return new GridGeometry(new GridExtent(width, height), PixelInCell.CELL_CENTER,
+				new AffineTransform2D(1, 0, 0, -1, 10, 20), null);
+	}
+
+	private static List<SampleDimension> createDimensions(int bands) {
+		List<SampleDimension> dimensions = new ArrayList<>();
+		for (int i = 0; i < bands; i++) {
+			dimensions.add(new SampleDimension(Names.createLocalName(null, null, "Dimension " + i), 0., new ArrayList<>()));
+		}
+		return dimensions;
+	}
+
+	private static GridCoverage createByteRaster(int width, int height, int bands, int factor) {
+		DataBufferByte buffer = new DataBufferByte(width * height, bands);
+		for (int b = 0; b < bands; b++) {
+			for (int i = 0; i < width * height; i++) {
+				buffer.setElem(b, i, (i * factor + b * 7) % 256);
+			}
+		}
+		return new BufferedGridCoverage(createGrid(width, height), createDimensions(bands), buffer);
+	}
+
+	private static GridCoverage createFloatRaster(int width, int height) {
+		DataBufferFloat buffer = new DataBufferFloat(width * height, 1);
+		for (int i = 0; i < width * height; i++) {
+			buffer.setElemFloat(i, i * 0.5f - 3);
+		}
+		return new BufferedGridCoverage(createGrid(width, height), createDimensions(1), buffer);
+	}
+
+	@Test
+	public void testFusedChain() {
+		GridCoverage a = createByteRaster(7, 5, 2, 3);
+		GridCoverage b = createByteRaster(7, 5, 2, 5);
+		RasterExpression sum = RasterExpression.apply(RasterExpression.of(a), RasterExpression.of(b), BinaryOp.ADD);
+		RasterExpression doubled = RasterExpression.apply(sum, UnaryOp.MULTIPLY, 2);
+		RasterExpression clamped = RasterExpression.apply(doubled, UnaryOp.CLAMP, 10, 300);
+		assertEquals(DataBuffer.TYPE_BYTE, clamped.getDataType());
+		PixelAccess result = new PixelAccess(clamped.materialise());
+		PixelAccess pa = new PixelAccess(a);
+		PixelAccess pb = new PixelAccess(b);
+		assertEquals(2, result.getNumBands());
+		for (int band = 0; band < 2; band++) {
+			for (int y = 0; y < 5; y++) {
+				for (int x = 0; x < 7; x++) {
+					double expected = Math.max(10, Math.min(300, (pa.getSample(x, y, band) + pb.getSample(x, y, band)) * 2));
+					assertEquals(Math.min(255, expected), result.getSampleDouble(x, y, band), 0.);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWidenedAndBroadcast() {
+		GridCoverage a = createByteRaster(6, 4, 3, 11);
+		GridCoverage b = createFloatRaster(5, 3);
+		RasterExpression difference = RasterExpression.apply(RasterExpression.of(a), RasterExpression.of(b), BinaryOp.SUBTRACT);
+		assertEquals(DataBuffer.TYPE_FLOAT, difference.getDataType());
+		assertEquals(5, difference.getWidth());
+		assertEquals(3, difference.getHeight());
+		assertEquals(3, difference.getNumBands());
+		PixelAccess result = new PixelAccess(difference.materialise());
+		PixelAccess pa = new PixelAccess(a);
+		PixelAccess pb = new PixelAccess(b);
+		for (int band = 0; band < 3; band++) {
+			for (int y = 0; y < 3; y++) {
+				for (int x = 0; x < 5; x++) {
+					assertEquals(pa.getSampleDouble(x, y, band) - pb.getSampleDouble(x, y, 0), result.getSampleDouble(x, y, band), 1e-6);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBandConstantsAndBitwise() {
+		GridCoverage a = createByteRaster(4, 4, 2, 17);
+		PixelAccess pa = new PixelAccess(a);
+		RasterExpression added = RasterExpression.applyToBand(RasterExpression.of(a), UnaryOp.ADD, 1, 100);
+		RasterExpression inverted = RasterExpression.apply(added, UnaryOp.NOT, 0xFF);
+		PixelAccess result = new PixelAccess(inverted.materialise());
+		PixelAccess binarized = new PixelAccess(RasterExpression.apply(RasterExpression.of(a), UnaryOp.BINARIZE, 128).materialise());
+		for (int y = 0; y < 4; y++) {
+			for (int x = 0; x < 4; x++) {
+				assertEquals(255 - pa.getSample(x, y, 0), result.getSample(x, y, 0));
+				assertEquals(~(pa.getSample(x, y, 1) + 100) & 0xFF, result.getSample(x, y, 1));
+				assertEquals(pa.getSample(x, y, 1) >= 128 ? 1 : 0, binarized.getSample(x, y, 1));
+			}
+		}
+	}
+
+	@Test
+	public void testGridGeometry() {
+		GridCoverage a = createByteRaster(4, 3, 1, 1);
+		GridCoverage result = RasterExpression.apply(RasterExpression.of(a), UnaryOp.ABS).materialise();
+		assertEquals(a.getGridGeometry().getEnvelope(), result.getGridGeometry().getEnvelope());
+		assertEquals(a.getGridGeometry().getGridToCRS(PixelInCell.CELL_CENTER), result.getGridGeometry().getGridToCRS(PixelInCell.CELL_CENTER));
+	}
+
+}
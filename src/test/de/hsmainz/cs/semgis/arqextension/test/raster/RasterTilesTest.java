@@ -0,0 +1,114 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferFloat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sis.coverage.SampleDimension;
+import org.apache.sis.coverage.grid.GridCoverage;
+import org.apache.sis.coverage.grid.GridExtent;
+import org.apache.sis.coverage.grid.GridGeometry;
+import org.apache.sis.internal.coverage.BufferedGridCoverage;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.util.iso.Names;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opengis.referencing.datum.PixelInCell;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.NeighbourhoodOperation;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.PixelAccess;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression.UnaryOp;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterTiles;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterTiles.OperatorTiming;
+
+public class RasterTilesTest {
+
+	private static GridCoverage createRaster(int width, int height) {
+		DataBufferFloat buffer = new DataBufferFloat(width * height, 1);
+		for (int i = 0; i < width * height; i++) {
+			buffer.setElemFloat(i, (i % 97) - 40.5f);
+		}
+		GridGeometry grid = new GridGeometry(new GridExtent(width, height), PixelInCell.CELL_CENTER,
+				new AffineTransform2D(1, 0, 0, -1, 0, 0), null);
+		List<SampleDimension> dimensions = new ArrayList<>();
+		dimensions.add(new SampleDimension(Names.createLocalName(null, null, "Dimension 0"), 0., new ArrayList<>()));
+		return new BufferedGridCoverage(grid, dimensions, buffer);
+	}
+
+	private static PixelAccess compute(GridCoverage raster) {
+		RasterExpression abs = RasterExpression.apply(RasterExpression.of(raster), UnaryOp.ABS);
+		return new PixelAccess(RasterExpression.apply(abs, UnaryOp.LOG).materialise());
+	}
+
+	@AfterEach
+	public void reset() {
+		RasterTiles.setTileSize(RasterTiles.DEFAULT_TILE_SIZE);
+		RasterTiles.setParallelism(0);
+		RasterTiles.resetTimings();
+	}
+
+	@Test
+	public void testTilesMatchSequential() {
+		GridCoverage raster = createRaster(301, 207);
+		RasterTiles.setParallelism(1);
+		PixelAccess sequential = compute(raster);
+		RasterTiles.setTileSize(1000);
+		RasterTiles.setParallelism(4);
+		PixelAccess tiled = compute(raster);
+		for (int y = 0; y < 207; y++) {
+			for (int x = 0; x < 301; x++) {
+				assertEquals(sequential.getSampleDouble(x, y, 0), tiled.getSampleDouble(x, y, 0), 0.);
+			}
+		}
+	}
+
+	@Test
+	public void testTimings() {
+		RasterTiles.resetTimings();
+		assertNull(RasterTiles.getTiming("LOG"));
+		RasterTiles.setTileSize(300);
+		RasterTiles.setParallelism(3);
+		compute(createRaster(100, 10));
+		compute(createRaster(100, 10));
+		OperatorTiming timing = RasterTiles.getTiming("LOG");
+		assertEquals(2, timing.getRuns());
+		assertEquals(8, timing.getTiles());
+		assertEquals(2000, timing.getPixels());
+		assertEquals(1, RasterTiles.getTimings().size());
+	}
+
+	@Test
+	public void testFailedTile() throws InterruptedException {
+		RasterTiles.setTileSize(100);
+		RasterTiles.setParallelism(4);
+		AtomicInteger rows = new AtomicInteger();
+		NeighbourhoodOperation.Kernel failing = new NeighbourhoodOperation.Kernel() {
+			@Override
+			public int getRadius() {
+				return 1;
+			}
+
+			@Override
+			public void compute(double[][] window, int start, int end, double[] out) {
+				if (rows.incrementAndGet() == 20) {
+					throw new IllegalStateException("Tile failed");
+				}
+			}
+		};
+		assertThrows(IllegalStateException.class, () -> NeighbourhoodOperation.apply(createRaster(100, 400), new int[] {0}, failing, DataBuffer.TYPE_FLOAT, "FAILING"));
+		//the tiles being computed have finished and no further tile was taken
+		int computed = rows.get();
+		Thread.sleep(50);
+		assertEquals(computed, rows.get());
+		assertTrue(computed < 100);
+	}
+
+}
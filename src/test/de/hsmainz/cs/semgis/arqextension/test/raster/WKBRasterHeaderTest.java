@@ -0,0 +1,128 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.geotoolkit.coverage.wkb.WKBRasterConstants;
+import org.geotoolkit.coverage.wkb.WKBRasterHeader;
+import org.junit.jupiter.api.Test;
+
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.RasterExpression.UnaryOp;
+import io.github.galbiston.geosparql_jena.implementation.index.SpatialWrapperWeigher;
+
+public class WKBRasterHeaderTest {
+
+	private static byte[] createRaster(ByteOrder order, int width, int height) {
+		ByteBuffer buffer=ByteBuffer.allocate(WKBRasterHeader.HEADER_SIZE+2*(1+4+width*height*4)).order(order);
+		buffer.put((byte)(order==ByteOrder.LITTLE_ENDIAN?1:0)).putShort((short)0).putShort((short)2);
+		buffer.putDouble(2).putDouble(-3).putDouble(100).putDouble(200).putDouble(0).putDouble(0);
+		buffer.putInt(4326).putShort((short)width).putShort((short)height);
+		for(int band=0;band<2;band++) {
+			buffer.put((byte)(WKBRasterConstants.PT_32BF|WKBRasterConstants.BANDTYPE_FLAG_HASNODATA)).putFloat(-9);
+			for(int i=0;i<width*height;i++) {
+				buffer.putFloat(i+band);
+			}
+		}
+		return buffer.array();
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder=new StringBuilder();
+		for(byte b:bytes) {
+			builder.append(String.format("%02X", b));
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void testReadHeader() throws IOException {
+		for(ByteOrder order:new ByteOrder[] {ByteOrder.LITTLE_ENDIAN,ByteOrder.BIG_ENDIAN}) {
+			byte[] wkb=createRaster(order, 4, 3);
+			WKBRasterHeader header=WKBRasterHeader.read(ByteBuffer.wrap(wkb));
+			assertEquals(4326, header.getSRID());
+			assertEquals(4, header.getWidth());
+			assertEquals(3, header.getHeight());
+			assertEquals(2, header.getNumBands());
+			assertEquals(2., header.getScaleX(), 0.);
+			assertEquals(200., header.getUpperLeftY(), 0.);
+			assertEquals(WKBRasterConstants.PT_32BF, header.getPixelType(1));
+			assertEquals(-9., header.getNoDataValue(0).doubleValue(), 0.);
+			assertEquals(WKBRasterHeader.HEADER_SIZE+5, header.getDataOffset(0));
+			assertEquals(WKBRasterHeader.HEADER_SIZE+5+48+5, header.getDataOffset(1));
+			assertEquals(wkb.length, header.getLength());
+			assertEquals(96, header.getDataLength());
+			assertEquals("32BF", WKBRasterConstants.getPixelTypeName(header.getPixelType(0)));
+		}
+	}
+
+	@Test
+	public void testReadHexHeader() throws IOException {
+		byte[] wkb=createRaster(ByteOrder.LITTLE_ENDIAN, 5, 2);
+		WKBRasterHeader header=WKBRasterHeader.read(toHex(wkb));
+		WKBRasterHeader bufferHeader=WKBRasterHeader.read(ByteBuffer.wrap(wkb));
+		assertEquals(bufferHeader.getDataOffset(1), header.getDataOffset(1));
+		Rectangle2D envelope=header.getEnvelope();
+		//pixel centers are georeferenced, the envelope extends half a pixel
+		assertEquals(99., envelope.getMinX(), 1e-9);
+		assertEquals(109., envelope.getMaxX(), 1e-9);
+		assertEquals(195.5, envelope.getMinY(), 1e-9);
+		assertEquals(201.5, envelope.getMaxY(), 1e-9);
+	}
+
+	@Test
+	public void testTruncatedRaster() {
+		byte[] wkb=createRaster(ByteOrder.BIG_ENDIAN, 4, 3);
+		String hex=toHex(wkb);
+		boolean failed=false;
+		try {
+			WKBRasterHeader.read(hex.substring(0, hex.length()-2));
+		} catch (IOException e) {
+			failed=true;
+		}
+		assertTrue(failed);
+	}
+
+	@Test
+	public void testLazyWrapper() {
+		String hex=toHex(createRaster(ByteOrder.LITTLE_ENDIAN, 4, 3));
+		CoverageWrapper wrapper=HexWKBRastDatatype.INSTANCE.read(hex);
+		CoverageWrapper other=HexWKBRastDatatype.INSTANCE.read(hex);
+		int hash=wrapper.hashCode();
+		assertEquals(hex, wrapper.getLexicalForm());
+		assertEquals(other, wrapper);
+		assertEquals(other.hashCode(), hash);
+		assertNotEquals(HexWKBRastDatatype.INSTANCE.read(toHex(createRaster(ByteOrder.BIG_ENDIAN, 4, 3))), wrapper);
+		assertEquals(4, wrapper.getWidth());
+		assertFalse(wrapper.isCoverageLoaded());
+		assertFalse(other.isCoverageLoaded());
+		assertEquals(5., wrapper.getPixelAccess().getSampleDouble(1, 1, 0), 0.);
+		assertTrue(wrapper.isCoverageLoaded());
+		assertEquals(other, wrapper);
+		assertEquals(hash, wrapper.hashCode());
+	}
+
+	@Test
+	public void testWeight() {
+		String hex=toHex(createRaster(ByteOrder.LITTLE_ENDIAN, 4, 3));
+		CoverageWrapper wrapper=HexWKBRastDatatype.INSTANCE.read(hex);
+		WKBRasterHeader header=wrapper.getRasterHeader();
+		assertEquals(header.getDataLength()+2L*header.getLength(), SpatialWrapperWeigher.weigh(wrapper));
+		wrapper.getPixelAccess();
+		//4 x 3 pixels x 2 bands x 4 bytes
+		assertEquals(96, SpatialWrapperWeigher.weigh(wrapper));
+		CoverageWrapper expression=CoverageWrapper.createCoverage(RasterExpression.apply(RasterExpression.of(wrapper.getXYGeometry()), UnaryOp.ABS), wrapper.getSrsURI(), wrapper.getRasterDatatypeURI());
+		assertEquals(96, SpatialWrapperWeigher.weigh(expression));
+		assertFalse(expression.isCoverageLoaded());
+	}
+
+}
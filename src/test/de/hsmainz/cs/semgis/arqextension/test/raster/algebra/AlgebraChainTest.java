@@ -0,0 +1,39 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster.algebra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.sparql.expr.NodeValue;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.raster.algebra.Abs;
+import de.hsmainz.cs.semgis.arqextension.raster.algebra.AddConst;
+import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+
+public class AlgebraChainTest extends SampleRasters {
+
+	@Test
+	public void testIntermediateNotMaterialised() {
+		NodeValue covLiteral = NodeValue.makeNode(wkbString4, HexWKBRastDatatype.INSTANCE);
+		NodeValue abs = new Abs().exec(covLiteral, covLiteral);
+		CoverageWrapper intermediate = CoverageWrapper.extract(abs);
+		NodeValue result = new AddConst().exec(abs, NodeValue.makeInteger(1), NodeValue.makeInteger(10));
+		CoverageWrapper wrapper = CoverageWrapper.extract(result);
+		//the value is hashed and compared without computing it
+		abs.asNode().hashCode();
+		assertTrue(intermediate.equals(new CoverageWrapper(intermediate)));
+		assertFalse(intermediate.equals(wrapper));
+		assertNotNull(intermediate.getExpression());
+		assertFalse(intermediate.isCoverageLoaded());
+		assertFalse(wrapper.isCoverageLoaded());
+		CoverageWrapper source = CoverageWrapper.extract(covLiteral);
+		assertEquals(source.getPixelAccess().getSampleDouble(1, 2, 1) + 10, wrapper.getPixelAccess().getSampleDouble(1, 2, 1), 0.);
+		assertEquals(source.getPixelAccess().getSampleDouble(1, 2, 0), wrapper.getPixelAccess().getSampleDouble(1, 2, 0), 0.);
+		assertFalse(intermediate.isCoverageLoaded());
+	}
+
+}
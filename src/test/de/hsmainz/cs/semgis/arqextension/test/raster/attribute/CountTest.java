@@ -0,0 +1,31 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster.attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Count;
+import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+
+public class CountTest extends SampleRasters {
+
+	@Test
+	public void testCount() {
+		NodeValue covLiteral = NodeValue.makeNode(wkbString4, HexWKBRastDatatype.INSTANCE);
+		CoverageWrapper wrapper = CoverageWrapper.extract(covLiteral);
+		int pixels = wrapper.getPixelAccess().getWidth() * wrapper.getPixelAccess().getHeight();
+		NodeValue result = new Count().exec(Arrays.asList(covLiteral, NodeValue.makeInteger(0), NodeValue.FALSE));
+		assertEquals(NodeValue.makeInteger(pixels), result);
+		int bands = wrapper.getNumBands();
+		assertThrows(ExprEvalException.class, () -> new Count().exec(Arrays.asList(covLiteral, NodeValue.makeInteger(bands))));
+		assertThrows(ExprEvalException.class, () -> new Count().exec(Arrays.asList(covLiteral, NodeValue.makeInteger(-1))));
+	}
+
+}
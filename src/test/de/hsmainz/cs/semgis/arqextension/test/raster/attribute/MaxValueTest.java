@@ -1,12 +1,15 @@
 package de.hsmainz.cs.semgis.arqextension.test.raster.attribute;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import org.apache.jena.sparql.expr.ExprEvalException;
 import org.apache.jena.sparql.expr.NodeValue;
 import org.junit.jupiter.api.Test;
 
 import de.hsmainz.cs.semgis.arqextension.raster.attribute.MaxValue;
 import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
 import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
 
 public class MaxValueTest extends SampleRasters {
@@ -18,6 +21,8 @@ public class MaxValueTest extends SampleRasters {
         NodeValue expResult = NodeValue.makeDouble(254);
         NodeValue result = instance.exec(covLiteral,NodeValue.makeInteger(0));
         assertEquals(expResult, result);
+        int bands = CoverageWrapper.extract(covLiteral).getNumBands();
+        assertThrows(ExprEvalException.class, () -> instance.exec(covLiteral,NodeValue.makeInteger(bands)));
 	}
 
 }
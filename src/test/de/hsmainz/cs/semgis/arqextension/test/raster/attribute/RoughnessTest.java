@@ -0,0 +1,33 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster.attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Roughness;
+import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+
+public class RoughnessTest extends SampleRasters {
+
+	@Test
+	public void testRoughness() {
+		NodeValue covLiteral = NodeValue.makeNode(wkbString4, HexWKBRastDatatype.INSTANCE);
+		CoverageWrapper wrapper = CoverageWrapper.extract(new Roughness().exec(covLiteral, NodeValue.makeInteger(0)));
+		assertEquals(1, wrapper.getNumBands());
+		for (int y = 0; y < wrapper.getPixelAccess().getHeight(); y++) {
+			for (int x = 0; x < wrapper.getPixelAccess().getWidth(); x++) {
+				double roughness = wrapper.getPixelAccess().getSampleDouble(x, y, 0);
+				assertTrue(Double.isNaN(roughness) || roughness >= 0);
+			}
+		}
+		int bands = CoverageWrapper.extract(covLiteral).getNumBands();
+		assertThrows(ExprEvalException.class, () -> new Roughness().exec(covLiteral, NodeValue.makeInteger(bands)));
+	}
+
+}
@@ -0,0 +1,35 @@
+package de.hsmainz.cs.semgis.arqextension.test.raster.attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.raster.attribute.Slope;
+import de.hsmainz.cs.semgis.arqextension.test.util.SampleRasters;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.CoverageWrapper;
+import io.github.galbiston.geosparql_jena.implementation.datatype.raster.HexWKBRastDatatype;
+
+public class SlopeTest extends SampleRasters {
+
+	@Test
+	public void testSlope() {
+		NodeValue covLiteral = NodeValue.makeNode(wkbString4, HexWKBRastDatatype.INSTANCE);
+		NodeValue result = new Slope().exec(covLiteral, NodeValue.makeInteger(0), NodeValue.makeDouble(1));
+		CoverageWrapper source = CoverageWrapper.extract(covLiteral);
+		CoverageWrapper wrapper = CoverageWrapper.extract(result);
+		assertEquals(1, wrapper.getNumBands());
+		assertEquals(source.getPixelAccess().getWidth(), wrapper.getPixelAccess().getWidth());
+	}
+
+	@Test
+	public void testBandOutOfRange() {
+		NodeValue covLiteral = NodeValue.makeNode(wkbString4, HexWKBRastDatatype.INSTANCE);
+		int bands = CoverageWrapper.extract(covLiteral).getNumBands();
+		assertThrows(ExprEvalException.class, () -> new Slope().exec(covLiteral, NodeValue.makeInteger(bands), NodeValue.makeDouble(1)));
+		assertThrows(ExprEvalException.class, () -> new Slope().exec(covLiteral, NodeValue.makeInteger(-1), NodeValue.makeDouble(1)));
+	}
+
+}
@@ -0,0 +1,119 @@
+package de.hsmainz.cs.semgis.arqextension.test.temporal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.PostGISConfig;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalIndex;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalIndexItem;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalIndexRegistry;
+import de.hsmainz.cs.semgis.arqextension.temporal.TemporalRelation;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRange;
+import io.github.galbiston.geosparql_jena.implementation.datatype.temporal.TemporalRangeDatatype;
+
+public class TemporalIndexTest {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String QUERY_PREFIX = "PREFIX geo2: <http://www.opengis.net/ont/geosparqlplus#>"
+			+ System.lineSeparator() + "PREFIX ex: <" + NS + ">"
+			+ System.lineSeparator();
+
+	private static List<TemporalIndexItem> createItems(Random random, int count) {
+		List<TemporalIndexItem> items = new ArrayList<>();
+		Model model = createModel(random, count);
+		TemporalIndex index = TemporalIndex.build(model.getGraph());
+		//every range overlaps the whole time line
+		items.addAll(index.query(TemporalRelation.OVERLAPS, new TemporalRange(Long.MIN_VALUE, Long.MAX_VALUE)));
+		return items;
+	}
+
+	private static Model createModel(Random random, int count) {
+		Model model = ModelFactory.createDefaultModel();
+		Property validTime = model.createProperty(NS + "validTime");
+		for (int i = 0; i < count; i++) {
+			//seconds on a small scale so that ends coincide
+			long from = random.nextInt(1000);
+			long to = from + random.nextInt(50);
+			model.createResource(NS + "e" + i).addLiteral(validTime, model.createTypedLiteral(from + ";" + to, TemporalRangeDatatype.INSTANCE));
+		}
+		return model;
+	}
+
+	private static Set<String> select(Model model, String query) {
+		Set<String> events = new HashSet<>();
+		try (QueryExecution qe = QueryExecutionFactory.create(QUERY_PREFIX + query, model)) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				events.add(rs.next().getResource("event").getURI());
+			}
+		}
+		return events;
+	}
+
+	@Test
+	public void testParse() {
+		TemporalRange seconds = (TemporalRange) TemporalRangeDatatype.INSTANCE.parse("1577836800;1577923200");
+		TemporalRange dateTimes = (TemporalRange) TemporalRangeDatatype.INSTANCE.parse("2020-01-01T00:00:00Z;2020-01-02T00:00:00Z");
+		TemporalRange dates = (TemporalRange) TemporalRangeDatatype.INSTANCE.parse("2020-01-01;2020-01-02");
+		assertEquals(seconds, dateTimes);
+		assertEquals(seconds, dates);
+		assertEquals("1577836800;1577923200", TemporalRangeDatatype.INSTANCE.unparse(dates));
+		assertTrue(!TemporalRangeDatatype.INSTANCE.isValid("2020-01-01"));
+	}
+
+	@Test
+	public void testEqualsBruteForce() {
+		Random random = new Random(42);
+		List<TemporalIndexItem> items = createItems(random, 2000);
+		assertEquals(2000, items.size());
+		TemporalIndex index = new TemporalIndex(items);
+		for (int i = 0; i < 50; i++) {
+			long from = random.nextInt(1000) * 1000L;
+			TemporalRange range = new TemporalRange(from, from + random.nextInt(50) * 1000L);
+			for (TemporalRelation relation : TemporalRelation.values()) {
+				Set<TemporalIndexItem> expected = new HashSet<>();
+				for (TemporalIndexItem item : items) {
+					if (relation.test(item.getRange(), range)) {
+						expected.add(item);
+					}
+				}
+				assertEquals(relation.name(), expected, new HashSet<>(index.query(relation, range)));
+			}
+		}
+	}
+
+	@Test
+	public void testPropertyFunction() {
+		PostGISConfig.setup();
+		Model model = createModel(new Random(7), 300);
+		String range = "\"100;120\"^^geo2:TemporalRange";
+		for (TemporalRelation relation : new TemporalRelation[] { TemporalRelation.OVERLAPS, TemporalRelation.BEFORE, TemporalRelation.DURING }) {
+			String function = relation == TemporalRelation.OVERLAPS ? "ST_PeriodOverlaps" : relation == TemporalRelation.BEFORE ? "ST_Before" : "ST_During";
+			Set<String> filtered = select(model, "SELECT ?event WHERE { ?event ex:validTime ?time . FILTER(geo2:" + function + "(?time, " + range + ")) }");
+			Set<String> indexed = select(model, "SELECT ?event WHERE { ?event <" + relation.getPropertyFunction().getURI() + "> (" + range + ") }");
+			assertEquals(relation.name(), filtered, indexed);
+		}
+		assertTrue(TemporalIndexRegistry.contains(model.getGraph()));
+		model.getGraph().add(Triple.create(NodeFactory.createURI(NS + "x"), NodeFactory.createURI(NS + "validTime"), NodeFactory.createLiteral("110;111", TemporalRangeDatatype.INSTANCE)));
+		assertTrue(!TemporalIndexRegistry.contains(model.getGraph()));
+		assertTrue(select(model, "SELECT ?event WHERE { ?event geo2:temporalDuring (\"100;120\"^^geo2:TemporalRange) }").contains(NS + "x"));
+	}
+
+}
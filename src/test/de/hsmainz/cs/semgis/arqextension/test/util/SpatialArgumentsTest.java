@@ -0,0 +1,79 @@
+package de.hsmainz.cs.semgis.arqextension.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.Context;
+import org.junit.jupiter.api.Test;
+
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgument;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArgumentFunctionBase2;
+import de.hsmainz.cs.semgis.arqextension.util.SpatialArguments;
+import io.github.galbiston.geosparql_jena.implementation.datatype.WKTDatatype;
+
+public class SpatialArgumentsTest {
+
+	/**
+	 * Records the resolved arguments of each call.
+	 */
+	private static class ResolvingFunction extends SpatialArgumentFunctionBase2 {
+
+		private final List<SpatialArgument> arguments = new ArrayList<>();
+
+		@Override
+		public NodeValue exec(NodeValue v1, NodeValue v2) {
+			arguments.add(SpatialArguments.resolve(v1));
+			arguments.add(SpatialArguments.resolve(v2));
+			return NodeValue.TRUE;
+		}
+
+	}
+
+	private static ExecutionContext createContext(Graph graph) {
+		return new ExecutionContext(new Context(), graph, DatasetGraphFactory.create(graph), null);
+	}
+
+	@Test
+	public void testParsedOncePerRow() {
+		Graph graph = GraphFactory.createDefaultGraph();
+		ExecutionContext env = createContext(graph);
+		Var var = Var.alloc("geom");
+		Node node = NodeValue.makeNode("POINT(1 2)", WKTDatatype.INSTANCE).asNode();
+		Binding row = BindingFactory.binding(var, node);
+		ExprList args = new ExprList();
+		args.add(new ExprVar(var));
+		args.add(new ExprVar(var));
+		ResolvingFunction function = new ResolvingFunction();
+		//the same argument twice in one call and in two filters of the row
+		function.exec(row, args, null, env);
+		function.exec(row, args, null, env);
+		assertEquals(4, function.arguments.size());
+		SpatialArgument first = function.arguments.get(0);
+		for (SpatialArgument argument : function.arguments) {
+			assertSame(first, argument);
+		}
+		assertSame(first.getGeometryWrapper(), function.arguments.get(3).getGeometryWrapper());
+		//a new row, another query execution and no function call resolve again
+		function.exec(BindingFactory.binding(var, node), args, null, env);
+		assertNotSame(first, function.arguments.get(4));
+		function.exec(row, args, null, createContext(graph));
+		assertNotSame(first, function.arguments.get(6));
+		assertNotSame(SpatialArguments.resolve(NodeValue.makeNode(node)), SpatialArguments.resolve(NodeValue.makeNode(node)));
+	}
+
+}